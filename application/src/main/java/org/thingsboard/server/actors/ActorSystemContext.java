@@ -483,6 +483,26 @@ public class ActorSystemContext {
     @Getter
     private long ruleNodeErrorPersistFrequency;
 
+    @Value("${actors.rule.node.script_memoization.enabled:false}")
+    @Getter
+    private boolean scriptMemoizationEnabled;
+
+    @Value("${actors.rule.node.script_memoization.max_size:1000}")
+    @Getter
+    private int scriptMemoizationMaxSize;
+
+    @Value("${actors.rule.node.script_memoization.ttl_ms:60000}")
+    @Getter
+    private long scriptMemoizationTtlMs;
+
+    @Value("${actors.rule.node.script_memoization.min_requests:1000}")
+    @Getter
+    private int scriptMemoizationMinRequests;
+
+    @Value("${actors.rule.node.script_memoization.min_hit_rate:0.5}")
+    @Getter
+    private double scriptMemoizationMinHitRate;
+
     @Value("${actors.statistics.enabled:true}")
     @Getter
     private boolean statisticsEnabled;
@@ -510,9 +530,23 @@ public class ActorSystemContext {
     @Scheduled(fixedDelayString = "${actors.statistics.js_print_interval_ms}")
     public void printStats() {
         if (statisticsEnabled) {
-            if (jsInvokeStats.getRequests() > 0 || jsInvokeStats.getResponses() > 0 || jsInvokeStats.getFailures() > 0) {
+            boolean invoked = jsInvokeStats.getRequests() > 0 || jsInvokeStats.getResponses() > 0 || jsInvokeStats.getFailures() > 0;
+            if (invoked) {
                 log.info("Rule Engine JS Invoke Stats: requests [{}] responses [{}] failures [{}]",
                         jsInvokeStats.getRequests(), jsInvokeStats.getResponses(), jsInvokeStats.getFailures());
+            }
+            JsInvokeStats.MemoizationStats memoizationStats = new JsInvokeStats.MemoizationStats(
+                    jsInvokeStats.getMemoizationHits(), jsInvokeStats.getMemoizationMisses());
+            boolean memoized = memoizationStats.hits() > 0 || memoizationStats.misses() > 0;
+            if (memoized) {
+                // the memoization hits do not invoke the script, so the line is printed even if there were no invocations
+                log.info("Rule Engine Script Memoization Stats: hits [{}] misses [{}] hit rate [{}%]",
+                        memoizationStats.hits(), memoizationStats.misses(), memoizationStats.getHitRate());
+                jsInvokeStats.getAndResetRuleNodeMemoizationStats().forEach((ruleNodeId, stats) ->
+                        log.info("[{}] Rule Node Script Memoization Stats: hits [{}] misses [{}] hit rate [{}%]",
+                                ruleNodeId, stats.hits(), stats.misses(), stats.getHitRate()));
+            }
+            if (invoked || memoized) {
                 jsInvokeStats.reset();
             }
         }
@@ -111,6 +111,8 @@ import org.thingsboard.server.queue.TbQueueMsgMetadata;
 import org.thingsboard.server.service.executors.PubSubRuleNodeExecutorProvider;
 import org.thingsboard.server.queue.common.SimpleTbQueueCallback;
 import org.thingsboard.server.service.script.RuleNodeJsScriptEngine;
+import org.thingsboard.server.service.script.RuleNodeScriptEngine;
+import org.thingsboard.server.service.script.RuleNodeScriptMemoizer;
 import org.thingsboard.server.service.script.RuleNodeTbelScriptEngine;
 
 import java.util.Collections;
@@ -576,14 +578,23 @@ class DefaultTbContext implements TbContext {
     @Override
     @Deprecated
     public ScriptEngine createJsScriptEngine(String script, String... argNames) {
-        return new RuleNodeJsScriptEngine(getTenantId(), mainCtx.getJsInvokeService(), script, argNames);
+        return withMemoizer(new RuleNodeJsScriptEngine(getTenantId(), mainCtx.getJsInvokeService(), script, argNames), script, argNames);
     }
 
     private ScriptEngine createTbelScriptEngine(String script, String... argNames) {
         if (mainCtx.getTbelInvokeService() == null) {
             throw new RuntimeException("TBEL execution is disabled!");
         }
-        return new RuleNodeTbelScriptEngine(getTenantId(), mainCtx.getTbelInvokeService(), script, argNames);
+        return withMemoizer(new RuleNodeTbelScriptEngine(getTenantId(), mainCtx.getTbelInvokeService(), script, argNames), script, argNames);
+    }
+
+    private ScriptEngine withMemoizer(RuleNodeScriptEngine<?, ?> scriptEngine, String script, String... argNames) {
+        if (mainCtx.isScriptMemoizationEnabled()) {
+            scriptEngine.setMemoizer(RuleNodeScriptMemoizer.create(script, argNames, mainCtx.getScriptMemoizationMaxSize(),
+                    mainCtx.getScriptMemoizationTtlMs(), mainCtx.getScriptMemoizationMinRequests(),
+                    mainCtx.getScriptMemoizationMinHitRate(), getSelfId(), mainCtx.isStatisticsEnabled() ? mainCtx.getJsInvokeStats() : null));
+        }
+        return scriptEngine;
     }
 
     @Override
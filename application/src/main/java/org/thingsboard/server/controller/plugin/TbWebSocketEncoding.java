@@ -0,0 +1,83 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.controller.plugin;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.thingsboard.common.util.JacksonUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Encoding of the WS session messages. JSON text frames are used by default.
+ * The clients that request the {@link #CBOR_SUBPROTOCOL} subprotocol on connect receive the same messages encoded with CBOR in binary frames
+ * and may send the commands either as JSON text or as CBOR binary frames.
+ */
+@RequiredArgsConstructor
+public enum TbWebSocketEncoding {
+
+    JSON(TbWebSocketMsgType.TEXT),
+    CBOR(TbWebSocketMsgType.BINARY);
+
+    public static final String CBOR_SUBPROTOCOL = "tb-cbor";
+
+    private static final ObjectMapper CBOR_MAPPER = CBORMapper.builder()
+            .addModule(new Jdk8Module())
+            .build();
+
+    @Getter
+    private final TbWebSocketMsgType msgType;
+
+    public static TbWebSocketEncoding forSubProtocol(String subProtocol) {
+        return CBOR_SUBPROTOCOL.equals(subProtocol) ? CBOR : JSON;
+    }
+
+    public TbWebSocketMsg<?> encode(Object update) {
+        if (this == JSON) {
+            return new TbWebSocketTextMsg(JacksonUtil.toString(update));
+        }
+        try {
+            return new TbWebSocketBinaryMsg(ByteBuffer.wrap(CBOR_MAPPER.writeValueAsBytes(update)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("The given object value cannot be converted to CBOR: " + update, e);
+        }
+    }
+
+    /**
+     * @param json the message that is already serialized to JSON
+     */
+    public TbWebSocketMsg<?> encodeJson(String json) {
+        if (this == JSON) {
+            return new TbWebSocketTextMsg(json);
+        }
+        return encode(JacksonUtil.toJsonNode(json));
+    }
+
+    /**
+     * @return the JSON representation of the CBOR encoded command
+     */
+    public static String decodeCbor(ByteBuffer payload) throws IOException {
+        byte[] bytes = new byte[payload.remaining()];
+        payload.get(bytes);
+        return JacksonUtil.toString(CBOR_MAPPER.readTree(bytes));
+    }
+
+}
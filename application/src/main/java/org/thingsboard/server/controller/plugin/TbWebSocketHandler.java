@@ -32,8 +32,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
+import org.springframework.web.socket.BinaryMessage;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.PongMessage;
+import org.springframework.web.socket.SubProtocolCapable;
 import org.springframework.web.socket.TextMessage;
 import org.springframework.web.socket.WebSocketSession;
 import org.springframework.web.socket.adapter.NativeWebSocketSession;
@@ -67,7 +69,10 @@ import org.thingsboard.server.service.ws.telemetry.cmd.TelemetryCmdsWrapper;
 
 import javax.annotation.PostConstruct;
 import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.Queue;
 import java.util.Set;
@@ -87,7 +92,7 @@ import static org.thingsboard.server.service.ws.DefaultWebSocketService.NUMBER_O
 @TbCoreComponent
 @Slf4j
 @RequiredArgsConstructor
-public class TbWebSocketHandler extends TextWebSocketHandler implements WebSocketMsgEndpoint {
+public class TbWebSocketHandler extends TextWebSocketHandler implements WebSocketMsgEndpoint, SubProtocolCapable {
 
     private final ConcurrentMap<String, SessionMetaData> internalSessionMap = new ConcurrentHashMap<>();
     private final ConcurrentMap<String, String> externalSessionMap = new ConcurrentHashMap<>();
@@ -107,6 +112,10 @@ public class TbWebSocketHandler extends TextWebSocketHandler implements WebSocke
     private long pingTimeout;
     @Value("${server.ws.max_queue_messages_per_session:1000}")
     private int wsMaxQueueMessagesPerSession;
+    @Value("${server.ws.conflation_threshold:0}")
+    private int wsConflationThreshold;
+    @Value("${server.ws.binary_protocol.enabled:false}")
+    private boolean binaryProtocolEnabled;
     @Value("${server.ws.auth_timeout_ms:10000}")
     private int authTimeoutMs;
 
@@ -155,6 +164,30 @@ public class TbWebSocketHandler extends TextWebSocketHandler implements WebSocke
         }
     }
 
+    @Override
+    protected void handleBinaryMessage(WebSocketSession session, BinaryMessage message) {
+        try {
+            SessionMetaData sessionMd = getSessionMd(session.getId());
+            if (sessionMd == null) {
+                log.trace("[{}] Failed to find session", session.getId());
+                session.close(CloseStatus.SERVER_ERROR.withReason("Session not found!"));
+                return;
+            }
+            if (sessionMd.encoding != TbWebSocketEncoding.CBOR) {
+                session.close(CloseStatus.NOT_ACCEPTABLE.withReason("Binary messages not supported"));
+                return;
+            }
+            sessionMd.onMsg(TbWebSocketEncoding.decodeCbor(message.getPayload()));
+        } catch (IOException e) {
+            log.warn("IO error", e);
+        }
+    }
+
+    @Override
+    public List<String> getSubProtocols() {
+        return binaryProtocolEnabled ? List.of(TbWebSocketEncoding.CBOR_SUBPROTOCOL) : Collections.emptyList();
+    }
+
     void processMsg(SessionMetaData sessionMd, String msg) throws IOException {
         WebSocketSessionRef sessionRef = sessionMd.sessionRef;
         WsCommandsWrapper cmdsWrapper;
@@ -353,12 +386,16 @@ public class TbWebSocketHandler extends TextWebSocketHandler implements WebSocke
         private final WebSocketSession session;
         private final RemoteEndpoint.Async asyncRemote;
         private final WebSocketSessionRef sessionRef;
+        private final TbWebSocketEncoding encoding;
 
         final AtomicBoolean isSending = new AtomicBoolean(false);
         private final Queue<TbWebSocketMsg<?>> outboundMsgQueue = new ConcurrentLinkedQueue<>();
         private final AtomicInteger outboundMsgQueueSize = new AtomicInteger();
         @Setter
         private int maxMsgQueueSize = wsMaxQueueMessagesPerSession;
+        @Setter
+        private int conflationThreshold = wsConflationThreshold;
+        private final TbWebSocketUpdateConflator conflator;
 
         private final Queue<String> inboundMsgQueue = new ConcurrentLinkedQueue<>();
         private final Lock inboundMsgQueueProcessorLock = new ReentrantLock();
@@ -371,6 +408,8 @@ public class TbWebSocketHandler extends TextWebSocketHandler implements WebSocke
             Session nativeSession = ((NativeWebSocketSession) session).getNativeSession(Session.class);
             this.asyncRemote = nativeSession.getAsyncRemote();
             this.sessionRef = sessionRef;
+            this.encoding = TbWebSocketEncoding.forSubProtocol(session.getAcceptedProtocol());
+            this.conflator = new TbWebSocketUpdateConflator(encoding);
             this.lastActivityTime = System.currentTimeMillis();
         }
 
@@ -396,6 +435,7 @@ public class TbWebSocketHandler extends TextWebSocketHandler implements WebSocke
                 log.trace("{} Session transport error", sessionRef, ioe);
             } finally {
                 outboundMsgQueue.clear();
+                conflator.clear();
             }
         }
 
@@ -404,7 +444,36 @@ public class TbWebSocketHandler extends TextWebSocketHandler implements WebSocke
         }
 
         void sendMsg(String msg) {
-            sendMsg(new TbWebSocketTextMsg(msg));
+            sendMsg(encoding.encodeJson(msg));
+        }
+
+        void sendMsg(int subscriptionId, String msg) {
+            if (conflationThreshold > 0) {
+                conflator.seal(subscriptionId);
+            }
+            sendMsg(msg);
+        }
+
+        void sendUpdate(int subscriptionId, Object update, boolean latestValues) {
+            if (conflationThreshold > 0) {
+                if (latestValues && outboundMsgQueueSize.get() >= Math.min(conflationThreshold, maxMsgQueueSize / 2)
+                        && TbWebSocketUpdateConflator.isConflatable(update)) {
+                    TbWebSocketMsg<?> conflatedMsg = conflator.offer(subscriptionId, update);
+                    if (conflatedMsg != null) {
+                        sendMsg(conflatedMsg);
+                    }
+                    return;
+                }
+                conflator.seal(subscriptionId);
+            }
+            TbWebSocketMsg<?> msg;
+            try {
+                msg = encoding.encode(update);
+            } catch (IllegalArgumentException e) {
+                log.warn("{} Failed to encode update: {}", sessionRef, update, e);
+                return;
+            }
+            sendMsg(msg);
         }
 
         void sendMsg(TbWebSocketMsg<?> msg) {
@@ -421,9 +490,10 @@ public class TbWebSocketHandler extends TextWebSocketHandler implements WebSocke
         private void sendMsgInternal(TbWebSocketMsg<?> msg) {
             try {
                 if (TbWebSocketMsgType.TEXT.equals(msg.getType())) {
-                    TbWebSocketTextMsg textMsg = (TbWebSocketTextMsg) msg;
-                    this.asyncRemote.sendText(textMsg.getMsg(), this);
+                    this.asyncRemote.sendText((String) msg.getMsg(), this);
                     // isSending status will be reset in the onResult method by call back
+                } else if (TbWebSocketMsgType.BINARY.equals(msg.getType())) {
+                    this.asyncRemote.sendBinary((ByteBuffer) msg.getMsg(), this);
                 } else {
                     TbWebSocketPingMsg pingMsg = (TbWebSocketPingMsg) msg;
                     this.asyncRemote.sendPing(pingMsg.getMsg()); // blocking call
@@ -487,6 +557,25 @@ public class TbWebSocketHandler extends TextWebSocketHandler implements WebSocke
     @Override
     public void send(WebSocketSessionRef sessionRef, int subscriptionId, String msg) throws IOException {
         log.debug("{} Sending {}", sessionRef, msg);
+        SessionMetaData sessionMd = getSessionMdForUpdate(sessionRef, subscriptionId);
+        if (sessionMd != null) {
+            sessionMd.sendMsg(subscriptionId, msg);
+        }
+    }
+
+    @Override
+    public void sendUpdate(WebSocketSessionRef sessionRef, int subscriptionId, Object update, boolean latestValues) throws IOException {
+        log.debug("{} Sending {}", sessionRef, update);
+        SessionMetaData sessionMd = getSessionMdForUpdate(sessionRef, subscriptionId);
+        if (sessionMd != null) {
+            sessionMd.sendUpdate(subscriptionId, update, latestValues);
+        }
+    }
+
+    /**
+     * @return the session or null if the session is not found or the session updates rate limit is reached
+     */
+    private SessionMetaData getSessionMdForUpdate(WebSocketSessionRef sessionRef, int subscriptionId) {
         String externalId = sessionRef.getSessionId();
         String internalId = externalSessionMap.get(externalId);
         if (internalId != null) {
@@ -498,18 +587,19 @@ public class TbWebSocketHandler extends TextWebSocketHandler implements WebSocke
                         log.info("{} Failed to process session update. Max session updates limit reached", sessionRef);
                         sessionMd.sendMsg("{\"subscriptionId\":" + subscriptionId + ", \"errorCode\":" + ThingsboardErrorCode.TOO_MANY_UPDATES.getErrorCode() + ", \"errorMsg\":\"Too many updates!\"}");
                     }
-                    return;
+                    return null;
                 } else {
                     log.debug("{} Session is no longer blacklisted.", sessionRef);
                     blacklistedSessions.remove(externalId);
                 }
-                sessionMd.sendMsg(msg);
+                return sessionMd;
             } else {
                 log.warn("[{}][{}] Failed to find session by internal id", externalId, internalId);
             }
         } else {
             log.warn("[{}] Failed to find session by external id", externalId);
         }
+        return null;
     }
 
     @Override
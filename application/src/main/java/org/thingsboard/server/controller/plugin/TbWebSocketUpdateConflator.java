@@ -0,0 +1,197 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.controller.plugin;
+
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.query.EntityData;
+import org.thingsboard.server.common.data.query.EntityKeyType;
+import org.thingsboard.server.common.data.query.TsValue;
+import org.thingsboard.server.service.ws.telemetry.cmd.v2.EntityDataUpdate;
+import org.thingsboard.server.service.ws.telemetry.sub.TelemetrySubscriptionUpdate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Conflates the subscription updates of the backlogged WS session: while the conflated msg of the subscription waits in the outbound queue,
+ * the subsequent updates of the subscription are merged into it, keeping only the latest value per (subscription, entity, key).
+ * When the msg is polled from the queue, the merged delta is encoded and sent.
+ * <p>
+ * Only the updates of the latest values subscriptions (latest time series and attributes) are conflated, the updates of the time series
+ * history (time window) subscriptions are always sent as is, since every point matters for them. Of those, only telemetry subscription updates
+ * with a single value per key and entity data updates without time series history are conflatable.
+ * Any other msg of the subscription seals the queued conflated msg, so the order of the updates is preserved.
+ */
+class TbWebSocketUpdateConflator {
+
+    private final TbWebSocketEncoding encoding;
+    private final Map<Integer, ConflatedUpdate> pendingUpdates = new HashMap<>();
+
+    TbWebSocketUpdateConflator(TbWebSocketEncoding encoding) {
+        this.encoding = encoding;
+    }
+
+    static boolean isConflatable(Object update) {
+        if (update instanceof TelemetrySubscriptionUpdate telemetryUpdate) {
+            return telemetryUpdate.getErrorCode() == 0 && telemetryUpdate.getData() != null
+                    && telemetryUpdate.getData().values().stream().allMatch(values -> values.size() == 1);
+        } else if (update instanceof EntityDataUpdate entityDataUpdate) {
+            return entityDataUpdate.getErrorCode() == 0 && entityDataUpdate.getData() == null && entityDataUpdate.getUpdate() != null
+                    && entityDataUpdate.getUpdate().stream().allMatch(entityData -> entityData.getLatest() != null
+                    && entityData.getTimeseries() == null && entityData.getAggLatest() == null);
+        }
+        return false;
+    }
+
+    /**
+     * @return the msg to put into the outbound queue or null if the update is merged into the already queued msg
+     */
+    synchronized TbWebSocketMsg<?> offer(int subscriptionId, Object update) {
+        ConflatedUpdate pending = pendingUpdates.get(subscriptionId);
+        if (pending != null && pending.merge(update)) {
+            return null;
+        }
+        ConflatedUpdate conflated = update instanceof TelemetrySubscriptionUpdate ?
+                new ConflatedTelemetryUpdate(subscriptionId) : new ConflatedEntityDataUpdate(subscriptionId);
+        conflated.merge(update);
+        pendingUpdates.put(subscriptionId, conflated);
+        return new ConflatedMsg(conflated);
+    }
+
+    /**
+     * Stops merging of the updates into the queued msg of the subscription, so the subsequent updates are sent after the msg that is queued now.
+     */
+    synchronized void seal(int subscriptionId) {
+        if (!pendingUpdates.isEmpty()) {
+            pendingUpdates.remove(subscriptionId);
+        }
+    }
+
+    synchronized void clear() {
+        pendingUpdates.clear();
+    }
+
+    private synchronized Object drain(ConflatedUpdate conflated) {
+        pendingUpdates.remove(conflated.subscriptionId, conflated);
+        return conflated.toUpdate();
+    }
+
+    private class ConflatedMsg implements TbWebSocketMsg<Object> {
+
+        private final ConflatedUpdate conflated;
+
+        private ConflatedMsg(ConflatedUpdate conflated) {
+            this.conflated = conflated;
+        }
+
+        @Override
+        public TbWebSocketMsgType getType() {
+            return encoding.getMsgType();
+        }
+
+        @Override
+        public Object getMsg() {
+            return encoding.encode(drain(conflated)).getMsg();
+        }
+
+    }
+
+    private abstract static class ConflatedUpdate {
+
+        final int subscriptionId;
+
+        ConflatedUpdate(int subscriptionId) {
+            this.subscriptionId = subscriptionId;
+        }
+
+        abstract boolean merge(Object update);
+
+        abstract Object toUpdate();
+
+    }
+
+    private static class ConflatedTelemetryUpdate extends ConflatedUpdate {
+
+        private final Map<String, Object[]> latest = new TreeMap<>();
+
+        ConflatedTelemetryUpdate(int subscriptionId) {
+            super(subscriptionId);
+        }
+
+        @Override
+        boolean merge(Object update) {
+            if (!(update instanceof TelemetrySubscriptionUpdate telemetryUpdate)) {
+                return false;
+            }
+            telemetryUpdate.getData().forEach((key, values) -> {
+                for (Object value : values) {
+                    Object[] tsValue = (Object[]) value;
+                    latest.merge(key, tsValue, (prev, next) -> (long) next[0] >= (long) prev[0] ? next : prev);
+                }
+            });
+            return true;
+        }
+
+        @Override
+        Object toUpdate() {
+            Map<String, List<Object>> data = new TreeMap<>();
+            latest.forEach((key, tsValue) -> data.put(key, Collections.singletonList(tsValue)));
+            return new TelemetrySubscriptionUpdate(subscriptionId, data);
+        }
+
+    }
+
+    private static class ConflatedEntityDataUpdate extends ConflatedUpdate {
+
+        private final Map<EntityId, Map<EntityKeyType, Map<String, TsValue>>> latest = new LinkedHashMap<>();
+        private long allowedEntities;
+
+        ConflatedEntityDataUpdate(int subscriptionId) {
+            super(subscriptionId);
+        }
+
+        @Override
+        boolean merge(Object update) {
+            if (!(update instanceof EntityDataUpdate entityDataUpdate)) {
+                return false;
+            }
+            allowedEntities = entityDataUpdate.getAllowedEntities();
+            for (EntityData entityData : entityDataUpdate.getUpdate()) {
+                Map<EntityKeyType, Map<String, TsValue>> entityLatest = latest.computeIfAbsent(entityData.getEntityId(), id -> new EnumMap<>(EntityKeyType.class));
+                entityData.getLatest().forEach((keyType, values) -> {
+                    Map<String, TsValue> keyTypeLatest = entityLatest.computeIfAbsent(keyType, type -> new HashMap<>());
+                    values.forEach((key, value) -> keyTypeLatest.merge(key, value, (prev, next) -> next.getTs() >= prev.getTs() ? next : prev));
+                });
+            }
+            return true;
+        }
+
+        @Override
+        Object toUpdate() {
+            List<EntityData> update = new ArrayList<>(latest.size());
+            latest.forEach((entityId, entityLatest) -> update.add(new EntityData(entityId, entityLatest, null)));
+            return new EntityDataUpdate(subscriptionId, null, update, allowedEntities);
+        }
+
+    }
+
+}
@@ -60,6 +60,7 @@ import org.thingsboard.server.dao.tenant.TenantService;
 import org.thingsboard.server.dao.timeseries.TimeseriesService;
 import org.thingsboard.server.dao.usagerecord.ApiUsageStateService;
 import org.thingsboard.server.gen.transport.TransportProtos.ToUsageStatsServiceMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.UsageStatsEntityProto;
 import org.thingsboard.server.gen.transport.TransportProtos.UsageStatsKVProto;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
 import org.thingsboard.server.queue.discovery.PartitionService;
@@ -76,9 +77,11 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -130,7 +133,10 @@ public class DefaultTbApiUsageStateService extends AbstractPartitionBasedService
     @Value("${usage.stats.gauge_report_interval:180000}")
     private long gaugeReportInterval;
 
-    private final Lock updateLock = new ReentrantLock();
+    private static final int LOCK_STRIPES = 256;
+
+    // The states are guarded by the lock stripe of the entity, so the stats of different tenants are processed in parallel
+    private final UsageStatsStripe[] stripes = createStripes();
 
     @PostConstruct
     public void init() {
@@ -156,67 +162,106 @@ public class DefaultTbApiUsageStateService extends AbstractPartitionBasedService
     public void process(TbProtoQueueMsg<ToUsageStatsServiceMsg> msg, TbCallback callback) {
         ToUsageStatsServiceMsg statsMsg = msg.getValue();
 
-        TenantId tenantId = TenantId.fromUUID(new UUID(statsMsg.getTenantIdMSB(), statsMsg.getTenantIdLSB()));
-        EntityId ownerId;
-        if (statsMsg.getCustomerIdMSB() != 0 && statsMsg.getCustomerIdLSB() != 0) {
-            ownerId = new CustomerId(new UUID(statsMsg.getCustomerIdMSB(), statsMsg.getCustomerIdLSB()));
+        if (statsMsg.getEntityStatsCount() > 0) {
+            for (UsageStatsEntityProto entityStats : statsMsg.getEntityStatsList()) {
+                TenantId tenantId = TenantId.fromUUID(new UUID(entityStats.getTenantIdMSB(), entityStats.getTenantIdLSB()));
+                EntityId ownerId = getOwnerId(tenantId, entityStats.getCustomerIdMSB(), entityStats.getCustomerIdLSB());
+                processEntityUsageStats(tenantId, ownerId, entityStats.getValuesList(), statsMsg.getServiceId());
+            }
         } else {
-            ownerId = tenantId;
+            TenantId tenantId = TenantId.fromUUID(new UUID(statsMsg.getTenantIdMSB(), statsMsg.getTenantIdLSB()));
+            EntityId ownerId = getOwnerId(tenantId, statsMsg.getCustomerIdMSB(), statsMsg.getCustomerIdLSB());
+            processEntityUsageStats(tenantId, ownerId, statsMsg.getValuesList(), statsMsg.getServiceId());
         }
-
-        processEntityUsageStats(tenantId, ownerId, statsMsg.getValuesList(), statsMsg.getServiceId());
         callback.onSuccess();
     }
 
+    private EntityId getOwnerId(TenantId tenantId, long customerIdMSB, long customerIdLSB) {
+        if (customerIdMSB != 0 && customerIdLSB != 0) {
+            return new CustomerId(new UUID(customerIdMSB, customerIdLSB));
+        } else {
+            return tenantId;
+        }
+    }
+
     private void processEntityUsageStats(TenantId tenantId, EntityId ownerId, List<UsageStatsKVProto> values, String serviceId) {
         if (deletedEntities.contains(ownerId)) return;
 
-        BaseApiUsageState usageState;
-        List<TsKvEntry> updatedEntries;
-        Map<ApiFeature, ApiUsageStateValue> result;
+        UsageStatsStripe stripe = getStripe(ownerId);
+        stripe.pending.add(new PendingUsageStats(tenantId, ownerId, values, serviceId));
+        processPendingUsageStats(stripe);
+    }
 
-        updateLock.lock();
-        try {
-            usageState = getOrFetchState(tenantId, ownerId);
-            long ts = usageState.getCurrentCycleTs();
-            long hourTs = usageState.getCurrentHourTs();
-            long newHourTs = SchedulerUtils.getStartOfCurrentHour();
-            if (newHourTs != hourTs) {
-                usageState.setHour(newHourTs);
+    /**
+     * The stats are queued without blocking, and the thread that acquires the stripe lock calculates the queued stats of other threads as well.
+     * The lock is re-checked after the release, so the stats queued while the lock was held are not left in the queue.
+     * Persistence of the stats and the notifications are executed after the lock is released.
+     */
+    private void processPendingUsageStats(UsageStatsStripe stripe) {
+        while (!stripe.pending.isEmpty() && stripe.lock.tryLock()) {
+            List<UsageStatsUpdate> updates = new ArrayList<>();
+            try {
+                PendingUsageStats stats;
+                while ((stats = stripe.pending.poll()) != null) {
+                    try {
+                        updates.add(calculateUsageStats(stats));
+                    } catch (Exception e) {
+                        log.warn("[{}][{}] Failed to process usage stats: {}", stats.tenantId(), stats.ownerId(), stats.values(), e);
+                    }
+                }
+            } finally {
+                stripe.lock.unlock();
             }
-            if (log.isTraceEnabled()) {
-                log.trace("[{}][{}] Processing usage stats from {} (currentCycleTs={}, currentHourTs={}): {}", tenantId, ownerId, serviceId, ts, newHourTs, values);
+            updates.forEach(this::saveUsageStatsUpdate);
+        }
+    }
+
+    private UsageStatsUpdate calculateUsageStats(PendingUsageStats stats) {
+        TenantId tenantId = stats.tenantId();
+        EntityId ownerId = stats.ownerId();
+        BaseApiUsageState usageState = getOrFetchState(tenantId, ownerId);
+        long ts = usageState.getCurrentCycleTs();
+        long hourTs = usageState.getCurrentHourTs();
+        long newHourTs = SchedulerUtils.getStartOfCurrentHour();
+        if (newHourTs != hourTs) {
+            usageState.setHour(newHourTs);
+        }
+        if (log.isTraceEnabled()) {
+            log.trace("[{}][{}] Processing usage stats from {} (currentCycleTs={}, currentHourTs={}): {}", tenantId, ownerId, stats.serviceId(), ts, newHourTs, stats.values());
+        }
+        List<TsKvEntry> updatedEntries = new ArrayList<>(ApiUsageRecordKey.values().length);
+        Set<ApiFeature> apiFeatures = new HashSet<>();
+        for (UsageStatsKVProto statsItem : stats.values()) {
+            ApiUsageRecordKey recordKey = ApiUsageRecordKey.valueOf(statsItem.getKey());
+
+            StatsCalculationResult calculationResult = usageState.calculate(recordKey, statsItem.getValue(), stats.serviceId());
+            if (calculationResult.isValueChanged()) {
+                long newValue = calculationResult.getNewValue();
+                updatedEntries.add(new BasicTsKvEntry(ts, new LongDataEntry(recordKey.getApiCountKey(), newValue)));
             }
-            updatedEntries = new ArrayList<>(ApiUsageRecordKey.values().length);
-            Set<ApiFeature> apiFeatures = new HashSet<>();
-            for (UsageStatsKVProto statsItem : values) {
-                ApiUsageRecordKey recordKey = ApiUsageRecordKey.valueOf(statsItem.getKey());
-
-                StatsCalculationResult calculationResult = usageState.calculate(recordKey, statsItem.getValue(), serviceId);
-                if (calculationResult.isValueChanged()) {
-                    long newValue = calculationResult.getNewValue();
-                    updatedEntries.add(new BasicTsKvEntry(ts, new LongDataEntry(recordKey.getApiCountKey(), newValue)));
-                }
-                if (calculationResult.isHourlyValueChanged()) {
-                    long newHourlyValue = calculationResult.getNewHourlyValue();
-                    updatedEntries.add(new BasicTsKvEntry(newHourTs, new LongDataEntry(recordKey.getApiCountKey() + HOURLY, newHourlyValue)));
-                }
-                if (recordKey.getApiFeature() != null) {
-                    apiFeatures.add(recordKey.getApiFeature());
-                }
+            if (calculationResult.isHourlyValueChanged()) {
+                long newHourlyValue = calculationResult.getNewHourlyValue();
+                updatedEntries.add(new BasicTsKvEntry(newHourTs, new LongDataEntry(recordKey.getApiCountKey() + HOURLY, newHourlyValue)));
             }
-            if (usageState.getEntityType() == EntityType.TENANT && !usageState.getEntityId().equals(TenantId.SYS_TENANT_ID)) {
-                result = ((TenantApiUsageState) usageState).checkStateUpdatedDueToThreshold(apiFeatures);
-            } else {
-                result = Collections.emptyMap();
+            if (recordKey.getApiFeature() != null) {
+                apiFeatures.add(recordKey.getApiFeature());
             }
-        } finally {
-            updateLock.unlock();
         }
-        log.trace("[{}][{}] Saving new stats: {}", tenantId, ownerId, updatedEntries);
-        tsWsService.saveAndNotifyInternal(tenantId, usageState.getApiUsageState().getId(), updatedEntries, VOID_CALLBACK);
-        if (!result.isEmpty()) {
-            persistAndNotify(usageState, result);
+        Map<ApiFeature, ApiUsageStateValue> result;
+        if (usageState.getEntityType() == EntityType.TENANT && !usageState.getEntityId().equals(TenantId.SYS_TENANT_ID)) {
+            result = ((TenantApiUsageState) usageState).checkStateUpdatedDueToThreshold(apiFeatures);
+        } else {
+            result = Collections.emptyMap();
+        }
+        return new UsageStatsUpdate(usageState, updatedEntries, result);
+    }
+
+    private void saveUsageStatsUpdate(UsageStatsUpdate update) {
+        BaseApiUsageState usageState = update.state();
+        log.trace("[{}][{}] Saving new stats: {}", usageState.getTenantId(), usageState.getEntityId(), update.updatedEntries());
+        tsWsService.saveAndNotifyInternal(usageState.getTenantId(), usageState.getApiUsageState().getId(), update.updatedEntries(), VOID_CALLBACK);
+        if (!update.result().isEmpty()) {
+            persistAndNotify(usageState, update.result());
         }
     }
 
@@ -255,41 +300,39 @@ public class DefaultTbApiUsageStateService extends AbstractPartitionBasedService
     public void onTenantProfileUpdate(TenantProfileId tenantProfileId) {
         log.info("[{}] On Tenant Profile Update", tenantProfileId);
         TenantProfile tenantProfile = tenantProfileCache.get(tenantProfileId);
-        updateLock.lock();
-        try {
-            myUsageStates.values().stream()
-                    .filter(state -> state.getEntityType() == EntityType.TENANT)
-                    .map(state -> (TenantApiUsageState) state)
-                    .forEach(state -> {
-                        if (tenantProfile.getId().equals(state.getTenantProfileId())) {
-                            updateTenantState(state, tenantProfile);
-                        }
-                    });
-        } finally {
-            updateLock.unlock();
-        }
+        myUsageStates.values().stream()
+                .filter(state -> state.getEntityType() == EntityType.TENANT)
+                .map(state -> (TenantApiUsageState) state)
+                .forEach(state -> {
+                    if (tenantProfile.getId().equals(state.getTenantProfileId())) {
+                        updateTenantState(state, tenantProfile);
+                    }
+                });
     }
 
     @Override
     public void onTenantUpdate(TenantId tenantId) {
         log.info("[{}] On Tenant Update.", tenantId);
         TenantProfile tenantProfile = tenantProfileCache.get(tenantId);
-        updateLock.lock();
-        try {
-            TenantApiUsageState state = (TenantApiUsageState) myUsageStates.get(tenantId);
-            if (state != null && !state.getTenantProfileId().equals(tenantProfile.getId())) {
-                updateTenantState(state, tenantProfile);
-            }
-        } finally {
-            updateLock.unlock();
+        TenantApiUsageState state = (TenantApiUsageState) myUsageStates.get(tenantId);
+        if (state != null && !state.getTenantProfileId().equals(tenantProfile.getId())) {
+            updateTenantState(state, tenantProfile);
         }
     }
 
     private void updateTenantState(TenantApiUsageState state, TenantProfile profile) {
-        TenantProfileData oldProfileData = state.getTenantProfileData();
-        state.setTenantProfileId(profile.getId());
-        state.setTenantProfileData(profile.getProfileData());
-        Map<ApiFeature, ApiUsageStateValue> result = state.checkStateUpdatedDueToThresholds();
+        TenantProfileData oldProfileData;
+        Map<ApiFeature, ApiUsageStateValue> result;
+        UsageStatsStripe stripe = getStripe(state.getEntityId());
+        stripe.lock();
+        try {
+            oldProfileData = state.getTenantProfileData();
+            state.setTenantProfileId(profile.getId());
+            state.setTenantProfileData(profile.getProfileData());
+            result = state.checkStateUpdatedDueToThresholds();
+        } finally {
+            stripe.unlock();
+        }
         if (!result.isEmpty()) {
             persistAndNotify(state, result);
         }
@@ -408,12 +451,21 @@ public class DefaultTbApiUsageStateService extends AbstractPartitionBasedService
     }
 
     private void checkStartOfNextCycle() {
-        updateLock.lock();
         try {
             long now = System.currentTimeMillis();
             myUsageStates.values().forEach(state -> {
-                if ((state.getNextCycleTs() < now) && (now - state.getNextCycleTs() < TimeUnit.HOURS.toMillis(1))) {
-                    state.setCycles(state.getNextCycleTs(), SchedulerUtils.getStartOfNextNextMonth());
+                boolean newCycle = false;
+                UsageStatsStripe stripe = getStripe(state.getEntityId());
+                stripe.lock();
+                try {
+                    if ((state.getNextCycleTs() < now) && (now - state.getNextCycleTs() < TimeUnit.HOURS.toMillis(1))) {
+                        state.setCycles(state.getNextCycleTs(), SchedulerUtils.getStartOfNextNextMonth());
+                        newCycle = true;
+                    }
+                } finally {
+                    stripe.unlock();
+                }
+                if (newCycle) {
                     if (log.isTraceEnabled()) {
                         log.trace("[{}][{}] Updating state cycles (currentCycleTs={},nextCycleTs={})", state.getTenantId(), state.getEntityId(), state.getCurrentCycleTs(), state.getNextCycleTs());
                     }
@@ -426,8 +478,6 @@ public class DefaultTbApiUsageStateService extends AbstractPartitionBasedService
             });
         } catch (Throwable e) {
             log.error("Failed to check start of next cycle", e);
-        } finally {
-            updateLock.unlock();
         }
     }
 
@@ -511,12 +561,15 @@ public class DefaultTbApiUsageStateService extends AbstractPartitionBasedService
     protected void onRepartitionEvent() {
         otherUsageStates.entrySet().removeIf(entry ->
                 partitionService.resolve(ServiceType.TB_CORE, entry.getValue().getTenantId(), entry.getKey()).isMyPartition());
-        updateLock.lock();
-        try {
-            myUsageStates.values().forEach(BaseApiUsageState::onRepartitionEvent);
-        } finally {
-            updateLock.unlock();
-        }
+        myUsageStates.values().forEach(state -> {
+            UsageStatsStripe stripe = getStripe(state.getEntityId());
+            stripe.lock();
+            try {
+                state.onRepartitionEvent();
+            } finally {
+                stripe.unlock();
+            }
+        });
     }
 
     @Override
@@ -524,30 +577,25 @@ public class DefaultTbApiUsageStateService extends AbstractPartitionBasedService
         var result = new HashMap<TopicPartitionInfo, List<ListenableFuture<?>>>();
         try {
             log.info("Initializing tenant states.");
-            updateLock.lock();
-            try {
-                PageDataIterable<Tenant> tenantIterator = new PageDataIterable<>(tenantService::findTenants, 1024);
-                for (Tenant tenant : tenantIterator) {
-                    TopicPartitionInfo tpi = partitionService.resolve(ServiceType.TB_CORE, tenant.getId(), tenant.getId());
-                    if (addedPartitions.contains(tpi)) {
-                        if (!myUsageStates.containsKey(tenant.getId()) && tpi.isMyPartition()) {
-                            log.debug("[{}] Initializing tenant state.", tenant.getId());
-                            result.computeIfAbsent(tpi, tmp -> new ArrayList<>()).add(dbExecutor.submit(() -> {
-                                try {
-                                    updateTenantState((TenantApiUsageState) getOrFetchState(tenant.getId(), tenant.getId()), tenantProfileCache.get(tenant.getTenantProfileId()));
-                                    log.debug("[{}] Initialized tenant state.", tenant.getId());
-                                } catch (Exception e) {
-                                    log.warn("[{}] Failed to initialize tenant API state", tenant.getId(), e);
-                                }
-                                return null;
-                            }));
-                        }
-                    } else {
-                        log.debug("[{}][{}] Tenant doesn't belong to current partition. tpi [{}]", tenant.getName(), tenant.getId(), tpi);
+            PageDataIterable<Tenant> tenantIterator = new PageDataIterable<>(tenantService::findTenants, 1024);
+            for (Tenant tenant : tenantIterator) {
+                TopicPartitionInfo tpi = partitionService.resolve(ServiceType.TB_CORE, tenant.getId(), tenant.getId());
+                if (addedPartitions.contains(tpi)) {
+                    if (!myUsageStates.containsKey(tenant.getId()) && tpi.isMyPartition()) {
+                        log.debug("[{}] Initializing tenant state.", tenant.getId());
+                        result.computeIfAbsent(tpi, tmp -> new ArrayList<>()).add(dbExecutor.submit(() -> {
+                            try {
+                                updateTenantState((TenantApiUsageState) getOrFetchStateLocked(tenant.getId(), tenant.getId()), tenantProfileCache.get(tenant.getTenantProfileId()));
+                                log.debug("[{}] Initialized tenant state.", tenant.getId());
+                            } catch (Exception e) {
+                                log.warn("[{}] Failed to initialize tenant API state", tenant.getId(), e);
+                            }
+                            return null;
+                        }));
                     }
+                } else {
+                    log.debug("[{}][{}] Tenant doesn't belong to current partition. tpi [{}]", tenant.getName(), tenant.getId(), tpi);
                 }
-            } finally {
-                updateLock.unlock();
             }
         } catch (Exception e) {
             log.warn("Unknown failure", e);
@@ -555,8 +603,50 @@ public class DefaultTbApiUsageStateService extends AbstractPartitionBasedService
         return result;
     }
 
+    private BaseApiUsageState getOrFetchStateLocked(TenantId tenantId, EntityId ownerId) {
+        UsageStatsStripe stripe = getStripe(ownerId);
+        stripe.lock();
+        try {
+            return getOrFetchState(tenantId, ownerId);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private UsageStatsStripe getStripe(EntityId entityId) {
+        return stripes[(entityId.hashCode() & 0x7FFFFFFF) % stripes.length];
+    }
+
+    private UsageStatsStripe[] createStripes() {
+        UsageStatsStripe[] stripes = new UsageStatsStripe[LOCK_STRIPES];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new UsageStatsStripe();
+        }
+        return stripes;
+    }
+
     @PreDestroy
     private void destroy() {
         super.stop();
     }
+
+    private class UsageStatsStripe {
+        private final Lock lock = new ReentrantLock();
+        private final Queue<PendingUsageStats> pending = new ConcurrentLinkedQueue<>();
+
+        void lock() {
+            lock.lock();
+        }
+
+        void unlock() {
+            lock.unlock();
+            // the stats queued while the lock was held by this thread
+            processPendingUsageStats(this);
+        }
+    }
+
+    private record PendingUsageStats(TenantId tenantId, EntityId ownerId, List<UsageStatsKVProto> values, String serviceId) {}
+
+    private record UsageStatsUpdate(BaseApiUsageState state, List<TsKvEntry> updatedEntries, Map<ApiFeature, ApiUsageStateValue> result) {}
+
 }
@@ -50,6 +50,7 @@ import org.thingsboard.server.common.msg.edge.EdgeEventUpdateMsg;
 import org.thingsboard.server.common.msg.edge.EdgeSessionMsg;
 import org.thingsboard.server.common.msg.edge.FromEdgeSyncResponse;
 import org.thingsboard.server.common.msg.edge.ToEdgeSyncRequest;
+import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.gen.edge.v1.EdgeRpcServiceGrpc;
 import org.thingsboard.server.gen.edge.v1.RequestMsg;
 import org.thingsboard.server.gen.edge.v1.ResponseMsg;
@@ -70,6 +71,7 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Consumer;
@@ -80,6 +82,8 @@ import java.util.function.Consumer;
 @TbCoreComponent
 public class EdgeGrpcService extends EdgeRpcServiceGrpc.EdgeRpcServiceImplBase implements EdgeRpcService {
 
+    private static final String EDGE_EVENTS_CHECKS_STATS_KEY = "edgeEventsChecks";
+
     private final ConcurrentMap<EdgeId, EdgeGrpcSession> sessions = new ConcurrentHashMap<>();
     private final ConcurrentMap<EdgeId, Lock> sessionNewEventsLocks = new ConcurrentHashMap<>();
     private final Map<EdgeId, Boolean> sessionNewEvents = new HashMap<>();
@@ -111,6 +115,9 @@ public class EdgeGrpcService extends EdgeRpcServiceGrpc.EdgeRpcServiceImplBase i
     @Value("${edges.send_scheduler_pool_size}")
     private int sendSchedulerPoolSize;
 
+    @Value("${edges.storage.safety_check_interval:0}")
+    private long safetyCheckInterval;
+
     @Autowired
     private EdgeContextComponent ctx;
 
@@ -120,6 +127,12 @@ public class EdgeGrpcService extends EdgeRpcServiceGrpc.EdgeRpcServiceImplBase i
     @Autowired
     private TbClusterService clusterService;
 
+    @Autowired
+    private StatsFactory statsFactory;
+
+    private final AtomicLong notifiedEdgeEventsChecks = new AtomicLong();
+    private final AtomicLong safetyEdgeEventsChecks = new AtomicLong();
+
     private Server server;
 
     private ScheduledExecutorService edgeEventProcessingExecutorService;
@@ -159,6 +172,8 @@ public class EdgeGrpcService extends EdgeRpcServiceGrpc.EdgeRpcServiceImplBase i
         this.edgeEventProcessingExecutorService = Executors.newScheduledThreadPool(schedulerPoolSize, ThingsBoardThreadFactory.forName("edge-event-check-scheduler"));
         this.sendDownlinkExecutorService = Executors.newScheduledThreadPool(sendSchedulerPoolSize, ThingsBoardThreadFactory.forName("edge-send-scheduler"));
         this.executorService = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("edge-service"));
+        statsFactory.createGauge(EDGE_EVENTS_CHECKS_STATS_KEY, notifiedEdgeEventsChecks, "trigger", "notification");
+        statsFactory.createGauge(EDGE_EVENTS_CHECKS_STATS_KEY, safetyEdgeEventsChecks, "trigger", "safetyCheck");
         log.info("Edge RPC service initialized!");
     }
 
@@ -257,6 +272,11 @@ public class EdgeGrpcService extends EdgeRpcServiceGrpc.EdgeRpcServiceImplBase i
                 if (Boolean.FALSE.equals(sessionNewEvents.get(edgeId))) {
                     log.trace("[{}] set session new events flag to true [{}]", tenantId, edgeId.getId());
                     sessionNewEvents.put(edgeId, true);
+                    // wake up the session that waits for the next check, the running check will see the flag on completion
+                    ScheduledFuture<?> edgeEventCheck = sessionEdgeEventChecks.get(edgeId);
+                    if (edgeEventCheck != null && edgeEventCheck.cancel(false)) {
+                        scheduleEdgeEventsCheck(session, 0, false);
+                    }
                 }
             } finally {
                 newEventLock.unlock();
@@ -281,7 +301,7 @@ public class EdgeGrpcService extends EdgeRpcServiceGrpc.EdgeRpcServiceImplBase i
         save(tenantId, edgeId, DefaultDeviceStateService.LAST_CONNECT_TIME, lastConnectTs);
         pushRuleEngineMessage(tenantId, edge, lastConnectTs, TbMsgType.CONNECT_EVENT);
         cancelScheduleEdgeEventsCheck(edgeId);
-        scheduleEdgeEventsCheck(edgeGrpcSession);
+        scheduleEdgeEventsCheck(edgeGrpcSession, ctx.getEdgeEventStorageSettings().getNoRecordsSleepInterval(), false);
     }
 
     private void startSyncProcess(TenantId tenantId, EdgeId edgeId, UUID requestId) {
@@ -328,51 +348,87 @@ public class EdgeGrpcService extends EdgeRpcServiceGrpc.EdgeRpcServiceImplBase i
         }
     }
 
-    private void scheduleEdgeEventsCheck(EdgeGrpcSession session) {
+    /**
+     * Schedules the next check of the edge events in DB. The check reads the events only when the new events flag is set
+     * (the check is triggered right away by {@link #onEdgeEvent(TenantId, EdgeId)}), or when it is the periodic safety check
+     * that covers the lost edge event notifications.
+     */
+    private void scheduleEdgeEventsCheck(EdgeGrpcSession session, long delayMs, boolean safetyCheck) {
         EdgeId edgeId = session.getEdge().getId();
         UUID tenantId = session.getEdge().getTenantId().getId();
         if (sessions.containsKey(edgeId)) {
-            ScheduledFuture<?> edgeEventCheckTask = edgeEventProcessingExecutorService.schedule(() -> {
-                try {
-                    final Lock newEventLock = sessionNewEventsLocks.computeIfAbsent(edgeId, id -> new ReentrantLock());
-                    newEventLock.lock();
-                    try {
-                        if (Boolean.TRUE.equals(sessionNewEvents.get(edgeId))) {
-                            log.trace("[{}][{}] Set session new events flag to false", tenantId, edgeId.getId());
-                            sessionNewEvents.put(edgeId, false);
-                            Futures.addCallback(session.processEdgeEvents(), new FutureCallback<>() {
-                                @Override
-                                public void onSuccess(Boolean newEventsAdded) {
-                                    if (Boolean.TRUE.equals(newEventsAdded)) {
-                                        sessionNewEvents.put(edgeId, true);
-                                    }
-                                    scheduleEdgeEventsCheck(session);
-                                }
-
-                                @Override
-                                public void onFailure(Throwable t) {
-                                    log.warn("[{}] Failed to process edge events for edge [{}]!", tenantId, session.getEdge().getId().getId(), t);
-                                    scheduleEdgeEventsCheck(session);
-                                }
-                            }, ctx.getGrpcCallbackExecutorService());
-                        } else {
-                            scheduleEdgeEventsCheck(session);
-                        }
-                    } finally {
-                        newEventLock.unlock();
-                    }
-                } catch (Exception e) {
-                    log.warn("[{}] Failed to process edge events for edge [{}]!", tenantId, session.getEdge().getId().getId(), e);
-                }
-            }, ctx.getEdgeEventStorageSettings().getNoRecordsSleepInterval(), TimeUnit.MILLISECONDS);
-            sessionEdgeEventChecks.put(edgeId, edgeEventCheckTask);
-            log.trace("[{}] Check edge event scheduled for edge [{}]", tenantId, edgeId.getId());
+            final Lock newEventLock = sessionNewEventsLocks.computeIfAbsent(edgeId, id -> new ReentrantLock());
+            newEventLock.lock();
+            try {
+                // the task takes the same lock, so it is always started after the future is registered
+                ScheduledFuture<?> edgeEventCheckTask = edgeEventProcessingExecutorService.schedule(() -> checkEdgeEvents(session, safetyCheck),
+                        delayMs, TimeUnit.MILLISECONDS);
+                sessionEdgeEventChecks.put(edgeId, edgeEventCheckTask);
+            } finally {
+                newEventLock.unlock();
+            }
+            log.trace("[{}] Check edge event scheduled for edge [{}] in {} ms", tenantId, edgeId.getId(), delayMs);
         } else {
             log.debug("[{}] Session was removed and edge event check schedule must not be started [{}]",
                     tenantId, edgeId.getId());
         }
     }
 
+    private void checkEdgeEvents(EdgeGrpcSession session, boolean safetyCheck) {
+        EdgeId edgeId = session.getEdge().getId();
+        UUID tenantId = session.getEdge().getTenantId().getId();
+        try {
+            final Lock newEventLock = sessionNewEventsLocks.computeIfAbsent(edgeId, id -> new ReentrantLock());
+            newEventLock.lock();
+            try {
+                boolean newEvents = Boolean.TRUE.equals(sessionNewEvents.get(edgeId));
+                if (newEvents || (safetyCheck && sessionNewEvents.containsKey(edgeId))) {
+                    log.trace("[{}][{}] Set session new events flag to false", tenantId, edgeId.getId());
+                    sessionNewEvents.put(edgeId, false);
+                    (newEvents ? notifiedEdgeEventsChecks : safetyEdgeEventsChecks).incrementAndGet();
+                    Futures.addCallback(session.processEdgeEvents(), new FutureCallback<>() {
+                        @Override
+                        public void onSuccess(Boolean newEventsAdded) {
+                            scheduleNextEdgeEventsCheck(session, Boolean.TRUE.equals(newEventsAdded));
+                        }
+
+                        @Override
+                        public void onFailure(Throwable t) {
+                            log.warn("[{}] Failed to process edge events for edge [{}]!", tenantId, session.getEdge().getId().getId(), t);
+                            scheduleNextEdgeEventsCheck(session, false);
+                        }
+                    }, ctx.getGrpcCallbackExecutorService());
+                } else {
+                    scheduleNextEdgeEventsCheck(session, false);
+                }
+            } finally {
+                newEventLock.unlock();
+            }
+        } catch (Exception e) {
+            log.warn("[{}] Failed to process edge events for edge [{}]!", tenantId, session.getEdge().getId().getId(), e);
+        }
+    }
+
+    private void scheduleNextEdgeEventsCheck(EdgeGrpcSession session, boolean newEventsAdded) {
+        EdgeId edgeId = session.getEdge().getId();
+        boolean newEvents;
+        final Lock newEventLock = sessionNewEventsLocks.computeIfAbsent(edgeId, id -> new ReentrantLock());
+        newEventLock.lock();
+        try {
+            if (newEventsAdded && sessionNewEvents.containsKey(edgeId)) {
+                sessionNewEvents.put(edgeId, true);
+            }
+            newEvents = Boolean.TRUE.equals(sessionNewEvents.get(edgeId));
+            if (newEvents || safetyCheckInterval <= 0) {
+                scheduleEdgeEventsCheck(session, ctx.getEdgeEventStorageSettings().getNoRecordsSleepInterval(), false);
+            } else {
+                scheduleEdgeEventsCheck(session, safetyCheckInterval, true);
+            }
+        } finally {
+            newEventLock.unlock();
+        }
+    }
+
     private void cancelScheduleEdgeEventsCheck(EdgeId edgeId) {
         log.trace("[{}] cancelling edge event check for edge", edgeId);
         if (sessionEdgeEventChecks.containsKey(edgeId)) {
@@ -22,6 +22,7 @@ import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.common.data.housekeeper.HousekeeperTask;
 import org.thingsboard.server.common.data.housekeeper.HousekeeperTaskType;
+import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.notification.rule.trigger.TaskProcessingFailureTrigger;
 import org.thingsboard.server.common.msg.notification.NotificationRuleProcessor;
 import org.thingsboard.server.gen.transport.TransportProtos.ToHousekeeperServiceMsg;
@@ -36,9 +37,14 @@ import org.thingsboard.server.service.housekeeper.processor.HousekeeperTaskProce
 import org.thingsboard.server.service.housekeeper.stats.HousekeeperStatsService;
 
 import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
@@ -52,6 +58,8 @@ import java.util.stream.Collectors;
 @Slf4j
 public class HousekeeperService {
 
+    private static final Set<HousekeeperTaskType> COALESCED_TASK_TYPES = EnumSet.of(HousekeeperTaskType.DELETE_TS_HISTORY);
+
     private final Map<HousekeeperTaskType, HousekeeperTaskProcessor<?>> taskProcessors;
 
     private final HousekeeperConfig config;
@@ -61,7 +69,9 @@ public class HousekeeperService {
     private final QueueConsumerManager<TbProtoQueueMsg<ToHousekeeperServiceMsg>> consumer;
 
     private final ExecutorService consumerExecutor = Executors.newSingleThreadExecutor(ThingsBoardThreadFactory.forName("housekeeper-consumer"));
-    private final ExecutorService taskExecutor = Executors.newSingleThreadExecutor(ThingsBoardThreadFactory.forName("housekeeper-task-processor"));
+    // tasks of the same entity are always processed by the same single-thread executor, so their order is preserved
+    private final ExecutorService[] taskExecutors;
+    private final ExecutorService shardsExecutor;
 
     public HousekeeperService(HousekeeperConfig config,
                               HousekeeperReprocessingService reprocessingService,
@@ -81,6 +91,14 @@ public class HousekeeperService {
                 .consumerExecutor(consumerExecutor)
                 .build();
         this.taskProcessors = taskProcessors.stream().collect(Collectors.toMap(HousekeeperTaskProcessor::getTaskType, p -> p));
+
+        int threads = Math.max(1, config.getTaskProcessingThreads());
+        this.taskExecutors = new ExecutorService[threads];
+        for (int i = 0; i < threads; i++) {
+            String name = threads == 1 ? "housekeeper-task-processor" : "housekeeper-task-processor-" + i;
+            taskExecutors[i] = Executors.newSingleThreadExecutor(ThingsBoardThreadFactory.forName(name));
+        }
+        this.shardsExecutor = threads > 1 ? Executors.newFixedThreadPool(threads, ThingsBoardThreadFactory.forName("housekeeper-shard-processor")) : null;
     }
 
     @AfterStartUp(order = AfterStartUp.REGULAR_SERVICE)
@@ -90,26 +108,113 @@ public class HousekeeperService {
     }
 
     private void processMsgs(List<TbProtoQueueMsg<ToHousekeeperServiceMsg>> msgs, TbQueueConsumer<TbProtoQueueMsg<ToHousekeeperServiceMsg>> consumer) {
+        List<List<TbProtoQueueMsg<ToHousekeeperServiceMsg>>> shards = toShards(msgs);
+        try {
+            if (shards.size() == 1) {
+                processShard(shards.get(0));
+            } else {
+                List<Future<?>> futures = new ArrayList<>(shards.size());
+                for (List<TbProtoQueueMsg<ToHousekeeperServiceMsg>> shard : shards) {
+                    futures.add(shardsExecutor.submit(() -> {
+                        processShard(shard);
+                        return null;
+                    }));
+                }
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (ExecutionException e) {
+            if (!(e.getCause() instanceof InterruptedException)) {
+                log.error("Unexpected error during messages processing", e.getCause());
+            }
+            return;
+        }
+        consumer.commit();
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<List<TbProtoQueueMsg<ToHousekeeperServiceMsg>>> toShards(List<TbProtoQueueMsg<ToHousekeeperServiceMsg>> msgs) {
+        if (taskExecutors.length == 1 || msgs.size() <= 1) {
+            return List.of(msgs);
+        }
+        List<TbProtoQueueMsg<ToHousekeeperServiceMsg>>[] shards = new List[taskExecutors.length];
+        for (TbProtoQueueMsg<ToHousekeeperServiceMsg> msg : msgs) {
+            int shard = getShard(msg.getKey());
+            if (shards[shard] == null) {
+                shards[shard] = new ArrayList<>();
+            }
+            shards[shard].add(msg);
+        }
+        List<List<TbProtoQueueMsg<ToHousekeeperServiceMsg>>> result = new ArrayList<>();
+        for (List<TbProtoQueueMsg<ToHousekeeperServiceMsg>> shard : shards) {
+            if (shard != null) {
+                result.add(shard);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Tasks of the coalesced types (e.g. timeseries history deletion for each key of the entity)
+     * are processed at once (up to max-coalesced-tasks per batch), at the position of the first such task of the entity
+     */
+    private void processShard(List<TbProtoQueueMsg<ToHousekeeperServiceMsg>> msgs) throws InterruptedException {
+        List<List<HousekeeperTaskMsg>> batches = new ArrayList<>(msgs.size());
+        Map<CoalescingKey, List<HousekeeperTaskMsg>> coalescedBatches = new HashMap<>();
         for (TbProtoQueueMsg<ToHousekeeperServiceMsg> msg : msgs) {
             log.trace("Processing task: {}", msg);
+            HousekeeperTask task;
             try {
-                processTask(msg.getValue());
-            } catch (InterruptedException e) {
-                return;
+                task = JacksonUtil.fromString(msg.getValue().getTask().getValue(), HousekeeperTask.class);
             } catch (Throwable e) {
                 log.error("Unexpected error during message processing [{}]", msg, e);
                 reprocessingService.submitForReprocessing(msg.getValue(), e);
+                continue;
+            }
+            HousekeeperTaskMsg taskMsg = new HousekeeperTaskMsg(msg.getValue(), task);
+            if (COALESCED_TASK_TYPES.contains(task.getTaskType())) {
+                CoalescingKey coalescingKey = new CoalescingKey(task.getTaskType(), task.getEntityId());
+                List<HousekeeperTaskMsg> batch = coalescedBatches.get(coalescingKey);
+                if (batch == null) {
+                    batch = new ArrayList<>();
+                    coalescedBatches.put(coalescingKey, batch);
+                    batches.add(batch);
+                }
+                batch.add(taskMsg);
+                if (batch.size() >= config.getMaxCoalescedTasks()) { // the next tasks of the entity go to a new batch
+                    coalescedBatches.remove(coalescingKey);
+                }
+            } else {
+                batches.add(List.of(taskMsg));
+            }
+        }
+
+        for (List<HousekeeperTaskMsg> batch : batches) {
+            try {
+                processTasks(batch);
+            } catch (InterruptedException e) {
+                throw e;
+            } catch (Throwable e) {
+                log.error("Unexpected error during message processing [{}]", batch, e);
+                batch.forEach(taskMsg -> reprocessingService.submitForReprocessing(taskMsg.msg(), e));
             }
         }
-        consumer.commit();
     }
 
-    @SuppressWarnings("unchecked")
-    protected <T extends HousekeeperTask> void processTask(ToHousekeeperServiceMsg msg) throws Exception {
+    protected void processTask(ToHousekeeperServiceMsg msg) throws Exception {
         HousekeeperTask task = JacksonUtil.fromString(msg.getTask().getValue(), HousekeeperTask.class);
+        processTasks(List.of(new HousekeeperTaskMsg(msg, task)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends HousekeeperTask> void processTasks(List<HousekeeperTaskMsg> taskMsgs) throws Exception {
+        HousekeeperTask task = taskMsgs.get(0).task();
         HousekeeperTaskType taskType = task.getTaskType();
         if (config.getDisabledTaskTypes().contains(taskType)) {
-            log.debug("Task type {} is disabled, ignoring {}", taskType, task);
+            taskMsgs.forEach(taskMsg -> log.debug("Task type {} is disabled, ignoring {}", taskType, taskMsg.task()));
             return;
         }
         HousekeeperTaskProcessor<T> taskProcessor = (HousekeeperTaskProcessor<T>) taskProcessors.get(taskType);
@@ -119,17 +224,23 @@ public class HousekeeperService {
 
         try {
             long startTs = System.currentTimeMillis();
-            Future<Object> future = taskExecutor.submit(() -> {
-                taskProcessor.process((T) task);
+            Future<Object> future = getTaskExecutor(task.getEntityId()).submit(() -> {
+                if (taskMsgs.size() == 1) {
+                    taskProcessor.process((T) task);
+                } else {
+                    taskProcessor.processAll(taskMsgs.stream().map(taskMsg -> (T) taskMsg.task()).toList());
+                }
                 return null;
             });
             future.get(config.getTaskProcessingTimeout(), TimeUnit.MILLISECONDS);
 
             long timing = System.currentTimeMillis() - startTs;
             if (log.isDebugEnabled()) {
-                log.debug("[{}] Processed {} in {} ms (attempt {})", task.getTenantId(), task.getDescription(), timing, msg.getTask().getAttempt());
+                for (HousekeeperTaskMsg taskMsg : taskMsgs) {
+                    log.debug("[{}] Processed {} in {} ms (attempt {})", taskMsg.task().getTenantId(), taskMsg.task().getDescription(), timing, taskMsg.msg().getTask().getAttempt());
+                }
             }
-            statsService.ifPresent(statsService -> statsService.reportProcessed(taskType, msg, timing));
+            statsService.ifPresent(statsService -> statsService.reportProcessed(taskType, taskMsgs.stream().map(HousekeeperTaskMsg::msg).toList(), timing));
         } catch (InterruptedException e) {
             throw e;
         } catch (Throwable e) {
@@ -140,27 +251,51 @@ public class HousekeeperService {
                 error = new TimeoutException("Timeout after " + config.getTaskProcessingTimeout() + " seconds");
             }
 
-            if (msg.getTask().getAttempt() < config.getMaxReprocessingAttempts()) {
-                log.warn("[{}] Failed to process {} (attempt {}), submitting for reprocessing",
-                        task.getTenantId(), task.getDescription(), msg.getTask().getAttempt(), error);
-                reprocessingService.submitForReprocessing(msg, error);
-            } else {
-                log.error("[{}] Failed to process task in {} attempts: {}", task.getTenantId(), msg.getTask().getAttempt(), msg, e);
-                notificationRuleProcessor.process(TaskProcessingFailureTrigger.builder()
-                        .task(task)
-                        .error(error)
-                        .attempt(msg.getTask().getAttempt())
-                        .build());
+            for (HousekeeperTaskMsg taskMsg : taskMsgs) {
+                onTaskFailure(taskMsg.msg(), taskMsg.task(), error, e);
             }
-            statsService.ifPresent(statsService -> statsService.reportFailure(taskType, msg));
         }
     }
 
+    private void onTaskFailure(ToHousekeeperServiceMsg msg, HousekeeperTask task, Throwable error, Throwable e) {
+        if (msg.getTask().getAttempt() < config.getMaxReprocessingAttempts()) {
+            log.warn("[{}] Failed to process {} (attempt {}), submitting for reprocessing",
+                    task.getTenantId(), task.getDescription(), msg.getTask().getAttempt(), error);
+            reprocessingService.submitForReprocessing(msg, error);
+        } else {
+            log.error("[{}] Failed to process task in {} attempts: {}", task.getTenantId(), msg.getTask().getAttempt(), msg, e);
+            notificationRuleProcessor.process(TaskProcessingFailureTrigger.builder()
+                    .task(task)
+                    .error(error)
+                    .attempt(msg.getTask().getAttempt())
+                    .build());
+        }
+        statsService.ifPresent(statsService -> statsService.reportFailure(task.getTaskType(), msg));
+    }
+
+    private ExecutorService getTaskExecutor(EntityId entityId) {
+        return taskExecutors[getShard(entityId.getId())];
+    }
+
+    private int getShard(UUID entityId) {
+        return taskExecutors.length == 1 || entityId == null ? 0 : Math.floorMod(entityId.hashCode(), taskExecutors.length);
+    }
+
     @PreDestroy
     private void stop() {
         consumer.stop();
         consumerExecutor.shutdownNow();
+        if (shardsExecutor != null) {
+            shardsExecutor.shutdownNow();
+        }
+        for (ExecutorService taskExecutor : taskExecutors) {
+            taskExecutor.shutdownNow();
+        }
         log.info("Stopped Housekeeper service");
     }
 
+    private record HousekeeperTaskMsg(ToHousekeeperServiceMsg msg, HousekeeperTask task) {}
+
+    private record CoalescingKey(HousekeeperTaskType taskType, EntityId entityId) {}
+
 }
@@ -20,6 +20,8 @@ import org.thingsboard.server.common.data.housekeeper.HousekeeperTask;
 import org.thingsboard.server.common.data.housekeeper.HousekeeperTaskType;
 import org.thingsboard.server.common.msg.housekeeper.HousekeeperClient;
 
+import java.util.List;
+
 public abstract class HousekeeperTaskProcessor<T extends HousekeeperTask> {
 
     @Autowired
@@ -27,6 +29,15 @@ public abstract class HousekeeperTaskProcessor<T extends HousekeeperTask> {
 
     public abstract void process(T task) throws Exception;
 
+    /**
+     * Processes the tasks of the same entity coalesced by the HousekeeperService
+     */
+    public void processAll(List<T> tasks) throws Exception {
+        for (T task : tasks) {
+            process(task);
+        }
+    }
+
     public abstract HousekeeperTaskType getTaskType();
 
 }
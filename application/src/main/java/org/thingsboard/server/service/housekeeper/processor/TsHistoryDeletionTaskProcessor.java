@@ -25,6 +25,7 @@ import org.thingsboard.server.common.data.kv.DeleteTsKvQuery;
 import org.thingsboard.server.dao.timeseries.TimeseriesService;
 
 import java.util.List;
+import java.util.Objects;
 
 @Component
 @RequiredArgsConstructor
@@ -40,6 +41,14 @@ public class TsHistoryDeletionTaskProcessor extends HousekeeperTaskProcessor<TsH
         log.debug("[{}][{}][{}] Deleted timeseries history for key '{}'", task.getTenantId(), task.getEntityId().getEntityType(), task.getEntityId(), task.getKey());
     }
 
+    @Override
+    public void processAll(List<TsHistoryDeletionHousekeeperTask> tasks) throws Exception {
+        TsHistoryDeletionHousekeeperTask task = tasks.get(0);
+        List<String> keys = tasks.stream().map(TsHistoryDeletionHousekeeperTask::getKey).filter(Objects::nonNull).distinct().toList();
+        timeseriesService.removeHistory(task.getTenantId(), task.getEntityId(), keys, 0, System.currentTimeMillis()).get();
+        log.debug("[{}][{}][{}] Deleted timeseries history for {} keys", task.getTenantId(), task.getEntityId().getEntityType(), task.getEntityId(), keys.size());
+    }
+
     @Override
     public HousekeeperTaskType getTaskType() {
         return HousekeeperTaskType.DELETE_TS_HISTORY;
@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.service.housekeeper.stats;
 
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
@@ -33,6 +34,8 @@ import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
 import java.util.stream.Collectors;
 
 @Service
@@ -40,7 +43,10 @@ import java.util.stream.Collectors;
 @ConditionalOnProperty(name = "queue.core.housekeeper.stats.enabled", havingValue = "true", matchIfMissing = true)
 public class HousekeeperStatsService {
 
+    private static final long[] LATENCY_BUCKETS_MS = {10, 100, 1000, 10000, 60000};
+
     private final Map<HousekeeperTaskType, HousekeeperStats> stats = new EnumMap<>(HousekeeperTaskType.class);
+    private long lastResetTs = System.currentTimeMillis();
 
     public HousekeeperStatsService(StatsFactory statsFactory) {
         for (HousekeeperTaskType taskType : HousekeeperTaskType.values()) {
@@ -51,6 +57,8 @@ public class HousekeeperStatsService {
     @Scheduled(initialDelayString = "${queue.core.housekeeper.stats.print-interval-ms:60000}",
             fixedDelayString = "${queue.core.housekeeper.stats.print-interval-ms:60000}")
     private void reportStats() {
+        long now = System.currentTimeMillis();
+        long elapsedSec = Math.max(TimeUnit.MILLISECONDS.toSeconds(now - lastResetTs), 1);
         String statsStr = stats.values().stream().map(stats -> {
             String countersStr = stats.getCounters().stream()
                     .filter(counter -> counter.get() > 0)
@@ -59,24 +67,33 @@ public class HousekeeperStatsService {
             if (countersStr.isEmpty()) {
                 return null;
             } else {
-                return stats.getTaskType() + " " + countersStr + " avgProcessingTime [" + stats.getProcessingTimer().getAvg() + " ms]";
+                long total = stats.getCounters().stream().mapToLong(StatsCounter::get).sum();
+                return stats.getTaskType() + " " + countersStr + " avgProcessingTime [" + stats.getAvgProcessingTime() + " ms]" +
+                        " throughput [" + total / elapsedSec + " tasks/sec] latency [" + stats.getLatencyHistogramStr() + "]";
             }
         }).filter(Objects::nonNull).collect(Collectors.joining(", "));
 
+        stats.values().forEach(HousekeeperStats::reset);
+        lastResetTs = now;
         if (!statsStr.isEmpty()) {
-            stats.values().forEach(HousekeeperStats::reset);
             log.info("Housekeeper stats: {}", statsStr);
         }
     }
 
-    public void reportProcessed(HousekeeperTaskType taskType, ToHousekeeperServiceMsg msg, long timing) {
+    /**
+     * Reports the tasks processed at once (e.g. coalesced timeseries history deletion tasks),
+     * the processing time is recorded once for the whole batch
+     */
+    public void reportProcessed(HousekeeperTaskType taskType, List<ToHousekeeperServiceMsg> msgs, long timing) {
         HousekeeperStats stats = this.stats.get(taskType);
-        if (msg.getTask().getErrorsCount() == 0) {
-            stats.getProcessedCounter().increment();
-        } else {
-            stats.getReprocessedCounter().increment();
+        for (ToHousekeeperServiceMsg msg : msgs) {
+            if (msg.getTask().getErrorsCount() == 0) {
+                stats.getProcessedCounter().increment();
+            } else {
+                stats.getReprocessedCounter().increment();
+            }
         }
-        stats.getProcessingTimer().record(timing);
+        stats.recordProcessingTime(timing);
     }
 
     public void reportFailure(HousekeeperTaskType taskType, ToHousekeeperServiceMsg msg) {
@@ -99,6 +116,8 @@ public class HousekeeperStatsService {
         private final StatsCounter failedReprocessingCounter;
 
         private final StatsTimer processingTimer;
+        private final Timer latencyTimer;
+        private final AtomicLongArray latencyHistogram = new AtomicLongArray(LATENCY_BUCKETS_MS.length + 1);
 
         public HousekeeperStats(HousekeeperTaskType taskType, StatsFactory statsFactory) {
             this.taskType = taskType;
@@ -107,6 +126,37 @@ public class HousekeeperStatsService {
             this.reprocessedCounter = register("reprocessed", statsFactory);
             this.failedReprocessingCounter = register("failedReprocessing", statsFactory);
             this.processingTimer = statsFactory.createTimer(StatsType.HOUSEKEEPER, "processingTime", "taskType", taskType.name());
+            this.latencyTimer = statsFactory.createTimer(StatsType.HOUSEKEEPER.getName() + ".latency", "taskType", taskType.name());
+        }
+
+        public void recordProcessingTime(long timing) {
+            synchronized (processingTimer) { // tasks are processed concurrently when the task processing threads are configured
+                processingTimer.record(timing);
+            }
+            latencyTimer.record(timing, TimeUnit.MILLISECONDS);
+            int bucket = 0;
+            while (bucket < LATENCY_BUCKETS_MS.length && timing > LATENCY_BUCKETS_MS[bucket]) {
+                bucket++;
+            }
+            latencyHistogram.incrementAndGet(bucket);
+        }
+
+        public double getAvgProcessingTime() {
+            synchronized (processingTimer) {
+                return processingTimer.getAvg();
+            }
+        }
+
+        public String getLatencyHistogramStr() {
+            StringBuilder result = new StringBuilder();
+            for (int i = 0; i < latencyHistogram.length(); i++) {
+                if (!result.isEmpty()) {
+                    result.append(", ");
+                }
+                result.append(i < LATENCY_BUCKETS_MS.length ? "<=" + LATENCY_BUCKETS_MS[i] : ">" + LATENCY_BUCKETS_MS[i - 1])
+                        .append("ms: ").append(latencyHistogram.get(i));
+            }
+            return result.toString();
         }
 
         private StatsCounter register(String statsName, StatsFactory statsFactory) {
@@ -117,7 +167,12 @@ public class HousekeeperStatsService {
 
         public void reset() {
             counters.forEach(DefaultCounter::clear);
-            processingTimer.reset();
+            synchronized (processingTimer) {
+                processingTimer.reset();
+            }
+            for (int i = 0; i < latencyHistogram.length(); i++) {
+                latencyHistogram.set(i, 0);
+            }
         }
 
     }
@@ -19,6 +19,7 @@ import com.google.common.util.concurrent.FutureCallback;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.thingsboard.rule.engine.api.NotificationCenter;
 import org.thingsboard.server.cache.limits.RateLimitService;
@@ -73,7 +74,9 @@ import org.thingsboard.server.service.telemetry.AbstractSubscriptionService;
 import org.thingsboard.server.service.ws.notification.sub.NotificationRequestUpdate;
 import org.thingsboard.server.service.ws.notification.sub.NotificationUpdate;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -99,6 +102,9 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
     private final TbQueueProducerProvider producerProvider;
     private final RateLimitService rateLimitService;
 
+    @Value("${notification_system.web.batch_size:0}")
+    private int webNotificationsBatchSize;
+
     private Map<NotificationDeliveryMethod, NotificationChannel> channels;
 
     @Override
@@ -226,10 +232,11 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
             long time = System.currentTimeMillis() - startTs;
             int sent = stats.getTotalSent().get();
             int errors = stats.getTotalErrors().get();
+            long throughput = (sent + errors) * 1000L / Math.max(time, 1);
             if (errors > 0) {
-                log.info("[{}][{}] Notification request processing finished in {} ms (sent: {}, errors: {})", ctx.getTenantId(), requestId, time, sent, errors);
+                log.info("[{}][{}] Notification request processing finished in {} ms (sent: {}, errors: {}, {} recipients/sec)", ctx.getTenantId(), requestId, time, sent, errors, throughput);
             } else {
-                log.info("[{}][{}] Notification request processing finished in {} ms (sent: {})", ctx.getTenantId(), requestId, time, sent);
+                log.info("[{}][{}] Notification request processing finished in {} ms (sent: {}, {} recipients/sec)", ctx.getTenantId(), requestId, time, sent, throughput);
             }
             updateRequestStats(ctx, requestId, stats);
             if (callback != null) {
@@ -279,9 +286,20 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
             return;
         }
 
+        boolean batchWebNotifications = webNotificationsBatchSize > 0 && deliveryMethods.contains(WEB);
+        List<PendingWebNotification> pendingWebNotifications = batchWebNotifications ? new ArrayList<>(webNotificationsBatchSize) : null;
         for (NotificationRecipient recipient : recipients) {
             for (NotificationDeliveryMethod deliveryMethod : deliveryMethods) {
                 try {
+                    if (batchWebNotifications && deliveryMethod == WEB && recipient instanceof User user) {
+                        WebDeliveryMethodNotificationTemplate processedTemplate = prepareForRecipient(WEB, user, ctx);
+                        pendingWebNotifications.add(new PendingWebNotification(user, toNotification(user, processedTemplate, ctx)));
+                        if (pendingWebNotifications.size() >= webNotificationsBatchSize) {
+                            sendWebNotifications(pendingWebNotifications, ctx);
+                            pendingWebNotifications.clear();
+                        }
+                        continue; // the stats are reported when the batch is saved
+                    }
                     processForRecipient(deliveryMethod, recipient, ctx);
                     ctx.getStats().reportSent(deliveryMethod, recipient);
                 } catch (Exception error) {
@@ -289,9 +307,20 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
                 }
             }
         }
+        if (batchWebNotifications && !pendingWebNotifications.isEmpty()) {
+            sendWebNotifications(pendingWebNotifications, ctx);
+        }
     }
 
     private void processForRecipient(NotificationDeliveryMethod deliveryMethod, NotificationRecipient recipient, NotificationProcessingContext ctx) throws Exception {
+        NotificationChannel notificationChannel = channels.get(deliveryMethod);
+        DeliveryMethodNotificationTemplate processedTemplate = prepareForRecipient(deliveryMethod, recipient, ctx);
+
+        log.trace("[{}] Sending {} notification for recipient {}", ctx.getRequest().getId(), deliveryMethod, recipient);
+        notificationChannel.sendNotification(recipient, processedTemplate, ctx);
+    }
+
+    private <T extends DeliveryMethodNotificationTemplate> T prepareForRecipient(NotificationDeliveryMethod deliveryMethod, NotificationRecipient recipient, NotificationProcessingContext ctx) {
         if (ctx.getStats().contains(deliveryMethod, recipient.getId())) {
             throw new AlreadySentException();
         } else {
@@ -304,28 +333,50 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
                 throw new RuntimeException("User disabled " + deliveryMethod.getName() + " notifications of this type");
             }
         }
+        return ctx.getProcessedTemplate(deliveryMethod, recipient);
+    }
 
-        NotificationChannel notificationChannel = channels.get(deliveryMethod);
-        DeliveryMethodNotificationTemplate processedTemplate = ctx.getProcessedTemplate(deliveryMethod, recipient);
+    /**
+     * Saves the web notifications with a single batch insert and sends the updates
+     * with one message per core partition instead of one message per recipient
+     */
+    void sendWebNotifications(List<PendingWebNotification> pendingNotifications, NotificationProcessingContext ctx) {
+        List<Notification> notifications = pendingNotifications.stream().map(PendingWebNotification::notification).collect(Collectors.toList());
+        try {
+            notificationService.saveNotifications(ctx.getTenantId(), notifications);
+        } catch (Exception e) {
+            log.error("[{}] Failed to create {} notifications", ctx.getRequest().getId(), notifications.size(), e);
+            for (PendingWebNotification pendingNotification : pendingNotifications) {
+                ctx.getStats().reportError(WEB, e, pendingNotification.recipient());
+            }
+            return;
+        }
+        log.trace("[{}] Created {} notifications", ctx.getRequest().getId(), notifications.size());
 
-        log.trace("[{}] Sending {} notification for recipient {}", ctx.getRequest().getId(), deliveryMethod, recipient);
-        notificationChannel.sendNotification(recipient, processedTemplate, ctx);
+        Map<TopicPartitionInfo, List<TransportProtos.NotificationUpdateProto>> remoteUpdates = new HashMap<>();
+        for (PendingWebNotification pendingNotification : pendingNotifications) {
+            User recipient = pendingNotification.recipient();
+            ctx.getStats().reportSent(WEB, recipient);
+            NotificationUpdate update = NotificationUpdate.builder()
+                    .created(true)
+                    .notification(pendingNotification.notification())
+                    .build();
+            TopicPartitionInfo tpi = partitionService.resolve(ServiceType.TB_CORE, recipient.getTenantId(), recipient.getId());
+            if (currentPartitions.contains(tpi) && subscriptionManagerService.isPresent()) {
+                subscriptionManagerService.get().onNotificationUpdate(recipient.getTenantId(), recipient.getId(), update, TbCallback.EMPTY);
+            } else {
+                remoteUpdates.computeIfAbsent(tpi, k -> new ArrayList<>())
+                        .add(TbSubscriptionUtils.toNotificationUpdateProto(recipient.getTenantId(), recipient.getId(), update));
+            }
+        }
+        remoteUpdates.forEach((tpi, updates) -> {
+            clusterService.pushMsgToCore(tpi, UUID.randomUUID(), TbSubscriptionUtils.notificationUpdatesToProto(updates), null);
+        });
     }
 
     @Override
     public void sendNotification(User recipient, WebDeliveryMethodNotificationTemplate processedTemplate, NotificationProcessingContext ctx) throws Exception {
-        NotificationRequest request = ctx.getRequest();
-        Notification notification = Notification.builder()
-                .requestId(request.getId())
-                .recipientId(recipient.getId())
-                .type(ctx.getNotificationType())
-                .deliveryMethod(WEB)
-                .subject(processedTemplate.getSubject())
-                .text(processedTemplate.getBody())
-                .additionalConfig(processedTemplate.getAdditionalConfig())
-                .info(request.getInfo())
-                .status(NotificationStatus.SENT)
-                .build();
+        Notification notification = toNotification(recipient, processedTemplate, ctx);
         try {
             notification = notificationService.saveNotification(recipient.getTenantId(), notification);
         } catch (Exception e) {
@@ -432,6 +483,21 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
         clusterService.pushMsgToCore(tenantId, notificationRequestId, toCoreMsg, null);
     }
 
+    private Notification toNotification(User recipient, WebDeliveryMethodNotificationTemplate processedTemplate, NotificationProcessingContext ctx) {
+        NotificationRequest request = ctx.getRequest();
+        return Notification.builder()
+                .requestId(request.getId())
+                .recipientId(recipient.getId())
+                .type(ctx.getNotificationType())
+                .deliveryMethod(WEB)
+                .subject(processedTemplate.getSubject())
+                .text(processedTemplate.getBody())
+                .additionalConfig(processedTemplate.getAdditionalConfig())
+                .info(request.getInfo())
+                .status(NotificationStatus.SENT)
+                .build();
+    }
+
     private void onNotificationUpdate(TenantId tenantId, UserId recipientId, NotificationUpdate update) {
         log.trace("Submitting notification update for recipient {}: {}", recipientId, update);
         forwardToSubscriptionManagerService(tenantId, recipientId, subscriptionManagerService -> {
@@ -467,4 +533,6 @@ public class DefaultNotificationCenter extends AbstractSubscriptionService imple
         this.channels.put(WEB, (NotificationChannel) webNotificationChannel);
     }
 
+    record PendingWebNotification(User recipient, Notification notification) {}
+
 }
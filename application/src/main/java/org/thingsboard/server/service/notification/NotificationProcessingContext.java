@@ -32,14 +32,19 @@ import org.thingsboard.server.common.data.notification.template.NotificationTemp
 import org.thingsboard.server.common.data.notification.template.NotificationTemplateConfig;
 import org.thingsboard.server.common.data.util.TemplateUtils;
 
+import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
 @SuppressWarnings("unchecked")
 public class NotificationProcessingContext {
 
+    private static final List<String> RECIPIENT_PARAMS = List.of("recipientTitle", "recipientEmail", "recipientFirstName", "recipientLastName");
+    private static final int MAX_PROCESSED_TEMPLATES_PER_DELIVERY_METHOD = 1024;
+
     @Getter
     private final TenantId tenantId;
     private final NotificationSettings settings;
@@ -54,6 +59,8 @@ public class NotificationProcessingContext {
     private final NotificationType notificationType;
 
     private final Map<NotificationDeliveryMethod, DeliveryMethodNotificationTemplate> templates;
+    private final Map<NotificationDeliveryMethod, List<String>> templatesRecipientParams;
+    private final Map<NotificationDeliveryMethod, Map<List<String>, DeliveryMethodNotificationTemplate>> processedTemplates;
     @Getter
     private final NotificationRequestStats stats;
 
@@ -68,6 +75,8 @@ public class NotificationProcessingContext {
         this.notificationTemplate = template;
         this.notificationType = template.getNotificationType();
         this.templates = new EnumMap<>(NotificationDeliveryMethod.class);
+        this.templatesRecipientParams = new EnumMap<>(NotificationDeliveryMethod.class);
+        this.processedTemplates = new EnumMap<>(NotificationDeliveryMethod.class);
         this.stats = new NotificationRequestStats();
         init();
     }
@@ -78,6 +87,10 @@ public class NotificationProcessingContext {
             if (template.isEnabled()) {
                 template = processTemplate(template, null); // processing template with immutable params
                 templates.put(deliveryMethod, template);
+                DeliveryMethodNotificationTemplate processedTemplate = template;
+                templatesRecipientParams.put(deliveryMethod, RECIPIENT_PARAMS.stream()
+                        .filter(param -> processedTemplate.getTemplatableValues().stream().anyMatch(value -> value.containsParams(List.of(param))))
+                        .toList());
             }
         });
     }
@@ -92,15 +105,34 @@ public class NotificationProcessingContext {
         return (C) settings.getDeliveryMethodsConfigs().get(deliveryMethod);
     }
 
+    /**
+     * The template is processed once per distinct set of the recipient params that it uses,
+     * so the recipients with the same values (or all recipients, if the template has no recipient params) share the processed template.
+     * Not thread-safe, the recipients of the request are processed sequentially.
+     */
     public <T extends DeliveryMethodNotificationTemplate> T getProcessedTemplate(NotificationDeliveryMethod deliveryMethod, NotificationRecipient recipient) {
         T template = (T) templates.get(deliveryMethod);
-        if (recipient != null) {
-            Map<String, String> additionalTemplateContext = createTemplateContextForRecipient(recipient);
-            if (template.getTemplatableValues().stream().anyMatch(value -> value.containsParams(additionalTemplateContext.keySet()))) {
-                template = processTemplate(template, additionalTemplateContext);
+        if (recipient == null) {
+            return template;
+        }
+        List<String> recipientParams = templatesRecipientParams.get(deliveryMethod);
+        if (recipientParams.isEmpty()) {
+            return template;
+        }
+        Map<String, String> additionalTemplateContext = createTemplateContextForRecipient(recipient);
+        List<String> paramsValues = new ArrayList<>(recipientParams.size());
+        for (String param : recipientParams) {
+            paramsValues.add(additionalTemplateContext.get(param));
+        }
+        Map<List<String>, DeliveryMethodNotificationTemplate> cache = processedTemplates.computeIfAbsent(deliveryMethod, k -> new HashMap<>());
+        T processedTemplate = (T) cache.get(paramsValues);
+        if (processedTemplate == null) {
+            processedTemplate = processTemplate(template, additionalTemplateContext);
+            if (cache.size() < MAX_PROCESSED_TEMPLATES_PER_DELIVERY_METHOD) {
+                cache.put(paramsValues, processedTemplate);
             }
         }
-        return template;
+        return processedTemplate;
     }
 
     private <T extends DeliveryMethodNotificationTemplate> T processTemplate(T template, Map<String, String> additionalTemplateContext) {
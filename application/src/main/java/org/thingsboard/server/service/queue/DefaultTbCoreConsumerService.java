@@ -525,7 +525,7 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
         callback.onSuccess();
     }
 
-    private void forwardToSubMgrService(SubscriptionMgrMsgProto msg, TbCallback callback) {
+    void forwardToSubMgrService(SubscriptionMgrMsgProto msg, TbCallback callback) {
         if (msg.hasSubEvent()) {
             TbEntitySubEventProto subEvent = msg.getSubEvent();
             subscriptionManagerService.onSubEvent(subEvent.getServiceId(), TbSubscriptionUtils.fromProto(subEvent), callback);
@@ -584,11 +584,12 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
                     TbSubscriptionUtils.toEntityId(proto.getEntityType(), proto.getEntityIdMSB(), proto.getEntityIdLSB()),
                     JacksonUtil.fromString(proto.getAlarm(), AlarmInfo.class), callback);
         } else if (msg.hasNotificationUpdate()) {
-            TransportProtos.NotificationUpdateProto updateProto = msg.getNotificationUpdate();
-            TenantId tenantId = toTenantId(updateProto.getTenantIdMSB(), updateProto.getTenantIdLSB());
-            UserId recipientId = new UserId(new UUID(updateProto.getRecipientIdMSB(), updateProto.getRecipientIdLSB()));
-            NotificationUpdate update = JacksonUtil.fromString(updateProto.getUpdate(), NotificationUpdate.class);
-            subscriptionManagerService.onNotificationUpdate(tenantId, recipientId, update, callback);
+            forwardNotificationUpdate(msg.getNotificationUpdate(), callback);
+        } else if (msg.getNotificationUpdatesCount() > 0) {
+            for (TransportProtos.NotificationUpdateProto updateProto : msg.getNotificationUpdatesList()) {
+                forwardNotificationUpdate(updateProto, TbCallback.EMPTY);
+            }
+            callback.onSuccess();
         } else if (msg.hasNotificationRequestUpdate()) {
             TransportProtos.NotificationRequestUpdateProto updateProto = msg.getNotificationRequestUpdate();
             TenantId tenantId = toTenantId(updateProto.getTenantIdMSB(), updateProto.getTenantIdLSB());
@@ -602,6 +603,13 @@ public class DefaultTbCoreConsumerService extends AbstractConsumerService<ToCore
         }
     }
 
+    private void forwardNotificationUpdate(TransportProtos.NotificationUpdateProto updateProto, TbCallback callback) {
+        TenantId tenantId = toTenantId(updateProto.getTenantIdMSB(), updateProto.getTenantIdLSB());
+        UserId recipientId = new UserId(new UUID(updateProto.getRecipientIdMSB(), updateProto.getRecipientIdLSB()));
+        NotificationUpdate update = JacksonUtil.fromString(updateProto.getUpdate(), NotificationUpdate.class);
+        subscriptionManagerService.onNotificationUpdate(tenantId, recipientId, update, callback);
+    }
+
     void forwardToStateService(DeviceStateServiceMsgProto deviceStateServiceMsg, TbCallback callback) {
         if (statsEnabled) {
             stats.log(deviceStateServiceMsg);
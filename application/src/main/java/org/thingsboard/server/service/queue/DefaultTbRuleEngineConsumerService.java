@@ -246,6 +246,7 @@ public class DefaultTbRuleEngineConsumerService extends AbstractConsumerService<
                 .consumerExecutor(consumersExecutor)
                 .scheduler(scheduler)
                 .taskExecutor(mgmtExecutor)
+                .eventPublisher(eventPublisher)
                 .build();
         consumers.put(queueKey, consumer);
         consumer.init(queue);
@@ -30,6 +30,7 @@ import java.util.concurrent.TimeUnit;
 
 @Slf4j
 public class TbMsgPackCallback implements TbMsgCallback {
+    private final int idx;
     private final UUID id;
     private final TenantId tenantId;
     private final TbMsgPackProcessingContext ctx;
@@ -37,11 +38,12 @@ public class TbMsgPackCallback implements TbMsgCallback {
     private final Timer successfulMsgTimer;
     private final Timer failedMsgTimer;
 
-    public TbMsgPackCallback(UUID id, TenantId tenantId, TbMsgPackProcessingContext ctx) {
-        this(id, tenantId, ctx, null, null);
+    public TbMsgPackCallback(int idx, UUID id, TenantId tenantId, TbMsgPackProcessingContext ctx) {
+        this(idx, id, tenantId, ctx, null, null);
     }
 
-    public TbMsgPackCallback(UUID id, TenantId tenantId, TbMsgPackProcessingContext ctx, Timer successfulMsgTimer, Timer failedMsgTimer) {
+    public TbMsgPackCallback(int idx, UUID id, TenantId tenantId, TbMsgPackProcessingContext ctx, Timer successfulMsgTimer, Timer failedMsgTimer) {
+        this.idx = idx;
         this.id = id;
         this.tenantId = tenantId;
         this.ctx = ctx;
@@ -56,7 +58,7 @@ public class TbMsgPackCallback implements TbMsgCallback {
         if (successfulMsgTimer != null) {
             successfulMsgTimer.record(System.currentTimeMillis() - startMsgProcessing, TimeUnit.MILLISECONDS);
         }
-        ctx.onSuccess(id);
+        ctx.onSuccess(idx);
     }
 
     @Override
@@ -66,7 +68,7 @@ public class TbMsgPackCallback implements TbMsgCallback {
         if (failedMsgTimer != null) {
             failedMsgTimer.record(System.currentTimeMillis() - startMsgProcessing, TimeUnit.MILLISECONDS);
         }
-        ctx.onSuccess(id);
+        ctx.onSuccess(idx);
     }
     
     @Override
@@ -80,7 +82,7 @@ public class TbMsgPackCallback implements TbMsgCallback {
         if (failedMsgTimer != null) {
             failedMsgTimer.record(System.currentTimeMillis() - startMsgProcessing, TimeUnit.MILLISECONDS);
         }
-        ctx.onFailure(tenantId, id, e);
+        ctx.onFailure(tenantId, idx, e);
     }
 
     @Override
@@ -91,7 +93,7 @@ public class TbMsgPackCallback implements TbMsgCallback {
     @Override
     public void onProcessingStart(RuleNodeInfo ruleNodeInfo) {
         log.trace("[{}] ON PROCESSING START: {}", id, ruleNodeInfo);
-        ctx.onProcessingStart(id, ruleNodeInfo);
+        ctx.onProcessingStart(idx, id, ruleNodeInfo);
     }
 
     @Override
@@ -23,16 +23,20 @@ import org.thingsboard.server.common.msg.queue.RuleEngineException;
 import org.thingsboard.server.common.msg.queue.RuleNodeInfo;
 import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.service.queue.processing.IdMsgPair;
+import org.thingsboard.server.service.queue.processing.TbMsgPackTracker;
 import org.thingsboard.server.service.queue.processing.TbRuleEngineSubmitStrategy;
 
+import java.util.Collections;
 import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 @Slf4j
 public class TbMsgPackProcessingContext {
@@ -42,18 +46,12 @@ public class TbMsgPackProcessingContext {
     private final boolean skipTimeoutMsgsPossible;
     @Getter
     private final boolean profilerEnabled;
-    private final AtomicInteger pendingCount;
     private final CountDownLatch processingTimeoutLatch = new CountDownLatch(1);
-    @Getter
-    private final ConcurrentMap<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> pendingMap;
-    @Getter
-    private final ConcurrentMap<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> successMap = new ConcurrentHashMap<>();
-    @Getter
-    private final ConcurrentMap<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> failedMap = new ConcurrentHashMap<>();
+    private final TbMsgPackTracker tracker;
     @Getter
     private final ConcurrentMap<TenantId, RuleEngineException> exceptionsMap = new ConcurrentHashMap<>();
 
-    private final ConcurrentMap<UUID, RuleNodeInfo> lastRuleNodeMap = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<RuleNodeInfo> lastRuleNodes;
 
     private volatile boolean canceled = false;
 
@@ -62,8 +60,11 @@ public class TbMsgPackProcessingContext {
         this.submitStrategy = submitStrategy;
         this.skipTimeoutMsgsPossible = skipTimeoutMsgsPossible;
         this.profilerEnabled = log.isDebugEnabled();
-        this.pendingMap = submitStrategy.getPendingMap();
-        this.pendingCount = new AtomicInteger(pendingMap.size());
+        this.tracker = new TbMsgPackTracker(submitStrategy.getOrderedMsgList());
+        this.lastRuleNodes = new AtomicReferenceArray<>(tracker.size());
+        if (tracker.size() == 0) {
+            processingTimeoutLatch.countDown();
+        }
     }
 
     public boolean await(long packProcessingTimeout, TimeUnit milliseconds) throws InterruptedException {
@@ -74,29 +75,23 @@ public class TbMsgPackProcessingContext {
         return success;
     }
 
-    public void onSuccess(UUID id) {
-        TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg> msg;
-        boolean empty = false;
-        msg = pendingMap.remove(id);
-        if (msg != null) {
-            empty = pendingCount.decrementAndGet() == 0;
-            successMap.put(id, msg);
-            submitStrategy.onSuccess(id);
+    public void onSuccess(int idx) {
+        if (canceled || !tracker.onSuccess(idx)) {
+            return;
         }
+        boolean empty = tracker.decrementPendingCount() == 0;
+        submitStrategy.onSuccess(tracker.get(idx));
         if (empty) {
             processingTimeoutLatch.countDown();
         }
     }
 
-    public void onFailure(TenantId tenantId, UUID id, RuleEngineException e) {
-        TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg> msg;
-        boolean empty = false;
-        msg = pendingMap.remove(id);
-        if (msg != null) {
-            empty = pendingCount.decrementAndGet() == 0;
-            failedMap.put(id, msg);
-            exceptionsMap.putIfAbsent(tenantId, e);
+    public void onFailure(TenantId tenantId, int idx, RuleEngineException e) {
+        if (canceled || !tracker.onFailure(idx)) {
+            return;
         }
+        boolean empty = tracker.decrementPendingCount() == 0;
+        exceptionsMap.putIfAbsent(tenantId, e);
         if (empty) {
             processingTimeoutLatch.countDown();
         }
@@ -105,8 +100,8 @@ public class TbMsgPackProcessingContext {
     private final ConcurrentHashMap<UUID, TbMsgProfilerInfo> msgProfilerMap = new ConcurrentHashMap<>();
     private final ConcurrentHashMap<UUID, TbRuleNodeProfilerInfo> ruleNodeProfilerMap = new ConcurrentHashMap<>();
 
-    public void onProcessingStart(UUID id, RuleNodeInfo ruleNodeInfo) {
-        lastRuleNodeMap.put(id, ruleNodeInfo);
+    public void onProcessingStart(int idx, UUID id, RuleNodeInfo ruleNodeInfo) {
+        lastRuleNodes.set(idx, ruleNodeInfo);
         if (profilerEnabled) {
             msgProfilerMap.computeIfAbsent(id, TbMsgProfilerInfo::new).onStart(ruleNodeInfo.getRuleNodeId());
             ruleNodeProfilerMap.putIfAbsent(ruleNodeInfo.getRuleNodeId().getId(), new TbRuleNodeProfilerInfo(ruleNodeInfo));
@@ -129,8 +124,28 @@ public class TbMsgPackProcessingContext {
         }
     }
 
-    public RuleNodeInfo getLastVisitedRuleNode(UUID id) {
-        return lastRuleNodeMap.get(id);
+    public RuleNodeInfo getLastVisitedRuleNode(int idx) {
+        return lastRuleNodes.get(idx);
+    }
+
+    public ConcurrentMap<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> getPendingMap() {
+        return canceled ? new ConcurrentHashMap<>() : tracker.getPendingMap();
+    }
+
+    public ConcurrentMap<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> getSuccessMap() {
+        return canceled ? new ConcurrentHashMap<>() : tracker.getSuccessMap();
+    }
+
+    public ConcurrentMap<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> getFailedMap() {
+        return canceled ? new ConcurrentHashMap<>() : tracker.getFailedMap();
+    }
+
+    public List<IdMsgPair<TransportProtos.ToRuleEngineMsg>> getPendingMsgs() {
+        return canceled ? Collections.emptyList() : tracker.getPending();
+    }
+
+    public List<IdMsgPair<TransportProtos.ToRuleEngineMsg>> getFailedMsgs() {
+        return canceled ? Collections.emptyList() : tracker.getFailed();
     }
 
     public void printProfilerStats() {
@@ -154,9 +169,6 @@ public class TbMsgPackProcessingContext {
 
     public void cleanup() {
         canceled = true;
-        pendingMap.clear();
-        successMap.clear();
-        failedMap.clear();
     }
 
     public boolean isCanceled() {
@@ -60,7 +60,7 @@ public class MainQueueConsumerManager<M extends TbQueueMsg, C extends QueueConfi
     private final ReentrantLock lock = new ReentrantLock();
 
     @Getter
-    private volatile Set<TopicPartitionInfo> partitions;
+    protected volatile Set<TopicPartitionInfo> partitions;
     protected volatile ConsumerWrapper<M> consumerWrapper;
     protected volatile boolean stopped;
 
@@ -206,6 +206,7 @@ public class MainQueueConsumerManager<M extends TbQueueMsg, C extends QueueConfi
             try {
                 List<M> msgs = consumer.poll(config.getPollInterval());
                 if (msgs.isEmpty()) {
+                    onEmptyPoll(consumer, config);
                     continue;
                 }
                 processMsgs(msgs, consumer, config);
@@ -220,11 +221,18 @@ public class MainQueueConsumerManager<M extends TbQueueMsg, C extends QueueConfi
                 }
             }
         }
+        onConsumerLoopFinished(consumer);
         if (consumer.isStopped()) {
             consumer.unsubscribe();
         }
     }
 
+    protected void onEmptyPoll(TbQueueConsumer<M> consumer, C config) throws Exception {
+    }
+
+    protected void onConsumerLoopFinished(TbQueueConsumer<M> consumer) {
+    }
+
     protected void processMsgs(List<M> msgs, TbQueueConsumer<M> consumer, C config) throws Exception {
         msgPackProcessor.process(msgs, consumer, config);
     }
@@ -23,7 +23,6 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentMap;
-import java.util.stream.Collectors;
 
 public abstract class AbstractTbRuleEngineSubmitStrategy implements TbRuleEngineSubmitStrategy {
 
@@ -35,16 +34,20 @@ public abstract class AbstractTbRuleEngineSubmitStrategy implements TbRuleEngine
         this.queueName = queueName;
     }
 
-    protected abstract void doOnSuccess(UUID id);
+    protected abstract void doOnSuccess(int idx);
 
     @Override
     public void init(List<TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> msgs) {
-        orderedMsgList = msgs.stream().map(msg -> new IdMsgPair<>(UUID.randomUUID(), msg)).collect(Collectors.toList());
+        List<IdMsgPair<TransportProtos.ToRuleEngineMsg>> newOrderedMsgList = new ArrayList<>(msgs.size());
+        for (TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg> msg : msgs) {
+            newOrderedMsgList.add(new IdMsgPair<>(newOrderedMsgList.size(), UUID.randomUUID(), msg));
+        }
+        orderedMsgList = newOrderedMsgList;
     }
 
     @Override
-    public ConcurrentMap<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> getPendingMap() {
-        return orderedMsgList.stream().collect(Collectors.toConcurrentMap(pair -> pair.uuid, pair -> pair.msg));
+    public List<IdMsgPair<TransportProtos.ToRuleEngineMsg>> getOrderedMsgList() {
+        return orderedMsgList;
     }
 
     @Override
@@ -58,9 +61,9 @@ public abstract class AbstractTbRuleEngineSubmitStrategy implements TbRuleEngine
                             .clearRelationTypes()
                             .build();
                     var newMsg = new TbProtoQueueMsg<>(pair.getMsg().getKey(), toRuleEngineMsg, pair.getMsg().getHeaders());
-                    newOrderedMsgList.add(new IdMsgPair<>(pair.getUuid(), newMsg));
+                    newOrderedMsgList.add(new IdMsgPair<>(newOrderedMsgList.size(), pair.getUuid(), newMsg));
                 } else {
-                    newOrderedMsgList.add(pair);
+                    newOrderedMsgList.add(new IdMsgPair<>(newOrderedMsgList.size(), pair.getUuid(), pair.getMsg()));
                 }
             }
         }
@@ -68,9 +71,12 @@ public abstract class AbstractTbRuleEngineSubmitStrategy implements TbRuleEngine
     }
 
     @Override
-    public void onSuccess(UUID id) {
-        if (!stopped) {
-            doOnSuccess(id);
+    public void onSuccess(IdMsgPair<TransportProtos.ToRuleEngineMsg> msg) {
+        List<IdMsgPair<TransportProtos.ToRuleEngineMsg>> msgs = orderedMsgList;
+        int idx = msg.getIdx();
+        // the pairs are re-created on each update, so late acks of the previous submit attempt are ignored
+        if (!stopped && idx >= 0 && idx < msgs.size() && msgs.get(idx) == msg) {
+            doOnSuccess(idx);
         }
     }
 
@@ -19,20 +19,21 @@ import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
 
-import java.util.LinkedHashMap;
-import java.util.Map;
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Slf4j
 public class BatchTbRuleEngineSubmitStrategy extends AbstractTbRuleEngineSubmitStrategy {
 
     private final int batchSize;
     private final AtomicInteger packIdx = new AtomicInteger(0);
-    private final Map<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> pendingPack = new LinkedHashMap<>();
-    private volatile BiConsumer<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> msgConsumer;
+    private final AtomicInteger pendingPackCount = new AtomicInteger(0);
+    private volatile int pendingPackStartIdx;
+    private volatile int pendingPackEndIdx;
+    private volatile Consumer<IdMsgPair<TransportProtos.ToRuleEngineMsg>> msgConsumer;
 
     public BatchTbRuleEngineSubmitStrategy(String queueName, int batchSize) {
         super(queueName);
@@ -40,7 +41,7 @@ public class BatchTbRuleEngineSubmitStrategy extends AbstractTbRuleEngineSubmitS
     }
 
     @Override
-    public void submitAttempt(BiConsumer<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> msgConsumer) {
+    public void submitAttempt(Consumer<IdMsgPair<TransportProtos.ToRuleEngineMsg>> msgConsumer) {
         this.msgConsumer = msgConsumer;
         submitNext();
     }
@@ -52,36 +53,29 @@ public class BatchTbRuleEngineSubmitStrategy extends AbstractTbRuleEngineSubmitS
     }
 
     @Override
-    protected void doOnSuccess(UUID id) {
-        boolean endOfPendingPack;
-        synchronized (pendingPack) {
-            TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg> msg = pendingPack.remove(id);
-            endOfPendingPack = msg != null && pendingPack.isEmpty();
-        }
-        if (endOfPendingPack) {
+    protected void doOnSuccess(int idx) {
+        if (idx >= pendingPackStartIdx && idx < pendingPackEndIdx && pendingPackCount.decrementAndGet() == 0) {
             packIdx.incrementAndGet();
             submitNext();
         }
     }
 
     private void submitNext() {
-        int listSize = orderedMsgList.size();
+        List<IdMsgPair<TransportProtos.ToRuleEngineMsg>> msgs = orderedMsgList;
+        int listSize = msgs.size();
         int startIdx = Math.min(packIdx.get() * batchSize, listSize);
         int endIdx = Math.min(startIdx + batchSize, listSize);
-        Map<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> tmpPack;
-        synchronized (pendingPack) {
-            pendingPack.clear();
-            for (int i = startIdx; i < endIdx; i++) {
-                IdMsgPair<TransportProtos.ToRuleEngineMsg> pair = orderedMsgList.get(i);
-                pendingPack.put(pair.uuid, pair.msg);
-            }
-            tmpPack = new LinkedHashMap<>(pendingPack);
-        }
-        int submitSize = pendingPack.size();
+        int submitSize = endIdx - startIdx;
+        // the pack bounds are published before the submit, since the acks may arrive before the loop is finished
+        pendingPackCount.set(submitSize);
+        pendingPackStartIdx = startIdx;
+        pendingPackEndIdx = endIdx;
         if (log.isDebugEnabled() && submitSize > 0) {
             log.debug("[{}] submitting [{}] messages to rule engine", queueName, submitSize);
         }
-        tmpPack.forEach(msgConsumer);
+        for (int i = startIdx; i < endIdx; i++) {
+            msgConsumer.accept(msgs.get(i));
+        }
     }
 
 }
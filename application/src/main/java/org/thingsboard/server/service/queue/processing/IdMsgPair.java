@@ -21,12 +21,22 @@ import org.thingsboard.server.queue.common.TbProtoQueueMsg;
 import java.util.UUID;
 
 public class IdMsgPair<T extends com.google.protobuf.GeneratedMessageV3> {
+    /**
+     * Dense index of the message within the pack (submit attempt), or -1 if not indexed.
+     */
+    @Getter
+    final int idx;
     @Getter
     final UUID uuid;
     @Getter
     final TbProtoQueueMsg<T> msg;
 
     public IdMsgPair(UUID uuid, TbProtoQueueMsg<T> msg) {
+        this(-1, uuid, msg);
+    }
+
+    public IdMsgPair(int idx, UUID uuid, TbProtoQueueMsg<T> msg) {
+        this.idx = idx;
         this.uuid = uuid;
         this.msg = msg;
     }
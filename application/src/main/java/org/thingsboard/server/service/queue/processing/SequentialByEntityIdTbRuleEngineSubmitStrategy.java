@@ -26,13 +26,13 @@ import java.util.Queue;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
-import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Slf4j
 public abstract class SequentialByEntityIdTbRuleEngineSubmitStrategy extends AbstractTbRuleEngineSubmitStrategy {
 
-    private volatile BiConsumer<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> msgConsumer;
-    private volatile ConcurrentMap<UUID, EntityId> msgToEntityIdMap = new ConcurrentHashMap<>();
+    private volatile Consumer<IdMsgPair<TransportProtos.ToRuleEngineMsg>> msgConsumer;
+    private volatile EntityId[] msgEntityIds = new EntityId[0];
     private volatile ConcurrentMap<EntityId, Queue<IdMsgPair<TransportProtos.ToRuleEngineMsg>>> entityIdToListMap = new ConcurrentHashMap<>();
 
     public SequentialByEntityIdTbRuleEngineSubmitStrategy(String queueName) {
@@ -46,12 +46,12 @@ public abstract class SequentialByEntityIdTbRuleEngineSubmitStrategy extends Abs
     }
 
     @Override
-    public void submitAttempt(BiConsumer<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> msgConsumer) {
+    public void submitAttempt(Consumer<IdMsgPair<TransportProtos.ToRuleEngineMsg>> msgConsumer) {
         this.msgConsumer = msgConsumer;
         entityIdToListMap.forEach((entityId, queue) -> {
             IdMsgPair<TransportProtos.ToRuleEngineMsg> msg = queue.peek();
             if (msg != null) {
-                msgConsumer.accept(msg.uuid, msg.msg);
+                msgConsumer.accept(msg);
             }
         });
     }
@@ -63,36 +63,39 @@ public abstract class SequentialByEntityIdTbRuleEngineSubmitStrategy extends Abs
     }
 
     @Override
-    protected void doOnSuccess(UUID id) {
-        EntityId entityId = msgToEntityIdMap.get(id);
+    protected void doOnSuccess(int idx) {
+        EntityId[] entityIds = msgEntityIds;
+        EntityId entityId = idx < entityIds.length ? entityIds[idx] : null;
         if (entityId != null) {
             Queue<IdMsgPair<TransportProtos.ToRuleEngineMsg>> queue = entityIdToListMap.get(entityId);
             if (queue != null) {
                 IdMsgPair<TransportProtos.ToRuleEngineMsg> next = null;
                 synchronized (queue) {
                     IdMsgPair<TransportProtos.ToRuleEngineMsg> expected = queue.peek();
-                    if (expected != null && expected.uuid.equals(id)) {
+                    if (expected != null && expected.idx == idx) {
                         queue.poll();
                         next = queue.peek();
                     }
                 }
                 if (next != null) {
-                    msgConsumer.accept(next.uuid, next.msg);
+                    msgConsumer.accept(next);
                 }
             }
         }
     }
 
     private void initMaps() {
-        msgToEntityIdMap.clear();
-        entityIdToListMap.clear();
+        EntityId[] entityIds = new EntityId[orderedMsgList.size()];
+        ConcurrentMap<EntityId, Queue<IdMsgPair<TransportProtos.ToRuleEngineMsg>>> entityIdToListMap = new ConcurrentHashMap<>();
         for (IdMsgPair<TransportProtos.ToRuleEngineMsg> pair : orderedMsgList) {
             EntityId entityId = getEntityId(pair.msg.getValue());
             if (entityId != null) {
-                msgToEntityIdMap.put(pair.uuid, entityId);
+                entityIds[pair.idx] = entityId;
                 entityIdToListMap.computeIfAbsent(entityId, id -> new LinkedList<>()).add(pair);
             }
         }
+        this.msgEntityIds = entityIds;
+        this.entityIdToListMap = entityIdToListMap;
     }
 
     protected abstract EntityId getEntityId(TransportProtos.ToRuleEngineMsg msg);
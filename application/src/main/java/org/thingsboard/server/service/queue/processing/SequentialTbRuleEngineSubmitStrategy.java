@@ -22,21 +22,21 @@ import org.thingsboard.server.queue.common.TbProtoQueueMsg;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicInteger;
-import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 @Slf4j
 public class SequentialTbRuleEngineSubmitStrategy extends AbstractTbRuleEngineSubmitStrategy {
 
     private final AtomicInteger msgIdx = new AtomicInteger(0);
-    private volatile BiConsumer<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> msgConsumer;
-    private volatile UUID expectedMsgId;
+    private volatile Consumer<IdMsgPair<TransportProtos.ToRuleEngineMsg>> msgConsumer;
+    private volatile int expectedMsgIdx = -1;
 
     public SequentialTbRuleEngineSubmitStrategy(String queueName) {
         super(queueName);
     }
 
     @Override
-    public void submitAttempt(BiConsumer<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> msgConsumer) {
+    public void submitAttempt(Consumer<IdMsgPair<TransportProtos.ToRuleEngineMsg>> msgConsumer) {
         this.msgConsumer = msgConsumer;
         msgIdx.set(0);
         submitNext();
@@ -48,8 +48,8 @@ public class SequentialTbRuleEngineSubmitStrategy extends AbstractTbRuleEngineSu
     }
 
     @Override
-    protected void doOnSuccess(UUID id) {
-        if (expectedMsgId.equals(id)) {
+    protected void doOnSuccess(int idx) {
+        if (expectedMsgIdx == idx) {
             msgIdx.incrementAndGet();
             submitNext();
         }
@@ -60,11 +60,11 @@ public class SequentialTbRuleEngineSubmitStrategy extends AbstractTbRuleEngineSu
         int idx = msgIdx.get();
         if (idx < listSize) {
             IdMsgPair<TransportProtos.ToRuleEngineMsg> pair = orderedMsgList.get(idx);
-            expectedMsgId = pair.uuid;
+            expectedMsgIdx = pair.idx;
             if (log.isDebugEnabled()) {
                 log.debug("[{}] submitting [{}] message to rule engine", queueName, pair.msg);
             }
-            msgConsumer.accept(pair.uuid, pair.msg);
+            msgConsumer.accept(pair);
         }
     }
 
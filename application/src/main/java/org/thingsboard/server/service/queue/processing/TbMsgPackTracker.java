@@ -0,0 +1,142 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue.processing;
+
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Tracks the processing state of the pack messages by their dense index (see {@link IdMsgPair#getIdx()}).
+ * The state of each message takes 2 bits of the atomic bitset (pending, successful or failed),
+ * so the acknowledgement is a single CAS without map lookups and allocations.
+ */
+public class TbMsgPackTracker {
+
+    private static final int PENDING = 0;
+    private static final int SUCCESS = 1;
+    private static final int FAILED = 2;
+
+    private final List<IdMsgPair<ToRuleEngineMsg>> msgs;
+    private final AtomicLongArray states;
+    private final AtomicInteger pendingCount;
+
+    public TbMsgPackTracker(List<IdMsgPair<ToRuleEngineMsg>> msgs) {
+        this.msgs = msgs;
+        this.states = new AtomicLongArray((msgs.size() + 31) >>> 5);
+        this.pendingCount = new AtomicInteger(msgs.size());
+    }
+
+    /**
+     * @return true if the message was pending and is marked as successful
+     */
+    public boolean onSuccess(int idx) {
+        return setState(idx, SUCCESS);
+    }
+
+    /**
+     * @return true if the message was pending and is marked as failed
+     */
+    public boolean onFailure(int idx) {
+        return setState(idx, FAILED);
+    }
+
+    /**
+     * @return number of the pending messages after the acknowledgement
+     */
+    public int decrementPendingCount() {
+        return pendingCount.decrementAndGet();
+    }
+
+    public int getPendingCount() {
+        return pendingCount.get();
+    }
+
+    public int size() {
+        return msgs.size();
+    }
+
+    public IdMsgPair<ToRuleEngineMsg> get(int idx) {
+        return msgs.get(idx);
+    }
+
+    public List<IdMsgPair<ToRuleEngineMsg>> getPending() {
+        return getMsgs(PENDING);
+    }
+
+    public List<IdMsgPair<ToRuleEngineMsg>> getFailed() {
+        return getMsgs(FAILED);
+    }
+
+    public ConcurrentMap<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> getPendingMap() {
+        return toMap(PENDING);
+    }
+
+    public ConcurrentMap<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> getSuccessMap() {
+        return toMap(SUCCESS);
+    }
+
+    public ConcurrentMap<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> getFailedMap() {
+        return toMap(FAILED);
+    }
+
+    private boolean setState(int idx, int state) {
+        int wordIdx = idx >>> 5;
+        int shift = (idx & 31) << 1;
+        while (true) {
+            long word = states.get(wordIdx);
+            if (((word >>> shift) & 3) != PENDING) {
+                return false;
+            }
+            if (states.compareAndSet(wordIdx, word, word | ((long) state << shift))) {
+                return true;
+            }
+        }
+    }
+
+    private int getState(int idx) {
+        return (int) ((states.get(idx >>> 5) >>> ((idx & 31) << 1)) & 3);
+    }
+
+    private List<IdMsgPair<ToRuleEngineMsg>> getMsgs(int state) {
+        List<IdMsgPair<ToRuleEngineMsg>> result = new ArrayList<>();
+        for (int i = 0; i < msgs.size(); i++) {
+            if (getState(i) == state) {
+                result.add(msgs.get(i));
+            }
+        }
+        return result;
+    }
+
+    private ConcurrentMap<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> toMap(int state) {
+        ConcurrentMap<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> result = new ConcurrentHashMap<>();
+        for (int i = 0; i < msgs.size(); i++) {
+            if (getState(i) == state) {
+                IdMsgPair<ToRuleEngineMsg> pair = msgs.get(i);
+                result.put(pair.getUuid(), pair.getMsg());
+            }
+        }
+        return result;
+    }
+
+}
@@ -35,24 +35,22 @@ public class TbRuleEngineProcessingResult {
     private final boolean timeout;
     @Getter
     private final TbMsgPackProcessingContext ctx;
+    @Getter
+    private final ConcurrentMap<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> pendingMap;
+    @Getter
+    private final ConcurrentMap<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> successMap;
+    @Getter
+    private final ConcurrentMap<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> failedMap;
 
     public TbRuleEngineProcessingResult(String queueName, boolean timeout, TbMsgPackProcessingContext ctx) {
         this.queueName = queueName;
         this.timeout = timeout;
         this.ctx = ctx;
-        this.success = !timeout && ctx.getPendingMap().isEmpty() && ctx.getFailedMap().isEmpty();
-    }
-
-    public ConcurrentMap<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> getPendingMap() {
-        return ctx.getPendingMap();
-    }
-
-    public ConcurrentMap<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> getSuccessMap() {
-        return ctx.getSuccessMap();
-    }
-
-    public ConcurrentMap<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> getFailedMap() {
-        return ctx.getFailedMap();
+        // the maps are built from the pack tracker once, since the strategies and the stats read them multiple times
+        this.pendingMap = ctx.getPendingMap();
+        this.successMap = ctx.getSuccessMap();
+        this.failedMap = ctx.getFailedMap();
+        this.success = !timeout && pendingMap.isEmpty() && failedMap.isEmpty();
     }
 
     public ConcurrentMap<TenantId, RuleEngineException> getExceptionsMap() {
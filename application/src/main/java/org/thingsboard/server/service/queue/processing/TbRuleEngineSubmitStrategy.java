@@ -21,19 +21,22 @@ import org.thingsboard.server.queue.common.TbProtoQueueMsg;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentMap;
-import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface TbRuleEngineSubmitStrategy {
 
     void init(List<TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> msgs);
 
-    ConcurrentMap<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> getPendingMap();
+    /**
+     * @return messages of the current submit attempt, the index of each message is equal to its position in the list
+     */
+    List<IdMsgPair<TransportProtos.ToRuleEngineMsg>> getOrderedMsgList();
 
-    void submitAttempt(BiConsumer<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> msgConsumer);
+    void submitAttempt(Consumer<IdMsgPair<TransportProtos.ToRuleEngineMsg>> msgConsumer);
 
     void update(ConcurrentMap<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> reprocessMap);
 
-    void onSuccess(UUID id);
+    void onSuccess(IdMsgPair<TransportProtos.ToRuleEngineMsg> msg);
 
     void stop();
 }
@@ -0,0 +1,45 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue.ruleengine;
+
+import lombok.Getter;
+import lombok.ToString;
+import org.thingsboard.server.queue.discovery.QueueKey;
+import org.thingsboard.server.queue.discovery.event.TbApplicationEvent;
+import org.thingsboard.server.service.queue.ruleengine.TbRuleEngineQueueAutoscaler.ScalingDecision;
+
+@Getter
+@ToString(callSuper = true)
+public class RuleEngineQueueScalingEvent extends TbApplicationEvent {
+
+    private static final long serialVersionUID = 5140938466718211403L;
+
+    private final QueueKey queueKey;
+    private final ScalingDecision decision;
+    private final String reason;
+    private final int activeConsumers;
+    private final int packSize;
+
+    public RuleEngineQueueScalingEvent(Object source, QueueKey queueKey, ScalingDecision decision, String reason, int activeConsumers, int packSize) {
+        super(source);
+        this.queueKey = queueKey;
+        this.decision = decision;
+        this.reason = reason;
+        this.activeConsumers = activeConsumers;
+        this.packSize = packSize;
+    }
+
+}
@@ -49,6 +49,28 @@ public class TbRuleEngineConsumerContext {
     private int topicDeletionDelayInSec;
     @Value("${queue.rule-engine.management-thread-pool-size:12}")
     private int mgmtThreadPoolSize;
+    @Value("${queue.rule-engine.pipelining.enabled:false}")
+    private boolean pipeliningEnabled;
+    @Value("${queue.rule-engine.pipelining.max-in-flight-msgs:10000}")
+    private int pipeliningMaxInFlightMsgs;
+    @Value("${queue.rule-engine.autoscaling.enabled:false}")
+    private boolean autoscalingEnabled;
+    @Value("${queue.rule-engine.autoscaling.evaluation-interval-ms:10000}")
+    private long autoscalingEvaluationInterval;
+    @Value("${queue.rule-engine.autoscaling.min-active-consumers:1}")
+    private int autoscalingMinActiveConsumers;
+    @Value("${queue.rule-engine.autoscaling.max-active-consumers:8}")
+    private int autoscalingMaxActiveConsumers;
+    @Value("${queue.rule-engine.autoscaling.min-pack-size:100}")
+    private int autoscalingMinPackSize;
+    @Value("${queue.rule-engine.autoscaling.max-pack-size:1000}")
+    private int autoscalingMaxPackSize;
+    @Value("${queue.rule-engine.autoscaling.target-lag-ms:5000}")
+    private long autoscalingTargetLag;
+    @Value("${queue.rule-engine.autoscaling.target-pack-processing-time-ms:2000}")
+    private long autoscalingTargetPackProcessingTime;
+    @Value("${queue.rule-engine.autoscaling.max-cpu-usage:85}")
+    private int autoscalingMaxCpuUsage;
 
     private final ActorSystemContext actorContext;
     private final StatsFactory statsFactory;
@@ -0,0 +1,235 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue.ruleengine;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.queue.discovery.QueueKey;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.OperatingSystemMXBean;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+import java.util.function.IntSupplier;
+
+/**
+ * Adjusts the number of consumer tasks of the queue that process message packs concurrently on this node,
+ * and the size of the packs, within the configured bounds.
+ * The decision is made periodically based on the lag (age of the oldest message of the processed packs),
+ * the average pack processing time and the CPU usage. Only one parameter is changed per evaluation.
+ * <p>
+ * The number of the active consumers is also bounded by the number of the packs the queue consumers can process concurrently:
+ * without pipelining each consumer processes one polled pack at a time, so more active consumers would not add concurrency.
+ */
+@Slf4j
+public class TbRuleEngineQueueAutoscaler {
+
+    private static final String STATS_KEY = "ruleEngineAutoscaler";
+
+    private final QueueKey queueKey;
+    private final TbRuleEngineConsumerContext ctx;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DoubleSupplier cpuUsage;
+    private final IntSupplier maxConcurrentPacks;
+
+    private final ResizableSemaphore activeConsumersGate;
+    private final AtomicInteger activeConsumers;
+    private final AtomicInteger packSize;
+    private final Map<ScalingDecision, AtomicLong> decisions = new EnumMap<>(ScalingDecision.class);
+
+    private final LongAdder packs = new LongAdder();
+    private final LongAdder packsProcessingTime = new LongAdder();
+    private final LongAdder gateWaits = new LongAdder();
+    private final AtomicLong maxLag = new AtomicLong();
+    private final AtomicInteger concurrentPacks = new AtomicInteger();
+    private final AtomicInteger peakConcurrentPacks = new AtomicInteger();
+
+    /**
+     * @param maxConcurrentPacks max number of the packs the consumers of the queue can process concurrently on this node
+     */
+    public TbRuleEngineQueueAutoscaler(QueueKey queueKey, TbRuleEngineConsumerContext ctx, ApplicationEventPublisher eventPublisher,
+                                       IntSupplier maxConcurrentPacks) {
+        this(queueKey, ctx, eventPublisher, maxConcurrentPacks, TbRuleEngineQueueAutoscaler::getCpuUsage);
+    }
+
+    TbRuleEngineQueueAutoscaler(QueueKey queueKey, TbRuleEngineConsumerContext ctx, ApplicationEventPublisher eventPublisher,
+                                IntSupplier maxConcurrentPacks, DoubleSupplier cpuUsage) {
+        this.queueKey = queueKey;
+        this.ctx = ctx;
+        this.eventPublisher = eventPublisher;
+        this.maxConcurrentPacks = maxConcurrentPacks;
+        this.cpuUsage = cpuUsage;
+        this.activeConsumers = new AtomicInteger(ctx.getAutoscalingMaxActiveConsumers());
+        this.packSize = new AtomicInteger(ctx.getAutoscalingMaxPackSize());
+        this.activeConsumersGate = new ResizableSemaphore(activeConsumers.get());
+
+        StatsFactory statsFactory = ctx.getStatsFactory();
+        String queueName = queueKey.getQueueName();
+        statsFactory.createGauge(STATS_KEY, activeConsumers, "queue", queueName, "param", "activeConsumers");
+        statsFactory.createGauge(STATS_KEY, packSize, "queue", queueName, "param", "packSize");
+        for (ScalingDecision decision : ScalingDecision.values()) {
+            AtomicLong counter = new AtomicLong();
+            decisions.put(decision, counter);
+            statsFactory.createGauge(STATS_KEY + "Decisions", counter, "queue", queueName, "decision", decision.name());
+        }
+    }
+
+    /**
+     * Waits until the number of the concurrently processed packs is below the active consumers limit.
+     */
+    public boolean tryAcquire(long timeoutMs) throws InterruptedException {
+        if (!activeConsumersGate.tryAcquire()) {
+            gateWaits.increment();
+            if (!activeConsumersGate.tryAcquire(timeoutMs, TimeUnit.MILLISECONDS)) {
+                return false;
+            }
+        }
+        int concurrent = concurrentPacks.incrementAndGet();
+        peakConcurrentPacks.accumulateAndGet(concurrent, Math::max);
+        return true;
+    }
+
+    public void release() {
+        concurrentPacks.decrementAndGet();
+        activeConsumersGate.release();
+    }
+
+    public int getActiveConsumers() {
+        return activeConsumers.get();
+    }
+
+    public int getPackSize() {
+        return packSize.get();
+    }
+
+    public void onPackProcessed(long processingTimeMs, long lagMs) {
+        packs.increment();
+        packsProcessingTime.add(processingTimeMs);
+        maxLag.accumulateAndGet(lagMs, Math::max);
+    }
+
+    public synchronized ScalingDecision evaluate() {
+        long packsCount = packs.sumThenReset();
+        long processingTime = packsProcessingTime.sumThenReset();
+        long waits = gateWaits.sumThenReset();
+        long lag = maxLag.getAndSet(0);
+        int peak = peakConcurrentPacks.getAndSet(concurrentPacks.get());
+        double cpu = cpuUsage.getAsDouble();
+        long avgPackTime = packsCount > 0 ? processingTime / packsCount : 0;
+
+        int consumers = activeConsumers.get();
+        int maxConsumers = getMaxActiveConsumers();
+        int size = packSize.get();
+        ScalingDecision decision = ScalingDecision.NONE;
+        String reason = null;
+        if (consumers > maxConsumers) {
+            decision = ScalingDecision.SCALE_DOWN;
+            reason = "max " + maxConsumers + " concurrent packs of the queue consumers";
+        } else if (cpu >= ctx.getAutoscalingMaxCpuUsage()) {
+            if (consumers > ctx.getAutoscalingMinActiveConsumers()) {
+                decision = ScalingDecision.SCALE_DOWN;
+                reason = "CPU usage " + (int) cpu + "%";
+            }
+        } else if (avgPackTime > ctx.getAutoscalingTargetPackProcessingTime()) {
+            if (size > ctx.getAutoscalingMinPackSize()) {
+                decision = ScalingDecision.DECREASE_PACK_SIZE;
+                reason = "avg pack processing time " + avgPackTime + "ms";
+            }
+        } else if (lag > ctx.getAutoscalingTargetLag()) {
+            reason = "lag " + lag + "ms";
+            // the consumers that waited for the gate mean there is more work than the active consumers can take
+            if (waits > 0 && consumers < maxConsumers) {
+                decision = ScalingDecision.SCALE_UP;
+            } else if (size < ctx.getAutoscalingMaxPackSize()) {
+                decision = ScalingDecision.INCREASE_PACK_SIZE;
+            } else if (consumers < maxConsumers) {
+                decision = ScalingDecision.SCALE_UP;
+            }
+        } else if (lag < ctx.getAutoscalingTargetLag() / 2 && peak < consumers && consumers > ctx.getAutoscalingMinActiveConsumers()) {
+            decision = ScalingDecision.SCALE_DOWN;
+            reason = "max " + peak + " of " + consumers + " consumers used";
+        }
+
+        switch (decision) {
+            case SCALE_UP -> setActiveConsumers(consumers + 1);
+            case SCALE_DOWN -> setActiveConsumers(Math.min(consumers - 1, maxConsumers));
+            case INCREASE_PACK_SIZE -> packSize.set(Math.min(size * 2, ctx.getAutoscalingMaxPackSize()));
+            case DECREASE_PACK_SIZE -> packSize.set(Math.max(size / 2, ctx.getAutoscalingMinPackSize()));
+            default -> {
+                log.trace("[{}] No scaling: packs {}, avg pack time {}ms, lag {}ms, CPU {}%", queueKey, packsCount, avgPackTime, lag, (int) cpu);
+                return decision;
+            }
+        }
+        decisions.get(decision).incrementAndGet();
+        log.info("[{}] {} due to {}: active consumers {} -> {}, pack size {} -> {}", queueKey, decision, reason,
+                consumers, activeConsumers.get(), size, packSize.get());
+        if (eventPublisher != null) {
+            eventPublisher.publishEvent(new RuleEngineQueueScalingEvent(this, queueKey, decision, reason, activeConsumers.get(), packSize.get()));
+        }
+        return decision;
+    }
+
+    private int getMaxActiveConsumers() {
+        int max = Math.min(ctx.getAutoscalingMaxActiveConsumers(), maxConcurrentPacks.getAsInt());
+        return Math.max(max, ctx.getAutoscalingMinActiveConsumers());
+    }
+
+    private void setActiveConsumers(int newValue) {
+        int delta = newValue - activeConsumers.getAndSet(newValue);
+        if (delta > 0) {
+            activeConsumersGate.release(delta);
+        } else if (delta < 0) {
+            // the packs that are already in progress are not interrupted, the permits are taken back once they are released
+            activeConsumersGate.reducePermits(-delta);
+        }
+    }
+
+    private static double getCpuUsage() {
+        OperatingSystemMXBean osBean = ManagementFactory.getOperatingSystemMXBean();
+        if (osBean instanceof com.sun.management.OperatingSystemMXBean) {
+            double load = ((com.sun.management.OperatingSystemMXBean) osBean).getCpuLoad();
+            return load >= 0 ? load * 100 : 0;
+        }
+        return 0;
+    }
+
+    public enum ScalingDecision {
+        NONE, SCALE_UP, SCALE_DOWN, INCREASE_PACK_SIZE, DECREASE_PACK_SIZE
+    }
+
+    private static class ResizableSemaphore extends Semaphore {
+
+        private static final long serialVersionUID = -8393418126548716547L;
+
+        ResizableSemaphore(int permits) {
+            super(permits);
+        }
+
+        @Override
+        protected void reducePermits(int reduction) {
+            super.reducePermits(reduction);
+        }
+
+    }
+
+}
@@ -18,10 +18,12 @@ package org.thingsboard.server.service.queue.ruleengine;
 import com.google.protobuf.ProtocolStringList;
 import lombok.Builder;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.EntityIdFactory;
 import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.queue.Queue;
+import org.thingsboard.server.common.data.queue.SubmitStrategyType;
 import org.thingsboard.server.common.msg.TbMsg;
 import org.thingsboard.server.common.msg.gen.MsgProtos;
 import org.thingsboard.server.common.msg.queue.QueueToRuleEngineMsg;
@@ -38,20 +40,28 @@ import org.thingsboard.server.service.queue.TbMsgPackCallback;
 import org.thingsboard.server.service.queue.TbMsgPackProcessingContext;
 import org.thingsboard.server.service.queue.TbRuleEngineConsumerStats;
 import org.thingsboard.server.service.queue.consumer.MainQueueConsumerManager;
+import org.thingsboard.server.service.queue.processing.IdMsgPair;
 import org.thingsboard.server.service.queue.processing.TbRuleEngineProcessingDecision;
 import org.thingsboard.server.service.queue.processing.TbRuleEngineProcessingResult;
 import org.thingsboard.server.service.queue.processing.TbRuleEngineProcessingStrategy;
 import org.thingsboard.server.service.queue.processing.TbRuleEngineSubmitStrategy;
 
+import java.util.ArrayDeque;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.HashSet;
 import java.util.List;
-import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -62,16 +72,41 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
 
     private final TbRuleEngineConsumerContext ctx;
     private final TbRuleEngineConsumerStats stats;
+    private final ConcurrentMap<TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>>, Pipeline> pipelines = new ConcurrentHashMap<>();
+    private final TbRuleEngineQueueAutoscaler autoscaler;
+    private final ScheduledFuture<?> autoscalerTask;
 
     @Builder(builderMethodName = "create") // not to conflict with super.builder()
     public TbRuleEngineQueueConsumerManager(TbRuleEngineConsumerContext ctx,
                                             QueueKey queueKey,
                                             ExecutorService consumerExecutor,
                                             ScheduledExecutorService scheduler,
-                                            ExecutorService taskExecutor) {
-        super(queueKey, null, null, ctx.getQueueFactory()::createToRuleEngineMsgConsumer, consumerExecutor, scheduler, taskExecutor);
+                                            ExecutorService taskExecutor,
+                                            ApplicationEventPublisher eventPublisher) {
+        super(queueKey, null, null, (queue, partitionId) -> createConsumer(ctx, queue, partitionId), consumerExecutor, scheduler, taskExecutor);
         this.ctx = ctx;
         this.stats = new TbRuleEngineConsumerStats(queueKey, ctx.getStatsFactory());
+        if (ctx.isAutoscalingEnabled()) {
+            if (!ctx.isPipeliningEnabled()) {
+                log.warn("[{}] Autoscaling is enabled without pipelining (queue.rule-engine.pipelining.enabled), " +
+                        "so the active consumers are limited by the number of the queue consumers on this node", queueKey);
+            }
+            this.autoscaler = new TbRuleEngineQueueAutoscaler(queueKey, ctx, eventPublisher, this::getMaxConcurrentPacks);
+            this.autoscalerTask = scheduler.scheduleWithFixedDelay(this::evaluateScaling,
+                    ctx.getAutoscalingEvaluationInterval(), ctx.getAutoscalingEvaluationInterval(), TimeUnit.MILLISECONDS);
+        } else {
+            this.autoscaler = null;
+            this.autoscalerTask = null;
+        }
+    }
+
+    private static TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> createConsumer(TbRuleEngineConsumerContext ctx, Queue queue, Integer partitionId) {
+        TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer = ctx.getQueueFactory().createToRuleEngineMsgConsumer(queue, partitionId);
+        if (ctx.isPipeliningEnabled()) {
+            // the polls are tracked for the partial commits only when needed
+            consumer.enablePartialCommit();
+        }
+        return consumer;
     }
 
     public void delete(boolean drainQueue) {
@@ -87,6 +122,7 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
 
     private void doDelete(boolean drainQueue) {
         stopped = true;
+        cancelAutoscaler();
         log.info("[{}] Handling queue deletion", queueKey);
         consumerWrapper.getConsumers().forEach(TbQueueConsumerTask::awaitCompletion);
 
@@ -119,21 +155,178 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
     protected void processMsgs(List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs,
                                TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer,
                                Queue queue) throws Exception {
+        if (isPipelined(consumer, queue)) {
+            processMsgsPipelined(msgs, consumer, queue);
+            return;
+        }
+        Pipeline pipeline = pipelines.remove(consumer);
+        if (pipeline != null) {
+            // pipelining was disabled for the queue, not to commit the packs that are still in progress
+            pipeline.awaitAll(consumer);
+        }
+        if (processPacks(msgs, consumer, queue)) {
+            consumer.commit();
+        }
+    }
+
+    @Override
+    public void stop() {
+        super.stop();
+        cancelAutoscaler();
+    }
+
+    @Override
+    protected void onEmptyPoll(TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer, Queue queue) {
+        Pipeline pipeline = pipelines.get(consumer);
+        if (pipeline != null) {
+            pipeline.commitCompleted(consumer);
+        }
+    }
+
+    @Override
+    protected void onConsumerLoopFinished(TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer) {
+        pipelines.remove(consumer);
+    }
+
+    private boolean isPipelined(TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer, Queue queue) {
+        return consumer.isPartialCommitSupported() && isPipelined(queue);
+    }
+
+    private boolean isPipelined(Queue queue) {
+        if (!ctx.isPipeliningEnabled() || queue.getSubmitStrategy() == null) {
+            return false;
+        }
+        // sequential submit strategies rely on the order of the packs
+        SubmitStrategyType submitStrategyType = queue.getSubmitStrategy().getType();
+        return submitStrategyType == SubmitStrategyType.BURST || submitStrategyType == SubmitStrategyType.BATCH;
+    }
+
+    /*
+     * Submits the pack for processing and returns to polling, as long as the number of not committed messages is within the limit.
+     * The packs are committed in the poll order, once all the preceding packs are processed.
+     */
+    private void processMsgsPipelined(List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs,
+                                      TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer,
+                                      Queue queue) throws InterruptedException {
+        Pipeline pipeline = pipelines.computeIfAbsent(consumer, c -> new Pipeline());
+        pipeline.commitCompleted(consumer);
+        while (!pipeline.isEmpty() && pipeline.inFlightMsgs + msgs.size() > ctx.getPipeliningMaxInFlightMsgs()) {
+            if (stopped || consumer.isStopped()) {
+                return;
+            }
+            pipeline.awaitFirst(queue.getPollInterval());
+            pipeline.commitCompleted(consumer);
+        }
+        InFlightPack pack = new InFlightPack(consumer.getPollSeq(), msgs.size());
+        pipeline.add(pack);
+        consumerExecutor.execute(() -> {
+            try {
+                pack.result.complete(processPacks(msgs, consumer, queue));
+            } catch (Throwable e) {
+                // same as for the sequential processing, the pack is committed along with the next ones
+                log.warn("[{}] Failed to process messages from queue", queueKey, e);
+                pack.result.complete(true);
+            }
+        });
+    }
+
+    /**
+     * Splits the polled messages into the packs of the size chosen by the autoscaler, if enabled,
+     * and processes them once the number of the concurrently processed packs of the queue is within the limit.
+     *
+     * @return true if all the packs are processed according to the processing strategy and may be committed,
+     * false if the consumer was stopped
+     */
+    private boolean processPacks(List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs,
+                                 TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer,
+                                 Queue queue) throws Exception {
+        if (autoscaler == null) {
+            return processPack(msgs, consumer, queue);
+        }
+        while (!autoscaler.tryAcquire(queue.getPollInterval())) {
+            if (stopped || consumer.isStopped()) {
+                return false;
+            }
+        }
+        try {
+            int packSize = autoscaler.getPackSize();
+            for (int fromIdx = 0; fromIdx < msgs.size(); fromIdx += packSize) {
+                List<TbProtoQueueMsg<ToRuleEngineMsg>> pack = msgs.subList(fromIdx, Math.min(fromIdx + packSize, msgs.size()));
+                long lag = getLag(pack);
+                long startTs = System.currentTimeMillis();
+                if (!processPack(pack, consumer, queue)) {
+                    return false;
+                }
+                autoscaler.onPackProcessed(System.currentTimeMillis() - startTs, lag);
+            }
+            return true;
+        } finally {
+            autoscaler.release();
+        }
+    }
+
+    /**
+     * @return age of the first message of the pack in milliseconds
+     */
+    private long getLag(List<TbProtoQueueMsg<ToRuleEngineMsg>> pack) {
+        try {
+            long ts = MsgProtos.TbMsgProto.parseFrom(pack.get(0).getValue().getTbMsg()).getTs();
+            return ts > 0 ? Math.max(System.currentTimeMillis() - ts, 0) : 0;
+        } catch (Exception e) {
+            log.trace("[{}] Failed to parse message timestamp", queueKey, e);
+            return 0;
+        }
+    }
+
+    /*
+     * Without pipelining each consumer processes one polled pack at a time,
+     * so the queue can not process more packs concurrently than it has consumers on this node.
+     */
+    private int getMaxConcurrentPacks() {
+        Queue queue = config;
+        Set<TopicPartitionInfo> partitions = this.partitions;
+        if (queue == null || partitions == null || isPipelined(queue)) {
+            return Integer.MAX_VALUE;
+        }
+        return queue.isConsumerPerPartition() ? Math.max(partitions.size(), 1) : 1;
+    }
+
+    private void evaluateScaling() {
+        try {
+            autoscaler.evaluate();
+        } catch (Throwable e) {
+            log.warn("[{}] Failed to evaluate scaling", queueKey, e);
+        }
+    }
+
+    private void cancelAutoscaler() {
+        if (autoscalerTask != null) {
+            autoscalerTask.cancel(false);
+        }
+    }
+
+    /**
+     * @return true if the pack is processed according to the processing strategy and may be committed,
+     * false if the consumer was stopped
+     */
+    private boolean processPack(List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs,
+                                TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>> consumer,
+                                Queue queue) throws Exception {
         TbRuleEngineSubmitStrategy submitStrategy = getSubmitStrategy(queue);
         TbRuleEngineProcessingStrategy ackStrategy = getProcessingStrategy(queue);
         submitStrategy.init(msgs);
         while (!stopped && !consumer.isStopped()) {
             TbMsgPackProcessingContext packCtx = new TbMsgPackProcessingContext(queue.getName(), submitStrategy, ackStrategy.isSkipTimeoutMsgs());
-            submitStrategy.submitAttempt((id, msg) -> submitMessage(packCtx, id, msg));
+            submitStrategy.submitAttempt(msg -> submitMessage(packCtx, msg));
 
             final boolean timeout = !packCtx.await(queue.getPackProcessingTimeout(), TimeUnit.MILLISECONDS);
 
             TbRuleEngineProcessingResult result = new TbRuleEngineProcessingResult(queue.getName(), timeout, packCtx);
             if (timeout) {
-                printFirstOrAll(packCtx, packCtx.getPendingMap(), "Timeout");
+                printFirstOrAll(packCtx, packCtx.getPendingMsgs(), "Timeout");
             }
-            if (!packCtx.getFailedMap().isEmpty()) {
-                printFirstOrAll(packCtx, packCtx.getFailedMap(), "Failed");
+            if (!result.getFailedMap().isEmpty()) {
+                printFirstOrAll(packCtx, packCtx.getFailedMsgs(), "Failed");
             }
             packCtx.printProfilerStats();
 
@@ -146,12 +339,12 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
 
             if (decision.isCommit()) {
                 submitStrategy.stop();
-                consumer.commit();
-                break;
+                return true;
             } else {
                 submitStrategy.update(decision.getReprocessMap());
             }
         }
+        return false;
     }
 
     private TbRuleEngineSubmitStrategy getSubmitStrategy(Queue queue) {
@@ -162,13 +355,15 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
         return ctx.getProcessingStrategyFactory().newInstance(queue.getName(), queue.getProcessingStrategy());
     }
 
-    private void submitMessage(TbMsgPackProcessingContext packCtx, UUID id, TbProtoQueueMsg<ToRuleEngineMsg> msg) {
+    private void submitMessage(TbMsgPackProcessingContext packCtx, IdMsgPair<ToRuleEngineMsg> pair) {
+        UUID id = pair.getUuid();
+        TbProtoQueueMsg<ToRuleEngineMsg> msg = pair.getMsg();
         log.trace("[{}] Creating callback for topic {} message: {}", id, config.getName(), msg.getValue());
         ToRuleEngineMsg toRuleEngineMsg = msg.getValue();
         TenantId tenantId = TenantId.fromUUID(new UUID(toRuleEngineMsg.getTenantIdMSB(), toRuleEngineMsg.getTenantIdLSB()));
         TbMsgCallback callback = ctx.isPrometheusStatsEnabled() ?
-                new TbMsgPackCallback(id, tenantId, packCtx, stats.getTimer(tenantId, SUCCESSFUL_STATUS), stats.getTimer(tenantId, FAILED_STATUS)) :
-                new TbMsgPackCallback(id, tenantId, packCtx);
+                new TbMsgPackCallback(pair.getIdx(), id, tenantId, packCtx, stats.getTimer(tenantId, SUCCESSFUL_STATUS), stats.getTimer(tenantId, FAILED_STATUS)) :
+                new TbMsgPackCallback(pair.getIdx(), id, tenantId, packCtx);
         try {
             if (!toRuleEngineMsg.getTbMsg().isEmpty()) {
                 forwardToRuleEngineActor(config.getName(), tenantId, toRuleEngineMsg, callback);
@@ -194,13 +389,13 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
         ctx.getActorContext().tell(msg);
     }
 
-    private void printFirstOrAll(TbMsgPackProcessingContext ctx, Map<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> map, String prefix) {
+    private void printFirstOrAll(TbMsgPackProcessingContext ctx, List<IdMsgPair<ToRuleEngineMsg>> msgs, String prefix) {
         boolean printAll = log.isTraceEnabled();
-        log.info("[{}] {} to process [{}] messages", queueKey, prefix, map.size());
-        for (Map.Entry<UUID, TbProtoQueueMsg<ToRuleEngineMsg>> pending : map.entrySet()) {
-            ToRuleEngineMsg tmp = pending.getValue().getValue();
+        log.info("[{}] {} to process [{}] messages", queueKey, prefix, msgs.size());
+        for (IdMsgPair<ToRuleEngineMsg> pending : msgs) {
+            ToRuleEngineMsg tmp = pending.getMsg().getValue();
             TbMsg tmpMsg = TbMsg.fromBytes(config.getName(), tmp.getTbMsg().toByteArray(), TbMsgCallback.EMPTY);
-            RuleNodeInfo ruleNodeInfo = ctx.getLastVisitedRuleNode(pending.getKey());
+            RuleNodeInfo ruleNodeInfo = ctx.getLastVisitedRuleNode(pending.getIdx());
             if (printAll) {
                 log.trace("[{}][{}] {} to process message: {}, Last Rule Node: {}", queueKey, TenantId.fromUUID(new UUID(tmp.getTenantIdMSB(), tmp.getTenantIdLSB())), prefix, tmpMsg, ruleNodeInfo);
             } else {
@@ -216,6 +411,70 @@ public class TbRuleEngineQueueConsumerManager extends MainQueueConsumerManager<T
         stats.reset();
     }
 
+    private static class InFlightPack {
+
+        private final long pollSeq;
+        private final int size;
+        private final CompletableFuture<Boolean> result = new CompletableFuture<>();
+
+        InFlightPack(long pollSeq, int size) {
+            this.pollSeq = pollSeq;
+            this.size = size;
+        }
+
+        boolean isCommittable() {
+            return result.isDone() && result.join();
+        }
+
+    }
+
+    /**
+     * Packs of the consumer that are polled but not committed yet, in the poll order. Accessed by the consumer thread only.
+     */
+    private static class Pipeline {
+
+        private final Deque<InFlightPack> packs = new ArrayDeque<>();
+        private int inFlightMsgs;
+
+        void add(InFlightPack pack) {
+            packs.addLast(pack);
+            inFlightMsgs += pack.size;
+        }
+
+        boolean isEmpty() {
+            return packs.isEmpty();
+        }
+
+        void commitCompleted(TbQueueConsumer<?> consumer) {
+            InFlightPack lastCompleted = null;
+            while (!packs.isEmpty() && packs.peekFirst().isCommittable()) {
+                lastCompleted = packs.pollFirst();
+                inFlightMsgs -= lastCompleted.size;
+            }
+            if (lastCompleted != null) {
+                consumer.commit(lastCompleted.pollSeq);
+            }
+        }
+
+        void awaitFirst(long timeoutMs) throws InterruptedException {
+            InFlightPack first = packs.peekFirst();
+            if (first != null) {
+                try {
+                    first.result.get(timeoutMs, TimeUnit.MILLISECONDS);
+                } catch (ExecutionException | TimeoutException ignored) {
+                }
+            }
+        }
+
+        void awaitAll(TbQueueConsumer<?> consumer) throws InterruptedException {
+            while (!packs.isEmpty() && !consumer.isStopped()) {
+                awaitFirst(TimeUnit.SECONDS.toMillis(1));
+                commitCompleted(consumer);
+            }
+        }
+
+    }
+
     private void drainQueue(List<TbQueueConsumer<TbProtoQueueMsg<ToRuleEngineMsg>>> consumers) {
         long finishTs = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(ctx.getTopicDeletionDelayInSec());
         try {
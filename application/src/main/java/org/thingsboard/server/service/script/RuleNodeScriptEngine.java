@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 
 
 @Slf4j
@@ -41,6 +42,8 @@ public abstract class RuleNodeScriptEngine<T extends ScriptInvokeService, R> imp
     private final UUID scriptId;
     private final TenantId tenantId;
 
+    private volatile RuleNodeScriptMemoizer memoizer;
+
     public RuleNodeScriptEngine(TenantId tenantId, T scriptInvokeService, String script, String... argNames) {
         this.tenantId = tenantId;
         this.scriptInvokeService = scriptInvokeService;
@@ -57,6 +60,13 @@ public abstract class RuleNodeScriptEngine<T extends ScriptInvokeService, R> imp
 
     protected abstract Object[] prepareArgs(TbMsg msg);
 
+    /**
+     * Enables caching of the filter and switch results, see {@link RuleNodeScriptMemoizer}.
+     */
+    public void setMemoizer(RuleNodeScriptMemoizer memoizer) {
+        this.memoizer = memoizer;
+    }
+
     @Override
     public ListenableFuture<List<TbMsg>> executeUpdateAsync(TbMsg msg) {
         ListenableFuture<R> result = executeScriptAsync(msg);
@@ -84,9 +94,9 @@ public abstract class RuleNodeScriptEngine<T extends ScriptInvokeService, R> imp
 
     @Override
     public ListenableFuture<Boolean> executeFilterAsync(TbMsg msg) {
-        return Futures.transformAsync(executeScriptAsync(msg),
+        return memoize(msg, () -> Futures.transformAsync(executeScriptAsync(msg),
                 this::executeFilterTransform,
-                MoreExecutors.directExecutor());
+                MoreExecutors.directExecutor()));
     }
 
     protected abstract ListenableFuture<String> executeToStringTransform(R result);
@@ -97,9 +107,28 @@ public abstract class RuleNodeScriptEngine<T extends ScriptInvokeService, R> imp
 
     @Override
     public ListenableFuture<Set<String>> executeSwitchAsync(TbMsg msg) {
-        return Futures.transformAsync(executeScriptAsync(msg),
+        return memoize(msg, () -> Futures.transformAsync(executeScriptAsync(msg),
                 this::executeSwitchTransform,
-                MoreExecutors.directExecutor()); //usually runs in a callbackExecutor
+                MoreExecutors.directExecutor())); //usually runs in a callbackExecutor
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> ListenableFuture<V> memoize(TbMsg msg, Supplier<ListenableFuture<V>> execution) {
+        RuleNodeScriptMemoizer memoizer = this.memoizer;
+        if (memoizer == null) {
+            return execution.get();
+        }
+        Object cached = memoizer.get(msg);
+        if (cached != null) {
+            return Futures.immediateFuture((V) cached);
+        }
+        if (memoizer.isDisabled()) {
+            this.memoizer = null;
+        }
+        return Futures.transform(execution.get(), result -> {
+            memoizer.put(msg, result);
+            return result;
+        }, MoreExecutors.directExecutor());
     }
 
     ListenableFuture<R> executeScriptAsync(TbMsg msg) {
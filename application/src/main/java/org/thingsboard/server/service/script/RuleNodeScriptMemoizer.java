@@ -0,0 +1,144 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.script;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.actors.JsInvokeStats;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.msg.TbMsg;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Pattern;
+
+/**
+ * Caches the results of the filter and switch scripts by the script inputs (msg, metadata and msgType).
+ * Only the inputs that are referenced in the script body are part of the key, so e.g. a script that checks only the msgType
+ * is invoked once per message type. Scripts that use the current time or random values are never memoized.
+ * <p>
+ * The hit rate is evaluated every {@code minRequests} lookups. When it is below {@code minHitRate}
+ * the memoization is disabled for the script, since the inputs are (almost) unique and the cache only wastes memory.
+ */
+@Slf4j
+public class RuleNodeScriptMemoizer {
+
+    private static final Pattern NON_DETERMINISTIC = Pattern.compile("\\b(Date|random|now|nanoTime|currentTimeMillis)\\b");
+
+    private final boolean useMsg;
+    private final boolean useMetadata;
+    private final boolean useMsgType;
+    private final int minRequests;
+    private final double minHitRate;
+    private final RuleNodeId ruleNodeId;
+    private final JsInvokeStats stats;
+
+    private volatile Cache<Key, Object> cache;
+    private final AtomicInteger windowRequests = new AtomicInteger();
+    private final AtomicInteger windowHits = new AtomicInteger();
+    @Getter
+    private volatile boolean disabled;
+
+    private RuleNodeScriptMemoizer(String script, String[] argNames, int maxSize, long ttlMs, int minRequests, double minHitRate,
+                                   RuleNodeId ruleNodeId, JsInvokeStats stats) {
+        this.useMsg = isReferenced(script, argNames.length > 0 ? argNames[0] : "msg");
+        this.useMetadata = isReferenced(script, argNames.length > 1 ? argNames[1] : "metadata");
+        this.useMsgType = isReferenced(script, argNames.length > 2 ? argNames[2] : "msgType");
+        this.minRequests = Math.max(minRequests, 1);
+        this.minHitRate = minHitRate;
+        this.ruleNodeId = ruleNodeId;
+        this.stats = stats;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * @return the memoizer or null if the script is not deterministic
+     */
+    public static RuleNodeScriptMemoizer create(String script, String[] argNames, int maxSize, long ttlMs,
+                                                int minRequests, double minHitRate, RuleNodeId ruleNodeId, JsInvokeStats stats) {
+        if (script == null || NON_DETERMINISTIC.matcher(script).find()) {
+            return null;
+        }
+        return new RuleNodeScriptMemoizer(script, argNames != null ? argNames : new String[0], maxSize, ttlMs, minRequests, minHitRate,
+                ruleNodeId, stats);
+    }
+
+    /**
+     * @return the cached result or null if there is no result for the msg
+     */
+    public Object get(TbMsg msg) {
+        Cache<Key, Object> cache = this.cache;
+        if (cache == null) {
+            return null;
+        }
+        Object result = cache.getIfPresent(toKey(msg));
+        boolean hit = result != null;
+        if (stats != null) {
+            if (hit) {
+                stats.incrementMemoizationHits(ruleNodeId);
+            } else {
+                stats.incrementMemoizationMisses(ruleNodeId);
+            }
+        }
+        if (hit) {
+            windowHits.incrementAndGet();
+        }
+        if (windowRequests.incrementAndGet() == minRequests) {
+            evaluateHitRate();
+        }
+        return result;
+    }
+
+    public void put(TbMsg msg, Object result) {
+        Cache<Key, Object> cache = this.cache;
+        if (cache != null && result != null) {
+            cache.put(toKey(msg), result);
+        }
+    }
+
+    private void evaluateHitRate() {
+        double hitRate = (double) windowHits.getAndSet(0) / minRequests;
+        windowRequests.set(0);
+        if (hitRate < minHitRate) {
+            log.debug("[{}] Disabling script memoization due to low hit rate [{}]", ruleNodeId, hitRate);
+            Cache<Key, Object> cache = this.cache;
+            this.cache = null;
+            this.disabled = true;
+            if (cache != null) {
+                cache.invalidateAll();
+            }
+        }
+    }
+
+    private Key toKey(TbMsg msg) {
+        return new Key(useMsg ? msg.getData() : null,
+                useMetadata ? msg.getMetaData().values() : null,
+                useMsgType ? msg.getType() : null);
+    }
+
+    private static boolean isReferenced(String script, String argName) {
+        return Pattern.compile("\\b" + Pattern.quote(argName) + "\\b").matcher(script).find();
+    }
+
+    private record Key(String data, Map<String, String> metadata, String type) {}
+
+}
@@ -18,21 +18,32 @@ package org.thingsboard.server.service.stats;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.thingsboard.server.actors.JsInvokeStats;
+import org.thingsboard.server.common.data.id.RuleNodeId;
 import org.thingsboard.server.common.stats.StatsCounter;
 import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.common.stats.StatsType;
 
 import jakarta.annotation.PostConstruct;
 
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 @Service
 public class DefaultJsInvokeStats implements JsInvokeStats {
     private static final String REQUESTS = "requests";
     private static final String RESPONSES = "responses";
     private static final String FAILURES = "failures";
+    private static final String MEMOIZATION_HITS = "memoizationHits";
+    private static final String MEMOIZATION_MISSES = "memoizationMisses";
 
     private StatsCounter requestsCounter;
     private StatsCounter responsesCounter;
     private StatsCounter failuresCounter;
+    private StatsCounter memoizationHitsCounter;
+    private StatsCounter memoizationMissesCounter;
+    private final ConcurrentMap<RuleNodeId, RuleNodeMemoizationCounters> ruleNodeMemoizationCounters = new ConcurrentHashMap<>();
 
     @Autowired
     private StatsFactory statsFactory;
@@ -43,6 +54,8 @@ public class DefaultJsInvokeStats implements JsInvokeStats {
         this.requestsCounter = statsFactory.createStatsCounter(key, REQUESTS);
         this.responsesCounter = statsFactory.createStatsCounter(key, RESPONSES);
         this.failuresCounter = statsFactory.createStatsCounter(key, FAILURES);
+        this.memoizationHitsCounter = statsFactory.createStatsCounter(key, MEMOIZATION_HITS);
+        this.memoizationMissesCounter = statsFactory.createStatsCounter(key, MEMOIZATION_MISSES);
     }
 
     @Override
@@ -60,6 +73,53 @@ public class DefaultJsInvokeStats implements JsInvokeStats {
         failuresCounter.add(amount);
     }
 
+    @Override
+    public void incrementMemoizationHits(int amount) {
+        memoizationHitsCounter.add(amount);
+    }
+
+    @Override
+    public void incrementMemoizationMisses(int amount) {
+        memoizationMissesCounter.add(amount);
+    }
+
+    @Override
+    public void incrementMemoizationHits(RuleNodeId ruleNodeId) {
+        memoizationHitsCounter.increment();
+        // updated under the lock of the entry, so the increment is not lost when the entry is drained concurrently
+        ruleNodeMemoizationCounters.compute(ruleNodeId, (id, counters) -> {
+            if (counters == null) {
+                counters = new RuleNodeMemoizationCounters();
+            }
+            counters.hits++;
+            return counters;
+        });
+    }
+
+    @Override
+    public void incrementMemoizationMisses(RuleNodeId ruleNodeId) {
+        memoizationMissesCounter.increment();
+        ruleNodeMemoizationCounters.compute(ruleNodeId, (id, counters) -> {
+            if (counters == null) {
+                counters = new RuleNodeMemoizationCounters();
+            }
+            counters.misses++;
+            return counters;
+        });
+    }
+
+    @Override
+    public Map<RuleNodeId, MemoizationStats> getAndResetRuleNodeMemoizationStats() {
+        Map<RuleNodeId, MemoizationStats> stats = new HashMap<>();
+        for (RuleNodeId ruleNodeId : ruleNodeMemoizationCounters.keySet()) {
+            RuleNodeMemoizationCounters counters = ruleNodeMemoizationCounters.remove(ruleNodeId);
+            if (counters != null) {
+                stats.put(ruleNodeId, new MemoizationStats(counters.hits, counters.misses));
+            }
+        }
+        return stats;
+    }
+
     @Override
     public int getRequests() {
         return requestsCounter.get();
@@ -75,10 +135,28 @@ public class DefaultJsInvokeStats implements JsInvokeStats {
         return failuresCounter.get();
     }
 
+    @Override
+    public int getMemoizationHits() {
+        return memoizationHitsCounter.get();
+    }
+
+    @Override
+    public int getMemoizationMisses() {
+        return memoizationMissesCounter.get();
+    }
+
     @Override
     public void reset() {
         requestsCounter.clear();
         responsesCounter.clear();
         failuresCounter.clear();
+        memoizationHitsCounter.clear();
+        memoizationMissesCounter.clear();
     }
+
+    private static class RuleNodeMemoizationCounters {
+        private int hits;
+        private int misses;
+    }
+
 }
@@ -40,6 +40,7 @@ import org.thingsboard.server.common.data.plugin.ComponentLifecycleEvent;
 import org.thingsboard.server.common.msg.queue.ServiceType;
 import org.thingsboard.server.common.msg.queue.TbCallback;
 import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.dao.attributes.AttributesService;
 import org.thingsboard.server.dao.timeseries.TimeseriesService;
 import org.thingsboard.server.gen.transport.TransportProtos;
@@ -68,7 +69,6 @@ import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
-import java.util.function.Consumer;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -77,6 +77,8 @@ import java.util.stream.Collectors;
 @Service
 public class DefaultTbLocalSubscriptionService implements TbLocalSubscriptionService {
 
+    private static final String SUBSCRIPTIONS_STATS_KEY = "localSubscriptions";
+
     private final ConcurrentMap<String, Map<Integer, TbSubscription<?>>> subscriptionsBySessionId = new ConcurrentHashMap<>();
     private final ConcurrentMap<UUID, TbEntityLocalSubsInfo> subscriptionsByEntityId = new ConcurrentHashMap<>();
     private final ConcurrentMap<UUID, TbEntityUpdatesInfo> entityUpdates = new ConcurrentHashMap<>();
@@ -89,12 +91,16 @@ public class DefaultTbLocalSubscriptionService implements TbLocalSubscriptionSer
     private final SubscriptionManagerService subscriptionManagerService;
     private final WebSocketService webSocketService;
 
+    private final AtomicInteger totalSubscriptions = new AtomicInteger();
+    private final AtomicInteger uniqueSubscriptions = new AtomicInteger();
+
     private ExecutorService tsCallBackExecutor;
     private ScheduledExecutorService staleSessionCleanupExecutor;
 
     public DefaultTbLocalSubscriptionService(AttributesService attrService, TimeseriesService tsService, TbServiceInfoProvider serviceInfoProvider,
                                              PartitionService partitionService, TbClusterService clusterService,
-                                             @Lazy SubscriptionManagerService subscriptionManagerService, @Lazy WebSocketService webSocketService) {
+                                             @Lazy SubscriptionManagerService subscriptionManagerService, @Lazy WebSocketService webSocketService,
+                                             StatsFactory statsFactory) {
         this.attrService = attrService;
         this.tsService = tsService;
         this.serviceInfoProvider = serviceInfoProvider;
@@ -102,6 +108,10 @@ public class DefaultTbLocalSubscriptionService implements TbLocalSubscriptionSer
         this.clusterService = clusterService;
         this.subscriptionManagerService = subscriptionManagerService;
         this.webSocketService = webSocketService;
+        if (statsFactory != null) {
+            statsFactory.createGauge(SUBSCRIPTIONS_STATS_KEY, totalSubscriptions, "type", "total");
+            statsFactory.createGauge(SUBSCRIPTIONS_STATS_KEY, uniqueSubscriptions, "type", "unique");
+        }
     }
 
     private String serviceId;
@@ -131,6 +141,14 @@ public class DefaultTbLocalSubscriptionService implements TbLocalSubscriptionSer
         }
     }
 
+    int getTotalSubscriptions() {
+        return totalSubscriptions.get();
+    }
+
+    int getUniqueSubscriptions() {
+        return uniqueSubscriptions.get();
+    }
+
     @Override
     @EventListener(ClusterTopologyChangeEvent.class)
     public void onApplicationEvent(ClusterTopologyChangeEvent event) {
@@ -158,7 +176,11 @@ public class DefaultTbLocalSubscriptionService implements TbLocalSubscriptionSer
                 subsLock.lock();
                 try {
                     staleSubs.forEach(entityId -> {
-                        subscriptionsByEntityId.remove(entityId);
+                        TbEntityLocalSubsInfo entitySubs = subscriptionsByEntityId.remove(entityId);
+                        if (entitySubs != null) {
+                            totalSubscriptions.addAndGet(-entitySubs.getSubs().size());
+                            uniqueSubscriptions.addAndGet(-entitySubs.getSubGroups().size());
+                        }
                         entityUpdates.remove(entityId);
                     });
                 } finally {
@@ -294,29 +316,9 @@ public class DefaultTbLocalSubscriptionService implements TbLocalSubscriptionSer
 
     private void onTimeSeriesUpdate(UUID entityId, List<TsKvEntry> data, TbCallback callback) {
         entityUpdates.get(entityId).timeSeriesUpdateTs = System.currentTimeMillis();
-        processSubscriptionData(entityId,
-                sub -> TbSubscriptionType.TIMESERIES.equals(sub.getType()),
-                s -> {
-                    TbTimeSeriesSubscription sub = (TbTimeSeriesSubscription) s;
-                    List<TsKvEntry> updateData = null;
-                    if (sub.isAllKeys()) {
-                        updateData = data;
-                    } else {
-                        for (TsKvEntry kv : data) {
-                            if (sub.getKeyStates().containsKey((kv.getKey()))) {
-                                if (updateData == null) {
-                                    updateData = new ArrayList<>();
-                                }
-                                updateData.add(kv);
-                            }
-                        }
-                    }
-                    if (updateData != null) {
-                        TelemetrySubscriptionUpdate update = new TelemetrySubscriptionUpdate(sub.getSubscriptionId(), updateData);
-                        update.getLatestValues().forEach((key, value) -> sub.getKeyStates().put(key, value));
-                        subscriptionUpdateExecutor.submit(() -> sub.getUpdateProcessor().accept(sub, update));
-                    }
-                }, callback);
+        processSubscriptionGroups(entityId,
+                groupKey -> TbSubscriptionType.TIMESERIES.equals(groupKey.type()),
+                data, callback);
     }
 
     @Override
@@ -331,31 +333,9 @@ public class DefaultTbLocalSubscriptionService implements TbLocalSubscriptionSer
 
     private void onAttributesUpdate(UUID entityId, String scope, List<TsKvEntry> data, TbCallback callback) {
         entityUpdates.get(entityId).attributesUpdateTs = System.currentTimeMillis();
-        processSubscriptionData(entityId,
-                sub -> TbSubscriptionType.ATTRIBUTES.equals(sub.getType()),
-                s -> {
-                    TbAttributeSubscription sub = (TbAttributeSubscription) s;
-                    if (sub.getScope() == null || TbAttributeSubscriptionScope.ANY_SCOPE.equals(sub.getScope()) || sub.getScope().name().equals(scope)) {
-                        List<TsKvEntry> updateData = null;
-                        if (sub.isAllKeys()) {
-                            updateData = data;
-                        } else {
-                            for (TsKvEntry kv : data) {
-                                if (sub.getKeyStates().containsKey((kv.getKey()))) {
-                                    if (updateData == null) {
-                                        updateData = new ArrayList<>();
-                                    }
-                                    updateData.add(kv);
-                                }
-                            }
-                        }
-                        if (updateData != null) {
-                            TelemetrySubscriptionUpdate update = new TelemetrySubscriptionUpdate(sub.getSubscriptionId(), updateData);
-                            update.getLatestValues().forEach((key, value) -> sub.getKeyStates().put(key, value));
-                            subscriptionUpdateExecutor.submit(() -> sub.getUpdateProcessor().accept(sub, update));
-                        }
-                    }
-                }, callback);
+        processSubscriptionGroups(entityId,
+                groupKey -> TbSubscriptionType.ATTRIBUTES.equals(groupKey.type()) && groupKey.matchesScope(scope),
+                data, callback);
     }
 
     @Override
@@ -426,32 +406,76 @@ public class DefaultTbLocalSubscriptionService implements TbLocalSubscriptionSer
         callback.onSuccess();
     }
 
-    private void processSubscriptionData(UUID entityId,
-                                         Predicate<TbSubscription<?>> filter,
-                                         Consumer<TbSubscription<?>> processor,
-                                         TbCallback callback) {
+    /**
+     * Filters and converts the telemetry update once per group of the subscriptions with the same keys,
+     * and fans out the converted update to the group members. Only the subscription id differs in the member updates.
+     */
+    @SuppressWarnings("unchecked")
+    private void processSubscriptionGroups(UUID entityId,
+                                           Predicate<TbSubscriptionGroupKey> filter,
+                                           List<TsKvEntry> data,
+                                           TbCallback callback) {
         var subs = subscriptionsByEntityId.get(entityId);
         if (subs != null) {
-            subs.getSubs().forEach(s -> {
-                if (filter.test(s)) {
-                    processor.accept(s);
+            subs.getSubGroups().forEach((groupKey, groupSubs) -> {
+                if (!filter.test(groupKey)) {
+                    return;
+                }
+                List<TsKvEntry> updateData = null;
+                if (groupKey.allKeys()) {
+                    updateData = data;
+                } else {
+                    for (TsKvEntry kv : data) {
+                        if (groupKey.keys().contains(kv.getKey())) {
+                            if (updateData == null) {
+                                updateData = new ArrayList<>();
+                            }
+                            updateData.add(kv);
+                        }
+                    }
+                }
+                if (updateData != null) {
+                    TelemetrySubscriptionUpdate groupUpdate = new TelemetrySubscriptionUpdate(0, updateData);
+                    Map<String, Long> latestValues = groupUpdate.getLatestValues();
+                    groupSubs.forEach(s -> {
+                        TbSubscription<TelemetrySubscriptionUpdate> sub = (TbSubscription<TelemetrySubscriptionUpdate>) s;
+                        getKeyStates(sub).putAll(latestValues);
+                        TelemetrySubscriptionUpdate update = groupUpdate.copyWithNewSubscriptionId(sub.getSubscriptionId());
+                        subscriptionUpdateExecutor.submit(() -> sub.getUpdateProcessor().accept(sub, update));
+                    });
                 }
             });
         }
         callback.onSuccess();
     }
 
+    private static Map<String, Long> getKeyStates(TbSubscription<?> subscription) {
+        if (subscription instanceof TbTimeSeriesSubscription tsSub) {
+            return tsSub.getKeyStates();
+        } else {
+            return ((TbAttributeSubscription) subscription).getKeyStates();
+        }
+    }
+
     private SubscriptionModificationResult modifySubscription(TenantId tenantId, EntityId entityId, TbSubscription<?> subscription, boolean add) {
         TbSubscription<?> missedUpdatesCandidate = null;
         TbEntitySubEvent event = null;
         try {
             TbEntityLocalSubsInfo entitySubs = subscriptionsByEntityId.computeIfAbsent(entityId.getId(), id -> new TbEntityLocalSubsInfo(tenantId, entityId));
+            int subsCount = entitySubs.getSubs().size();
+            int groupsCount = entitySubs.getSubGroups().size();
             event = add ? entitySubs.add(subscription) : entitySubs.remove(subscription);
             if (entitySubs.isEmpty()) {
                 subscriptionsByEntityId.remove(entityId.getId());
                 entityUpdates.remove(entityId.getId());
-            } else if (add) {
-                missedUpdatesCandidate = entitySubs.registerPendingSubscription(subscription, event);
+                totalSubscriptions.addAndGet(-subsCount);
+                uniqueSubscriptions.addAndGet(-groupsCount);
+            } else {
+                totalSubscriptions.addAndGet(entitySubs.getSubs().size() - subsCount);
+                uniqueSubscriptions.addAndGet(entitySubs.getSubGroups().size() - groupsCount);
+                if (add) {
+                    missedUpdatesCandidate = entitySubs.registerPendingSubscription(subscription, event);
+                }
             }
         } catch (Exception e) {
             log.warn("[{}][{}] Failed to {} subscription {} due to ", tenantId, entityId, add ? "add" : "remove", subscription, e);
@@ -45,6 +45,11 @@ public class TbEntityLocalSubsInfo {
     private final Lock lock = new ReentrantLock();
     @Getter
     private final Set<TbSubscription<?>> subs = ConcurrentHashMap.newKeySet();
+    /**
+     * Subscriptions grouped by the type, scope and keys, see {@link TbSubscriptionGroupKey}.
+     */
+    @Getter
+    private final Map<TbSubscriptionGroupKey, Set<TbSubscription<?>>> subGroups = new ConcurrentHashMap<>();
     private volatile TbSubscriptionsInfo state = new TbSubscriptionsInfo();
 
     private final Map<Integer, Set<TbSubscription<?>>> pendingSubs = new ConcurrentHashMap<>();
@@ -66,7 +71,9 @@ public class TbEntityLocalSubsInfo {
     public TbEntitySubEvent add(TbSubscription<?> subscription) {
         log.trace("[{}][{}][{}] Adding: {}", tenantId, entityId, subscription.getSubscriptionId(), subscription);
         boolean created = subs.isEmpty();
-        subs.add(subscription);
+        if (subs.add(subscription)) {
+            subGroups.computeIfAbsent(TbSubscriptionGroupKey.of(subscription), key -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
         TbSubscriptionsInfo newState = created ? state : state.copy();
         boolean stateChanged = false;
         switch (subscription.getType()) {
@@ -133,6 +140,10 @@ public class TbEntityLocalSubsInfo {
         if (!subs.remove(sub)) {
             return null;
         }
+        subGroups.computeIfPresent(TbSubscriptionGroupKey.of(sub), (key, groupSubs) -> {
+            groupSubs.remove(sub);
+            return groupSubs.isEmpty() ? null : groupSubs;
+        });
         if (subs.isEmpty()) {
             return toEvent(ComponentLifecycleEvent.DELETED);
         }
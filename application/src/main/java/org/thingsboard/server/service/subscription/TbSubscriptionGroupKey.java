@@ -0,0 +1,50 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.subscription;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Subscriptions of the entity with the same group key receive the same updates,
+ * so the update is filtered and converted once per group and shared by the group members.
+ */
+public record TbSubscriptionGroupKey(TbSubscriptionType type, TbAttributeSubscriptionScope scope, boolean allKeys, Set<String> keys) {
+
+    public static TbSubscriptionGroupKey of(TbSubscription<?> subscription) {
+        if (subscription instanceof TbTimeSeriesSubscription tsSub) {
+            return new TbSubscriptionGroupKey(subscription.getType(), null, tsSub.isAllKeys(), toKeys(tsSub.isAllKeys(), tsSub.getKeyStates()));
+        } else if (subscription instanceof TbAttributeSubscription attrSub) {
+            TbAttributeSubscriptionScope scope = attrSub.getScope() != null ? attrSub.getScope() : TbAttributeSubscriptionScope.ANY_SCOPE;
+            return new TbSubscriptionGroupKey(subscription.getType(), scope, attrSub.isAllKeys(), toKeys(attrSub.isAllKeys(), attrSub.getKeyStates()));
+        } else {
+            return new TbSubscriptionGroupKey(subscription.getType(), null, true, Collections.emptySet());
+        }
+    }
+
+    public boolean matchesScope(String scope) {
+        return this.scope == null || TbAttributeSubscriptionScope.ANY_SCOPE.equals(this.scope) || this.scope.name().equals(scope);
+    }
+
+    /**
+     * The keys of all keys subscriptions are ignored, since the key states of such subscriptions grow with the received updates.
+     */
+    private static Set<String> toKeys(boolean allKeys, Map<String, Long> keyStates) {
+        return allKeys || keyStates == null ? Collections.emptySet() : Set.copyOf(keyStates.keySet());
+    }
+
+}
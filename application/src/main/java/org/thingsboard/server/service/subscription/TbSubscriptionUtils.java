@@ -254,18 +254,29 @@ public class TbSubscriptionUtils {
     }
 
     public static ToCoreMsg notificationUpdateToProto(TenantId tenantId, UserId recipientId, NotificationUpdate notificationUpdate) {
-        TransportProtos.NotificationUpdateProto updateProto = TransportProtos.NotificationUpdateProto.newBuilder()
+        return ToCoreMsg.newBuilder()
+                .setToSubscriptionMgrMsg(SubscriptionMgrMsgProto.newBuilder()
+                        .setNotificationUpdate(toNotificationUpdateProto(tenantId, recipientId, notificationUpdate))
+                        .build())
+                .build();
+    }
+
+    public static ToCoreMsg notificationUpdatesToProto(List<TransportProtos.NotificationUpdateProto> updates) {
+        return ToCoreMsg.newBuilder()
+                .setToSubscriptionMgrMsg(SubscriptionMgrMsgProto.newBuilder()
+                        .addAllNotificationUpdates(updates)
+                        .build())
+                .build();
+    }
+
+    public static TransportProtos.NotificationUpdateProto toNotificationUpdateProto(TenantId tenantId, UserId recipientId, NotificationUpdate notificationUpdate) {
+        return TransportProtos.NotificationUpdateProto.newBuilder()
                 .setTenantIdMSB(tenantId.getId().getMostSignificantBits())
                 .setTenantIdLSB(tenantId.getId().getLeastSignificantBits())
                 .setRecipientIdMSB(recipientId.getId().getMostSignificantBits())
                 .setRecipientIdLSB(recipientId.getId().getLeastSignificantBits())
                 .setUpdate(JacksonUtil.toString(notificationUpdate))
                 .build();
-        return ToCoreMsg.newBuilder()
-                .setToSubscriptionMgrMsg(SubscriptionMgrMsgProto.newBuilder()
-                        .setNotificationUpdate(updateProto)
-                        .build())
-                .build();
     }
 
     public static ToCoreNotificationMsg notificationRequestUpdateToProto(TenantId tenantId, NotificationRequestUpdate notificationRequestUpdate) {
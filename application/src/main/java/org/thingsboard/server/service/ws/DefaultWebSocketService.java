@@ -15,7 +15,6 @@
  */
 package org.thingsboard.server.service.ws;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.google.common.base.Function;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -28,7 +27,6 @@ import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.socket.CloseStatus;
-import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.common.util.ThingsBoardExecutors;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.common.data.AttributeScope;
@@ -260,14 +258,15 @@ public class DefaultWebSocketService implements WebSocketService {
     }
 
     @Override
-    public void sendUpdate(String sessionId, int cmdId, TelemetrySubscriptionUpdate update) {
+    public void sendUpdate(String sessionId, int cmdId, TelemetrySubscriptionUpdate update, boolean latestValues) {
         // We substitute the subscriptionId with cmdId for old-style subscriptions.
-        doSendUpdate(sessionId, cmdId, update.copyWithNewSubscriptionId(cmdId));
+        doSendUpdate(sessionId, cmdId, update.copyWithNewSubscriptionId(cmdId), latestValues);
     }
 
     @Override
     public void sendUpdate(String sessionId, CmdUpdate update) {
-        doSendUpdate(sessionId, update.getCmdId(), update);
+        // only the entity data updates without time series are conflated, see TbWebSocketUpdateConflator
+        doSendUpdate(sessionId, update.getCmdId(), update, update instanceof EntityDataUpdate);
     }
 
     @Override
@@ -276,10 +275,10 @@ public class DefaultWebSocketService implements WebSocketService {
         sendUpdate(sessionRef, update);
     }
 
-    private <T> void doSendUpdate(String sessionId, int cmdId, T update) {
+    private <T> void doSendUpdate(String sessionId, int cmdId, T update, boolean latestValues) {
         WsSessionMetaData md = wsSessionsMap.get(sessionId);
         if (md != null) {
-            sendUpdate(md.getSessionRef(), cmdId, update);
+            sendUpdate(md.getSessionRef(), cmdId, update, latestValues);
         }
     }
 
@@ -459,7 +458,7 @@ public class DefaultWebSocketService implements WebSocketService {
                         .updateProcessor((subscription, update) -> {
                             subLock.lock();
                             try {
-                                sendUpdate(subscription.getSessionId(), cmd.getCmdId(), update);
+                                sendUpdate(subscription.getSessionId(), cmd.getCmdId(), update, true);
                             } finally {
                                 subLock.unlock();
                             }
@@ -571,7 +570,7 @@ public class DefaultWebSocketService implements WebSocketService {
                         .updateProcessor((subscription, update) -> {
                             subLock.lock();
                             try {
-                                sendUpdate(subscription.getSessionId(), cmd.getCmdId(), update);
+                                sendUpdate(subscription.getSessionId(), cmd.getCmdId(), update, true);
                             } finally {
                                 subLock.unlock();
                             }
@@ -666,7 +665,7 @@ public class DefaultWebSocketService implements WebSocketService {
                         .updateProcessor((subscription, update) -> {
                             subLock.lock();
                             try {
-                                sendUpdate(subscription.getSessionId(), cmd.getCmdId(), update);
+                                sendUpdate(subscription.getSessionId(), cmd.getCmdId(), update, true);
                             } finally {
                                 subLock.unlock();
                             }
@@ -721,7 +720,7 @@ public class DefaultWebSocketService implements WebSocketService {
                         .updateProcessor((subscription, update) -> {
                             subLock.lock();
                             try {
-                                sendUpdate(subscription.getSessionId(), cmd.getCmdId(), update);
+                                sendUpdate(subscription.getSessionId(), cmd.getCmdId(), update, cmd.getTimeWindow() <= 0);
                             } finally {
                                 subLock.unlock();
                             }
@@ -837,26 +836,21 @@ public class DefaultWebSocketService implements WebSocketService {
     }
 
     private void sendUpdate(WebSocketSessionRef sessionRef, EntityDataUpdate update) {
-        sendUpdate(sessionRef, update.getCmdId(), update);
+        sendUpdate(sessionRef, update.getCmdId(), update, false);
     }
 
     private void sendUpdate(WebSocketSessionRef sessionRef, TelemetrySubscriptionUpdate update) {
-        sendUpdate(sessionRef, update.getSubscriptionId(), update);
+        sendUpdate(sessionRef, update.getSubscriptionId(), update, false);
     }
 
-    private void sendUpdate(WebSocketSessionRef sessionRef, int cmdId, Object update) {
-        try {
-            String msg = JacksonUtil.OBJECT_MAPPER.writeValueAsString(update);
-            executor.submit(() -> {
-                try {
-                    msgEndpoint.send(sessionRef, cmdId, msg);
-                } catch (IOException e) {
-                    log.warn("[{}] Failed to send reply: {}", sessionRef.getSessionId(), update, e);
-                }
-            });
-        } catch (JsonProcessingException e) {
-            log.warn("[{}] Failed to encode reply: {}", sessionRef.getSessionId(), update, e);
-        }
+    private void sendUpdate(WebSocketSessionRef sessionRef, int cmdId, Object update, boolean latestValues) {
+        executor.submit(() -> {
+            try {
+                msgEndpoint.sendUpdate(sessionRef, cmdId, update, latestValues);
+            } catch (IOException e) {
+                log.warn("[{}] Failed to send reply: {}", sessionRef.getSessionId(), update, e);
+            }
+        });
     }
 
     private void sendPing() {
@@ -16,6 +16,7 @@
 package org.thingsboard.server.service.ws;
 
 import org.springframework.web.socket.CloseStatus;
+import org.thingsboard.common.util.JacksonUtil;
 
 import java.io.IOException;
 
@@ -26,6 +27,14 @@ public interface WebSocketMsgEndpoint {
 
     void send(WebSocketSessionRef sessionRef, int subscriptionId, String msg) throws IOException;
 
+    /**
+     * Sends the subscription update encoded with the session encoding. The updates of the latest values subscriptions
+     * (latest time series and attributes) may be conflated with the other updates of the subscription while the session is backlogged.
+     */
+    default void sendUpdate(WebSocketSessionRef sessionRef, int subscriptionId, Object update, boolean latestValues) throws IOException {
+        send(sessionRef, subscriptionId, JacksonUtil.toString(update));
+    }
+
     void sendPing(WebSocketSessionRef sessionRef, long currentTime) throws IOException;
 
     void close(WebSocketSessionRef sessionRef, CloseStatus withReason) throws IOException;
@@ -29,7 +29,11 @@ public interface WebSocketService {
 
     void handleCommands(WebSocketSessionRef sessionRef, WsCommandsWrapper commandsWrapper);
 
-    void sendUpdate(String sessionId, int cmdId, TelemetrySubscriptionUpdate update);
+    /**
+     * @param latestValues whether the update is of the latest values subscription (latest time series or attributes),
+     *                     such updates may be conflated while the session is backlogged
+     */
+    void sendUpdate(String sessionId, int cmdId, TelemetrySubscriptionUpdate update, boolean latestValues);
 
     void sendUpdate(String sessionId, CmdUpdate update);
 
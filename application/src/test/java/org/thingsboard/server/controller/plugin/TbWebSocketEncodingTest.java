@@ -0,0 +1,97 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.controller.plugin;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.query.EntityData;
+import org.thingsboard.server.common.data.query.EntityKeyType;
+import org.thingsboard.server.common.data.query.TsValue;
+import org.thingsboard.server.service.ws.telemetry.cmd.v2.EntityDataUpdate;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@Slf4j
+class TbWebSocketEncodingTest {
+
+    @Test
+    void testEncodingForSubProtocol() {
+        assertThat(TbWebSocketEncoding.forSubProtocol(null)).isEqualTo(TbWebSocketEncoding.JSON);
+        assertThat(TbWebSocketEncoding.forSubProtocol("")).isEqualTo(TbWebSocketEncoding.JSON);
+        assertThat(TbWebSocketEncoding.forSubProtocol("tb-cbor")).isEqualTo(TbWebSocketEncoding.CBOR);
+    }
+
+    @Test
+    void testCborRoundTrip() throws Exception {
+        EntityDataUpdate update = entityDataUpdate(10, 5);
+
+        TbWebSocketMsg<?> msg = TbWebSocketEncoding.CBOR.encode(update);
+
+        assertThat(msg.getType()).isEqualTo(TbWebSocketMsgType.BINARY);
+        assertThat(TbWebSocketEncoding.decodeCbor((ByteBuffer) msg.getMsg())).isEqualTo(JacksonUtil.toString(update));
+    }
+
+    @Test
+    void testEncodeCostAndBytesPerUpdate() {
+        EntityDataUpdate update = entityDataUpdate(100, 10);
+        int iterations = 1000;
+
+        int jsonBytes = ((String) TbWebSocketEncoding.JSON.encode(update).getMsg()).getBytes().length;
+        int cborBytes = ((ByteBuffer) TbWebSocketEncoding.CBOR.encode(update).getMsg()).remaining();
+        long jsonNanos = measureEncodeNanos(TbWebSocketEncoding.JSON, update, iterations);
+        long cborNanos = measureEncodeNanos(TbWebSocketEncoding.CBOR, update, iterations);
+        log.info("Entity data update of 100 entities x 10 keys. JSON: {} bytes, {} us per update. CBOR: {} bytes, {} us per update.",
+                jsonBytes, TimeUnit.NANOSECONDS.toMicros(jsonNanos / iterations),
+                cborBytes, TimeUnit.NANOSECONDS.toMicros(cborNanos / iterations));
+
+        assertThat(cborBytes).isLessThan(jsonBytes);
+    }
+
+    private long measureEncodeNanos(TbWebSocketEncoding encoding, Object update, int iterations) {
+        for (int i = 0; i < iterations; i++) {
+            encoding.encode(update);
+        }
+        long startTs = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            encoding.encode(update);
+        }
+        return System.nanoTime() - startTs;
+    }
+
+    private EntityDataUpdate entityDataUpdate(int entities, int keys) {
+        long ts = System.currentTimeMillis();
+        List<EntityData> data = new ArrayList<>();
+        for (int i = 0; i < entities; i++) {
+            Map<String, TsValue> values = new HashMap<>();
+            for (int k = 0; k < keys; k++) {
+                values.put("key" + k, new TsValue(ts + k, Double.toString(i * 0.5 + k)));
+            }
+            data.add(new EntityData(new DeviceId(UUID.randomUUID()), Map.of(EntityKeyType.TIME_SERIES, values), null));
+        }
+        return new EntityDataUpdate(1, null, data, entities);
+    }
+
+}
@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.controller.plugin;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import lombok.extern.slf4j.Slf4j;
 import org.awaitility.Awaitility;
 import org.junit.jupiter.api.AfterEach;
@@ -23,14 +24,21 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 import org.springframework.web.socket.CloseStatus;
 import org.springframework.web.socket.adapter.NativeWebSocketSession;
+import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.common.util.ThingsBoardThreadFactory;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.service.subscription.SubscriptionErrorCode;
 import org.thingsboard.server.service.ws.WebSocketSessionRef;
+import org.thingsboard.server.service.ws.telemetry.sub.TelemetrySubscriptionUpdate;
 
 import jakarta.websocket.RemoteEndpoint;
 import jakarta.websocket.SendHandler;
 import jakarta.websocket.SendResult;
 import jakarta.websocket.Session;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Deque;
 import java.util.List;
@@ -163,6 +171,159 @@ class TbWebSocketHandlerTest {
         verify(asyncRemote, times(1)).sendText(anyString(), any());
     }
 
+    @Test
+    void sendHandler_sendUpdate_conflate_updates_when_backlogged() {
+        List<String> outputs = new ArrayList<>();
+        Deque<SendHandler> callbacks = new ConcurrentLinkedDeque<>();
+        willAnswer(invocation -> {
+            outputs.add(invocation.getArgument(0));
+            callbacks.add(invocation.getArgument(1));
+            return null;
+        }).given(asyncRemote).sendText(anyString(), any());
+        sendHandler.setConflationThreshold(10);
+
+        sendHandler.sendMsg("first message to stay in-flight until the backlog is filled");
+        IntStream.range(0, 10).forEach(i -> sendHandler.sendUpdate(1, telemetryUpdate(1, "temperature", i), true));
+        IntStream.range(10, 100).forEach(i -> {
+            sendHandler.sendUpdate(1, telemetryUpdate(1, "temperature", i), true);
+            sendHandler.sendUpdate(1, telemetryUpdate(1, "humidity", 100 - i), true);
+            sendHandler.sendUpdate(2, telemetryUpdate(2, "temperature", i), true);
+        });
+        verify(sendHandler, never()).closeSession(any());
+
+        SendHandler callback;
+        while ((callback = callbacks.poll()) != null) {
+            callback.onResult(new SendResult());
+        }
+
+        assertThat(outputs).hasSize(1 + 10 + 2);
+        assertThat(outputs.subList(1, 11)).containsExactlyElementsOf(IntStream.range(0, 10)
+                .mapToObj(i -> JacksonUtil.toString(telemetryUpdate(1, "temperature", i))).toList());
+        JsonNode firstSubUpdate = JacksonUtil.toJsonNode(outputs.get(11));
+        assertThat(firstSubUpdate.get("subscriptionId").asInt()).isEqualTo(1);
+        assertThat(firstSubUpdate.get("data").get("temperature").toString()).isEqualTo("[[99,\"99\"]]");
+        assertThat(firstSubUpdate.get("data").get("humidity").toString()).isEqualTo("[[90,\"90\"]]");
+        JsonNode secondSubUpdate = JacksonUtil.toJsonNode(outputs.get(12));
+        assertThat(secondSubUpdate.get("subscriptionId").asInt()).isEqualTo(2);
+        assertThat(secondSubUpdate.get("data").get("temperature").toString()).isEqualTo("[[99,\"99\"]]");
+    }
+
+    @Test
+    void sendHandler_sendUpdate_conflation_preserves_order_of_other_messages() {
+        List<String> outputs = new ArrayList<>();
+        Deque<SendHandler> callbacks = new ConcurrentLinkedDeque<>();
+        willAnswer(invocation -> {
+            outputs.add(invocation.getArgument(0));
+            callbacks.add(invocation.getArgument(1));
+            return null;
+        }).given(asyncRemote).sendText(anyString(), any());
+        sendHandler.setConflationThreshold(2);
+
+        sendHandler.sendMsg("in-flight");
+        sendHandler.sendMsg("plain 0");
+        sendHandler.sendMsg("plain 1");
+        sendHandler.sendUpdate(1, telemetryUpdate(1, "temperature", 0), true);
+        sendHandler.sendUpdate(1, telemetryUpdate(1, "temperature", 1), true);
+        sendHandler.sendUpdate(1, new TelemetrySubscriptionUpdate(1, SubscriptionErrorCode.BAD_REQUEST), true);
+        sendHandler.sendUpdate(1, telemetryUpdate(1, "temperature", 2), true);
+
+        SendHandler callback;
+        while ((callback = callbacks.poll()) != null) {
+            callback.onResult(new SendResult());
+        }
+
+        assertThat(outputs).hasSize(6);
+        assertThat(outputs.get(3)).contains("[[1,\"1\"]]");
+        assertThat(JacksonUtil.toJsonNode(outputs.get(4)).get("errorCode").asInt()).isEqualTo(SubscriptionErrorCode.BAD_REQUEST.getCode());
+        assertThat(outputs.get(5)).contains("[[2,\"2\"]]");
+    }
+
+    @Test
+    void sendHandler_sendUpdate_multi_point_timeseries_update_is_not_conflated() {
+        List<String> outputs = new ArrayList<>();
+        Deque<SendHandler> callbacks = new ConcurrentLinkedDeque<>();
+        willAnswer(invocation -> {
+            outputs.add(invocation.getArgument(0));
+            callbacks.add(invocation.getArgument(1));
+            return null;
+        }).given(asyncRemote).sendText(anyString(), any());
+        sendHandler.setConflationThreshold(2);
+
+        sendHandler.sendMsg("in-flight");
+        sendHandler.sendMsg("plain 0");
+        sendHandler.sendMsg("plain 1");
+        sendHandler.sendUpdate(1, telemetryUpdate(1, "temperature", 0), true);
+        TelemetrySubscriptionUpdate history = new TelemetrySubscriptionUpdate(1, List.of(
+                new BasicTsKvEntry(1, new LongDataEntry("temperature", 1L)),
+                new BasicTsKvEntry(2, new LongDataEntry("temperature", 2L)),
+                new BasicTsKvEntry(3, new LongDataEntry("temperature", 3L))));
+        sendHandler.sendUpdate(1, history, true);
+        sendHandler.sendUpdate(1, telemetryUpdate(1, "temperature", 4), true);
+
+        SendHandler callback;
+        while ((callback = callbacks.poll()) != null) {
+            callback.onResult(new SendResult());
+        }
+
+        assertThat(outputs).hasSize(6);
+        assertThat(outputs.get(3)).contains("[[0,\"0\"]]");
+        assertThat(outputs.get(4)).isEqualTo(JacksonUtil.toString(history));
+        assertThat(JacksonUtil.toJsonNode(outputs.get(4)).get("data").get("temperature")).hasSize(3);
+        assertThat(outputs.get(5)).contains("[[4,\"4\"]]");
+    }
+
+    @Test
+    void sendHandler_sendUpdate_history_subscription_updates_are_not_conflated() {
+        List<String> outputs = new ArrayList<>();
+        Deque<SendHandler> callbacks = new ConcurrentLinkedDeque<>();
+        willAnswer(invocation -> {
+            outputs.add(invocation.getArgument(0));
+            callbacks.add(invocation.getArgument(1));
+            return null;
+        }).given(asyncRemote).sendText(anyString(), any());
+        sendHandler.setConflationThreshold(2);
+
+        sendHandler.sendMsg("in-flight");
+        sendHandler.sendMsg("plain 0");
+        sendHandler.sendMsg("plain 1");
+        IntStream.range(0, 10).forEach(i -> sendHandler.sendUpdate(1, telemetryUpdate(1, "temperature", i), false));
+
+        SendHandler callback;
+        while ((callback = callbacks.poll()) != null) {
+            callback.onResult(new SendResult());
+        }
+
+        assertThat(outputs).hasSize(3 + 10);
+        assertThat(outputs.subList(3, 13)).containsExactlyElementsOf(IntStream.range(0, 10)
+                .mapToObj(i -> JacksonUtil.toString(telemetryUpdate(1, "temperature", i))).toList());
+    }
+
+    @Test
+    void sendHandler_sendUpdate_binary_encoding() throws IOException {
+        willReturn(TbWebSocketEncoding.CBOR_SUBPROTOCOL).given(session).getAcceptedProtocol();
+        TbWebSocketHandler.SessionMetaData binarySendHandler = wsHandler.new SessionMetaData(session, sessionRef);
+        binarySendHandler.setMaxMsgQueueSize(maxMsgQueuePerSession);
+        List<ByteBuffer> outputs = new ArrayList<>();
+        willAnswer(invocation -> {
+            outputs.add(invocation.getArgument(0));
+            invocation.<SendHandler>getArgument(1).onResult(new SendResult());
+            return null;
+        }).given(asyncRemote).sendBinary(any(), any());
+
+        TelemetrySubscriptionUpdate update = telemetryUpdate(1, "temperature", 42);
+        binarySendHandler.sendUpdate(1, update, true);
+        binarySendHandler.sendMsg("{\"cmdId\":1}");
+
+        verify(asyncRemote, never()).sendText(anyString(), any());
+        assertThat(outputs).hasSize(2);
+        assertThat(TbWebSocketEncoding.decodeCbor(outputs.get(0))).isEqualTo(JacksonUtil.toString(update));
+        assertThat(TbWebSocketEncoding.decodeCbor(outputs.get(1))).isEqualTo("{\"cmdId\":1}");
+    }
+
+    private TelemetrySubscriptionUpdate telemetryUpdate(int subscriptionId, String key, long value) {
+        return new TelemetrySubscriptionUpdate(subscriptionId, List.of(new BasicTsKvEntry(value, new LongDataEntry(key, value))));
+    }
+
     @Test
     void sendHandler_onMsg_allProcessed() throws Exception {
         Deque<String> msgs = new ConcurrentLinkedDeque<>();
@@ -16,6 +16,7 @@
 package org.thingsboard.server.queue.discovery;
 
 import com.datastax.oss.driver.api.core.uuid.Uuids;
+import com.google.common.hash.Hashing;
 import lombok.SneakyThrows;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.collections4.ListUtils;
@@ -41,6 +42,7 @@ import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.gen.transport.TransportProtos.ServiceInfo;
 import org.thingsboard.server.queue.discovery.event.PartitionChangeEvent;
 
+import java.lang.management.ManagementFactory;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -58,6 +60,7 @@ import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
@@ -418,6 +421,60 @@ public class HashPartitionServiceTest {
         return systemQueue;
     }
 
+    @Test
+    public void testMurmur3HashOfUuidIsSameAsGuava() {
+        Random random = new Random();
+        for (int i = 0; i < 10000; i++) {
+            UUID uuid = i % 2 == 0 ? Uuids.timeBased() : new UUID(random.nextLong(), random.nextLong());
+            int expected = Hashing.murmur3_128().newHasher()
+                    .putLong(uuid.getMostSignificantBits())
+                    .putLong(uuid.getLeastSignificantBits())
+                    .hash().asInt();
+            assertThat(HashPartitionService.murmur3_128AsInt(uuid.getMostSignificantBits(), uuid.getLeastSignificantBits())).isEqualTo(expected);
+        }
+    }
+
+    @Test
+    public void testResolvedTopicPartitionInfosAreReusedUntilPartitionsChange() {
+        DeviceId deviceId = new DeviceId(UUID.randomUUID());
+        TopicPartitionInfo tpi = partitionService.resolve(ServiceType.TB_CORE, TenantId.SYS_TENANT_ID, deviceId);
+        assertThat(partitionService.resolve(ServiceType.TB_CORE, TenantId.SYS_TENANT_ID, deviceId)).isSameAs(tpi);
+        int partition = tpi.getPartition().get();
+        assertThat(partition).isEqualTo(partitionService.resolvePartitionIndex(deviceId.getId(), 10));
+        assertThat(tpi.isMyPartition()).isEqualTo(partitionService.getMyPartitions(new QueueKey(ServiceType.TB_CORE)).contains(partition));
+
+        ServiceInfo currentServer = ServiceInfo.newBuilder()
+                .setServiceId("tb-core-0")
+                .addAllServiceTypes(Collections.singletonList(ServiceType.TB_CORE.name()))
+                .build();
+        partitionService.recalculatePartitions(currentServer, Collections.emptyList());
+
+        TopicPartitionInfo newTpi = partitionService.resolve(ServiceType.TB_CORE, TenantId.SYS_TENANT_ID, deviceId);
+        assertThat(newTpi).isNotSameAs(tpi).isEqualTo(tpi);
+        assertThat(newTpi.isMyPartition()).isTrue();
+    }
+
+    @Test
+    public void testResolveAllocation() {
+        List<DeviceId> devices = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            devices.add(new DeviceId(UUID.randomUUID()));
+        }
+        com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threadMXBean.isThreadAllocatedMemorySupported() && threadMXBean.isThreadAllocatedMemoryEnabled());
+        int iterations = 1000000;
+        for (int i = 0; i < iterations; i++) {
+            partitionService.resolve(ServiceType.TB_CORE, TenantId.SYS_TENANT_ID, devices.get(i % devices.size()));
+        }
+        long allocatedBefore = threadMXBean.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < iterations; i++) {
+            partitionService.resolve(ServiceType.TB_CORE, TenantId.SYS_TENANT_ID, devices.get(i % devices.size()));
+        }
+        long bytesPerResolve = (threadMXBean.getCurrentThreadAllocatedBytes() - allocatedBefore) / iterations;
+        // only the QueueKey of the resolved queue is expected to be allocated; not asserted since it depends on the JIT (escape analysis)
+        log.info("Allocated {} bytes per resolve", bytesPerResolve);
+    }
+
     private HashPartitionService createPartitionService() {
         HashPartitionService partitionService = new HashPartitionService(serviceInfoProvider,
                 routingInfoService,
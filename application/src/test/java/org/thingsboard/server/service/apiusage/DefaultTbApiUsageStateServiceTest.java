@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.service.apiusage;
 
+import com.google.common.util.concurrent.FutureCallback;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -23,13 +24,36 @@ import org.mockito.Mock;
 import org.mockito.Mockito;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.ApiUsageRecordKey;
 import org.thingsboard.server.common.data.ApiUsageState;
+import org.thingsboard.server.common.data.ApiUsageStateValue;
+import org.thingsboard.server.common.data.TenantProfile;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.TenantProfileId;
+import org.thingsboard.server.common.data.tenant.profile.DefaultTenantProfileConfiguration;
+import org.thingsboard.server.common.data.tenant.profile.TenantProfileData;
+import org.thingsboard.server.common.msg.queue.TbCallback;
+import org.thingsboard.server.gen.transport.TransportProtos.ToUsageStatsServiceMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.UsageStatsKVProto;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.service.telemetry.InternalTelemetryService;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.BDDMockito.willAnswer;
 import static org.mockito.Mockito.never;
 
 @ExtendWith(MockitoExtension.class)
@@ -56,4 +80,64 @@ public class DefaultTbApiUsageStateServiceTest {
         Mockito.verify(service, never()).getOrFetchState(tenantId, tenantId);
     }
 
+    @Test
+    public void givenStatsOfManyTenants_whenProcessedConcurrently_thenNoUpdatesAreLost() throws Exception {
+        int tenantsCount = 10000;
+        int threadsCount = 16;
+        DefaultTbApiUsageStateService usageStateService = new DefaultTbApiUsageStateService(null, null, null, null, null, null, null, null, null);
+        InternalTelemetryService tsWsService = Mockito.mock(InternalTelemetryService.class, Mockito.withSettings().stubOnly());
+        AtomicInteger savedUpdates = new AtomicInteger();
+        willAnswer(invocation -> savedUpdates.incrementAndGet()).given(tsWsService).saveAndNotifyInternal(any(), any(), anyList(), any(FutureCallback.class));
+        ReflectionTestUtils.setField(usageStateService, "tsWsService", tsWsService);
+
+        TenantProfile tenantProfile = new TenantProfile(new TenantProfileId(UUID.randomUUID()));
+        TenantProfileData profileData = new TenantProfileData();
+        profileData.setConfiguration(new DefaultTenantProfileConfiguration());
+        tenantProfile.setProfileData(profileData);
+        List<TenantId> tenantIds = new ArrayList<>(tenantsCount);
+        for (int i = 0; i < tenantsCount; i++) {
+            TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+            ApiUsageState apiUsageState = new ApiUsageState();
+            apiUsageState.setTenantId(tenantId);
+            apiUsageState.setEntityId(tenantId);
+            apiUsageState.setTransportState(ApiUsageStateValue.ENABLED);
+            usageStateService.myUsageStates.put(tenantId, new TenantApiUsageState(tenantProfile, apiUsageState));
+            tenantIds.add(tenantId);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(threadsCount);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threadsCount; t++) {
+                int offset = t * (tenantsCount / threadsCount);
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    for (int i = 0; i < tenantsCount; i++) {
+                        TenantId tenantId = tenantIds.get((i + offset) % tenantsCount);
+                        ToUsageStatsServiceMsg msg = ToUsageStatsServiceMsg.newBuilder()
+                                .setTenantIdMSB(tenantId.getId().getMostSignificantBits())
+                                .setTenantIdLSB(tenantId.getId().getLeastSignificantBits())
+                                .setServiceId("tb-core-0")
+                                .addValues(UsageStatsKVProto.newBuilder().setKey(ApiUsageRecordKey.TRANSPORT_MSG_COUNT.name()).setValue(1).build())
+                                .build();
+                        usageStateService.process(new TbProtoQueueMsg<>(UUID.randomUUID(), msg), TbCallback.EMPTY);
+                    }
+                    return null;
+                }));
+            }
+            startLatch.countDown();
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (TenantId tenantId : tenantIds) {
+            assertThat(usageStateService.myUsageStates.get(tenantId).get(ApiUsageRecordKey.TRANSPORT_MSG_COUNT), is((long) threadsCount));
+        }
+        assertThat(savedUpdates.get(), is(tenantsCount * threadsCount));
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,121 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.edge.rpc;
+
+import com.google.common.util.concurrent.Futures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.edge.Edge;
+import org.thingsboard.server.common.data.id.EdgeId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.edge.EdgeEventUpdateMsg;
+import org.thingsboard.server.service.edge.EdgeContextComponent;
+import org.thingsboard.server.service.executors.GrpcCallbackExecutorService;
+import org.thingsboard.server.service.telemetry.TelemetrySubscriptionService;
+
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class EdgeGrpcServiceTest {
+
+    private static final long NO_RECORDS_SLEEP_MS = 50;
+
+    TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    EdgeId edgeId = new EdgeId(UUID.randomUUID());
+    EdgeGrpcService edgeGrpcService;
+    EdgeGrpcSession session;
+    ScheduledExecutorService edgeEventProcessingExecutor;
+    ScheduledExecutorService executor;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        edgeGrpcService = new EdgeGrpcService();
+        EdgeContextComponent ctx = mock(EdgeContextComponent.class);
+        EdgeEventStorageSettings storageSettings = new EdgeEventStorageSettings();
+        storageSettings.setNoRecordsSleepInterval(NO_RECORDS_SLEEP_MS);
+        willReturn(storageSettings).given(ctx).getEdgeEventStorageSettings();
+        GrpcCallbackExecutorService callbackExecutor = mock(GrpcCallbackExecutorService.class);
+        willAnswer(invocation -> {
+            invocation.<Runnable>getArgument(0).run();
+            return null;
+        }).given(callbackExecutor).execute(any());
+        willReturn(callbackExecutor).given(ctx).getGrpcCallbackExecutorService();
+        edgeEventProcessingExecutor = Executors.newSingleThreadScheduledExecutor();
+        executor = Executors.newSingleThreadScheduledExecutor();
+        ReflectionTestUtils.setField(edgeGrpcService, "ctx", ctx);
+        ReflectionTestUtils.setField(edgeGrpcService, "tsSubService", mock(TelemetrySubscriptionService.class));
+        ReflectionTestUtils.setField(edgeGrpcService, "edgeEventProcessingExecutorService", edgeEventProcessingExecutor);
+        ReflectionTestUtils.setField(edgeGrpcService, "executorService", executor);
+
+        Edge edge = new Edge(edgeId);
+        edge.setTenantId(tenantId);
+        edge.setName("Edge");
+        session = mock(EdgeGrpcSession.class);
+        willReturn(edge).given(session).getEdge();
+        willReturn(true).given(session).isConnected();
+        willReturn(Futures.immediateFuture(false)).given(session).processEdgeEvents();
+    }
+
+    @AfterEach
+    void tearDown() {
+        edgeEventProcessingExecutor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    @Test
+    void givenIdleSession_whenNoNotification_thenEdgeEventsAreNotReadFromDb() throws Exception {
+        connect();
+        verify(session, timeout(1000)).processEdgeEvents();
+
+        // about 10 checks of the notification flag
+        Thread.sleep(NO_RECORDS_SLEEP_MS * 10);
+        verify(session, times(1)).processEdgeEvents();
+
+        edgeGrpcService.onToEdgeSessionMsg(tenantId, new EdgeEventUpdateMsg(tenantId, edgeId));
+        verify(session, timeout(1000).times(2)).processEdgeEvents();
+    }
+
+    @Test
+    void givenSafetyCheckInterval_whenNotification_thenIdleSessionIsWokenUp() throws Exception {
+        ReflectionTestUtils.setField(edgeGrpcService, "safetyCheckInterval", TimeUnit.MINUTES.toMillis(1));
+        connect();
+        verify(session, timeout(1000)).processEdgeEvents();
+
+        Thread.sleep(NO_RECORDS_SLEEP_MS * 10);
+        verify(session, times(1)).processEdgeEvents();
+
+        // the session waits for the safety check a minute ahead, so only the notification can trigger the read
+        edgeGrpcService.onToEdgeSessionMsg(tenantId, new EdgeEventUpdateMsg(tenantId, edgeId));
+        verify(session, timeout(1000).times(2)).processEdgeEvents();
+    }
+
+    private void connect() {
+        ReflectionTestUtils.invokeMethod(edgeGrpcService, "onEdgeConnect", edgeId, session);
+    }
+
+}
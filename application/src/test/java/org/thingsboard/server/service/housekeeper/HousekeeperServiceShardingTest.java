@@ -0,0 +1,194 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.housekeeper;
+
+import com.google.common.util.concurrent.Futures;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTask;
+import org.thingsboard.server.common.data.housekeeper.HousekeeperTaskType;
+import org.thingsboard.server.common.data.housekeeper.TsHistoryDeletionHousekeeperTask;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.notification.NotificationRuleProcessor;
+import org.thingsboard.server.dao.timeseries.TimeseriesService;
+import org.thingsboard.server.gen.transport.TransportProtos.HousekeeperTaskProto;
+import org.thingsboard.server.gen.transport.TransportProtos.ToHousekeeperServiceMsg;
+import org.thingsboard.server.queue.TbQueueConsumer;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.housekeeper.HousekeeperConfig;
+import org.thingsboard.server.queue.provider.TbCoreQueueFactory;
+import org.thingsboard.server.service.housekeeper.processor.HousekeeperTaskProcessor;
+import org.thingsboard.server.service.housekeeper.processor.TsHistoryDeletionTaskProcessor;
+import org.thingsboard.server.service.housekeeper.stats.HousekeeperStatsService;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class HousekeeperServiceShardingTest {
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+
+    private HousekeeperService housekeeperService;
+    private HousekeeperConfig config;
+    private HousekeeperStatsService statsService;
+    private TimeseriesService timeseriesService;
+    private TbQueueConsumer<TbProtoQueueMsg<ToHousekeeperServiceMsg>> consumer;
+    private final Map<EntityId, List<Long>> processedTasks = new ConcurrentHashMap<>();
+    private final Set<String> processingThreads = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        config = mock(HousekeeperConfig.class);
+        willReturn(4).given(config).getTaskProcessingThreads();
+        willReturn(100).given(config).getMaxCoalescedTasks();
+        willReturn(10000).given(config).getTaskProcessingTimeout();
+        willReturn(10).given(config).getMaxReprocessingAttempts();
+        willReturn(Collections.emptySet()).given(config).getDisabledTaskTypes();
+
+        consumer = mock(TbQueueConsumer.class);
+        TbCoreQueueFactory queueFactory = mock(TbCoreQueueFactory.class);
+        willReturn(consumer).given(queueFactory).createHousekeeperMsgConsumer();
+
+        statsService = mock(HousekeeperStatsService.class);
+        timeseriesService = mock(TimeseriesService.class);
+        willReturn(Futures.immediateFuture(null)).given(timeseriesService).removeHistory(any(), any(), any(), anyLong(), anyLong());
+        willReturn(Futures.immediateFuture(List.of())).given(timeseriesService).remove(any(), any(), any());
+        TsHistoryDeletionTaskProcessor tsHistoryDeletionTaskProcessor = new TsHistoryDeletionTaskProcessor(timeseriesService);
+
+        HousekeeperTaskProcessor<HousekeeperTask> attributesDeletionTaskProcessor = new HousekeeperTaskProcessor<>() {
+            @Override
+            public void process(HousekeeperTask task) {
+                processingThreads.add(Thread.currentThread().getName());
+                processedTasks.computeIfAbsent(task.getEntityId(), id -> Collections.synchronizedList(new ArrayList<>())).add(task.getTs());
+            }
+
+            @Override
+            public HousekeeperTaskType getTaskType() {
+                return HousekeeperTaskType.DELETE_ATTRIBUTES;
+            }
+        };
+
+        housekeeperService = new HousekeeperService(config, mock(HousekeeperReprocessingService.class), queueFactory, Optional.of(statsService),
+                mock(NotificationRuleProcessor.class), List.of(attributesDeletionTaskProcessor, tsHistoryDeletionTaskProcessor));
+    }
+
+    @AfterEach
+    public void tearDown() {
+        ReflectionTestUtils.invokeMethod(housekeeperService, "stop");
+    }
+
+    @Test
+    public void testTasksOfTheSameEntityAreProcessedInOrder() {
+        List<EntityId> entities = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            entities.add(new DeviceId(UUID.randomUUID()));
+        }
+        List<TbProtoQueueMsg<ToHousekeeperServiceMsg>> msgs = new ArrayList<>();
+        for (int seq = 0; seq < 20; seq++) {
+            for (EntityId entityId : entities) {
+                HousekeeperTask task = HousekeeperTask.deleteAttributes(tenantId, entityId);
+                task.setTs(seq);
+                msgs.add(toMsg(task));
+            }
+        }
+
+        processMsgs(msgs);
+
+        assertThat(processedTasks).hasSize(entities.size());
+        processedTasks.values().forEach(tasks -> assertThat(tasks).hasSize(20).isSorted());
+        assertThat(processingThreads).hasSizeGreaterThan(1);
+        verify(consumer).commit();
+    }
+
+    @Test
+    public void testTsHistoryDeletionTasksAreCoalesced() {
+        EntityId firstEntity = new DeviceId(UUID.randomUUID());
+        EntityId secondEntity = new DeviceId(UUID.randomUUID());
+        List<TbProtoQueueMsg<ToHousekeeperServiceMsg>> msgs = List.of(
+                toMsg(new TsHistoryDeletionHousekeeperTask(tenantId, firstEntity, "temperature")),
+                toMsg(HousekeeperTask.deleteAttributes(tenantId, firstEntity)),
+                toMsg(new TsHistoryDeletionHousekeeperTask(tenantId, firstEntity, "humidity")),
+                toMsg(new TsHistoryDeletionHousekeeperTask(tenantId, secondEntity, "temperature")),
+                toMsg(new TsHistoryDeletionHousekeeperTask(tenantId, firstEntity, "pressure"))
+        );
+
+        processMsgs(msgs);
+
+        verify(timeseriesService).removeHistory(eq(tenantId), eq(firstEntity), eq(List.of("temperature", "humidity", "pressure")), eq(0L), anyLong());
+        verify(timeseriesService).remove(eq(tenantId), eq(secondEntity), any());
+        assertThat(processedTasks).containsOnlyKeys(firstEntity);
+        verify(statsService).reportProcessed(eq(HousekeeperTaskType.DELETE_TS_HISTORY), argThat(batch -> batch.size() == 3), anyLong());
+        verify(statsService).reportProcessed(eq(HousekeeperTaskType.DELETE_TS_HISTORY), argThat(batch -> batch.size() == 1), anyLong());
+        verify(consumer).commit();
+    }
+
+    @Test
+    public void testCoalescedBatchSizeIsLimited() {
+        willReturn(2).given(config).getMaxCoalescedTasks();
+        EntityId entityId = new DeviceId(UUID.randomUUID());
+        List<TbProtoQueueMsg<ToHousekeeperServiceMsg>> msgs = new ArrayList<>();
+        for (String key : List.of("a", "b", "c", "d", "e")) {
+            msgs.add(toMsg(new TsHistoryDeletionHousekeeperTask(tenantId, entityId, key)));
+        }
+
+        processMsgs(msgs);
+
+        InOrder inOrder = inOrder(timeseriesService);
+        inOrder.verify(timeseriesService).removeHistory(eq(tenantId), eq(entityId), eq(List.of("a", "b")), eq(0L), anyLong());
+        inOrder.verify(timeseriesService).removeHistory(eq(tenantId), eq(entityId), eq(List.of("c", "d")), eq(0L), anyLong());
+        inOrder.verify(timeseriesService).remove(eq(tenantId), eq(entityId), argThat(queries -> queries.size() == 1 && queries.get(0).getKey().equals("e")));
+        verify(statsService, times(3)).reportProcessed(eq(HousekeeperTaskType.DELETE_TS_HISTORY), any(), anyLong());
+        verify(consumer).commit();
+    }
+
+    private void processMsgs(List<TbProtoQueueMsg<ToHousekeeperServiceMsg>> msgs) {
+        ReflectionTestUtils.invokeMethod(housekeeperService, "processMsgs", msgs, consumer);
+    }
+
+    private TbProtoQueueMsg<ToHousekeeperServiceMsg> toMsg(HousekeeperTask task) {
+        return new TbProtoQueueMsg<>(task.getEntityId().getId(), ToHousekeeperServiceMsg.newBuilder()
+                .setTask(HousekeeperTaskProto.newBuilder()
+                        .setValue(JacksonUtil.toString(task))
+                        .setTs(task.getTs())
+                        .build())
+                .build());
+    }
+
+}
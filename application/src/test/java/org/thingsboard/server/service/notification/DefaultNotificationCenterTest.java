@@ -0,0 +1,185 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.notification;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.cluster.TbClusterService;
+import org.thingsboard.server.common.data.User;
+import org.thingsboard.server.common.data.id.NotificationRequestId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.UserId;
+import org.thingsboard.server.common.data.notification.Notification;
+import org.thingsboard.server.common.data.notification.NotificationRequest;
+import org.thingsboard.server.common.data.notification.NotificationType;
+import org.thingsboard.server.common.data.notification.template.NotificationTemplate;
+import org.thingsboard.server.common.data.notification.template.NotificationTemplateConfig;
+import org.thingsboard.server.common.msg.queue.ServiceType;
+import org.thingsboard.server.common.msg.queue.TbCallback;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.dao.notification.NotificationService;
+import org.thingsboard.server.gen.transport.TransportProtos.ToCoreMsg;
+import org.thingsboard.server.queue.discovery.PartitionService;
+import org.thingsboard.server.service.subscription.SubscriptionManagerService;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+import static org.thingsboard.server.common.data.notification.NotificationDeliveryMethod.WEB;
+
+@ExtendWith(MockitoExtension.class)
+public class DefaultNotificationCenterTest {
+
+    @Mock
+    private NotificationService notificationService;
+    @Mock
+    private TbClusterService clusterService;
+    @Mock
+    private PartitionService partitionService;
+    @Mock
+    private SubscriptionManagerService subscriptionManagerService;
+
+    @InjectMocks
+    private DefaultNotificationCenter notificationCenter;
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final TopicPartitionInfo localTpi = new TopicPartitionInfo("tb_core", null, 0, true);
+    private final TopicPartitionInfo remoteTpiA = new TopicPartitionInfo("tb_core", null, 1, false);
+    private final TopicPartitionInfo remoteTpiB = new TopicPartitionInfo("tb_core", null, 2, false);
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setup() {
+        ReflectionTestUtils.setField(notificationCenter, "clusterService", clusterService);
+        ReflectionTestUtils.setField(notificationCenter, "partitionService", partitionService);
+        ReflectionTestUtils.setField(notificationCenter, "subscriptionManagerService", Optional.of(subscriptionManagerService));
+        ((Set<TopicPartitionInfo>) ReflectionTestUtils.getField(notificationCenter, "currentPartitions")).add(localTpi);
+    }
+
+    @Test
+    public void givenBatchOfWebNotifications_whenSending_thenSavedAtOnceAndOneCoreMsgSentPerPartition() {
+        List<User> recipients = IntStream.range(0, 5).mapToObj(i -> createUser()).toList();
+        Map<UserId, TopicPartitionInfo> recipientsPartitions = Map.of(
+                recipients.get(0).getId(), remoteTpiA,
+                recipients.get(1).getId(), remoteTpiA,
+                recipients.get(2).getId(), remoteTpiA,
+                recipients.get(3).getId(), remoteTpiB,
+                recipients.get(4).getId(), localTpi
+        );
+        given(partitionService.resolve(eq(ServiceType.TB_CORE), eq(tenantId), any())).willAnswer(invocation ->
+                recipientsPartitions.get((UserId) invocation.getArgument(2)));
+        given(notificationService.saveNotifications(eq(tenantId), anyList())).willAnswer(invocation -> invocation.getArgument(1));
+        NotificationProcessingContext ctx = createContext();
+
+        List<DefaultNotificationCenter.PendingWebNotification> pendingNotifications = recipients.stream()
+                .map(recipient -> new DefaultNotificationCenter.PendingWebNotification(recipient, createNotification(recipient)))
+                .collect(Collectors.toList());
+        notificationCenter.sendWebNotifications(pendingNotifications, ctx);
+
+        then(notificationService).should().saveNotifications(tenantId, pendingNotifications.stream()
+                .map(DefaultNotificationCenter.PendingWebNotification::notification).toList());
+        then(notificationService).shouldHaveNoMoreInteractions();
+
+        ArgumentCaptor<TopicPartitionInfo> tpiCaptor = ArgumentCaptor.forClass(TopicPartitionInfo.class);
+        ArgumentCaptor<ToCoreMsg> msgCaptor = ArgumentCaptor.forClass(ToCoreMsg.class);
+        then(clusterService).should(times(2)).pushMsgToCore(tpiCaptor.capture(), any(UUID.class), msgCaptor.capture(), isNull());
+        Map<TopicPartitionInfo, Set<UUID>> sentRecipients = IntStream.range(0, 2).boxed().collect(Collectors.toMap(
+                tpiCaptor.getAllValues()::get,
+                i -> msgCaptor.getAllValues().get(i).getToSubscriptionMgrMsg().getNotificationUpdatesList().stream()
+                        .map(update -> new UUID(update.getRecipientIdMSB(), update.getRecipientIdLSB()))
+                        .collect(Collectors.toSet())
+        ));
+        assertThat(sentRecipients).containsOnly(
+                Map.entry(remoteTpiA, Set.of(recipients.get(0).getUuidId(), recipients.get(1).getUuidId(), recipients.get(2).getUuidId())),
+                Map.entry(remoteTpiB, Set.of(recipients.get(3).getUuidId()))
+        );
+        assertThat(msgCaptor.getAllValues()).noneMatch(msg -> msg.getToSubscriptionMgrMsg().hasNotificationUpdate());
+
+        then(subscriptionManagerService).should().onNotificationUpdate(eq(tenantId), eq(recipients.get(4).getId()), any(), eq(TbCallback.EMPTY));
+        assertThat(ctx.getStats().getSent().get(WEB).get()).isEqualTo(5);
+        assertThat(ctx.getStats().getTotalErrors().get()).isZero();
+    }
+
+    @Test
+    public void givenSaveFailure_whenSendingWebNotifications_thenErrorsReportedAndNothingSent() {
+        given(notificationService.saveNotifications(eq(tenantId), anyList())).willThrow(new RuntimeException("DB is down"));
+        NotificationProcessingContext ctx = createContext();
+        List<DefaultNotificationCenter.PendingWebNotification> pendingNotifications = IntStream.range(0, 3)
+                .mapToObj(i -> createUser())
+                .map(recipient -> new DefaultNotificationCenter.PendingWebNotification(recipient, createNotification(recipient)))
+                .collect(Collectors.toList());
+
+        notificationCenter.sendWebNotifications(pendingNotifications, ctx);
+
+        then(clusterService).shouldHaveNoInteractions();
+        then(subscriptionManagerService).shouldHaveNoInteractions();
+        assertThat(ctx.getStats().getSent()).doesNotContainKey(WEB);
+        assertThat(ctx.getStats().getTotalErrors().get()).isEqualTo(3);
+    }
+
+    private NotificationProcessingContext createContext() {
+        NotificationTemplateConfig config = new NotificationTemplateConfig();
+        config.setDeliveryMethodsTemplates(Map.of());
+        NotificationTemplate template = new NotificationTemplate();
+        template.setNotificationType(NotificationType.GENERAL);
+        template.setConfiguration(config);
+        NotificationRequest request = NotificationRequest.builder().build();
+        request.setId(new NotificationRequestId(UUID.randomUUID()));
+        return NotificationProcessingContext.builder()
+                .tenantId(tenantId)
+                .request(request)
+                .deliveryMethods(Set.of(WEB))
+                .template(template)
+                .build();
+    }
+
+    private User createUser() {
+        User user = new User(new UserId(UUID.randomUUID()));
+        user.setTenantId(tenantId);
+        user.setEmail(user.getUuidId() + "@thingsboard.org");
+        return user;
+    }
+
+    private Notification createNotification(User recipient) {
+        return Notification.builder()
+                .recipientId(recipient.getId())
+                .type(NotificationType.GENERAL)
+                .deliveryMethod(WEB)
+                .subject("Announcement")
+                .text("Maintenance tonight")
+                .build();
+    }
+
+}
@@ -0,0 +1,85 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.notification;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.data.User;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.notification.NotificationRequest;
+import org.thingsboard.server.common.data.notification.NotificationType;
+import org.thingsboard.server.common.data.notification.template.NotificationTemplate;
+import org.thingsboard.server.common.data.notification.template.NotificationTemplateConfig;
+import org.thingsboard.server.common.data.notification.template.WebDeliveryMethodNotificationTemplate;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.thingsboard.server.common.data.notification.NotificationDeliveryMethod.WEB;
+
+public class NotificationProcessingContextTest {
+
+    @Test
+    public void testTemplateIsProcessedOncePerDistinctRecipientParams() {
+        NotificationProcessingContext ctx = createContext("Hello ${recipientFirstName}");
+
+        WebDeliveryMethodNotificationTemplate first = ctx.getProcessedTemplate(WEB, createUser("a@thingsboard.org", "John"));
+        WebDeliveryMethodNotificationTemplate second = ctx.getProcessedTemplate(WEB, createUser("b@thingsboard.org", "John"));
+        WebDeliveryMethodNotificationTemplate third = ctx.getProcessedTemplate(WEB, createUser("c@thingsboard.org", "Jane"));
+
+        assertThat(first.getBody()).isEqualTo("Hello John");
+        assertThat(second).isSameAs(first);
+        assertThat(third.getBody()).isEqualTo("Hello Jane");
+        assertThat(third).isNotSameAs(first);
+    }
+
+    @Test
+    public void testTemplateWithoutRecipientParamsIsShared() {
+        NotificationProcessingContext ctx = createContext("Maintenance tonight");
+
+        WebDeliveryMethodNotificationTemplate first = ctx.getProcessedTemplate(WEB, createUser("a@thingsboard.org", "John"));
+        WebDeliveryMethodNotificationTemplate second = ctx.getProcessedTemplate(WEB, createUser("b@thingsboard.org", "Jane"));
+
+        assertThat(first.getBody()).isEqualTo("Maintenance tonight");
+        assertThat(second).isSameAs(first);
+    }
+
+    private NotificationProcessingContext createContext(String body) {
+        WebDeliveryMethodNotificationTemplate webTemplate = new WebDeliveryMethodNotificationTemplate();
+        webTemplate.setEnabled(true);
+        webTemplate.setSubject("Announcement");
+        webTemplate.setBody(body);
+        NotificationTemplateConfig config = new NotificationTemplateConfig();
+        config.setDeliveryMethodsTemplates(Map.of(WEB, webTemplate));
+        NotificationTemplate template = new NotificationTemplate();
+        template.setNotificationType(NotificationType.GENERAL);
+        template.setConfiguration(config);
+        return NotificationProcessingContext.builder()
+                .tenantId(TenantId.SYS_TENANT_ID)
+                .request(NotificationRequest.builder().build())
+                .deliveryMethods(Set.of(WEB))
+                .template(template)
+                .build();
+    }
+
+    private User createUser(String email, String firstName) {
+        User user = new User();
+        user.setEmail(email);
+        user.setFirstName(firstName);
+        return user;
+    }
+
+}
@@ -27,19 +27,26 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.thingsboard.server.common.data.id.DeviceId;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.UserId;
 import org.thingsboard.server.common.msg.queue.TbCallback;
 import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.service.state.DeviceStateService;
+import org.thingsboard.server.service.subscription.SubscriptionManagerService;
+import org.thingsboard.server.service.subscription.TbSubscriptionUtils;
+import org.thingsboard.server.service.ws.notification.sub.NotificationUpdate;
 
+import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.doCallRealMethod;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 
 @ExtendWith(MockitoExtension.class)
 public class DefaultTbCoreConsumerServiceTest {
@@ -49,6 +56,9 @@ public class DefaultTbCoreConsumerServiceTest {
     @Mock
     private TbCoreConsumerStats statsMock;
 
+    @Mock
+    private SubscriptionManagerService subscriptionManagerServiceMock;
+
     @Mock
     private TbCallback tbCallbackMock;
 
@@ -529,4 +539,31 @@ public class DefaultTbCoreConsumerServiceTest {
         then(statsMock).should(never()).log(inactivityMsg);
     }
 
+    @Test
+    public void givenNotificationUpdatesBatch_whenForwardingToSubMgrService_thenEachUpdateIsForwardedAndCallbackCalledOnce() {
+        // GIVEN
+        ReflectionTestUtils.setField(defaultTbCoreConsumerServiceMock, "subscriptionManagerService", subscriptionManagerServiceMock);
+
+        var recipients = List.of(new UserId(UUID.randomUUID()), new UserId(UUID.randomUUID()), new UserId(UUID.randomUUID()));
+        var subMgrMsg = TbSubscriptionUtils.notificationUpdatesToProto(recipients.stream()
+                .map(recipientId -> TbSubscriptionUtils.toNotificationUpdateProto(tenantId, recipientId, NotificationUpdate.builder()
+                        .notificationId(UUID.randomUUID())
+                        .created(true)
+                        .build()))
+                .toList()).getToSubscriptionMgrMsg();
+
+        doCallRealMethod().when(defaultTbCoreConsumerServiceMock).forwardToSubMgrService(subMgrMsg, tbCallbackMock);
+
+        // WHEN
+        defaultTbCoreConsumerServiceMock.forwardToSubMgrService(subMgrMsg, tbCallbackMock);
+
+        // THEN
+        for (UserId recipientId : recipients) {
+            then(subscriptionManagerServiceMock).should().onNotificationUpdate(eq(tenantId), eq(recipientId), any(NotificationUpdate.class), eq(TbCallback.EMPTY));
+        }
+        then(subscriptionManagerServiceMock).should(times(recipients.size())).onNotificationUpdate(any(), any(), any(), any());
+        then(tbCallbackMock).should().onSuccess();
+        then(tbCallbackMock).shouldHaveNoMoreInteractions();
+    }
+
 }
@@ -30,6 +30,7 @@ import java.util.UUID;
 import java.util.stream.Stream;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
@@ -38,6 +39,7 @@ import static org.mockito.Mockito.verify;
 class TbMsgPackCallbackTest {
 
     TenantId tenantId;
+    int msgIdx;
     UUID msgId;
     TbMsgPackProcessingContext ctx;
     TbMsgPackCallback callback;
@@ -45,9 +47,10 @@ class TbMsgPackCallbackTest {
     @BeforeEach
     void setUp() {
         tenantId = TenantId.fromUUID(UUID.randomUUID());
+        msgIdx = 7;
         msgId = UUID.randomUUID();
         ctx = mock(TbMsgPackProcessingContext.class);
-        callback = spy(new TbMsgPackCallback(msgId, tenantId, ctx));
+        callback = spy(new TbMsgPackCallback(msgIdx, msgId, tenantId, ctx));
     }
 
     private static Stream<Arguments> testOnFailure_NotRateLimitException() {
@@ -67,7 +70,7 @@ class TbMsgPackCallbackTest {
 
         verify(callback, never()).onRateLimit(any());
         verify(callback, never()).onSuccess();
-        verify(ctx, never()).onSuccess(any());
+        verify(ctx, never()).onSuccess(anyInt());
     }
 
     private static Stream<Arguments> testOnFailure_RateLimitException() {
@@ -90,9 +93,9 @@ class TbMsgPackCallbackTest {
         verify(callback).onRateLimit(any());
         verify(callback).onFailure(any());
         verify(callback, never()).onSuccess();
-        verify(ctx).onSuccess(msgId);
-        verify(ctx).onSuccess(any());
-        verify(ctx, never()).onFailure(any(), any(), any());
+        verify(ctx).onSuccess(msgIdx);
+        verify(ctx).onSuccess(anyInt());
+        verify(ctx, never()).onFailure(any(), anyInt(), any());
     }
 
 }
@@ -25,16 +25,18 @@ import org.thingsboard.common.util.ThingsBoardThreadFactory;
 import org.thingsboard.server.common.data.DataConstants;
 import org.thingsboard.server.gen.transport.TransportProtos;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.service.queue.processing.IdMsgPair;
 import org.thingsboard.server.service.queue.processing.TbRuleEngineSubmitStrategy;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
@@ -63,15 +65,15 @@ public class TbMsgPackProcessingContextTest {
         int parallelCount = 5;
         executorService = Executors.newFixedThreadPool(parallelCount, ThingsBoardThreadFactory.forName(getClass().getSimpleName() + "-test-scope"));
 
-        ConcurrentMap<UUID, TbProtoQueueMsg<TransportProtos.ToRuleEngineMsg>> messages = new ConcurrentHashMap<>(msgCount);
+        List<IdMsgPair<TransportProtos.ToRuleEngineMsg>> messages = new ArrayList<>(msgCount);
         for (int i = 0; i < msgCount; i++) {
-            messages.put(UUID.randomUUID(), new TbProtoQueueMsg<>(UUID.randomUUID(), null));
+            messages.add(new IdMsgPair<>(i, UUID.randomUUID(), new TbProtoQueueMsg<>(UUID.randomUUID(), null)));
         }
         TbRuleEngineSubmitStrategy strategyMock = mock(TbRuleEngineSubmitStrategy.class);
-        when(strategyMock.getPendingMap()).thenReturn(messages);
+        when(strategyMock.getOrderedMsgList()).thenReturn(messages);
 
         TbMsgPackProcessingContext context = new TbMsgPackProcessingContext(DataConstants.MAIN_QUEUE_NAME, strategyMock, false);
-        for (UUID uuid : messages.keySet()) {
+        for (IdMsgPair<TransportProtos.ToRuleEngineMsg> msg : messages) {
             final CountDownLatch readyLatch = new CountDownLatch(parallelCount);
             final CountDownLatch startLatch = new CountDownLatch(1);
             final CountDownLatch finishLatch = new CountDownLatch(parallelCount);
@@ -87,7 +89,7 @@ public class TbMsgPackProcessingContextTest {
                     }
                     //log.warn("go    {}", taskName);
 
-                    context.onSuccess(uuid);
+                    context.onSuccess(msg.getIdx());
 
                     finishLatch.countDown();
                 });
@@ -98,6 +100,8 @@ public class TbMsgPackProcessingContextTest {
             assertTrue(finishLatch.await(TIMEOUT, TimeUnit.SECONDS));
         }
         assertTrue(context.await(TIMEOUT, TimeUnit.SECONDS));
-        verify(strategyMock, times(msgCount)).onSuccess(any(UUID.class));
+        verify(strategyMock, times(msgCount)).onSuccess(any(IdMsgPair.class));
+        assertTrue(context.getPendingMap().isEmpty());
+        assertEquals(msgCount, context.getSuccessMap().size());
     }
 }
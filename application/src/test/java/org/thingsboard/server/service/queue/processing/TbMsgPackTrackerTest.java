@@ -0,0 +1,121 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue.processing;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.gen.transport.TransportProtos.ToRuleEngineMsg;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class TbMsgPackTrackerTest {
+
+    @Test
+    public void testStates() {
+        List<IdMsgPair<ToRuleEngineMsg>> msgs = newMsgs(100);
+        TbMsgPackTracker tracker = new TbMsgPackTracker(msgs);
+
+        assertThat(tracker.onSuccess(0)).isTrue();
+        assertThat(tracker.onSuccess(0)).isFalse();
+        assertThat(tracker.onFailure(0)).isFalse();
+        assertThat(tracker.onFailure(33)).isTrue();
+        assertThat(tracker.onSuccess(33)).isFalse();
+        assertThat(tracker.onSuccess(99)).isTrue();
+
+        assertThat(tracker.getSuccessMap()).containsOnlyKeys(msgs.get(0).getUuid(), msgs.get(99).getUuid());
+        assertThat(tracker.getFailedMap()).containsOnlyKeys(msgs.get(33).getUuid());
+        assertThat(tracker.getFailed()).containsExactly(msgs.get(33));
+        assertThat(tracker.getPending()).hasSize(97).doesNotContain(msgs.get(0), msgs.get(33), msgs.get(99));
+        assertThat(tracker.getPendingMap()).hasSize(97);
+    }
+
+    @Test
+    public void testConcurrentAcks() throws Exception {
+        int msgCount = 10000;
+        int threads = 8;
+        TbMsgPackTracker tracker = new TbMsgPackTracker(newMsgs(msgCount));
+        AtomicInteger acked = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch finishLatch = new CountDownLatch(threads);
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                executor.submit(() -> {
+                    // all threads try to ack all messages, so each message is acked by multiple threads at once
+                    for (int i = 0; i < msgCount; i++) {
+                        int idx = (i + offset) % msgCount;
+                        boolean first = idx % 2 == 0 ? tracker.onSuccess(idx) : tracker.onFailure(idx);
+                        if (first) {
+                            acked.incrementAndGet();
+                            tracker.decrementPendingCount();
+                        }
+                    }
+                    finishLatch.countDown();
+                });
+            }
+            assertThat(finishLatch.await(30, TimeUnit.SECONDS)).isTrue();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(acked.get()).isEqualTo(msgCount);
+        assertThat(tracker.getPendingCount()).isZero();
+        assertThat(tracker.getSuccessMap()).hasSize(msgCount / 2);
+        assertThat(tracker.getFailedMap()).hasSize(msgCount / 2);
+    }
+
+    @Test
+    public void testBatchStrategySubmitsNextBatchAfterAcks() {
+        BatchTbRuleEngineSubmitStrategy strategy = new BatchTbRuleEngineSubmitStrategy("Main", 3);
+        List<TbProtoQueueMsg<ToRuleEngineMsg>> msgs = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            msgs.add(new TbProtoQueueMsg<>(UUID.randomUUID(), ToRuleEngineMsg.getDefaultInstance()));
+        }
+        strategy.init(msgs);
+        List<IdMsgPair<ToRuleEngineMsg>> submitted = new ArrayList<>();
+        Consumer<IdMsgPair<ToRuleEngineMsg>> msgConsumer = submitted::add;
+        strategy.submitAttempt(msgConsumer);
+        assertThat(submitted).extracting(IdMsgPair::getIdx).containsExactly(0, 1, 2);
+
+        strategy.onSuccess(submitted.get(2));
+        strategy.onSuccess(submitted.get(0));
+        assertThat(submitted).hasSize(3);
+        // the pair of the other submit attempt is ignored
+        strategy.onSuccess(new IdMsgPair<>(1, submitted.get(1).getUuid(), submitted.get(1).getMsg()));
+        assertThat(submitted).hasSize(3);
+
+        strategy.onSuccess(submitted.get(1));
+        assertThat(submitted).extracting(IdMsgPair::getIdx).containsExactly(0, 1, 2, 3, 4, 5);
+    }
+
+    private static List<IdMsgPair<ToRuleEngineMsg>> newMsgs(int count) {
+        List<IdMsgPair<ToRuleEngineMsg>> msgs = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            msgs.add(new IdMsgPair<>(i, UUID.randomUUID(), new TbProtoQueueMsg<>(UUID.randomUUID(), ToRuleEngineMsg.getDefaultInstance())));
+        }
+        return msgs;
+    }
+
+}
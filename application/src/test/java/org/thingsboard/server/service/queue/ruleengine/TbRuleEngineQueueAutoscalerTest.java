@@ -0,0 +1,202 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.queue.ruleengine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.queue.Queue;
+import org.thingsboard.server.common.msg.queue.ServiceType;
+import org.thingsboard.server.common.stats.StatsFactory;
+import org.thingsboard.server.queue.discovery.QueueKey;
+import org.thingsboard.server.service.queue.ruleengine.TbRuleEngineQueueAutoscaler.ScalingDecision;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TbRuleEngineQueueAutoscalerTest {
+
+    private TbRuleEngineConsumerContext ctx;
+    private ApplicationEventPublisher eventPublisher;
+    private AtomicInteger cpuUsage;
+    private AtomicInteger maxConcurrentPacks;
+    private TbRuleEngineQueueAutoscaler autoscaler;
+
+    @BeforeEach
+    public void beforeEach() {
+        ctx = mock(TbRuleEngineConsumerContext.class);
+        when(ctx.getStatsFactory()).thenReturn(mock(StatsFactory.class));
+        when(ctx.getAutoscalingMinActiveConsumers()).thenReturn(1);
+        when(ctx.getAutoscalingMaxActiveConsumers()).thenReturn(3);
+        when(ctx.getAutoscalingMinPackSize()).thenReturn(100);
+        when(ctx.getAutoscalingMaxPackSize()).thenReturn(400);
+        when(ctx.getAutoscalingTargetLag()).thenReturn(1000L);
+        when(ctx.getAutoscalingTargetPackProcessingTime()).thenReturn(500L);
+        when(ctx.getAutoscalingMaxCpuUsage()).thenReturn(80);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        cpuUsage = new AtomicInteger(10);
+        maxConcurrentPacks = new AtomicInteger(Integer.MAX_VALUE);
+
+        Queue queue = new Queue();
+        queue.setName("Test");
+        queue.setTenantId(TenantId.SYS_TENANT_ID);
+        QueueKey queueKey = new QueueKey(ServiceType.TB_RULE_ENGINE, queue);
+        autoscaler = new TbRuleEngineQueueAutoscaler(queueKey, ctx, eventPublisher, maxConcurrentPacks::get, cpuUsage::get);
+    }
+
+    @Test
+    public void testScaleDownOnHighCpuUsage() throws Exception {
+        cpuUsage.set(95);
+        processPack(100, 5000);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.SCALE_DOWN);
+        processPack(100, 5000);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.SCALE_DOWN);
+        processPack(100, 5000);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.NONE);
+        assertThat(autoscaler.getActiveConsumers()).isEqualTo(1);
+
+        verify(eventPublisher).publishEvent(argThat((RuleEngineQueueScalingEvent event) ->
+                event.getDecision() == ScalingDecision.SCALE_DOWN && event.getActiveConsumers() == 1));
+    }
+
+    @Test
+    public void testActiveConsumersLimit() throws Exception {
+        cpuUsage.set(95);
+        processPack(100, 0);
+        autoscaler.evaluate();
+        autoscaler.evaluate();
+        assertThat(autoscaler.getActiveConsumers()).isEqualTo(1);
+
+        assertThat(autoscaler.tryAcquire(10)).isTrue();
+        assertThat(autoscaler.tryAcquire(10)).isFalse();
+        autoscaler.release();
+        assertThat(autoscaler.tryAcquire(10)).isTrue();
+
+        // the waiting consumer and the high lag scale the queue up
+        cpuUsage.set(10);
+        assertThat(autoscaler.tryAcquire(10)).isFalse();
+        autoscaler.onPackProcessed(100, 5000);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.SCALE_UP);
+        assertThat(autoscaler.tryAcquire(10)).isTrue();
+    }
+
+    @Test
+    public void testScaleUpIncreasesConcurrency() throws Exception {
+        cpuUsage.set(95);
+        processPack(100, 0);
+        autoscaler.evaluate();
+        autoscaler.evaluate();
+        assertThat(autoscaler.getActiveConsumers()).isEqualTo(1);
+        cpuUsage.set(10);
+
+        AtomicInteger concurrentPacks = new AtomicInteger();
+        CountDownLatch packsDone = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            for (int i = 0; i < 3; i++) {
+                executor.submit(() -> {
+                    if (autoscaler.tryAcquire(TimeUnit.SECONDS.toMillis(30))) {
+                        concurrentPacks.incrementAndGet();
+                        packsDone.await();
+                        autoscaler.release();
+                    }
+                    return null;
+                });
+            }
+            await().atMost(5, TimeUnit.SECONDS).until(() -> concurrentPacks.get() == 1);
+
+            autoscaler.onPackProcessed(100, 5000);
+            assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.SCALE_UP);
+            await().atMost(5, TimeUnit.SECONDS).until(() -> concurrentPacks.get() == 2);
+
+            autoscaler.onPackProcessed(100, 5000);
+            assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.SCALE_UP);
+            await().atMost(5, TimeUnit.SECONDS).until(() -> concurrentPacks.get() == 3);
+        } finally {
+            packsDone.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testActiveConsumersAreLimitedByConcurrentPacksOfQueueConsumers() throws Exception {
+        maxConcurrentPacks.set(2);
+        processPack(100, 5000);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.SCALE_DOWN);
+        assertThat(autoscaler.getActiveConsumers()).isEqualTo(2);
+
+        // the lag is high, but more active consumers would not process more packs concurrently
+        assertThat(autoscaler.tryAcquire(10)).isTrue();
+        assertThat(autoscaler.tryAcquire(10)).isTrue();
+        assertThat(autoscaler.tryAcquire(10)).isFalse();
+        autoscaler.onPackProcessed(100, 5000);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.NONE);
+        assertThat(autoscaler.getActiveConsumers()).isEqualTo(2);
+
+        // e.g. the pipelining is enabled for the queue
+        maxConcurrentPacks.set(Integer.MAX_VALUE);
+        assertThat(autoscaler.tryAcquire(10)).isFalse();
+        autoscaler.onPackProcessed(100, 5000);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.SCALE_UP);
+        assertThat(autoscaler.getActiveConsumers()).isEqualTo(3);
+    }
+
+    @Test
+    public void testPackSizeAdjustment() throws Exception {
+        autoscaler.onPackProcessed(2000, 0);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.DECREASE_PACK_SIZE);
+        assertThat(autoscaler.getPackSize()).isEqualTo(200);
+        autoscaler.onPackProcessed(2000, 0);
+        autoscaler.evaluate();
+        autoscaler.onPackProcessed(2000, 0);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.NONE);
+        assertThat(autoscaler.getPackSize()).isEqualTo(100);
+
+        // no consumers waited for the gate, so the lag is handled with the bigger packs first
+        processPack(100, 5000);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.INCREASE_PACK_SIZE);
+        assertThat(autoscaler.getPackSize()).isEqualTo(200);
+        assertThat(autoscaler.getActiveConsumers()).isEqualTo(3);
+    }
+
+    @Test
+    public void testScaleDownWhenConsumersAreNotUsed() throws Exception {
+        processPack(100, 0);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.SCALE_DOWN);
+        assertThat(autoscaler.getActiveConsumers()).isEqualTo(2);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.SCALE_DOWN);
+        assertThat(autoscaler.evaluate()).isEqualTo(ScalingDecision.NONE);
+        assertThat(autoscaler.getActiveConsumers()).isEqualTo(1);
+    }
+
+    private void processPack(long processingTime, long lag) throws InterruptedException {
+        assertThat(autoscaler.tryAcquire(10)).isTrue();
+        autoscaler.onPackProcessed(processingTime, lag);
+        autoscaler.release();
+    }
+
+}
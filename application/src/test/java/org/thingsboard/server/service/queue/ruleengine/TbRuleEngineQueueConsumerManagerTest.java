@@ -621,6 +621,38 @@ public class TbRuleEngineQueueConsumerManagerTest {
         });
     }
 
+    @Test
+    public void testPipelinedProcessing() {
+        ruleEngineConsumerContext.setPipeliningEnabled(true);
+        ruleEngineConsumerContext.setPipeliningMaxInFlightMsgs(5);
+        queue.setConsumerPerPartition(true);
+        queue.setPollInterval(10);
+        AtomicInteger pendingMsgs = new AtomicInteger();
+        AtomicInteger maxPendingMsgs = new AtomicInteger();
+        doAnswer(inv -> {
+            QueueToRuleEngineMsg msg = inv.getArgument(0);
+            maxPendingMsgs.accumulateAndGet(pendingMsgs.incrementAndGet(), Math::max);
+            // slow external call
+            scheduler.schedule(() -> {
+                pendingMsgs.decrementAndGet();
+                msg.getMsg().getCallback().onSuccess();
+                totalProcessedMsgs.incrementAndGet();
+            }, 300, TimeUnit.MILLISECONDS);
+            return null;
+        }).when(actorContext).tell(any());
+        consumerManager.init(queue);
+
+        consumerManager.update(createTpis(1));
+        TestConsumer consumer = getConsumer(1);
+        await().atMost(10, TimeUnit.SECONDS)
+                .untilAsserted(() -> assertThat(totalConsumedMsgs.get()).isGreaterThanOrEqualTo(10));
+
+        assertThat(maxPendingMsgs.get()).isBetween(2, 5);
+        verify(consumer, never()).doCommit();
+        verify(consumer, atLeastOnce()).doCommit(any(Long.class));
+        generateQueueMsgs = false;
+    }
+
     private void verifySubscribedAndLaunched(TestConsumer consumer, Set<TopicPartitionInfo> expectedPartitions) {
         await().atMost(2, TimeUnit.SECONDS)
                 .until(() -> consumer.subscribed && consumer.getPartitions().equals(expectedPartitions) && consumer.pollingStarted);
@@ -711,6 +743,9 @@ public class TbRuleEngineQueueConsumerManagerTest {
 
         private TbMsg testMsg;
 
+        private long pollSeq;
+        private long committedPollSeq;
+
         public TestConsumer(String topic) {
             super(topic);
         }
@@ -725,6 +760,7 @@ public class TbRuleEngineQueueConsumerManagerTest {
             pollingStarted = true;
             if (testMsg != null && RandomUtils.nextBoolean()) {
                 Thread.sleep(100);
+                pollSeq++;
                 return List.of(testMsg);
             }
             return Collections.emptyList();
@@ -757,6 +793,26 @@ public class TbRuleEngineQueueConsumerManagerTest {
             log.debug("doCommit() totalConsumedMsgs = {}", totalConsumedMsgs.incrementAndGet());
         }
 
+        @Override
+        protected void doCommit(long pollSeq) {
+            if (pollSeq <= committedPollSeq) {
+                throw new IllegalStateException("Commit of poll " + pollSeq + " after poll " + committedPollSeq);
+            }
+            // each poll returns a single message
+            log.debug("doCommit({}) totalConsumedMsgs = {}", pollSeq, totalConsumedMsgs.addAndGet((int) (pollSeq - committedPollSeq)));
+            committedPollSeq = pollSeq;
+        }
+
+        @Override
+        public long getPollSeq() {
+            return pollSeq;
+        }
+
+        @Override
+        public boolean isPartialCommitSupported() {
+            return ruleEngineConsumerContext.isPipeliningEnabled();
+        }
+
         @Override
         public void unsubscribe() {
             super.unsubscribe();
@@ -0,0 +1,139 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.script;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.thingsboard.server.common.stats.MessagesStats;
+import org.thingsboard.server.gen.js.JsInvokeProtos;
+import org.thingsboard.server.gen.js.JsInvokeProtos.RemoteJsRequest;
+import org.thingsboard.server.gen.js.JsInvokeProtos.RemoteJsResponse;
+import org.thingsboard.server.queue.TbQueueRequestTemplate;
+import org.thingsboard.server.queue.common.TbProtoJsQueueMsg;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Stand-in for the remote js-executor: compiles any script, answers the invoke and the batched invoke requests
+ * with the configured function (echoes the first argument by default) and records all the received requests.
+ * An invocation function returning null leaves the request without response, the request with timeout then fails with {@link TimeoutException}.
+ */
+public class LocalJsExecutorRequestTemplate implements TbQueueRequestTemplate<TbProtoJsQueueMsg<RemoteJsRequest>, TbProtoQueueMsg<RemoteJsResponse>> {
+
+    private final Set<String> scriptHashes = ConcurrentHashMap.newKeySet();
+    private final List<RemoteJsRequest> requests = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService timeoutExecutor = Executors.newSingleThreadScheduledExecutor();
+    private volatile Function<JsInvokeProtos.JsInvokeRequest, JsInvokeProtos.JsInvokeResponse> invokeFunction =
+            request -> success(request.getArgs(0));
+
+    public void setInvokeFunction(Function<JsInvokeProtos.JsInvokeRequest, JsInvokeProtos.JsInvokeResponse> invokeFunction) {
+        this.invokeFunction = invokeFunction;
+    }
+
+    public List<RemoteJsRequest> getRequests() {
+        return requests;
+    }
+
+    public void forgetScripts() {
+        scriptHashes.clear();
+    }
+
+    public static JsInvokeProtos.JsInvokeResponse success(String result) {
+        return JsInvokeProtos.JsInvokeResponse.newBuilder().setSuccess(true).setResult(result).build();
+    }
+
+    @Override
+    public ListenableFuture<TbProtoQueueMsg<RemoteJsResponse>> send(TbProtoJsQueueMsg<RemoteJsRequest> msg) {
+        RemoteJsRequest request = msg.getValue();
+        requests.add(request);
+        RemoteJsResponse.Builder response = RemoteJsResponse.newBuilder()
+                .setRequestIdMSB(msg.getKey().getMostSignificantBits())
+                .setRequestIdLSB(msg.getKey().getLeastSignificantBits());
+        if (request.hasCompileRequest()) {
+            scriptHashes.add(request.getCompileRequest().getScriptHash());
+            response.setCompileResponse(JsInvokeProtos.JsCompileResponse.newBuilder()
+                    .setSuccess(true)
+                    .setScriptHash(request.getCompileRequest().getScriptHash()));
+        } else if (request.hasInvokeRequest()) {
+            JsInvokeProtos.JsInvokeResponse invokeResponse = invoke(request.getInvokeRequest());
+            if (invokeResponse == null) {
+                return SettableFuture.create();
+            }
+            response.setInvokeResponse(invokeResponse);
+        } else if (request.hasInvokeBatchRequest()) {
+            JsInvokeProtos.JsInvokeBatchResponse.Builder batchResponse = JsInvokeProtos.JsInvokeBatchResponse.newBuilder();
+            for (JsInvokeProtos.JsInvokeRequest invokeRequest : request.getInvokeBatchRequest().getRequestsList()) {
+                JsInvokeProtos.JsInvokeResponse invokeResponse = invoke(invokeRequest);
+                if (invokeResponse == null) {
+                    return SettableFuture.create();
+                }
+                batchResponse.addResponses(invokeResponse);
+            }
+            response.setInvokeBatchResponse(batchResponse);
+        } else if (request.hasReleaseRequest()) {
+            scriptHashes.remove(request.getReleaseRequest().getScriptHash());
+            response.setReleaseResponse(JsInvokeProtos.JsReleaseResponse.newBuilder()
+                    .setSuccess(true)
+                    .setScriptHash(request.getReleaseRequest().getScriptHash()));
+        }
+        SettableFuture<TbProtoQueueMsg<RemoteJsResponse>> future = SettableFuture.create();
+        future.set(new TbProtoQueueMsg<>(msg.getKey(), response.build()));
+        return future;
+    }
+
+    private JsInvokeProtos.JsInvokeResponse invoke(JsInvokeProtos.JsInvokeRequest request) {
+        if (request.getScriptBody().isEmpty() && !scriptHashes.contains(request.getScriptHash())) {
+            return JsInvokeProtos.JsInvokeResponse.newBuilder()
+                    .setSuccess(false)
+                    .setErrorCode(JsInvokeProtos.JsInvokeErrorCode.NOT_FOUND_ERROR)
+                    .build();
+        }
+        scriptHashes.add(request.getScriptHash());
+        return invokeFunction.apply(request);
+    }
+
+    @Override
+    public ListenableFuture<TbProtoQueueMsg<RemoteJsResponse>> send(TbProtoJsQueueMsg<RemoteJsRequest> msg, long timeoutNs) {
+        ListenableFuture<TbProtoQueueMsg<RemoteJsResponse>> future = send(msg);
+        if (future.isDone()) {
+            return future;
+        }
+        SettableFuture<TbProtoQueueMsg<RemoteJsResponse>> timeoutFuture = SettableFuture.create();
+        timeoutExecutor.schedule(() -> timeoutFuture.setException(new TimeoutException()), timeoutNs, TimeUnit.NANOSECONDS);
+        return timeoutFuture;
+    }
+
+    @Override
+    public void init() {}
+
+    @Override
+    public void stop() {
+        timeoutExecutor.shutdownNow();
+    }
+
+    @Override
+    public void setMessagesStats(MessagesStats messagesStats) {}
+
+}
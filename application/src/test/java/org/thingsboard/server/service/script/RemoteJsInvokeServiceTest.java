@@ -16,11 +16,13 @@
 package org.thingsboard.server.service.script;
 
 import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
 import org.apache.commons.lang3.StringUtils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.thingsboard.script.api.ScriptType;
 import org.thingsboard.server.common.data.ApiUsageState;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -33,13 +35,17 @@ import org.thingsboard.server.queue.TbQueueRequestTemplate;
 import org.thingsboard.server.queue.common.TbProtoJsQueueMsg;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
 
+import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.Mockito.doAnswer;
@@ -73,6 +79,7 @@ class RemoteJsInvokeServiceTest {
     @AfterEach
     public void afterEach() {
         reset(jsRequestTemplate);
+        remoteJsInvokeService.stop();
     }
 
     @Test
@@ -204,6 +211,128 @@ class RemoteJsInvokeServiceTest {
         assertThat(remoteJsInvokeService.scriptHashToBodysMap).isEmpty();
     }
 
+    @Test
+    public void whenBatchingEnabled_thenCoalesceInvocationsIntoSingleRequestAndDemultiplexResponses() throws Exception {
+        LocalJsExecutorRequestTemplate jsExecutor = initBatching(10, 10000);
+        UUID scriptId = remoteJsInvokeService.eval(TenantId.SYS_TENANT_ID, ScriptType.RULE_NODE_SCRIPT, "return msg;").get();
+
+        List<ListenableFuture<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, "{\"n\":" + i + "}"));
+        }
+        for (int i = 0; i < 10; i++) {
+            assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).isEqualTo("{\"n\":" + i + "}");
+        }
+
+        List<RemoteJsRequest> invokeRequests = jsExecutor.getRequests().stream().filter(request -> !request.hasCompileRequest()).toList();
+        assertThat(invokeRequests).hasSize(1);
+        assertThat(invokeRequests.get(0).getInvokeBatchRequest().getRequestsList()).hasSize(10)
+                .allSatisfy(request -> assertThat(request.getScriptBody()).isEmpty());
+    }
+
+    @Test
+    public void whenBatchingEnabled_thenSendIncompleteBatchAfterMaxWait() throws Exception {
+        LocalJsExecutorRequestTemplate jsExecutor = initBatching(100, 50);
+        UUID scriptId = remoteJsInvokeService.eval(TenantId.SYS_TENANT_ID, ScriptType.RULE_NODE_SCRIPT, "return msg;").get();
+
+        var first = remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, "1");
+        var second = remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, "2");
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("1");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("2");
+
+        var single = remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, "3");
+        assertThat(single.get(5, TimeUnit.SECONDS)).isEqualTo("3");
+
+        List<RemoteJsRequest> invokeRequests = jsExecutor.getRequests().stream().filter(request -> !request.hasCompileRequest()).toList();
+        assertThat(invokeRequests).hasSize(2);
+        assertThat(invokeRequests.get(0).getInvokeBatchRequest().getRequestsCount()).isEqualTo(2);
+        assertThat(invokeRequests.get(1).hasInvokeRequest()).as("single request is not wrapped into batch").isTrue();
+    }
+
+    @Test
+    public void whenBatchingEnabledAndRemoteJsExecutorRemovedScript_thenResendOnlyNotFoundInvocationWithScriptBody() throws Exception {
+        LocalJsExecutorRequestTemplate jsExecutor = initBatching(2, 10000);
+        String scriptBody = "return msg;";
+        UUID scriptId = remoteJsInvokeService.eval(TenantId.SYS_TENANT_ID, ScriptType.RULE_NODE_SCRIPT, scriptBody).get();
+        jsExecutor.forgetScripts();
+
+        var first = remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, "1");
+        var second = remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, "2");
+        assertThat(first.get(5, TimeUnit.SECONDS)).isEqualTo("1");
+        assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo("2");
+
+        List<RemoteJsRequest> resentRequests = jsExecutor.getRequests().stream().filter(RemoteJsRequest::hasInvokeRequest).toList();
+        assertThat(resentRequests).hasSize(2)
+                .allSatisfy(request -> assertThat(request.getInvokeRequest().getScriptBody()).contains(scriptBody));
+    }
+
+    @Test
+    public void whenBatchedInvocationTimesOut_thenOtherInvocationsSucceedAndScriptIsBlocked() throws Exception {
+        ReflectionTestUtils.setField(remoteJsInvokeService, "maxInvokeRequestsTimeout", 200L);
+        ReflectionTestUtils.setField(remoteJsInvokeService, "maxErrors", 2);
+        ReflectionTestUtils.setField(remoteJsInvokeService, "maxBlackListDurationSec", 60);
+        ReflectionTestUtils.setField(remoteJsInvokeService, "batchTimeoutMs", 50L);
+        LocalJsExecutorRequestTemplate jsExecutor = initBatching(2, 10000);
+        jsExecutor.setInvokeFunction(request -> request.getArgs(0).equals("slow") ? JsInvokeProtos.JsInvokeResponse.newBuilder()
+                .setSuccess(false)
+                .setErrorCode(JsInvokeProtos.JsInvokeErrorCode.TIMEOUT_ERROR)
+                .build() : LocalJsExecutorRequestTemplate.success(request.getArgs(0)));
+        UUID slowScriptId = remoteJsInvokeService.eval(TenantId.SYS_TENANT_ID, ScriptType.RULE_NODE_SCRIPT, "return 'slow';").get();
+        UUID scriptId = remoteJsInvokeService.eval(TenantId.SYS_TENANT_ID, ScriptType.RULE_NODE_SCRIPT, "return msg;").get();
+
+        var slow = remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, slowScriptId, "slow");
+        var fast = remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, "fast");
+        assertThat(fast.get(5, TimeUnit.SECONDS)).isEqualTo("fast");
+        assertThatThrownBy(() -> slow.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+
+        // the executor does not respond to the slow script at all, so the request is timed out by the invoke service
+        jsExecutor.setInvokeFunction(request -> request.getArgs(0).equals("slow") ? null : LocalJsExecutorRequestTemplate.success(request.getArgs(0)));
+        var lost = remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, slowScriptId, "slow");
+        var notLost = remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, "fast");
+        assertThatThrownBy(() -> lost.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+        assertThat(notLost.get(5, TimeUnit.SECONDS)).isEqualTo("fast");
+
+        assertThatThrownBy(() -> remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, slowScriptId, "slow").get(5, TimeUnit.SECONDS))
+                .hasMessageContaining("blocked due to maximum error count");
+    }
+
+    @Test
+    public void whenBatchTimesOut_thenResendRequestsOneByOneAndTimeoutOnlySlowScript() throws Exception {
+        ReflectionTestUtils.setField(remoteJsInvokeService, "maxInvokeRequestsTimeout", 500L);
+        ReflectionTestUtils.setField(remoteJsInvokeService, "maxErrors", 1);
+        ReflectionTestUtils.setField(remoteJsInvokeService, "maxBlackListDurationSec", 60);
+        ReflectionTestUtils.setField(remoteJsInvokeService, "batchTimeoutMs", 100L);
+        LocalJsExecutorRequestTemplate jsExecutor = initBatching(2, 20);
+        jsExecutor.setInvokeFunction(request -> request.getArgs(0).equals("stuck") ? null : LocalJsExecutorRequestTemplate.success(request.getArgs(0)));
+        UUID stuckScriptId = remoteJsInvokeService.eval(TenantId.SYS_TENANT_ID, ScriptType.RULE_NODE_SCRIPT, "return 'stuck';").get();
+        UUID scriptId = remoteJsInvokeService.eval(TenantId.SYS_TENANT_ID, ScriptType.RULE_NODE_SCRIPT, "return msg;").get();
+
+        var stuck = remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, stuckScriptId, "stuck");
+        var fast = remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, "fast");
+        assertThat(fast.get(5, TimeUnit.SECONDS)).isEqualTo("fast");
+        assertThatThrownBy(() -> stuck.get(5, TimeUnit.SECONDS)).hasCauseInstanceOf(TimeoutException.class);
+
+        List<RemoteJsRequest> invokeRequests = jsExecutor.getRequests().stream().filter(request -> !request.hasCompileRequest()).toList();
+        assertThat(invokeRequests).hasSize(3);
+        assertThat(invokeRequests.get(0).getInvokeBatchRequest().getRequestsCount()).isEqualTo(2);
+        assertThat(invokeRequests.subList(1, 3)).allSatisfy(request -> assertThat(request.hasInvokeRequest()).isTrue());
+
+        // the batch-wide timeout is not counted against the script that responded
+        assertThat(remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, "fast").get(5, TimeUnit.SECONDS)).isEqualTo("fast");
+        assertThatThrownBy(() -> remoteJsInvokeService.invokeScript(TenantId.SYS_TENANT_ID, null, stuckScriptId, "stuck").get(5, TimeUnit.SECONDS))
+                .hasMessageContaining("blocked due to maximum error count");
+    }
+
+    private LocalJsExecutorRequestTemplate initBatching(int maxBatchSize, long maxBatchWaitMs) {
+        LocalJsExecutorRequestTemplate jsExecutor = new LocalJsExecutorRequestTemplate();
+        remoteJsInvokeService.requestTemplate = jsExecutor;
+        ReflectionTestUtils.setField(remoteJsInvokeService, "batchEnabled", true);
+        ReflectionTestUtils.setField(remoteJsInvokeService, "maxBatchSize", maxBatchSize);
+        ReflectionTestUtils.setField(remoteJsInvokeService, "maxBatchWaitMs", maxBatchWaitMs);
+        remoteJsInvokeService.init();
+        return jsExecutor;
+    }
+
     private String getScriptHash(UUID scriptUuid) {
         return remoteJsInvokeService.getScriptHash(scriptUuid);
     }
@@ -0,0 +1,136 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.script;
+
+import com.google.common.util.concurrent.Futures;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.script.api.tbel.TbelInvokeService;
+import org.thingsboard.server.actors.JsInvokeStats;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.RuleNodeId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.msg.TbMsgType;
+import org.thingsboard.server.common.msg.TbMsg;
+import org.thingsboard.server.common.msg.TbMsgMetaData;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class RuleNodeScriptMemoizerTest {
+
+    private static final String[] ARG_NAMES = {"msg", "metadata", "msgType"};
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final DeviceId deviceId = new DeviceId(UUID.randomUUID());
+    private final UUID scriptId = UUID.randomUUID();
+    private TbelInvokeService invokeService;
+
+    @BeforeEach
+    void setUp() {
+        invokeService = mock(TbelInvokeService.class);
+        when(invokeService.eval(any(), any(), any(), any(String[].class))).thenReturn(Futures.immediateFuture(scriptId));
+    }
+
+    @Test
+    void givenScriptReadsOnlyMsgType_whenMsgDataDiffers_thenResultIsCached() throws Exception {
+        String script = "return msgType == 'POST_TELEMETRY_REQUEST';";
+        when(invokeService.invokeScript(eq(tenantId), any(), eq(scriptId), any(Object[].class))).thenReturn(Futures.immediateFuture(true));
+        RuleNodeTbelScriptEngine engine = createEngine(script, 100, 0.5);
+
+        assertThat(engine.executeFilterAsync(newMsg("{\"temperature\":1}", Map.of("a", "1"))).get()).isTrue();
+        assertThat(engine.executeFilterAsync(newMsg("{\"temperature\":2}", Map.of("a", "2"))).get()).isTrue();
+
+        verify(invokeService, times(1)).invokeScript(eq(tenantId), any(), eq(scriptId), any(Object[].class));
+    }
+
+    @Test
+    void givenScriptReadsMsg_whenMsgDataDiffers_thenScriptIsInvokedForEachInput() throws Exception {
+        String script = "return [msg.temperature > 10 ? 'High' : 'Low'];";
+        when(invokeService.invokeScript(eq(tenantId), any(), eq(scriptId), any(Object[].class))).thenReturn(Futures.immediateFuture(Set.of("Low")));
+        RuleNodeTbelScriptEngine engine = createEngine(script, 100, 0.1);
+
+        for (int i = 0; i < 3; i++) {
+            assertThat(engine.executeSwitchAsync(newMsg("{\"temperature\":1}", Map.of())).get()).containsOnly("Low");
+            assertThat(engine.executeSwitchAsync(newMsg("{\"temperature\":2}", Map.of("a", "b"))).get()).containsOnly("Low");
+        }
+
+        verify(invokeService, times(2)).invokeScript(eq(tenantId), any(), eq(scriptId), any(Object[].class));
+    }
+
+    @Test
+    void givenLowHitRate_thenMemoizationIsDisabled() throws Exception {
+        String script = "return msg.temperature > 10;";
+        when(invokeService.invokeScript(eq(tenantId), any(), eq(scriptId), any(Object[].class))).thenReturn(Futures.immediateFuture(false));
+        RuleNodeScriptMemoizer memoizer = RuleNodeScriptMemoizer.create(script, ARG_NAMES, 100, 60000, 10, 0.5, null, null);
+        RuleNodeTbelScriptEngine engine = createEngine(script, memoizer);
+
+        for (int i = 0; i < 10; i++) {
+            engine.executeFilterAsync(newMsg("{\"temperature\":" + i + "}", Map.of())).get();
+        }
+        assertThat(memoizer.isDisabled()).isTrue();
+
+        engine.executeFilterAsync(newMsg("{\"temperature\":1}", Map.of())).get();
+        verify(invokeService, times(11)).invokeScript(eq(tenantId), any(), eq(scriptId), any(Object[].class));
+    }
+
+    @Test
+    void givenStats_thenHitsAndMissesAreRecordedPerRuleNode() throws Exception {
+        String script = "return msgType == 'POST_TELEMETRY_REQUEST';";
+        when(invokeService.invokeScript(eq(tenantId), any(), eq(scriptId), any(Object[].class))).thenReturn(Futures.immediateFuture(true));
+        RuleNodeId ruleNodeId = new RuleNodeId(UUID.randomUUID());
+        JsInvokeStats stats = mock(JsInvokeStats.class);
+        RuleNodeTbelScriptEngine engine = createEngine(script, RuleNodeScriptMemoizer.create(script, ARG_NAMES, 100, 60000, 100, 0.5, ruleNodeId, stats));
+
+        for (int i = 0; i < 3; i++) {
+            engine.executeFilterAsync(newMsg("{\"temperature\":" + i + "}", Map.of())).get();
+        }
+
+        verify(stats, times(1)).incrementMemoizationMisses(ruleNodeId);
+        verify(stats, times(2)).incrementMemoizationHits(ruleNodeId);
+    }
+
+    @Test
+    void givenNonDeterministicScript_thenMemoizerIsNotCreated() {
+        assertThat(RuleNodeScriptMemoizer.create("return msg.ts > new Date().getTime() - 1000;", ARG_NAMES, 100, 60000, 10, 0.5, null, null)).isNull();
+        assertThat(RuleNodeScriptMemoizer.create("return Math.random() > 0.5;", ARG_NAMES, 100, 60000, 10, 0.5, null, null)).isNull();
+        assertThat(RuleNodeScriptMemoizer.create("return msg.temperature > 10;", ARG_NAMES, 100, 60000, 10, 0.5, null, null)).isNotNull();
+    }
+
+    private RuleNodeTbelScriptEngine createEngine(String script, int minRequests, double minHitRate) {
+        return createEngine(script, RuleNodeScriptMemoizer.create(script, ARG_NAMES, 100, 60000, minRequests, minHitRate, null, null));
+    }
+
+    private RuleNodeTbelScriptEngine createEngine(String script, RuleNodeScriptMemoizer memoizer) {
+        RuleNodeTbelScriptEngine engine = new RuleNodeTbelScriptEngine(tenantId, invokeService, script, ARG_NAMES);
+        engine.setMemoizer(memoizer);
+        return engine;
+    }
+
+    private TbMsg newMsg(String data, Map<String, String> metadata) {
+        return TbMsg.newMsg(TbMsgType.POST_TELEMETRY_REQUEST, deviceId, new TbMsgMetaData(metadata), data);
+    }
+
+}
@@ -0,0 +1,135 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.subscription;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.cluster.TbClusterService;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.DoubleDataEntry;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+import org.thingsboard.server.common.msg.queue.TbCallback;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.dao.attributes.AttributesService;
+import org.thingsboard.server.dao.timeseries.TimeseriesService;
+import org.thingsboard.server.queue.discovery.PartitionService;
+import org.thingsboard.server.queue.discovery.TbServiceInfoProvider;
+import org.thingsboard.server.service.ws.WebSocketService;
+import org.thingsboard.server.service.ws.telemetry.sub.TelemetrySubscriptionUpdate;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+
+public class DefaultTbLocalSubscriptionServiceTest {
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final EntityId entityId = new DeviceId(UUID.randomUUID());
+    private final Map<String, TelemetrySubscriptionUpdate> updates = new ConcurrentHashMap<>();
+
+    private DefaultTbLocalSubscriptionService subscriptionService;
+
+    @BeforeEach
+    public void setUp() {
+        TbServiceInfoProvider serviceInfoProvider = mock(TbServiceInfoProvider.class);
+        willReturn("test").given(serviceInfoProvider).getServiceId();
+        PartitionService partitionService = mock(PartitionService.class);
+        willReturn(new TopicPartitionInfo("tb_core", tenantId, 0, true)).given(partitionService).resolve(any(), any(TenantId.class), any(EntityId.class));
+        subscriptionService = new DefaultTbLocalSubscriptionService(mock(AttributesService.class), mock(TimeseriesService.class), serviceInfoProvider,
+                partitionService, mock(TbClusterService.class), mock(SubscriptionManagerService.class), mock(WebSocketService.class), null);
+        subscriptionService.initExecutor();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        subscriptionService.shutdownExecutor();
+    }
+
+    @Test
+    public void testIdenticalSubscriptionsShareTheUpdate() {
+        subscriptionService.addSubscription(tsSubscription("session1", 1, false, "temperature"));
+        subscriptionService.addSubscription(tsSubscription("session2", 1, false, "temperature"));
+        subscriptionService.addSubscription(tsSubscription("session3", 2, false, "temperature"));
+        subscriptionService.addSubscription(tsSubscription("session4", 1, false, "humidity"));
+        subscriptionService.addSubscription(tsSubscription("session5", 1, true));
+        assertThat(subscriptionService.getTotalSubscriptions()).isEqualTo(5);
+        assertThat(subscriptionService.getUniqueSubscriptions()).isEqualTo(3);
+
+        subscriptionService.onSubEventCallback(entityId, 0, new TbEntityUpdatesInfo(0), TbCallback.EMPTY);
+        long ts = System.currentTimeMillis();
+        List<TsKvEntry> data = List.of(new BasicTsKvEntry(ts, new DoubleDataEntry("temperature", 21.5)),
+                new BasicTsKvEntry(ts, new DoubleDataEntry("humidity", 40.0)));
+        subscriptionService.onTimeSeriesUpdate(entityId, data, TbCallback.EMPTY);
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> updates.size() == 5);
+        TelemetrySubscriptionUpdate update1 = updates.get("session1");
+        TelemetrySubscriptionUpdate update2 = updates.get("session2");
+        TelemetrySubscriptionUpdate update3 = updates.get("session3");
+        assertThat(update1.getData()).containsOnlyKeys("temperature");
+        assertThat(update2.getData()).isSameAs(update1.getData());
+        assertThat(update3.getData()).isSameAs(update1.getData());
+        assertThat(update3.getSubscriptionId()).isEqualTo(2);
+        assertThat(updates.get("session4").getData()).containsOnlyKeys("humidity");
+        assertThat(updates.get("session5").getData()).containsOnlyKeys("temperature", "humidity");
+    }
+
+    @Test
+    public void testSubscriptionsCountOnCancel() {
+        subscriptionService.addSubscription(tsSubscription("session1", 1, false, "temperature"));
+        subscriptionService.addSubscription(tsSubscription("session2", 1, false, "temperature"));
+        subscriptionService.addSubscription(tsSubscription("session2", 2, false, "humidity"));
+
+        subscriptionService.cancelSubscription("session1", 1);
+        assertThat(subscriptionService.getTotalSubscriptions()).isEqualTo(2);
+        assertThat(subscriptionService.getUniqueSubscriptions()).isEqualTo(2);
+
+        subscriptionService.cancelAllSessionSubscriptions("session2");
+        assertThat(subscriptionService.getTotalSubscriptions()).isZero();
+        assertThat(subscriptionService.getUniqueSubscriptions()).isZero();
+    }
+
+    private TbTimeSeriesSubscription tsSubscription(String sessionId, int subscriptionId, boolean allKeys, String... keys) {
+        Map<String, Long> keyStates = new HashMap<>();
+        for (String key : keys) {
+            keyStates.put(key, 0L);
+        }
+        return TbTimeSeriesSubscription.builder()
+                .serviceId("test")
+                .sessionId(sessionId)
+                .subscriptionId(subscriptionId)
+                .tenantId(tenantId)
+                .entityId(entityId)
+                .updateProcessor((sub, update) -> updates.put(sessionId, update))
+                .allKeys(allKeys)
+                .keyStates(keyStates)
+                .latestValues(true)
+                .build();
+    }
+
+}
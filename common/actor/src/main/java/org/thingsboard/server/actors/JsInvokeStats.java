@@ -15,6 +15,10 @@
  */
 package org.thingsboard.server.actors;
 
+import org.thingsboard.server.common.data.id.RuleNodeId;
+
+import java.util.Map;
+
 public interface JsInvokeStats {
     default void incrementRequests() {
         incrementRequests(1);
@@ -34,11 +38,52 @@ public interface JsInvokeStats {
 
     void incrementFailures(int amount);
 
+    default void incrementMemoizationHits() {
+        incrementMemoizationHits(1);
+    }
+
+    void incrementMemoizationHits(int amount);
+
+    default void incrementMemoizationMisses() {
+        incrementMemoizationMisses(1);
+    }
+
+    void incrementMemoizationMisses(int amount);
+
+    /**
+     * Increments both the total and the rule node memoization hits.
+     */
+    void incrementMemoizationHits(RuleNodeId ruleNodeId);
+
+    /**
+     * Increments both the total and the rule node memoization misses.
+     */
+    void incrementMemoizationMisses(RuleNodeId ruleNodeId);
+
+    /**
+     * @return memoization hits and misses per rule node since the previous call
+     */
+    Map<RuleNodeId, MemoizationStats> getAndResetRuleNodeMemoizationStats();
+
     int getRequests();
 
     int getResponses();
 
     int getFailures();
 
+    int getMemoizationHits();
+
+    int getMemoizationMisses();
+
     void reset();
+
+    record MemoizationStats(int hits, int misses) {
+
+        public int getHitRate() {
+            int lookups = hits + misses;
+            return lookups > 0 ? hits * 100 / lookups : 0;
+        }
+
+    }
+
 }
@@ -36,6 +36,35 @@ public interface TbQueueConsumer<T extends TbQueueMsg> {
 
     void commit();
 
+    /**
+     * Whether the consumer is able to commit the messages of the particular poll
+     * while the messages returned by the later polls are still being processed.
+     */
+    default boolean isPartialCommitSupported() {
+        return false;
+    }
+
+    /**
+     * Requests the partial commit support, if the consumer needs to track the polls for it.
+     * Must be called before the first poll.
+     */
+    default void enablePartialCommit() {
+    }
+
+    /**
+     * Sequence number of the last poll that returned messages.
+     */
+    default long getPollSeq() {
+        return 0;
+    }
+
+    /**
+     * Commits the messages returned by the polls up to and including the poll with the given sequence number.
+     */
+    default void commit(long pollSeq) {
+        commit();
+    }
+
     boolean isStopped();
 
     List<String> getFullTopicNames();
@@ -17,6 +17,7 @@ package org.thingsboard.server.coapserver;
 
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.eclipse.californium.elements.auth.X509CertPath;
 import org.eclipse.californium.elements.util.CertPathUtil;
 import org.eclipse.californium.scandium.dtls.AlertMessage;
 import org.eclipse.californium.scandium.dtls.CertificateMessage;
@@ -40,6 +41,7 @@ import org.thingsboard.server.queue.discovery.TbServiceInfoProvider;
 
 import javax.security.auth.x500.X500Principal;
 import java.net.InetSocketAddress;
+import java.security.Principal;
 import java.security.cert.CertPath;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateExpiredException;
@@ -78,54 +80,117 @@ public class TbCoapDtlsCertificateVerifier implements NewAdvancedCertificateVeri
         try {
             CertPath certpath = message.getCertificateChain();
             X509Certificate[] chain = certpath.getCertificates().toArray(new X509Certificate[0]);
-            for (X509Certificate cert : chain) {
-                try {
-                    if (!skipValidityCheckForClientCert) {
+            validateCertificateChain(remotePeer, chain);
+            return new CertificateVerificationResult(cid, certpath, null);
+        } catch (HandshakeException e) {
+            log.trace("Certificate validation failed!", e);
+            return new CertificateVerificationResult(cid, e, null);
+        }
+    }
+
+    /**
+     * The certificate is not sent during the abbreviated handshake, so the device session info is restored
+     * from the peer identity of the resumed session if it is not known for the peer address,
+     * e.g. the device address has changed or the session was established by another transport instance.
+     * Only the certificate validity is checked in the handshake thread, the device credentials are resolved asynchronously.
+     */
+    public void onSessionResumed(InetSocketAddress remotePeer, Principal peerIdentity) throws HandshakeException {
+        if (peerIdentity instanceof X509CertPath && !getTbCoapDtlsSessionsMap().containsKey(remotePeer)) {
+            CertPath certpath = ((X509CertPath) peerIdentity).getPath();
+            X509Certificate[] chain = certpath.getCertificates().toArray(new X509Certificate[0]);
+            try {
+                if (!skipValidityCheckForClientCert) {
+                    for (X509Certificate cert : chain) {
                         cert.checkValidity();
                     }
+                }
+            } catch (CertificateExpiredException | CertificateNotYetValidException e) {
+                log.error(e.getMessage(), e);
+                AlertMessage alert = new AlertMessage(AlertMessage.AlertLevel.FATAL, AlertMessage.AlertDescription.BAD_CERTIFICATE);
+                throw new HandshakeException("Certificate chain could not be validated", alert);
+            }
+            restoreSessionInfo(remotePeer, chain, 0);
+        }
+    }
 
-                    String strCert = SslUtil.getCertificateString(cert);
-                    String sha3Hash = EncryptionUtil.getSha3Hash(strCert);
-                    final ValidateDeviceCredentialsResponse[] deviceCredentialsResponse = new ValidateDeviceCredentialsResponse[1];
-                    CountDownLatch latch = new CountDownLatch(1);
-                    transportService.process(DeviceTransportType.COAP, TransportProtos.ValidateDeviceX509CertRequestMsg.newBuilder().setHash(sha3Hash).build(),
-                            new TransportServiceCallback<>() {
-                                @Override
-                                public void onSuccess(ValidateDeviceCredentialsResponse msg) {
-                                    if (!StringUtils.isEmpty(msg.getCredentials())) {
-                                        deviceCredentialsResponse[0] = msg;
-                                    }
-                                    latch.countDown();
-                                }
+    private void restoreSessionInfo(InetSocketAddress remotePeer, X509Certificate[] chain, int idx) {
+        if (idx >= chain.length) {
+            log.debug("[{}] Failed to restore the session info of the resumed DTLS session", remotePeer);
+            return;
+        }
+        String strCert;
+        try {
+            strCert = SslUtil.getCertificateString(chain[idx]);
+        } catch (CertificateEncodingException e) {
+            log.error(e.getMessage(), e);
+            return;
+        }
+        String sha3Hash = EncryptionUtil.getSha3Hash(strCert);
+        transportService.process(DeviceTransportType.COAP, TransportProtos.ValidateDeviceX509CertRequestMsg.newBuilder().setHash(sha3Hash).build(),
+                new TransportServiceCallback<>() {
+                    @Override
+                    public void onSuccess(ValidateDeviceCredentialsResponse msg) {
+                        if (strCert.equals(msg.getCredentials())) {
+                            DeviceProfile deviceProfile = msg.getDeviceProfile();
+                            if (msg.hasDeviceInfo() && deviceProfile != null) {
+                                tbCoapDtlsSessionInMemoryStorage.put(remotePeer, new TbCoapDtlsSessionInfo(msg, deviceProfile));
+                            }
+                        } else {
+                            restoreSessionInfo(remotePeer, chain, idx + 1);
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable e) {
+                        log.error(e.getMessage(), e);
+                    }
+                });
+    }
+
+    private void validateCertificateChain(InetSocketAddress remotePeer, X509Certificate[] chain) throws HandshakeException {
+        for (X509Certificate cert : chain) {
+            try {
+                if (!skipValidityCheckForClientCert) {
+                    cert.checkValidity();
+                }
 
-                                @Override
-                                public void onError(Throwable e) {
-                                    log.error(e.getMessage(), e);
-                                    latch.countDown();
+                String strCert = SslUtil.getCertificateString(cert);
+                String sha3Hash = EncryptionUtil.getSha3Hash(strCert);
+                final ValidateDeviceCredentialsResponse[] deviceCredentialsResponse = new ValidateDeviceCredentialsResponse[1];
+                CountDownLatch latch = new CountDownLatch(1);
+                transportService.process(DeviceTransportType.COAP, TransportProtos.ValidateDeviceX509CertRequestMsg.newBuilder().setHash(sha3Hash).build(),
+                        new TransportServiceCallback<>() {
+                            @Override
+                            public void onSuccess(ValidateDeviceCredentialsResponse msg) {
+                                if (!StringUtils.isEmpty(msg.getCredentials())) {
+                                    deviceCredentialsResponse[0] = msg;
                                 }
-                            });
-                    latch.await(10, TimeUnit.SECONDS);
-                    ValidateDeviceCredentialsResponse msg = deviceCredentialsResponse[0];
-                    if (msg != null && strCert.equals(msg.getCredentials())) {
-                        DeviceProfile deviceProfile = msg.getDeviceProfile();
-                        if (msg.hasDeviceInfo() && deviceProfile != null) {
-                            tbCoapDtlsSessionInMemoryStorage.put(remotePeer, new TbCoapDtlsSessionInfo(msg, deviceProfile));
-                        }
-                        break;
+                                latch.countDown();
+                            }
+
+                            @Override
+                            public void onError(Throwable e) {
+                                log.error(e.getMessage(), e);
+                                latch.countDown();
+                            }
+                        });
+                latch.await(10, TimeUnit.SECONDS);
+                ValidateDeviceCredentialsResponse msg = deviceCredentialsResponse[0];
+                if (msg != null && strCert.equals(msg.getCredentials())) {
+                    DeviceProfile deviceProfile = msg.getDeviceProfile();
+                    if (msg.hasDeviceInfo() && deviceProfile != null) {
+                        tbCoapDtlsSessionInMemoryStorage.put(remotePeer, new TbCoapDtlsSessionInfo(msg, deviceProfile));
                     }
-                } catch (InterruptedException |
-                        CertificateEncodingException |
-                        CertificateExpiredException |
-                        CertificateNotYetValidException e) {
-                    log.error(e.getMessage(), e);
-                    AlertMessage alert = new AlertMessage(AlertMessage.AlertLevel.FATAL, AlertMessage.AlertDescription.BAD_CERTIFICATE);
-                    throw new HandshakeException("Certificate chain could not be validated", alert);
+                    break;
                 }
+            } catch (InterruptedException |
+                    CertificateEncodingException |
+                    CertificateExpiredException |
+                    CertificateNotYetValidException e) {
+                log.error(e.getMessage(), e);
+                AlertMessage alert = new AlertMessage(AlertMessage.AlertLevel.FATAL, AlertMessage.AlertDescription.BAD_CERTIFICATE);
+                throw new HandshakeException("Certificate chain could not be validated", alert);
             }
-            return new CertificateVerificationResult(cid, certpath, null);
-        } catch (HandshakeException e) {
-            log.trace("Certificate validation failed!", e);
-            return new CertificateVerificationResult(cid, e, null);
         }
     }
 
@@ -0,0 +1,137 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.coapserver;
+
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.californium.elements.util.DatagramReader;
+import org.eclipse.californium.elements.util.DatagramWriter;
+import org.eclipse.californium.scandium.dtls.DTLSSession;
+import org.eclipse.californium.scandium.dtls.SessionId;
+import org.eclipse.californium.scandium.dtls.SessionStore;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * DTLS session store shared across the CoAP transport instances.
+ * Keeps the serialized session with the expiration equal to the session TTL.
+ * The session contains the master secret, so it is encrypted with AES-GCM using the key derived from the configured secret.
+ */
+@Slf4j
+public class TbCoapDtlsRedisSessionStore implements SessionStore {
+
+    private static final String SESSION_PREFIX = "COAP:DTLS:SESSION:";
+    private static final String CIPHER = "AES/GCM/NoPadding";
+    private static final int IV_LENGTH = 12;
+    private static final int TAG_LENGTH_BITS = 128;
+
+    private final RedisConnectionFactory connectionFactory;
+    private final long sessionTtlInSec;
+    private final SecretKey encryptionKey;
+    private final SecureRandom random = new SecureRandom();
+
+    public TbCoapDtlsRedisSessionStore(RedisConnectionFactory connectionFactory, long sessionTtlInSec, String encryptionSecret) {
+        this.connectionFactory = connectionFactory;
+        this.sessionTtlInSec = sessionTtlInSec;
+        try {
+            byte[] key = MessageDigest.getInstance("SHA-256").digest(encryptionSecret.getBytes(UTF_8));
+            this.encryptionKey = new SecretKeySpec(key, "AES");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public void put(DTLSSession session) {
+        SessionId sessionId = session.getSessionIdentifier();
+        if (sessionId == null || sessionId.isEmpty()) {
+            return;
+        }
+        DatagramWriter writer = new DatagramWriter(true);
+        session.writeTo(writer);
+        try (var connection = connectionFactory.getConnection()) {
+            byte[] data = encrypt(writer.toByteArray());
+            connection.stringCommands().setEx(toKey(sessionId), sessionTtlInSec, data);
+        } catch (Exception e) {
+            log.warn("[{}] Failed to store DTLS session", sessionId, e);
+        } finally {
+            writer.close();
+        }
+    }
+
+    @Override
+    public DTLSSession get(SessionId sessionId) {
+        if (sessionId == null || sessionId.isEmpty()) {
+            return null;
+        }
+        try (var connection = connectionFactory.getConnection()) {
+            byte[] data = connection.stringCommands().get(toKey(sessionId));
+            if (data == null) {
+                return null;
+            }
+            return DTLSSession.fromReader(new DatagramReader(decrypt(data), true));
+        } catch (Exception e) {
+            log.warn("[{}] Failed to fetch DTLS session", sessionId, e);
+            return null;
+        }
+    }
+
+    @Override
+    public void remove(SessionId sessionId) {
+        if (sessionId == null || sessionId.isEmpty()) {
+            return;
+        }
+        try (var connection = connectionFactory.getConnection()) {
+            connection.keyCommands().del(toKey(sessionId));
+        } catch (Exception e) {
+            log.warn("[{}] Failed to remove DTLS session", sessionId, e);
+        }
+    }
+
+    private byte[] encrypt(byte[] data) throws GeneralSecurityException {
+        byte[] iv = new byte[IV_LENGTH];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.ENCRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_LENGTH_BITS, iv));
+        byte[] encrypted = cipher.doFinal(data);
+        byte[] result = new byte[IV_LENGTH + encrypted.length];
+        System.arraycopy(iv, 0, result, 0, IV_LENGTH);
+        System.arraycopy(encrypted, 0, result, IV_LENGTH, encrypted.length);
+        Arrays.fill(data, (byte) 0);
+        return result;
+    }
+
+    private byte[] decrypt(byte[] data) throws GeneralSecurityException {
+        Cipher cipher = Cipher.getInstance(CIPHER);
+        cipher.init(Cipher.DECRYPT_MODE, encryptionKey, new GCMParameterSpec(TAG_LENGTH_BITS, data, 0, IV_LENGTH));
+        return cipher.doFinal(data, IV_LENGTH, data.length - IV_LENGTH);
+    }
+
+    private byte[] toKey(SessionId sessionId) {
+        return (SESSION_PREFIX + sessionId.getAsString()).getBytes(UTF_8);
+    }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.coapserver;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.californium.scandium.dtls.DTLSContext;
+import org.eclipse.californium.scandium.dtls.HandshakeException;
+import org.eclipse.californium.scandium.dtls.Handshaker;
+import org.eclipse.californium.scandium.dtls.ResumingServerHandshaker;
+import org.eclipse.californium.scandium.dtls.SessionAdapter;
+import org.thingsboard.server.common.stats.StatsFactory;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts full and resumed DTLS handshakes and restores the device session info for the resumed sessions,
+ * since the certificate is not verified again during the abbreviated handshake.
+ */
+@Slf4j
+@Getter
+public class TbCoapDtlsSessionListener extends SessionAdapter {
+
+    private static final String HANDSHAKES_STATS_KEY = "coapDtlsHandshakes";
+
+    private final TbCoapDtlsCertificateVerifier certificateVerifier;
+
+    private final AtomicLong fullHandshakes = new AtomicLong();
+    private final AtomicLong resumedHandshakes = new AtomicLong();
+    private final AtomicLong failedHandshakes = new AtomicLong();
+
+    public TbCoapDtlsSessionListener(TbCoapDtlsCertificateVerifier certificateVerifier, StatsFactory statsFactory) {
+        this.certificateVerifier = certificateVerifier;
+        if (statsFactory != null) {
+            statsFactory.createGauge(HANDSHAKES_STATS_KEY, fullHandshakes, "type", "full");
+            statsFactory.createGauge(HANDSHAKES_STATS_KEY, resumedHandshakes, "type", "resumed");
+            statsFactory.createGauge(HANDSHAKES_STATS_KEY, failedHandshakes, "type", "failed");
+        }
+    }
+
+    @Override
+    public void contextEstablished(Handshaker handshaker, DTLSContext context) throws HandshakeException {
+        if (handshaker instanceof ResumingServerHandshaker) {
+            certificateVerifier.onSessionResumed(handshaker.getPeerAddress(), context.getSession().getPeerIdentity());
+        }
+    }
+
+    @Override
+    public void handshakeCompleted(Handshaker handshaker) {
+        if (handshaker instanceof ResumingServerHandshaker) {
+            resumedHandshakes.incrementAndGet();
+        } else {
+            fullHandshakes.incrementAndGet();
+        }
+        log.trace("[{}] DTLS handshake completed, resumed: {}", handshaker.getPeerAddress(), handshaker instanceof ResumingServerHandshaker);
+    }
+
+    @Override
+    public void handshakeFailed(Handshaker handshaker, Throwable error) {
+        failedHandshakes.incrementAndGet();
+        log.trace("[{}] DTLS handshake failed", handshaker.getPeerAddress(), error);
+    }
+
+}
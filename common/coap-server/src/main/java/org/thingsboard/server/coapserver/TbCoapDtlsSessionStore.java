@@ -0,0 +1,79 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.coapserver;
+
+import org.eclipse.californium.scandium.dtls.DTLSSession;
+import org.eclipse.californium.scandium.dtls.InMemorySessionStore;
+import org.eclipse.californium.scandium.dtls.SessionId;
+import org.eclipse.californium.scandium.dtls.SessionStore;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded DTLS session cache used for the session resumption (abbreviated handshake).
+ * Sessions are kept in the local LRU cache with expiration and optionally in the shared store,
+ * so the device may resume the session on any transport instance.
+ */
+public class TbCoapDtlsSessionStore implements SessionStore {
+
+    private final SessionStore localStore;
+    private final SessionStore sharedStore;
+    private final long sessionTtlInMs;
+
+    public TbCoapDtlsSessionStore(int maxSessions, long sessionTtlInSec, SessionStore sharedStore) {
+        this.localStore = new InMemorySessionStore(maxSessions, sessionTtlInSec);
+        this.sharedStore = sharedStore;
+        this.sessionTtlInMs = TimeUnit.SECONDS.toMillis(sessionTtlInSec);
+    }
+
+    @Override
+    public void put(DTLSSession session) {
+        localStore.put(session);
+        if (sharedStore != null) {
+            sharedStore.put(session);
+        }
+    }
+
+    @Override
+    public DTLSSession get(SessionId sessionId) {
+        DTLSSession session = localStore.get(sessionId);
+        if (session != null && isExpired(session)) {
+            // the in-memory store applies the TTL only to evict sessions when it is full
+            localStore.remove(sessionId);
+            session = null;
+        }
+        if (session == null && sharedStore != null) {
+            session = sharedStore.get(sessionId);
+            if (session != null) {
+                localStore.put(session);
+            }
+        }
+        return session;
+    }
+
+    @Override
+    public void remove(SessionId sessionId) {
+        localStore.remove(sessionId);
+        if (sharedStore != null) {
+            sharedStore.remove(sessionId);
+        }
+    }
+
+    private boolean isExpired(DTLSSession session) {
+        return System.currentTimeMillis() - session.getCreationTime() > sessionTtlInMs;
+    }
+
+}
@@ -21,6 +21,7 @@ import org.eclipse.californium.elements.config.Configuration;
 import org.eclipse.californium.elements.util.SslContextUtil;
 import org.eclipse.californium.scandium.config.DtlsConnectorConfig;
 import org.eclipse.californium.scandium.dtls.CertificateType;
+import org.eclipse.californium.scandium.dtls.SessionStore;
 import org.eclipse.californium.scandium.dtls.x509.SingleCertificateProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
@@ -29,6 +30,9 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.stereotype.Component;
+import org.thingsboard.server.cache.TBRedisCacheConfiguration;
+import org.thingsboard.server.common.data.StringUtils;
+import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.common.transport.TransportService;
 import org.thingsboard.server.common.transport.config.ssl.SslCredentials;
 import org.thingsboard.server.common.transport.config.ssl.SslCredentialsConfig;
@@ -85,9 +89,30 @@ public class TbCoapDtlsSettings {
     @Value("${coap.dtls.x509.dtls_session_report_timeout:1800000}")
     private long dtlsSessionReportTimeout;
 
+    @Value("${coap.dtls.session_resumption.enabled:false}")
+    private boolean sessionResumptionEnabled;
+
+    @Value("${coap.dtls.session_resumption.store:in_memory}")
+    private String sessionResumptionStore;
+
+    @Value("${coap.dtls.session_resumption.max_sessions:100000}")
+    private int sessionResumptionMaxSessions;
+
+    @Value("${coap.dtls.session_resumption.session_ttl_in_sec:86400}")
+    private long sessionResumptionSessionTtl;
+
+    @Value("${coap.dtls.session_resumption.redis_encryption_key:}")
+    private String sessionResumptionRedisEncryptionKey;
+
     @Autowired(required = false)
     private TransportService transportService;
 
+    @Autowired(required = false)
+    private TBRedisCacheConfiguration redisConfiguration;
+
+    @Autowired(required = false)
+    private StatsFactory statsFactory;
+
     @Autowired(required = false)
     private TbServiceInfoProvider serviceInfoProvider;
 
@@ -108,20 +133,36 @@ public class TbCoapDtlsSettings {
                 configBuilder.set(DTLS_CONNECTION_ID_NODE_ID, null);
             }
         }
-        configBuilder.setAdvancedCertificateVerifier(
-                new TbCoapDtlsCertificateVerifier(
-                        transportService,
-                        serviceInfoProvider,
-                        dtlsSessionInactivityTimeout,
-                        dtlsSessionReportTimeout,
-                        skipValidityCheckForClientCert
-                )
+        TbCoapDtlsCertificateVerifier certificateVerifier = new TbCoapDtlsCertificateVerifier(
+                transportService,
+                serviceInfoProvider,
+                dtlsSessionInactivityTimeout,
+                dtlsSessionReportTimeout,
+                skipValidityCheckForClientCert
         );
+        configBuilder.setAdvancedCertificateVerifier(certificateVerifier);
+        configBuilder.setSessionListener(new TbCoapDtlsSessionListener(certificateVerifier, statsFactory));
+        if (sessionResumptionEnabled) {
+            configBuilder.setSessionStore(new TbCoapDtlsSessionStore(sessionResumptionMaxSessions, sessionResumptionSessionTtl, createSharedSessionStore()));
+        }
         configBuilder.setCertificateIdentityProvider(new SingleCertificateProvider(serverCredentials.getPrivateKey(), serverCredentials.getCertificateChain(),
                 Collections.singletonList(CertificateType.X_509)));
         return configBuilder.build();
     }
 
+    private SessionStore createSharedSessionStore() {
+        if ("redis".equalsIgnoreCase(sessionResumptionStore)) {
+            if (redisConfiguration == null) {
+                log.warn("Redis DTLS session store is configured, but Redis is not available. Sessions will be stored in memory only!");
+            } else if (StringUtils.isEmpty(sessionResumptionRedisEncryptionKey)) {
+                log.warn("Redis DTLS session store is configured without the encryption key. Sessions will be stored in memory only!");
+            } else {
+                return new TbCoapDtlsRedisSessionStore(redisConfiguration.redisConnectionFactory(), sessionResumptionSessionTtl, sessionResumptionRedisEncryptionKey);
+            }
+        }
+        return null;
+    }
+
     private InetSocketAddress getInetSocketAddress() throws UnknownHostException {
         InetAddress addr = InetAddress.getByName(host);
         return new InetSocketAddress(addr, port);
@@ -0,0 +1,128 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.coapserver;
+
+import org.eclipse.californium.elements.auth.X509CertPath;
+import org.eclipse.californium.scandium.dtls.HandshakeException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.thingsboard.server.common.data.DeviceProfile;
+import org.thingsboard.server.common.transport.TransportService;
+import org.thingsboard.server.common.transport.TransportServiceCallback;
+import org.thingsboard.server.common.transport.auth.TransportDeviceInfo;
+import org.thingsboard.server.common.transport.auth.ValidateDeviceCredentialsResponse;
+import org.thingsboard.server.common.transport.util.SslUtil;
+import org.thingsboard.server.gen.transport.TransportProtos;
+import org.thingsboard.server.queue.discovery.TbServiceInfoProvider;
+
+import java.net.InetSocketAddress;
+import java.security.cert.CertPath;
+import java.security.cert.CertificateExpiredException;
+import java.security.cert.X509Certificate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TbCoapDtlsCertificateVerifierTest {
+
+    private final InetSocketAddress remotePeer = new InetSocketAddress("127.0.0.1", 5684);
+
+    private TransportService transportService;
+    private TbCoapDtlsCertificateVerifier verifier;
+    private X509Certificate deviceCert;
+    private X509Certificate caCert;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        transportService = mock(TransportService.class);
+        verifier = new TbCoapDtlsCertificateVerifier(transportService, mock(TbServiceInfoProvider.class), 60000, 30000, false);
+        deviceCert = mockCertificate(new byte[]{1, 2, 3});
+        caCert = mockCertificate(new byte[]{4, 5, 6});
+    }
+
+    @Test
+    void testResumedSessionInfoIsRestoredAsynchronously() throws Exception {
+        verifier.onSessionResumed(remotePeer, toPeerIdentity(deviceCert, caCert));
+
+        ArgumentCaptor<TransportServiceCallback<ValidateDeviceCredentialsResponse>> callback = ArgumentCaptor.forClass(TransportServiceCallback.class);
+        verify(transportService).process(any(), any(TransportProtos.ValidateDeviceX509CertRequestMsg.class), callback.capture());
+        assertThat(verifier.getTbCoapDtlsSessionsMap()).isEmpty();
+
+        callback.getValue().onSuccess(ValidateDeviceCredentialsResponse.builder()
+                .deviceInfo(new TransportDeviceInfo())
+                .deviceProfile(new DeviceProfile())
+                .credentials(SslUtil.getCertificateString(deviceCert))
+                .build());
+        assertThat(verifier.getTbCoapDtlsSessionsMap()).containsKey(remotePeer);
+    }
+
+    @Test
+    void testResumedSessionInfoIsRestoredFromChain() throws Exception {
+        verifier.onSessionResumed(remotePeer, toPeerIdentity(deviceCert, caCert));
+
+        ArgumentCaptor<TransportServiceCallback<ValidateDeviceCredentialsResponse>> callback = ArgumentCaptor.forClass(TransportServiceCallback.class);
+        verify(transportService).process(any(), any(TransportProtos.ValidateDeviceX509CertRequestMsg.class), callback.capture());
+        callback.getValue().onSuccess(ValidateDeviceCredentialsResponse.builder().build());
+
+        verify(transportService, times(2)).process(any(), any(TransportProtos.ValidateDeviceX509CertRequestMsg.class), callback.capture());
+        callback.getValue().onSuccess(ValidateDeviceCredentialsResponse.builder()
+                .deviceInfo(new TransportDeviceInfo())
+                .deviceProfile(new DeviceProfile())
+                .credentials(SslUtil.getCertificateString(caCert))
+                .build());
+        assertThat(verifier.getTbCoapDtlsSessionsMap()).containsKey(remotePeer);
+    }
+
+    @Test
+    void testResumedSessionWithExpiredCertificateFailsFast() throws Exception {
+        willThrow(new CertificateExpiredException()).given(deviceCert).checkValidity();
+
+        assertThatThrownBy(() -> verifier.onSessionResumed(remotePeer, toPeerIdentity(deviceCert)))
+                .isInstanceOf(HandshakeException.class);
+        verify(transportService, never()).process(any(), any(TransportProtos.ValidateDeviceX509CertRequestMsg.class), any());
+    }
+
+    @Test
+    void testKnownPeerIsNotRevalidated() throws Exception {
+        verifier.getTbCoapDtlsSessionsMap().put(remotePeer, mock(TbCoapDtlsSessionInfo.class));
+
+        verifier.onSessionResumed(remotePeer, toPeerIdentity(deviceCert));
+        verify(transportService, never()).process(any(), any(TransportProtos.ValidateDeviceX509CertRequestMsg.class), any());
+    }
+
+    private static X509Certificate mockCertificate(byte[] encoded) throws Exception {
+        X509Certificate cert = mock(X509Certificate.class);
+        willReturn(encoded).given(cert).getEncoded();
+        return cert;
+    }
+
+    private static X509CertPath toPeerIdentity(X509Certificate... chain) {
+        CertPath certPath = mock(CertPath.class);
+        willReturn("X.509").given(certPath).getType();
+        willReturn(List.of(chain)).given(certPath).getCertificates();
+        return new X509CertPath(certPath);
+    }
+
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.coapserver;
+
+import org.eclipse.californium.scandium.dtls.CompressionMethod;
+import org.eclipse.californium.scandium.dtls.DTLSSession;
+import org.eclipse.californium.scandium.dtls.ProtocolVersion;
+import org.eclipse.californium.scandium.dtls.SessionId;
+import org.eclipse.californium.scandium.dtls.SessionStore;
+import org.eclipse.californium.scandium.dtls.cipher.CipherSuite;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.crypto.spec.SecretKeySpec;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class TbCoapDtlsSessionStoreTest {
+
+    private static final byte[] MASTER_SECRET = new byte[48];
+
+    @Test
+    void testPutGetRemove() {
+        SessionStore sharedStore = mock(SessionStore.class);
+        TbCoapDtlsSessionStore store = new TbCoapDtlsSessionStore(10, 60, sharedStore);
+        DTLSSession session = createSession();
+        SessionId sessionId = session.getSessionIdentifier();
+
+        store.put(session);
+        verify(sharedStore).put(session);
+        assertThat(store.get(sessionId)).isEqualTo(session);
+        verify(sharedStore, never()).get(any());
+
+        store.remove(sessionId);
+        verify(sharedStore).remove(sessionId);
+        assertThat(store.get(sessionId)).isNull();
+    }
+
+    @Test
+    void testReadThroughSharedStore() {
+        SessionStore sharedStore = mock(SessionStore.class);
+        TbCoapDtlsSessionStore store = new TbCoapDtlsSessionStore(10, 60, sharedStore);
+        DTLSSession session = createSession();
+        SessionId sessionId = session.getSessionIdentifier();
+        willReturn(session).given(sharedStore).get(sessionId);
+
+        assertThat(store.get(sessionId)).isEqualTo(session);
+        assertThat(store.get(sessionId)).isEqualTo(session);
+        verify(sharedStore).get(sessionId);
+    }
+
+    @Test
+    void testSessionExpiration() {
+        TbCoapDtlsSessionStore store = new TbCoapDtlsSessionStore(10, 1, null);
+        DTLSSession session = createSession();
+        SessionId sessionId = session.getSessionIdentifier();
+
+        store.put(session);
+        assertThat(store.get(sessionId)).isNotNull();
+        await().atMost(5, TimeUnit.SECONDS).until(() -> store.get(sessionId) == null);
+    }
+
+    @Test
+    void testRedisSessionIsEncrypted() {
+        RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+        RedisConnection connection = mock(RedisConnection.class);
+        RedisStringCommands stringCommands = mock(RedisStringCommands.class);
+        willReturn(connection).given(connectionFactory).getConnection();
+        willReturn(stringCommands).given(connection).stringCommands();
+
+        DTLSSession session = createSession();
+        new TbCoapDtlsRedisSessionStore(connectionFactory, 60, "secret").put(session);
+
+        ArgumentCaptor<byte[]> data = ArgumentCaptor.forClass(byte[].class);
+        verify(stringCommands).setEx(any(), eq(60L), data.capture());
+        assertThat(indexOf(data.getValue(), session.getSessionIdentifier().getBytes())).isEqualTo(-1);
+
+        willReturn(data.getValue()).given(stringCommands).get(any());
+        assertThat(new TbCoapDtlsRedisSessionStore(connectionFactory, 60, "secret").get(session.getSessionIdentifier())).isEqualTo(session);
+        assertThat(new TbCoapDtlsRedisSessionStore(connectionFactory, 60, "another secret").get(session.getSessionIdentifier())).isNull();
+    }
+
+    private static DTLSSession createSession() {
+        DTLSSession session = new DTLSSession();
+        ReflectionTestUtils.invokeMethod(session, "setSessionIdentifier", new SessionId());
+        ReflectionTestUtils.invokeMethod(session, "setProtocolVersion", ProtocolVersion.VERSION_DTLS_1_2);
+        ReflectionTestUtils.invokeMethod(session, "setCipherSuite", CipherSuite.TLS_PSK_WITH_AES_128_CCM_8);
+        ReflectionTestUtils.invokeMethod(session, "setCompressionMethod", CompressionMethod.NULL);
+        ReflectionTestUtils.invokeMethod(session, "setMasterSecret", new SecretKeySpec(MASTER_SECRET, "MAC"));
+        return session;
+    }
+
+    private static int indexOf(byte[] data, byte[] part) {
+        for (int i = 0; i + part.length <= data.length; i++) {
+            boolean found = true;
+            for (int j = 0; j < part.length; j++) {
+                if (data[i + j] != part[j]) {
+                    found = false;
+                    break;
+                }
+            }
+            if (found) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+}
@@ -89,18 +89,29 @@ public class TbResultSet implements AsyncResultSet {
     }
 
     public ListenableFuture<List<Row>> allRows(Executor executor) {
-        List<Row> allRows = new ArrayList<>();
-        SettableFuture<List<Row>> resultFuture = SettableFuture.create();
-        this.processRows(originalStatement, delegate, allRows, resultFuture, executor);
+        return allRows(executor, Function.identity());
+    }
+
+    /**
+     * Fetches all pages and converts the rows of each page as soon as it arrives,
+     * so the rows of only one page are kept in memory at once.
+     */
+    public <T> ListenableFuture<List<T>> allRows(Executor executor, Function<Row, T> mapper) {
+        List<T> allRows = new ArrayList<>();
+        SettableFuture<List<T>> resultFuture = SettableFuture.create();
+        this.processRows(originalStatement, delegate, allRows, mapper, resultFuture, executor);
         return resultFuture;
     }
 
-    private void processRows(Statement statement,
-                             AsyncResultSet resultSet,
-                             List<Row> allRows,
-                             SettableFuture<List<Row>> resultFuture,
-                             Executor executor) {
-        allRows.addAll(loadRows(resultSet));
+    private <T> void processRows(Statement statement,
+                                 AsyncResultSet resultSet,
+                                 List<T> allRows,
+                                 Function<Row, T> mapper,
+                                 SettableFuture<List<T>> resultFuture,
+                                 Executor executor) {
+        for (Row row : loadRows(resultSet)) {
+            allRows.add(mapper.apply(row));
+        }
         if (resultSet.hasMorePages()) {
             ByteBuffer nextPagingState = resultSet.getExecutionInfo().getPagingState();
             Statement<?> nextStatement = statement.setPagingState(nextPagingState);
@@ -110,7 +121,7 @@ public class TbResultSet implements AsyncResultSet {
                         @Override
                         public void onSuccess(@Nullable TbResultSet result) {
                             processRows(nextStatement, result,
-                                    allRows, resultFuture, executor);
+                                    allRows, mapper, resultFuture, executor);
                         }
 
                         @Override
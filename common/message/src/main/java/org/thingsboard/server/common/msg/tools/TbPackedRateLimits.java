@@ -0,0 +1,202 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.msg.tools;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * Lock-free token bucket for the multi-window rate limits configuration (e.g. "100:1,2000:60").
+ * The state of each window (available tokens and the last refill time) is packed into a single long and updated with CAS,
+ * so the consumption does not allocate and does not lock. Tokens of the multiple windows are consumed one by one,
+ * and the already consumed tokens are returned when one of the windows has not enough tokens.
+ * <p>
+ * Window capacity is limited to {@link #MAX_CAPACITY} tokens, the window period is limited to {@link #MAX_PERIOD_MS}
+ * and the refill calculation must fit into a long, use {@link #isSupported(String)} to check the configuration.
+ */
+public class TbPackedRateLimits {
+
+    static final long MAX_CAPACITY = 0xFFFFFFFFL;
+    static final long MAX_PERIOD_MS = 1L << 30;
+    private static final long TIME_MASK = 0xFFFFFFFFL;
+    private static final long IDLE_THRESHOLD_MS = 1L << 31;
+    private static final long LAST_ACCESS_UPDATE_INTERVAL_MS = 1000;
+
+    private final long[] capacities;
+    private final long[] periodsMs;
+    private final boolean refillIntervally;
+    private final LongSupplier nanoClock;
+    private final long startNanos;
+    /**
+     * Available tokens in the high 32 bits and the last refill time (in ms since {@link #startNanos}) in the low 32 bits.
+     * The packed time wraps around every 2^32 ms (~49.7 days), so the elapsed time is calculated modulo 2^32.
+     * It is unambiguous only while the limits are used at least every {@link #IDLE_THRESHOLD_MS},
+     * after the longer idle time all the windows are refilled, see {@link #lastAccessMs}.
+     */
+    private final AtomicLongArray states;
+    /**
+     * Not wrapping time of the last consumption, updated at most once per {@link #LAST_ACCESS_UPDATE_INTERVAL_MS}.
+     */
+    private volatile long lastAccessMs;
+
+    public TbPackedRateLimits(String limitsConfiguration, boolean refillIntervally) {
+        this(limitsConfiguration, refillIntervally, System::nanoTime);
+    }
+
+    TbPackedRateLimits(String limitsConfiguration, boolean refillIntervally, LongSupplier nanoClock) {
+        String[] limits = limitsConfiguration.split(",");
+        this.capacities = new long[limits.length];
+        this.periodsMs = new long[limits.length];
+        for (int i = 0; i < limits.length; i++) {
+            String[] limit = limits[i].split(":");
+            capacities[i] = Long.parseLong(limit[0].trim());
+            periodsMs[i] = TimeUnit.SECONDS.toMillis(Long.parseLong(limit[1].trim()));
+            if (capacities[i] <= 0 || capacities[i] > MAX_CAPACITY || periodsMs[i] <= 0 || periodsMs[i] > MAX_PERIOD_MS
+                    || capacities[i] > Long.MAX_VALUE / periodsMs[i]) {
+                throw new IllegalArgumentException("Failed to parse rate limits configuration: " + limitsConfiguration);
+            }
+        }
+        this.refillIntervally = refillIntervally;
+        this.nanoClock = nanoClock;
+        this.startNanos = nanoClock.getAsLong();
+        this.states = new AtomicLongArray(limits.length);
+        for (int i = 0; i < limits.length; i++) {
+            states.set(i, pack(capacities[i], 0));
+        }
+    }
+
+    public static boolean isSupported(String limitsConfiguration) {
+        try {
+            new TbPackedRateLimits(limitsConfiguration, false);
+            return true;
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    public boolean tryConsume() {
+        return tryConsume(1);
+    }
+
+    public boolean tryConsume(long number) {
+        if (number <= 0) {
+            return true;
+        }
+        boolean consumed = true;
+        for (int i = 0; i < capacities.length; i++) {
+            if (!tryConsume(i, number)) {
+                for (int j = 0; j < i; j++) {
+                    refund(j, number);
+                }
+                consumed = false;
+                break;
+            }
+        }
+        // updated after the windows, so the idle time is detected by the first consumption after the idle period
+        long now = currentTimeMs();
+        if (now - lastAccessMs >= LAST_ACCESS_UPDATE_INTERVAL_MS) {
+            lastAccessMs = now;
+        }
+        return consumed;
+    }
+
+    private boolean tryConsume(int window, long number) {
+        if (number > capacities[window]) {
+            return false;
+        }
+        while (true) {
+            long state = states.get(window);
+            // the time is read after the state, so it is never before the last refill time stored by other threads
+            long now = currentTimeMs();
+            long refilled;
+            if (now - lastAccessMs >= IDLE_THRESHOLD_MS) {
+                // the elapsed time is longer than any window period, but it can't be calculated from the wrapped packed time
+                refilled = pack(capacities[window], now & TIME_MASK);
+            } else {
+                refilled = refill(window, state, now & TIME_MASK);
+            }
+            long tokens = tokens(refilled);
+            if (tokens < number) {
+                if (refilled != state) {
+                    states.compareAndSet(window, state, refilled);
+                }
+                return false;
+            }
+            if (states.compareAndSet(window, state, pack(tokens - number, time(refilled)))) {
+                return true;
+            }
+        }
+    }
+
+    private void refund(int window, long number) {
+        while (true) {
+            long state = states.get(window);
+            long tokens = Math.min(capacities[window], tokens(state) + number);
+            if (states.compareAndSet(window, state, pack(tokens, time(state)))) {
+                return;
+            }
+        }
+    }
+
+    private long refill(int window, long state, long now) {
+        long capacity = capacities[window];
+        long tokens = tokens(state);
+        long lastRefill = time(state);
+        long elapsed = (now - lastRefill) & TIME_MASK;
+        if (tokens >= capacity) {
+            return elapsed == 0 ? state : pack(capacity, now);
+        }
+        long periodMs = periodsMs[window];
+        if (elapsed >= periodMs && !refillIntervally) {
+            return pack(capacity, now);
+        }
+        if (refillIntervally) {
+            long periods = elapsed / periodMs;
+            if (periods == 0) {
+                return state;
+            }
+            return pack(capacity, (lastRefill + periods * periodMs) & TIME_MASK);
+        }
+        long added = elapsed * capacity / periodMs;
+        if (added == 0) {
+            return state;
+        }
+        tokens += added;
+        if (tokens >= capacity) {
+            return pack(capacity, now);
+        }
+        // advance the refill time only by the time spent on the added tokens, so the remainder is not lost
+        return pack(tokens, (lastRefill + added * periodMs / capacity) & TIME_MASK);
+    }
+
+    private long currentTimeMs() {
+        return TimeUnit.NANOSECONDS.toMillis(nanoClock.getAsLong() - startNanos);
+    }
+
+    private static long pack(long tokens, long time) {
+        return (tokens << 32) | time;
+    }
+
+    private static long tokens(long state) {
+        return state >>> 32;
+    }
+
+    private static long time(long state) {
+        return state & TIME_MASK;
+    }
+
+}
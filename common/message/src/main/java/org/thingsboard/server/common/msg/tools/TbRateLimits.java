@@ -29,6 +29,7 @@ import java.time.Duration;
  */
 public class TbRateLimits {
     private final LocalBucket bucket;
+    private final TbPackedRateLimits packedLimits;
 
     @Getter
     private final String configuration;
@@ -38,6 +39,24 @@ public class TbRateLimits {
     }
 
     public TbRateLimits(String limitsConfiguration, boolean refillIntervally) {
+        this(limitsConfiguration, refillIntervally, false);
+    }
+
+    /**
+     * @param packed use the lock-free {@link TbPackedRateLimits} instead of the Bucket4j bucket when the configuration is supported
+     */
+    public TbRateLimits(String limitsConfiguration, boolean refillIntervally, boolean packed) {
+        if (packed && TbPackedRateLimits.isSupported(limitsConfiguration)) {
+            bucket = null;
+            packedLimits = new TbPackedRateLimits(limitsConfiguration, refillIntervally);
+        } else {
+            bucket = buildBucket(limitsConfiguration, refillIntervally);
+            packedLimits = null;
+        }
+        this.configuration = limitsConfiguration;
+    }
+
+    private static LocalBucket buildBucket(String limitsConfiguration, boolean refillIntervally) {
         LocalBucketBuilder builder = Bucket.builder();
         boolean initialized = false;
         for (String limitSrc : limitsConfiguration.split(",")) {
@@ -48,19 +67,18 @@ public class TbRateLimits {
             initialized = true;
         }
         if (initialized) {
-            bucket = builder.build();
+            return builder.build();
         } else {
             throw new IllegalArgumentException("Failed to parse rate limits configuration: " + limitsConfiguration);
         }
-        this.configuration = limitsConfiguration;
     }
 
     public boolean tryConsume() {
-        return bucket.tryConsume(1);
+        return tryConsume(1);
     }
 
     public boolean tryConsume(long number) {
-        return bucket.tryConsume(number);
+        return packedLimits != null ? packedLimits.tryConsume(number) : bucket.tryConsume(number);
     }
 
 }
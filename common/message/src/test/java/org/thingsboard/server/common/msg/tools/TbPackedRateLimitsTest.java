@@ -0,0 +1,189 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.msg.tools;
+
+import org.awaitility.pollinterval.FixedPollInterval;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class TbPackedRateLimitsTest {
+
+    private static final long CLOCK_WRAP_MS = 1L << 32;
+
+    @Test
+    public void testConsumeMultipleTokens() {
+        TbPackedRateLimits rateLimits = new TbPackedRateLimits("100:60", false);
+
+        assertThat(rateLimits.tryConsume(60)).isTrue();
+        assertThat(rateLimits.tryConsume(60)).isFalse();
+        assertThat(rateLimits.tryConsume(40)).isTrue();
+        assertThat(rateLimits.tryConsume()).isFalse();
+        assertThat(rateLimits.tryConsume(0)).isTrue();
+    }
+
+    @Test
+    public void testMultipleWindows() {
+        TbPackedRateLimits rateLimits = new TbPackedRateLimits("10:1,15:60", false);
+
+        assertThat(rateLimits.tryConsume(10)).isTrue();
+        assertThat(rateLimits.tryConsume()).isFalse();
+
+        await().pollInterval(new FixedPollInterval(10, TimeUnit.MILLISECONDS))
+                .atMost(2, TimeUnit.SECONDS)
+                .until(() -> rateLimits.tryConsume(5));
+        // the second window is exhausted and the tokens of the first window are returned
+        assertThat(rateLimits.tryConsume()).isFalse();
+    }
+
+    @Test
+    public void testTokensAreReturnedWhenOtherWindowIsExhausted() {
+        TbPackedRateLimits rateLimits = new TbPackedRateLimits("100:60,10:60", false);
+
+        assertThat(rateLimits.tryConsume(20)).isFalse();
+        assertThat(rateLimits.tryConsume(10)).isTrue();
+        assertThat(rateLimits.tryConsume()).isFalse();
+    }
+
+    @Test
+    public void testIntervalRefill() {
+        TbPackedRateLimits rateLimits = new TbPackedRateLimits("3:1", true);
+
+        assertThat(rateLimits.tryConsume(3)).isTrue();
+        assertThat(rateLimits.tryConsume()).isFalse();
+
+        await().pollInterval(new FixedPollInterval(10, TimeUnit.MILLISECONDS))
+                .atLeast(500, TimeUnit.MILLISECONDS)
+                .atMost(1500, TimeUnit.MILLISECONDS)
+                .until(() -> rateLimits.tryConsume(3));
+    }
+
+    @Test
+    public void testRefillAcrossClockWrap() {
+        AtomicLong nanos = new AtomicLong(123);
+        TbPackedRateLimits rateLimits = new TbPackedRateLimits("10:1", false, nanos::get);
+
+        // keep the limits in use until 500 ms before the packed 32-bit ms time wraps
+        for (long ms = 0; ms < CLOCK_WRAP_MS - 500; ms += TimeUnit.HOURS.toMillis(1)) {
+            nanos.set(123 + TimeUnit.MILLISECONDS.toNanos(ms));
+            assertThat(rateLimits.tryConsume()).isTrue();
+        }
+        nanos.set(123 + TimeUnit.MILLISECONDS.toNanos(CLOCK_WRAP_MS - 500));
+        assertThat(rateLimits.tryConsume(10)).isTrue();
+        assertThat(rateLimits.tryConsume()).isFalse();
+
+        advance(nanos, 500);
+        assertThat(rateLimits.tryConsume(5)).isTrue();
+        assertThat(rateLimits.tryConsume()).isFalse();
+
+        advance(nanos, 500);
+        assertThat(rateLimits.tryConsume(5)).isTrue();
+        assertThat(rateLimits.tryConsume()).isFalse();
+    }
+
+    @Test
+    public void testIntervalRefillAcrossClockWrap() {
+        AtomicLong nanos = new AtomicLong();
+        TbPackedRateLimits rateLimits = new TbPackedRateLimits("3:1", true, nanos::get);
+
+        for (long ms = 0; ms < CLOCK_WRAP_MS - 200; ms += TimeUnit.HOURS.toMillis(1)) {
+            nanos.set(TimeUnit.MILLISECONDS.toNanos(ms));
+            assertThat(rateLimits.tryConsume()).isTrue();
+        }
+        // the intervals start at 0, so the last one starts at 2^32 - 296 ms and the next one starts after the wrap
+        nanos.set(TimeUnit.MILLISECONDS.toNanos(CLOCK_WRAP_MS - 200));
+        assertThat(rateLimits.tryConsume(3)).isTrue();
+
+        advance(nanos, 600);
+        assertThat(rateLimits.tryConsume()).isFalse();
+        advance(nanos, 400);
+        assertThat(rateLimits.tryConsume(3)).isTrue();
+        assertThat(rateLimits.tryConsume()).isFalse();
+    }
+
+    @Test
+    public void testRefillAfterIdlePeriodLongerThanClockWrap() {
+        AtomicLong nanos = new AtomicLong();
+        TbPackedRateLimits rateLimits = new TbPackedRateLimits("10:60", false, nanos::get);
+
+        assertThat(rateLimits.tryConsume(10)).isTrue();
+        assertThat(rateLimits.tryConsume()).isFalse();
+
+        // the wrapped elapsed time is 1 ms, that would refill nothing
+        advance(nanos, CLOCK_WRAP_MS + 1);
+        assertThat(rateLimits.tryConsume(10)).isTrue();
+        assertThat(rateLimits.tryConsume()).isFalse();
+    }
+
+    @Test
+    public void testUnsupportedConfiguration() {
+        assertThat(TbPackedRateLimits.isSupported("100:1,2000:60")).isTrue();
+        assertThat(TbPackedRateLimits.isSupported("10000000000:60")).isFalse();
+        assertThat(TbPackedRateLimits.isSupported("100:" + TimeUnit.MILLISECONDS.toSeconds(TbPackedRateLimits.MAX_PERIOD_MS))).isTrue();
+        assertThat(TbPackedRateLimits.isSupported("100:" + (TimeUnit.MILLISECONDS.toSeconds(TbPackedRateLimits.MAX_PERIOD_MS) + 1))).isFalse();
+        assertThat(TbPackedRateLimits.isSupported("")).isFalse();
+
+        TbRateLimits rateLimits = new TbRateLimits("10000000000:60", false, true);
+        assertThat(rateLimits.tryConsume(10000000000L)).isTrue();
+        assertThat(rateLimits.tryConsume()).isFalse();
+    }
+
+    @Test
+    public void testConcurrentConsumption() throws Exception {
+        int threads = 32;
+        TbPackedRateLimits rateLimits = new TbPackedRateLimits("100000:3600", false);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch startLatch = new CountDownLatch(1);
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    startLatch.await();
+                    int consumed = 0;
+                    for (int j = 0; j < 10000; j++) {
+                        if (rateLimits.tryConsume(2)) {
+                            consumed += 2;
+                        }
+                    }
+                    return consumed;
+                }));
+            }
+            startLatch.countDown();
+            int total = 0;
+            for (Future<Integer> future : futures) {
+                total += future.get(30, TimeUnit.SECONDS);
+            }
+            assertThat(total).isBetween(100000, 100100);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static void advance(AtomicLong nanos, long ms) {
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+}
@@ -159,6 +159,16 @@ public abstract class AbstractTbQueueConsumerTemplate<R, T extends TbQueueMsg> i
         }
     }
 
+    @Override
+    public void commit(long pollSeq) {
+        consumerLock.lock();
+        try {
+            doCommit(pollSeq);
+        } finally {
+            consumerLock.unlock();
+        }
+    }
+
     @Override
     public void stop() {
         stopped = true;
@@ -191,6 +201,10 @@ public abstract class AbstractTbQueueConsumerTemplate<R, T extends TbQueueMsg> i
 
     abstract protected void doCommit();
 
+    protected void doCommit(long pollSeq) {
+        doCommit();
+    }
+
     abstract protected void doUnsubscribe();
 
     @Override
@@ -15,6 +15,8 @@
  */
 package org.thingsboard.server.queue.discovery;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.hash.HashFunction;
 import com.google.common.hash.Hashing;
 import jakarta.annotation.PostConstruct;
@@ -57,6 +59,9 @@ import static org.thingsboard.server.common.data.DataConstants.MAIN_QUEUE_NAME;
 @Slf4j
 public class HashPartitionService implements PartitionService {
 
+    private static final long MURMUR3_C1 = 0x87c37b91114253d5L;
+    private static final long MURMUR3_C2 = 0x4cf5ad432745937fL;
+
     @Value("${queue.core.topic}")
     private String coreTopic;
     @Value("${queue.core.partitions:100}")
@@ -67,6 +72,8 @@ public class HashPartitionService implements PartitionService {
     private Integer vcPartitions;
     @Value("${queue.partitions.hash_function_name:murmur3_128}")
     private String hashFunctionName;
+    @Value("${queue.partitions.hash_cache_size:0}")
+    private int hashCacheSize;
 
     private final ApplicationEventPublisher applicationEventPublisher;
     private final TbServiceInfoProvider serviceInfoProvider;
@@ -79,6 +86,10 @@ public class HashPartitionService implements PartitionService {
     private final ConcurrentMap<QueueKey, String> partitionTopicsMap = new ConcurrentHashMap<>();
     private final ConcurrentMap<QueueKey, Integer> partitionSizesMap = new ConcurrentHashMap<>();
     private final ConcurrentMap<QueueKey, QueueConfig> queueConfigs = new ConcurrentHashMap<>();
+    /**
+     * Topic partition infos of the queue by partition index, built on the first resolve and cleared on any change of the queues or partitions.
+     * */
+    private final ConcurrentMap<QueueKey, TopicPartitionInfo[]> topicPartitionInfos = new ConcurrentHashMap<>();
 
     private final ConcurrentMap<TenantId, TenantRoutingInfo> tenantRoutingInfoMap = new ConcurrentHashMap<>();
 
@@ -87,6 +98,8 @@ public class HashPartitionService implements PartitionService {
     private volatile Map<TenantProfileId, List<ServiceInfo>> responsibleServices = Collections.emptyMap();
 
     private HashFunction hashFunction;
+    private boolean murmur3_128;
+    private Cache<UUID, Integer> hashCache;
 
     public HashPartitionService(TbServiceInfoProvider serviceInfoProvider,
                                 TenantRoutingInfoService tenantRoutingInfoService,
@@ -103,6 +116,10 @@ public class HashPartitionService implements PartitionService {
     @PostConstruct
     public void init() {
         this.hashFunction = forName(hashFunctionName);
+        this.murmur3_128 = "murmur3_128".equals(hashFunctionName);
+        if (hashCacheSize > 0) {
+            this.hashCache = CacheBuilder.newBuilder().maximumSize(hashCacheSize).build();
+        }
         QueueKey coreKey = new QueueKey(ServiceType.TB_CORE);
         partitionSizesMap.put(coreKey, corePartitions);
         partitionTopicsMap.put(coreKey, coreTopic);
@@ -136,6 +153,7 @@ public class HashPartitionService implements PartitionService {
             partitionSizesMap.put(queueKey, queue.getPartitions());
             queueConfigs.put(queueKey, new QueueConfig(queue));
         });
+        topicPartitionInfos.clear();
     }
 
     private List<QueueRoutingInfo> getQueueRoutingInfos() {
@@ -187,6 +205,7 @@ public class HashPartitionService implements PartitionService {
                 tenantRoutingInfoMap.remove(tenantId);
             }
         }
+        topicPartitionInfos.clear();
     }
 
     @Override
@@ -221,6 +240,7 @@ public class HashPartitionService implements PartitionService {
         partitionTopicsMap.remove(queueKey);
         partitionSizesMap.remove(queueKey);
         queueConfigs.remove(queueKey);
+        topicPartitionInfos.remove(queueKey);
     }
 
     @Override
@@ -306,15 +326,31 @@ public class HashPartitionService implements PartitionService {
     }
 
     private TopicPartitionInfo resolve(QueueKey queueKey, EntityId entityId) {
-        Integer partitionSize = partitionSizesMap.get(queueKey);
-        if (partitionSize == null) {
-            throw new IllegalStateException("Partitions info for queue " + queueKey + " is missing");
-        }
+        TopicPartitionInfo[] tpis = getTopicPartitionInfos(queueKey);
 
         int hash = hash(entityId.getId());
-        int partition = Math.abs(hash % partitionSize);
+        int partition = Math.abs(hash % tpis.length);
+
+        return tpis[partition];
+    }
 
-        return buildTopicPartitionInfo(queueKey, partition);
+    private TopicPartitionInfo[] getTopicPartitionInfos(QueueKey queueKey) {
+        TopicPartitionInfo[] tpis = topicPartitionInfos.get(queueKey);
+        if (tpis == null) {
+            // the state is read inside of the compute, so the concurrent clear on the partitions change can't leave the stale infos
+            tpis = topicPartitionInfos.computeIfAbsent(queueKey, key -> {
+                Integer partitionSize = partitionSizesMap.get(key);
+                if (partitionSize == null) {
+                    throw new IllegalStateException("Partitions info for queue " + key + " is missing");
+                }
+                TopicPartitionInfo[] result = new TopicPartitionInfo[partitionSize];
+                for (int i = 0; i < partitionSize; i++) {
+                    result[i] = buildTopicPartitionInfo(key, i);
+                }
+                return result;
+            });
+        }
+        return tpis;
     }
 
     private QueueKey getQueueKey(ServiceType serviceType, String queueName, TenantId tenantId) {
@@ -381,6 +417,7 @@ public class HashPartitionService implements PartitionService {
 
         final ConcurrentMap<QueueKey, List<Integer>> oldPartitions = myPartitions;
         myPartitions = newPartitions;
+        topicPartitionInfos.clear();
 
         Map<QueueKey, Set<TopicPartitionInfo>> changedPartitionsMap = new HashMap<>();
 
@@ -642,12 +679,70 @@ public class HashPartitionService implements PartitionService {
     }
 
     private int hash(UUID key) {
+        if (hashCache != null) {
+            Integer hash = hashCache.getIfPresent(key);
+            if (hash == null) {
+                hash = doHash(key);
+                hashCache.put(key, hash);
+            }
+            return hash;
+        }
+        return doHash(key);
+    }
+
+    private int doHash(UUID key) {
+        if (murmur3_128) {
+            return murmur3_128AsInt(key.getMostSignificantBits(), key.getLeastSignificantBits());
+        }
         return hashFunction.newHasher()
                 .putLong(key.getMostSignificantBits())
                 .putLong(key.getLeastSignificantBits())
                 .hash().asInt();
     }
 
+    /**
+     * Allocation-free equivalent of {@code Hashing.murmur3_128().newHasher().putLong(msb).putLong(lsb).hash().asInt()}:
+     * x64 128-bit MurmurHash3 (seed 0) of the single 16-byte block, truncated to the first 4 bytes of the hash.
+     * */
+    static int murmur3_128AsInt(long msb, long lsb) {
+        long h1 = 0;
+        long h2 = 0;
+
+        long k1 = msb * MURMUR3_C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= MURMUR3_C2;
+        h1 ^= k1;
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        h1 = h1 * 5 + 0x52dce729;
+
+        long k2 = lsb * MURMUR3_C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= MURMUR3_C1;
+        h2 ^= k2;
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        h2 = h2 * 5 + 0x38495ab5;
+
+        h1 ^= 16;
+        h2 ^= 16;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix64(h1);
+        h2 = fmix64(h2);
+        h1 += h2;
+        return (int) h1;
+    }
+
+    private static long fmix64(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
     public static HashFunction forName(String name) {
         switch (name) {
             case "murmur3_32":
@@ -30,6 +30,10 @@ public class HousekeeperConfig {
     private Set<HousekeeperTaskType> disabledTaskTypes;
     @Value("${queue.core.housekeeper.task-processing-timeout-ms:120000}")
     private int taskProcessingTimeout;
+    @Value("${queue.core.housekeeper.task-processing-threads:1}")
+    private int taskProcessingThreads;
+    @Value("${queue.core.housekeeper.max-coalesced-tasks:100}")
+    private int maxCoalescedTasks;
     @Value("${queue.core.housekeeper.poll-interval-ms:500}")
     private int pollInterval;
     @Value("${queue.core.housekeeper.task-reprocessing-delay-ms:3000}")
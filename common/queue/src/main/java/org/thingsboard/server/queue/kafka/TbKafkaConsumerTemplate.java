@@ -21,6 +21,8 @@ import org.apache.kafka.clients.consumer.ConsumerConfig;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.apache.kafka.clients.consumer.ConsumerRecords;
 import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
 import org.springframework.util.StopWatch;
 import org.thingsboard.server.queue.TbQueueAdmin;
 import org.thingsboard.server.queue.TbQueueMsg;
@@ -30,8 +32,12 @@ import java.io.IOException;
 import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
 import java.util.Properties;
+import java.util.TreeMap;
 
 /**
  * Created by ashvayka on 24.09.18.
@@ -46,6 +52,12 @@ public class TbKafkaConsumerTemplate<T extends TbQueueMsg> extends AbstractTbQue
     private final TbKafkaConsumerStatsService statsService;
     private final String groupId;
 
+    private static final int MAX_TRACKED_POLLS = 1000;
+    // offsets to commit for each poll, tracked only if the partial commit is enabled. Accessed under the consumer lock
+    private final NavigableMap<Long, Map<TopicPartition, OffsetAndMetadata>> pollOffsets = new TreeMap<>();
+    private volatile boolean partialCommitEnabled;
+    private volatile long pollSeq;
+
     @Builder
     private TbKafkaConsumerTemplate(TbKafkaSettings settings, TbKafkaDecoder<T> decoder,
                                     String clientId, String groupId, String topic,
@@ -71,6 +83,7 @@ public class TbKafkaConsumerTemplate<T extends TbQueueMsg> extends AbstractTbQue
 
     @Override
     protected void doSubscribe(List<String> topicNames) {
+        pollOffsets.clear();
         if (!topicNames.isEmpty()) {
             topicNames.forEach(admin::createTopicIfNotExists);
             consumer.subscribe(topicNames);
@@ -97,6 +110,9 @@ public class TbKafkaConsumerTemplate<T extends TbQueueMsg> extends AbstractTbQue
         } else {
             List<ConsumerRecord<String, byte[]>> recordList = new ArrayList<>(256);
             records.forEach(recordList::add);
+            if (partialCommitEnabled) {
+                trackPollOffsets(records);
+            }
             return recordList;
         }
     }
@@ -106,9 +122,53 @@ public class TbKafkaConsumerTemplate<T extends TbQueueMsg> extends AbstractTbQue
         return decoder.decode(new KafkaTbQueueMsg(record));
     }
 
+    private void trackPollOffsets(ConsumerRecords<String, byte[]> records) {
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        for (TopicPartition tp : records.partitions()) {
+            List<ConsumerRecord<String, byte[]>> partitionRecords = records.records(tp);
+            offsets.put(tp, new OffsetAndMetadata(partitionRecords.get(partitionRecords.size() - 1).offset() + 1));
+        }
+        pollSeq++;
+        pollOffsets.put(pollSeq, offsets);
+        if (pollOffsets.size() > MAX_TRACKED_POLLS) {
+            // merge the oldest poll into the next one, so its partitions are still committed
+            Map<TopicPartition, OffsetAndMetadata> oldest = pollOffsets.pollFirstEntry().getValue();
+            Map<TopicPartition, OffsetAndMetadata> next = pollOffsets.firstEntry().getValue();
+            oldest.forEach(next::putIfAbsent);
+        }
+    }
+
     @Override
     protected void doCommit() {
         consumer.commitSync();
+        pollOffsets.clear();
+    }
+
+    @Override
+    protected void doCommit(long pollSeq) {
+        NavigableMap<Long, Map<TopicPartition, OffsetAndMetadata>> committed = pollOffsets.headMap(pollSeq, true);
+        if (committed.isEmpty()) {
+            return;
+        }
+        Map<TopicPartition, OffsetAndMetadata> offsets = new HashMap<>();
+        committed.values().forEach(offsets::putAll);
+        consumer.commitSync(offsets);
+        committed.clear();
+    }
+
+    @Override
+    public boolean isPartialCommitSupported() {
+        return partialCommitEnabled;
+    }
+
+    @Override
+    public void enablePartialCommit() {
+        partialCommitEnabled = true;
+    }
+
+    @Override
+    public long getPollSeq() {
+        return pollSeq;
     }
 
     @Override
@@ -31,6 +31,7 @@ public class InMemoryTbQueueConsumer<T extends TbQueueMsg> implements TbQueueCon
     private volatile Set<TopicPartitionInfo> partitions;
     private volatile boolean stopped;
     private volatile boolean subscribed;
+    private long pollSeq;
 
     public InMemoryTbQueueConsumer(InMemoryStorage storage, String topic) {
         this.storage = storage;
@@ -87,6 +88,7 @@ public class InMemoryTbQueueConsumer<T extends TbQueueMsg> implements TbQueueCon
                     .flatMap(List::stream)
                     .map(msg -> (T) msg).collect(Collectors.toList());
             if (messages.size() > 0) {
+                pollSeq++;
                 return messages;
             }
             try {
@@ -104,6 +106,20 @@ public class InMemoryTbQueueConsumer<T extends TbQueueMsg> implements TbQueueCon
     public void commit() {
     }
 
+    @Override
+    public boolean isPartialCommitSupported() {
+        return true;
+    }
+
+    @Override
+    public long getPollSeq() {
+        return pollSeq;
+    }
+
+    @Override
+    public void commit(long pollSeq) {
+    }
+
     @Override
     public boolean isStopped() {
         return stopped;
@@ -29,6 +29,7 @@ import org.thingsboard.server.common.msg.queue.ServiceType;
 import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
 import org.thingsboard.server.common.stats.TbApiUsageReportClient;
 import org.thingsboard.server.gen.transport.TransportProtos.ToUsageStatsServiceMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.UsageStatsEntityProto;
 import org.thingsboard.server.gen.transport.TransportProtos.UsageStatsKVProto;
 import org.thingsboard.server.queue.TbQueueProducer;
 import org.thingsboard.server.queue.common.TbProtoQueueMsg;
@@ -38,13 +39,18 @@ import org.thingsboard.server.queue.provider.TbQueueProducerProvider;
 import org.thingsboard.server.queue.scheduler.SchedulerComponent;
 
 import jakarta.annotation.PostConstruct;
+import java.util.ArrayList;
 import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 @Component
 @Slf4j
@@ -57,8 +63,11 @@ public class DefaultTbApiUsageReportClient implements TbApiUsageReportClient {
     private boolean enabledPerCustomer;
     @Value("${usage.stats.report.interval:10}")
     private int interval;
+    @Value("${usage.stats.report.pack_size:0}")
+    private int packSize;
 
-    private final EnumMap<ApiUsageRecordKey, ConcurrentMap<ReportLevel, AtomicLong>> stats = new EnumMap<>(ApiUsageRecordKey.class);
+    private final EnumMap<ApiUsageRecordKey, ConcurrentMap<ReportLevel, LongAdder>> counters = new EnumMap<>(ApiUsageRecordKey.class);
+    private final EnumMap<ApiUsageRecordKey, ConcurrentMap<ReportLevel, AtomicLong>> gauges = new EnumMap<>(ApiUsageRecordKey.class);
 
     private final PartitionService partitionService;
     private final TbServiceInfoProvider serviceInfoProvider;
@@ -71,7 +80,11 @@ public class DefaultTbApiUsageReportClient implements TbApiUsageReportClient {
         if (enabled) {
             msgProducer = this.producerProvider.getTbUsageStatsMsgProducer();
             for (ApiUsageRecordKey key : ApiUsageRecordKey.values()) {
-                stats.put(key, new ConcurrentHashMap<>());
+                if (key.isCounter()) {
+                    counters.put(key, new ConcurrentHashMap<>());
+                } else {
+                    gauges.put(key, new ConcurrentHashMap<>());
+                }
             }
             scheduler.scheduleWithFixedDelay(() -> {
                 try {
@@ -83,55 +96,130 @@ public class DefaultTbApiUsageReportClient implements TbApiUsageReportClient {
         }
     }
 
-    private void reportStats() {
-        ConcurrentMap<ParentEntity, ToUsageStatsServiceMsg.Builder> report = new ConcurrentHashMap<>();
+    void reportStats() {
+        Map<ParentEntity, List<UsageStatsKVProto>> report = new HashMap<>();
 
         for (ApiUsageRecordKey key : ApiUsageRecordKey.values()) {
-            ConcurrentMap<ReportLevel, AtomicLong> statsForKey = stats.get(key);
-            statsForKey.forEach((reportLevel, statsValue) -> {
-                long value = statsValue.get();
-                if (value == 0 && key.isCounter()) return;
-
-                ToUsageStatsServiceMsg.Builder statsMsg = report.computeIfAbsent(reportLevel.getParentEntity(), parent -> {
-                    ToUsageStatsServiceMsg.Builder newStatsMsg = ToUsageStatsServiceMsg.newBuilder();
-
-                    TenantId tenantId = parent.getTenantId();
-                    newStatsMsg.setTenantIdMSB(tenantId.getId().getMostSignificantBits());
-                    newStatsMsg.setTenantIdLSB(tenantId.getId().getLeastSignificantBits());
-
-                    CustomerId customerId = parent.getCustomerId();
-                    if (customerId != null) {
-                        newStatsMsg.setCustomerIdMSB(customerId.getId().getMostSignificantBits());
-                        newStatsMsg.setCustomerIdLSB(customerId.getId().getLeastSignificantBits());
+            if (key.isCounter()) {
+                ConcurrentMap<ReportLevel, LongAdder> countersForKey = counters.get(key);
+                countersForKey.forEach((reportLevel, counter) -> {
+                    long value = counter.sumThenReset();
+                    if (value == 0) {
+                        // the counter was not updated during the whole interval. Checked again under the lock of the entry,
+                        // so the counter is not removed together with the concurrent increment
+                        countersForKey.computeIfPresent(reportLevel, (k, v) -> v.sum() == 0 ? null : v);
+                        return;
                     }
-
-                    newStatsMsg.setServiceId(serviceInfoProvider.getServiceId());
-                    return newStatsMsg;
+                    addStatsItem(report, reportLevel, key, value);
                 });
+            } else {
+                ConcurrentMap<ReportLevel, AtomicLong> gaugesForKey = gauges.get(key);
+                for (ReportLevel reportLevel : gaugesForKey.keySet()) {
+                    AtomicLong gauge = gaugesForKey.remove(reportLevel);
+                    if (gauge != null) {
+                        addStatsItem(report, reportLevel, key, gauge.get());
+                    }
+                }
+            }
+        }
+        if (report.isEmpty()) {
+            return;
+        }
 
-                UsageStatsKVProto.Builder statsItem = UsageStatsKVProto.newBuilder()
-                        .setKey(key.name())
-                        .setValue(value);
-                statsMsg.addValues(statsItem.build());
-            });
-            statsForKey.clear();
+        int msgCount;
+        if (packSize > 1) {
+            msgCount = sendPacked(report);
+        } else {
+            msgCount = 0;
+            for (Map.Entry<ParentEntity, List<UsageStatsKVProto>> entry : report.entrySet()) {
+                ParentEntity parent = entry.getKey();
+                TopicPartitionInfo tpi = resolve(parent);
+                if (tpi == null) {
+                    continue;
+                }
+                ToUsageStatsServiceMsg.Builder statsMsg = ToUsageStatsServiceMsg.newBuilder();
+                TenantId tenantId = parent.getTenantId();
+                statsMsg.setTenantIdMSB(tenantId.getId().getMostSignificantBits());
+                statsMsg.setTenantIdLSB(tenantId.getId().getLeastSignificantBits());
+                CustomerId customerId = parent.getCustomerId();
+                if (customerId != null) {
+                    statsMsg.setCustomerIdMSB(customerId.getId().getMostSignificantBits());
+                    statsMsg.setCustomerIdLSB(customerId.getId().getLeastSignificantBits());
+                }
+                statsMsg.setServiceId(serviceInfoProvider.getServiceId());
+                statsMsg.addAllValues(entry.getValue());
+                if (send(tpi, statsMsg)) {
+                    msgCount++;
+                }
+            }
         }
+        log.debug("Reporting API usage statistics for {} tenants and customers with {} messages", report.size(), msgCount);
+    }
+
+    /**
+     * Packs the statistics of the tenants and customers that belong to the same core partition into the messages of up to {@link #packSize} entities.
+     */
+    private int sendPacked(Map<ParentEntity, List<UsageStatsKVProto>> report) {
+        Map<TopicPartitionInfo, ToUsageStatsServiceMsg.Builder> packs = new HashMap<>();
+        int msgCount = 0;
+        for (Map.Entry<ParentEntity, List<UsageStatsKVProto>> entry : report.entrySet()) {
+            ParentEntity parent = entry.getKey();
+            TopicPartitionInfo tpi = resolve(parent);
+            if (tpi == null) {
+                continue;
+            }
+            UsageStatsEntityProto.Builder entityStats = UsageStatsEntityProto.newBuilder();
+            TenantId tenantId = parent.getTenantId();
+            entityStats.setTenantIdMSB(tenantId.getId().getMostSignificantBits());
+            entityStats.setTenantIdLSB(tenantId.getId().getLeastSignificantBits());
+            CustomerId customerId = parent.getCustomerId();
+            if (customerId != null) {
+                entityStats.setCustomerIdMSB(customerId.getId().getMostSignificantBits());
+                entityStats.setCustomerIdLSB(customerId.getId().getLeastSignificantBits());
+            }
+            entityStats.addAllValues(entry.getValue());
 
-        report.forEach(((parent, statsMsg) -> {
-            //TODO: figure out how to minimize messages into the queue. Maybe group by 100s of messages?
-            try {
-                TopicPartitionInfo tpi = partitionService.resolve(ServiceType.TB_CORE, parent.getTenantId(), parent.getId())
-                        .newByTopic(msgProducer.getDefaultTopic());
-                msgProducer.send(tpi, new TbProtoQueueMsg<>(UUID.randomUUID(), statsMsg.build()), null);
-            } catch (TenantNotFoundException e) {
-                log.debug("Couldn't report usage stats for non-existing tenant: {}", e.getTenantId());
-            } catch (Exception e) {
-                log.warn("Failed to report usage stats for tenant {}", parent.getTenantId(), e);
+            ToUsageStatsServiceMsg.Builder pack = packs.computeIfAbsent(tpi, k -> ToUsageStatsServiceMsg.newBuilder().setServiceId(serviceInfoProvider.getServiceId()));
+            pack.addEntityStats(entityStats);
+            if (pack.getEntityStatsCount() >= packSize) {
+                packs.remove(tpi);
+                if (send(tpi, pack)) {
+                    msgCount++;
+                }
+            }
+        }
+        for (Map.Entry<TopicPartitionInfo, ToUsageStatsServiceMsg.Builder> entry : packs.entrySet()) {
+            if (send(entry.getKey(), entry.getValue())) {
+                msgCount++;
             }
-        }));
+        }
+        return msgCount;
+    }
 
-        if (!report.isEmpty()) {
-            log.debug("Reporting API usage statistics for {} tenants and customers", report.size());
+    private void addStatsItem(Map<ParentEntity, List<UsageStatsKVProto>> report, ReportLevel reportLevel, ApiUsageRecordKey key, long value) {
+        report.computeIfAbsent(reportLevel.getParentEntity(), parent -> new ArrayList<>())
+                .add(UsageStatsKVProto.newBuilder().setKey(key.name()).setValue(value).build());
+    }
+
+    private TopicPartitionInfo resolve(ParentEntity parent) {
+        try {
+            return partitionService.resolve(ServiceType.TB_CORE, parent.getTenantId(), parent.getId())
+                    .newByTopic(msgProducer.getDefaultTopic());
+        } catch (TenantNotFoundException e) {
+            log.debug("Couldn't report usage stats for non-existing tenant: {}", e.getTenantId());
+        } catch (Exception e) {
+            log.warn("Failed to report usage stats for tenant {}", parent.getTenantId(), e);
+        }
+        return null;
+    }
+
+    private boolean send(TopicPartitionInfo tpi, ToUsageStatsServiceMsg.Builder statsMsg) {
+        try {
+            msgProducer.send(tpi, new TbProtoQueueMsg<>(UUID.randomUUID(), statsMsg.build()), null);
+            return true;
+        } catch (Exception e) {
+            log.warn("Failed to report usage stats to {}", tpi.getFullTopicName(), e);
+            return false;
         }
     }
 
@@ -156,15 +244,24 @@ public class DefaultTbApiUsageReportClient implements TbApiUsageReportClient {
     }
 
     private void report(ApiUsageRecordKey key, long value, ReportLevel... levels) {
-        ConcurrentMap<ReportLevel, AtomicLong> statsForKey = stats.get(key);
-        for (ReportLevel level : levels) {
-            if (level == null) continue;
-
-            AtomicLong n = statsForKey.computeIfAbsent(level, k -> new AtomicLong());
-            if (key.isCounter()) {
-                n.addAndGet(value);
-            } else {
-                n.set(value);
+        if (key.isCounter()) {
+            ConcurrentMap<ReportLevel, LongAdder> countersForKey = counters.get(key);
+            for (ReportLevel level : levels) {
+                if (level == null) continue;
+                // incremented under the lock of the entry, so the idle counter is not evicted in the middle of the increment
+                countersForKey.compute(level, (k, v) -> {
+                    if (v == null) {
+                        v = new LongAdder();
+                    }
+                    v.add(value);
+                    return v;
+                });
+            }
+        } else {
+            ConcurrentMap<ReportLevel, AtomicLong> gaugesForKey = gauges.get(key);
+            for (ReportLevel level : levels) {
+                if (level == null) continue;
+                gaugesForKey.computeIfAbsent(level, k -> new AtomicLong()).set(value);
             }
         }
     }
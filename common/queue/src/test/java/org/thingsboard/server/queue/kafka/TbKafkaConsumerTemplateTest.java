@@ -0,0 +1,112 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.kafka;
+
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.ConsumerRecords;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.queue.TbQueueMsg;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.BDDMockito.willCallRealMethod;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class TbKafkaConsumerTemplateTest {
+
+    private static final String TOPIC = "tb_rule_engine.main";
+
+    TbKafkaConsumerTemplate<TbQueueMsg> consumerTemplate;
+    KafkaConsumer<String, byte[]> kafkaConsumer;
+
+    @BeforeEach
+    void setUp() {
+        consumerTemplate = mock(TbKafkaConsumerTemplate.class);
+        kafkaConsumer = mock(KafkaConsumer.class);
+        ReflectionTestUtils.setField(consumerTemplate, "consumer", kafkaConsumer);
+        ReflectionTestUtils.setField(consumerTemplate, "pollOffsets", new TreeMap<>());
+        willCallRealMethod().given(consumerTemplate).doPoll(anyLong());
+        willCallRealMethod().given(consumerTemplate).doCommit(anyLong());
+        willCallRealMethod().given(consumerTemplate).enablePartialCommit();
+        willCallRealMethod().given(consumerTemplate).isPartialCommitSupported();
+        willCallRealMethod().given(consumerTemplate).getPollSeq();
+    }
+
+    @Test
+    void givenPartialCommitNotEnabled_whenPoll_thenOffsetsAreNotTracked() {
+        willReturn(records(0, 3, 1, 2)).given(kafkaConsumer).poll(any(Duration.class));
+
+        assertThat(consumerTemplate.doPoll(100)).hasSize(5);
+
+        assertThat(consumerTemplate.isPartialCommitSupported()).isFalse();
+        assertThat(consumerTemplate.getPollSeq()).isZero();
+        assertThat((Map<?, ?>) ReflectionTestUtils.getField(consumerTemplate, "pollOffsets")).isEmpty();
+    }
+
+    @Test
+    void givenPartialCommitEnabled_whenCommitPoll_thenLastOffsetOfEachPartitionIsCommitted() {
+        consumerTemplate.enablePartialCommit();
+        willReturn(records(0, 3, 1, 2), records(0, 1)).given(kafkaConsumer).poll(any(Duration.class));
+
+        assertThat(consumerTemplate.doPoll(100)).hasSize(5);
+        long firstPollSeq = consumerTemplate.getPollSeq();
+        assertThat(consumerTemplate.doPoll(100)).hasSize(1);
+
+        assertThat(consumerTemplate.isPartialCommitSupported()).isTrue();
+        consumerTemplate.doCommit(firstPollSeq);
+        verify(kafkaConsumer).commitSync(Map.of(
+                new TopicPartition(TOPIC, 0), new OffsetAndMetadata(103),
+                new TopicPartition(TOPIC, 1), new OffsetAndMetadata(102)));
+
+        consumerTemplate.doCommit(consumerTemplate.getPollSeq());
+        verify(kafkaConsumer).commitSync(Map.of(new TopicPartition(TOPIC, 0), new OffsetAndMetadata(104)));
+        verify(kafkaConsumer, times(2)).commitSync(anyMap());
+    }
+
+    private final Map<Integer, Long> nextOffsets = new TreeMap<>();
+
+    // pairs of the partition and the records count, offsets of each partition start from 100 and continue between calls
+    private ConsumerRecords<String, byte[]> records(int... partitionsAndCounts) {
+        Map<TopicPartition, List<ConsumerRecord<String, byte[]>>> records = new TreeMap<>((a, b) -> Integer.compare(a.partition(), b.partition()));
+        for (int i = 0; i < partitionsAndCounts.length; i += 2) {
+            int partition = partitionsAndCounts[i];
+            List<ConsumerRecord<String, byte[]>> partitionRecords = new ArrayList<>();
+            for (int j = 0; j < partitionsAndCounts[i + 1]; j++) {
+                long offset = nextOffsets.merge(partition, 1L, Long::sum) + 99;
+                partitionRecords.add(new ConsumerRecord<>(TOPIC, partition, offset, "key", new byte[0]));
+            }
+            records.put(new TopicPartition(TOPIC, partition), partitionRecords);
+        }
+        return new ConsumerRecords<>(records);
+    }
+
+}
@@ -0,0 +1,167 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.queue.usagestats;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.ApiUsageRecordKey;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.msg.queue.ServiceType;
+import org.thingsboard.server.common.msg.queue.TopicPartitionInfo;
+import org.thingsboard.server.gen.transport.TransportProtos.ToUsageStatsServiceMsg;
+import org.thingsboard.server.gen.transport.TransportProtos.UsageStatsEntityProto;
+import org.thingsboard.server.gen.transport.TransportProtos.UsageStatsKVProto;
+import org.thingsboard.server.queue.TbQueueProducer;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+import org.thingsboard.server.queue.discovery.PartitionService;
+import org.thingsboard.server.queue.discovery.TbServiceInfoProvider;
+import org.thingsboard.server.queue.provider.TbQueueProducerProvider;
+import org.thingsboard.server.queue.scheduler.SchedulerComponent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+
+public class DefaultTbApiUsageReportClientTest {
+
+    private static final int PARTITIONS = 4;
+
+    private DefaultTbApiUsageReportClient client;
+    private final List<TbProtoQueueMsg<ToUsageStatsServiceMsg>> sentMsgs = new ArrayList<>();
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        PartitionService partitionService = mock(PartitionService.class);
+        willAnswer(invocation -> {
+            TenantId tenantId = invocation.getArgument(1);
+            return new TopicPartitionInfo("tb_core", null, Math.floorMod(tenantId.hashCode(), PARTITIONS), true);
+        }).given(partitionService).resolve(eq(ServiceType.TB_CORE), any(TenantId.class), any());
+        TbServiceInfoProvider serviceInfoProvider = mock(TbServiceInfoProvider.class);
+        willReturn("tb-core-0").given(serviceInfoProvider).getServiceId();
+        TbQueueProducer<TbProtoQueueMsg<ToUsageStatsServiceMsg>> producer = mock(TbQueueProducer.class);
+        willReturn("tb_usage_stats").given(producer).getDefaultTopic();
+        willAnswer(invocation -> sentMsgs.add(invocation.getArgument(1))).given(producer).send(any(), any(), any());
+        TbQueueProducerProvider producerProvider = mock(TbQueueProducerProvider.class);
+        willReturn(producer).given(producerProvider).getTbUsageStatsMsgProducer();
+
+        client = new DefaultTbApiUsageReportClient(partitionService, serviceInfoProvider, mock(SchedulerComponent.class), producerProvider);
+        ReflectionTestUtils.setField(client, "enabled", true);
+        ReflectionTestUtils.setField(client, "interval", 10);
+        ReflectionTestUtils.invokeMethod(client, "init");
+    }
+
+    @Test
+    public void givenManyTenants_whenPackingDisabled_thenMessagePerTenantIsSent() {
+        List<TenantId> tenants = reportStats(1000);
+        client.reportStats();
+
+        // a message per tenant and a message for the system tenant
+        assertThat(sentMsgs).hasSize(tenants.size() + 1);
+        assertThat(sentMsgs).allSatisfy(msg -> assertThat(msg.getValue().getEntityStatsCount()).isZero());
+        assertThat(sumValues(sentMsgs, TenantId.SYS_TENANT_ID)).isEqualTo(tenants.size() * 3L);
+    }
+
+    @Test
+    public void givenManyTenants_whenPackingEnabled_thenMessagePerPartitionIsSent() {
+        ReflectionTestUtils.setField(client, "packSize", 400);
+        List<TenantId> tenants = reportStats(1000);
+        client.reportStats();
+
+        assertThat(sentMsgs.size()).isLessThanOrEqualTo(PARTITIONS * 2);
+        List<UsageStatsEntityProto> entityStats = sentMsgs.stream()
+                .flatMap(msg -> msg.getValue().getEntityStatsList().stream())
+                .toList();
+        assertThat(entityStats).hasSize(tenants.size() + 1);
+        for (TenantId tenantId : tenants) {
+            assertThat(entityStats.stream()
+                    .filter(stats -> stats.getTenantIdMSB() == tenantId.getId().getMostSignificantBits()
+                            && stats.getTenantIdLSB() == tenantId.getId().getLeastSignificantBits())
+                    .flatMap(stats -> stats.getValuesList().stream())
+                    .mapToLong(UsageStatsKVProto::getValue)
+                    .sum()).isEqualTo(3L);
+        }
+
+        // the counters are reset after the report
+        sentMsgs.clear();
+        client.reportStats();
+        assertThat(sentMsgs).isEmpty();
+    }
+
+    @Test
+    public void givenConcurrentReports_whenIdleCountersAreEvicted_thenNoIncrementIsLost() throws Exception {
+        TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+        int threads = 4;
+        int reportsPerThread = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < reportsPerThread; j++) {
+                        client.report(tenantId, null, ApiUsageRecordKey.TRANSPORT_MSG_COUNT);
+                    }
+                }));
+            }
+            while (!futures.stream().allMatch(Future::isDone)) {
+                client.reportStats();
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        client.reportStats();
+
+        assertThat(sumValues(sentMsgs, tenantId)).isEqualTo((long) threads * reportsPerThread);
+        assertThat(sumValues(sentMsgs, TenantId.SYS_TENANT_ID)).isEqualTo((long) threads * reportsPerThread);
+    }
+
+    private List<TenantId> reportStats(int tenantsCount) {
+        List<TenantId> tenants = new ArrayList<>();
+        for (int i = 0; i < tenantsCount; i++) {
+            TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+            tenants.add(tenantId);
+            client.report(tenantId, null, ApiUsageRecordKey.TRANSPORT_MSG_COUNT);
+            client.report(tenantId, null, ApiUsageRecordKey.TRANSPORT_MSG_COUNT, 2);
+        }
+        return tenants;
+    }
+
+    private long sumValues(List<TbProtoQueueMsg<ToUsageStatsServiceMsg>> msgs, TenantId tenantId) {
+        return msgs.stream()
+                .map(TbProtoQueueMsg::getValue)
+                .filter(msg -> msg.getTenantIdMSB() == tenantId.getId().getMostSignificantBits()
+                        && msg.getTenantIdLSB() == tenantId.getId().getLeastSignificantBits())
+                .flatMap(msg -> msg.getValuesList().stream())
+                .mapToLong(UsageStatsKVProto::getValue)
+                .sum();
+    }
+
+}
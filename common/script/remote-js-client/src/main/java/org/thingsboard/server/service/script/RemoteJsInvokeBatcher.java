@@ -0,0 +1,215 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.service.script;
+
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import lombok.extern.slf4j.Slf4j;
+import org.thingsboard.server.gen.js.JsInvokeProtos;
+import org.thingsboard.server.queue.TbQueueRequestTemplate;
+import org.thingsboard.server.queue.common.TbProtoJsQueueMsg;
+import org.thingsboard.server.queue.common.TbProtoQueueMsg;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Coalesces the invoke requests into a single {@link JsInvokeProtos.JsInvokeBatchRequest} that is sent when the batch is full
+ * or when the max wait time since the first request of the batch has passed.
+ * The responses of the batch are returned in the same order as the requests and complete the future of each request.
+ * The batch is sent with the request key of its first request, so the whole batch goes to the same js-executor partition.
+ * <p>
+ * Each request keeps its own future, so the timeout of a single request does not affect other requests of the batch;
+ * requests that are already completed (e.g. timed out or cancelled) when the batch is sent are not sent at all.
+ * If there is no response for the batch within the batch timeout, its requests are resent one by one,
+ * so a slow script times out on its own request and does not fail the other requests of the batch.
+ */
+@Slf4j
+public class RemoteJsInvokeBatcher {
+
+    private final TbQueueRequestTemplate<TbProtoJsQueueMsg<JsInvokeProtos.RemoteJsRequest>, TbProtoQueueMsg<JsInvokeProtos.RemoteJsResponse>> requestTemplate;
+    private final int maxBatchSize;
+    private final long maxBatchWaitMs;
+    private final long batchTimeoutMs;
+    private final ScheduledExecutorService scheduler;
+
+    private final Lock lock = new ReentrantLock();
+    private List<BatchItem> pendingItems;
+    private long batchSeq;
+
+    private final AtomicInteger sentBatches = new AtomicInteger();
+    private final AtomicInteger sentRequests = new AtomicInteger();
+
+    public RemoteJsInvokeBatcher(TbQueueRequestTemplate<TbProtoJsQueueMsg<JsInvokeProtos.RemoteJsRequest>, TbProtoQueueMsg<JsInvokeProtos.RemoteJsResponse>> requestTemplate,
+                                 int maxBatchSize, long maxBatchWaitMs, long batchTimeoutMs, ScheduledExecutorService scheduler) {
+        this.requestTemplate = requestTemplate;
+        this.maxBatchSize = Math.max(maxBatchSize, 1);
+        this.maxBatchWaitMs = Math.max(maxBatchWaitMs, 0);
+        this.batchTimeoutMs = batchTimeoutMs;
+        this.scheduler = scheduler;
+        this.pendingItems = new ArrayList<>(this.maxBatchSize);
+    }
+
+    public ListenableFuture<JsInvokeProtos.JsInvokeResponse> invoke(UUID requestKey, JsInvokeProtos.JsInvokeRequest request) {
+        BatchItem item = new BatchItem(requestKey, request);
+        List<BatchItem> batch = null;
+        lock.lock();
+        try {
+            pendingItems.add(item);
+            if (pendingItems.size() >= maxBatchSize) {
+                batch = drain();
+            } else if (pendingItems.size() == 1) {
+                long seq = batchSeq;
+                scheduler.schedule(() -> flush(seq), maxBatchWaitMs, TimeUnit.MILLISECONDS);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (batch != null) {
+            send(batch);
+        }
+        return item.future;
+    }
+
+    public void stop() {
+        List<BatchItem> batch;
+        lock.lock();
+        try {
+            batch = drain();
+        } finally {
+            lock.unlock();
+        }
+        RuntimeException e = new RuntimeException("Remote JS invoke service is stopped");
+        batch.forEach(item -> item.future.setException(e));
+    }
+
+    /**
+     * @return number of the batches and of the requests sent since the last call, as [batches, requests]
+     */
+    public int[] getAndResetStats() {
+        return new int[]{sentBatches.getAndSet(0), sentRequests.getAndSet(0)};
+    }
+
+    private void flush(long seq) {
+        List<BatchItem> batch;
+        lock.lock();
+        try {
+            if (seq != batchSeq || pendingItems.isEmpty()) {
+                return;
+            }
+            batch = drain();
+        } finally {
+            lock.unlock();
+        }
+        send(batch);
+    }
+
+    private List<BatchItem> drain() {
+        List<BatchItem> batch = pendingItems;
+        pendingItems = new ArrayList<>(maxBatchSize);
+        batchSeq++;
+        return batch;
+    }
+
+    private void send(List<BatchItem> batch) {
+        batch.removeIf(item -> item.future.isDone());
+        if (batch.isEmpty()) {
+            return;
+        }
+        if (batch.size() == 1) {
+            sendSingle(batch.get(0));
+            return;
+        }
+        JsInvokeProtos.JsInvokeBatchRequest.Builder batchRequest = JsInvokeProtos.JsInvokeBatchRequest.newBuilder();
+        batch.forEach(item -> batchRequest.addRequests(item.request));
+        sentBatches.incrementAndGet();
+        sentRequests.addAndGet(batch.size());
+        log.trace("Sending batch of {} invoke requests", batch.size());
+
+        TbProtoJsQueueMsg<JsInvokeProtos.RemoteJsRequest> msg = new TbProtoJsQueueMsg<>(batch.get(0).requestKey,
+                JsInvokeProtos.RemoteJsRequest.newBuilder().setInvokeBatchRequest(batchRequest).build());
+        ListenableFuture<TbProtoQueueMsg<JsInvokeProtos.RemoteJsResponse>> future;
+        try {
+            future = batchTimeoutMs > 0 ? requestTemplate.send(msg, TimeUnit.MILLISECONDS.toNanos(batchTimeoutMs)) : requestTemplate.send(msg);
+        } catch (Throwable t) {
+            batch.forEach(item -> item.future.setException(t));
+            return;
+        }
+        Futures.addCallback(future, new FutureCallback<>() {
+            @Override
+            public void onSuccess(TbProtoQueueMsg<JsInvokeProtos.RemoteJsResponse> response) {
+                List<JsInvokeProtos.JsInvokeResponse> responses = response.getValue().getInvokeBatchResponse().getResponsesList();
+                for (int i = 0; i < batch.size(); i++) {
+                    if (i < responses.size()) {
+                        batch.get(i).future.set(responses.get(i));
+                    } else {
+                        batch.get(i).future.setException(new RuntimeException("No response for the batched invoke request"));
+                    }
+                }
+            }
+
+            @Override
+            public void onFailure(Throwable t) {
+                if (t instanceof TimeoutException) {
+                    log.debug("No response for the batch of {} invoke requests, resending them one by one", batch.size());
+                    batch.stream().filter(item -> !item.future.isDone()).forEach(RemoteJsInvokeBatcher.this::sendSingle);
+                } else {
+                    batch.forEach(item -> item.future.setException(t));
+                }
+            }
+        }, MoreExecutors.directExecutor());
+    }
+
+    private void sendSingle(BatchItem item) {
+        JsInvokeProtos.RemoteJsRequest request = JsInvokeProtos.RemoteJsRequest.newBuilder()
+                .setInvokeRequest(item.request)
+                .build();
+        sentBatches.incrementAndGet();
+        sentRequests.incrementAndGet();
+        ListenableFuture<TbProtoQueueMsg<JsInvokeProtos.RemoteJsResponse>> future;
+        try {
+            future = requestTemplate.send(new TbProtoJsQueueMsg<>(item.requestKey, request));
+        } catch (Throwable t) {
+            item.future.setException(t);
+            return;
+        }
+        item.future.setFuture(Futures.transform(future, response -> response.getValue().getInvokeResponse(), MoreExecutors.directExecutor()));
+    }
+
+    private static class BatchItem {
+
+        private final UUID requestKey;
+        private final JsInvokeProtos.JsInvokeRequest request;
+        private final SettableFuture<JsInvokeProtos.JsInvokeResponse> future = SettableFuture.create();
+
+        private BatchItem(UUID requestKey, JsInvokeProtos.JsInvokeRequest request) {
+            this.requestKey = requestKey;
+            this.request = request;
+        }
+
+    }
+
+}
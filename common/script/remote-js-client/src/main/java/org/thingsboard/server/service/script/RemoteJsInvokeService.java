@@ -46,6 +46,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.locks.Lock;
@@ -79,6 +80,18 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
     @Value("${js.remote.stats.enabled:false}")
     private boolean statsEnabled;
 
+    @Value("${queue.js.batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${queue.js.batch.max_size:100}")
+    private int maxBatchSize;
+
+    @Value("${queue.js.batch.max_wait_ms:5}")
+    private long maxBatchWaitMs;
+
+    @Value("${queue.js.batch.timeout_ms:5000}")
+    private long batchTimeoutMs;
+
     private final ExecutorService callbackExecutor = Executors.newFixedThreadPool(
             Runtime.getRuntime().availableProcessors(), ThingsBoardThreadFactory.forName("js-executor-remote-callback"));
 
@@ -99,6 +112,12 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
     @Scheduled(fixedDelayString = "${js.remote.stats.print_interval_ms}")
     public void printStats() {
         super.printStats();
+        if (batcher != null && isStatsEnabled()) {
+            int[] batchStats = batcher.getAndResetStats();
+            if (batchStats[0] > 0) {
+                log.info("{}: batches [{}] batched invoke requests [{}]", getStatsName(), batchStats[0], batchStats[1]);
+            }
+        }
     }
 
     @Autowired
@@ -107,17 +126,30 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
     protected final Map<String, String> scriptHashToBodysMap = new ConcurrentHashMap<>();
     private final Lock scriptsLock = new ReentrantLock();
 
+    private ScheduledExecutorService batchScheduler;
+    private RemoteJsInvokeBatcher batcher;
+
     @PostConstruct
     @Override
     public void init() {
         super.init();
         requestTemplate.init();
+        if (batchEnabled) {
+            batchScheduler = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("js-executor-remote-batch"));
+            batcher = new RemoteJsInvokeBatcher(requestTemplate, maxBatchSize, maxBatchWaitMs, batchTimeoutMs, batchScheduler);
+        }
     }
 
     @PreDestroy
     @Override
     public void stop() {
         super.stop();
+        if (batcher != null) {
+            batcher.stop();
+        }
+        if (batchScheduler != null) {
+            batchScheduler.shutdownNow();
+        }
         if (requestTemplate != null) {
             requestTemplate.stop();
         }
@@ -164,7 +196,7 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
             return Futures.immediateFailedFuture(new RuntimeException("No script body found for script hash [" + scriptHash + "] (script id: [" + scriptId + "])"));
         }
 
-        JsInvokeProtos.RemoteJsRequest jsRequestWrapper = buildJsInvokeRequest(jsInfo, args, false, null);
+        JsInvokeProtos.JsInvokeRequest jsRequest = buildJsInvokeRequest(jsInfo, args, false, null);
 
         StopWatch stopWatch;
         if (log.isTraceEnabled()) {
@@ -175,13 +207,18 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
         }
 
         UUID requestKey = UUID.randomUUID();
-        ListenableFuture<TbProtoQueueMsg<JsInvokeProtos.RemoteJsResponse>> future = requestTemplate.send(new TbProtoJsQueueMsg<>(requestKey, jsRequestWrapper));
-        return Futures.transformAsync(future, response -> {
+        ListenableFuture<JsInvokeProtos.JsInvokeResponse> future;
+        if (batcher != null) {
+            future = batcher.invoke(requestKey, jsRequest);
+        } else {
+            future = Futures.transform(requestTemplate.send(new TbProtoJsQueueMsg<>(requestKey, wrap(jsRequest))),
+                    response -> response.getValue().getInvokeResponse(), MoreExecutors.directExecutor());
+        }
+        return Futures.transformAsync(future, invokeResult -> {
             if (log.isTraceEnabled()) {
                 stopWatch.stop();
-                log.trace("doInvokeFunction js-response took {}ms for uuid {}", stopWatch.getTotalTimeMillis(), response.getKey());
+                log.trace("doInvokeFunction js-response took {}ms for uuid {}", stopWatch.getTotalTimeMillis(), requestKey);
             }
-            JsInvokeProtos.JsInvokeResponse invokeResult = response.getValue().getInvokeResponse();
             if (invokeResult.getSuccess()) {
                 return Futures.immediateFuture(invokeResult.getResult());
             } else {
@@ -190,7 +227,7 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
         }, callbackExecutor);
     }
 
-    private JsInvokeProtos.RemoteJsRequest buildJsInvokeRequest(JsScriptInfo jsInfo, Object[] args, boolean includeScriptBody, String scriptBody) {
+    private JsInvokeProtos.JsInvokeRequest buildJsInvokeRequest(JsScriptInfo jsInfo, Object[] args, boolean includeScriptBody, String scriptBody) {
         JsInvokeProtos.JsInvokeRequest.Builder jsRequestBuilder = JsInvokeProtos.JsInvokeRequest.newBuilder()
                 .setScriptHash(jsInfo.getHash())
                 .setFunctionName(jsInfo.getFunctionName())
@@ -203,10 +240,13 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
             jsRequestBuilder.addArgs(arg.toString());
         }
 
-        JsInvokeProtos.RemoteJsRequest jsRequestWrapper = JsInvokeProtos.RemoteJsRequest.newBuilder()
-                .setInvokeRequest(jsRequestBuilder.build())
+        return jsRequestBuilder.build();
+    }
+
+    private JsInvokeProtos.RemoteJsRequest wrap(JsInvokeProtos.JsInvokeRequest invokeRequest) {
+        return JsInvokeProtos.RemoteJsRequest.newBuilder()
+                .setInvokeRequest(invokeRequest)
                 .build();
-        return jsRequestWrapper;
     }
 
     private ListenableFuture<Object> handleInvokeError(UUID requestKey, UUID scriptId, JsScriptInfo jsInfo,
@@ -221,7 +261,7 @@ public class RemoteJsInvokeService extends AbstractJsInvokeService {
         } else if (JsInvokeProtos.JsInvokeErrorCode.NOT_FOUND_ERROR.equals(errorCode)) {
             log.debug("[{}] Remote JS executor couldn't find the script", scriptId);
             if (scriptBody != null) {
-                JsInvokeProtos.RemoteJsRequest invokeRequestWithScriptBody = buildJsInvokeRequest(jsInfo, args, true, scriptBody);
+                JsInvokeProtos.RemoteJsRequest invokeRequestWithScriptBody = wrap(buildJsInvokeRequest(jsInfo, args, true, scriptBody));
                 log.debug("[{}] Sending invoke request again with script body", scriptId);
                 ListenableFuture<TbProtoQueueMsg<JsInvokeProtos.RemoteJsResponse>> future = requestTemplate.send(new TbProtoJsQueueMsg<>(requestKey, invokeRequestWithScriptBody));
                 return Futures.transformAsync(future, response -> {
@@ -146,8 +146,7 @@ public abstract class AbstractScriptInvokeService implements ScriptInvokeService
                 var task = doInvokeFunction(scriptId, args);
 
                 var resultFuture = Futures.transform(task.getResultFuture(), output -> {
-                    String result = JacksonUtil.toString(output);
-                    if (resultSizeExceeded(result)) {
+                    if (resultSizeExceeded(output)) {
                         throw new TbScriptException(scriptId, TbScriptException.ErrorCode.OTHER, null, new RuntimeException(
                                 format("Script invocation result exceeds maximum allowed size of %s symbols", getMaxResultSize())
                         ));
@@ -256,21 +255,33 @@ public abstract class AbstractScriptInvokeService implements ScriptInvokeService
         if (getMaxTotalArgsSize() <= 0) return false;
         long totalArgsSize = 0;
         for (Object arg : args) {
-            if (arg instanceof CharSequence) {
-                totalArgsSize += ((CharSequence) arg).length();
-            } else {
-                var str = JacksonUtil.toString(arg);
-                if (str != null) {
-                    totalArgsSize += str.length();
-                }
-            }
+            totalArgsSize += getArgSize(arg);
         }
         return totalArgsSize > getMaxTotalArgsSize();
     }
 
-    private boolean resultSizeExceeded(String result) {
+    private boolean resultSizeExceeded(Object output) {
         if (getMaxResultSize() <= 0) return false;
-        return result != null && result.length() > getMaxResultSize();
+        return getResultSize(output) > getMaxResultSize();
+    }
+
+    /**
+     * @return number of symbols in the argument, as it is passed to the script
+     */
+    protected long getArgSize(Object arg) {
+        if (arg instanceof CharSequence) {
+            return ((CharSequence) arg).length();
+        }
+        var str = JacksonUtil.toString(arg);
+        return str != null ? str.length() : 0;
+    }
+
+    /**
+     * @return number of symbols in the script invocation result
+     */
+    protected long getResultSize(Object output) {
+        var str = JacksonUtil.toString(output);
+        return str != null ? str.length() : 0;
     }
 
     private <T> ListenableFuture<T> error(String message) {
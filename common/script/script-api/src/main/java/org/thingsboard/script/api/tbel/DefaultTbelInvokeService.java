@@ -19,6 +19,7 @@ import com.github.benmanes.caffeine.cache.Cache;
 import com.github.benmanes.caffeine.cache.Caffeine;
 import com.google.common.hash.Hasher;
 import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.ListeningExecutorService;
 import com.google.common.util.concurrent.MoreExecutors;
@@ -49,6 +50,8 @@ import org.thingsboard.server.common.stats.TbApiUsageStateClient;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
 import java.nio.charset.StandardCharsets;
 import java.util.Calendar;
 import java.util.Collections;
@@ -58,6 +61,10 @@ import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 
@@ -109,6 +116,17 @@ public class DefaultTbelInvokeService extends AbstractScriptInvokeService implem
     @Value("${tbel.compiled_scripts_cache_size:1000}")
     private int compiledScriptsCacheSize;
 
+    @Value("${tbel.fast_path.enabled:false}")
+    private boolean fastPathEnabled;
+
+    @Value("${tbel.fast_path.max_cpu_time_us:1000}")
+    private long fastPathMaxCpuTimeUs;
+
+    @Value("${tbel.fast_path.min_invocations:10}")
+    private int fastPathMinInvocations;
+
+    private ThreadMXBean threadMXBean;
+
     private ListeningExecutorService executor;
 
     private final Lock lock = new ReentrantLock();
@@ -136,6 +154,13 @@ public class DefaultTbelInvokeService extends AbstractScriptInvokeService implem
         parserConfig.registerDataType("Calendar", Calendar.class, date -> 8L);
         TbUtils.register(parserConfig);
         executor = MoreExecutors.listeningDecorator(ThingsBoardExecutors.newWorkStealingPool(threadPoolSize, "tbel-executor"));
+        if (fastPathEnabled) {
+            threadMXBean = ManagementFactory.getThreadMXBean();
+            if (!threadMXBean.isCurrentThreadCpuTimeSupported()) {
+                log.warn("Thread CPU time is not supported by JVM, TBEL fast path is disabled");
+                fastPathEnabled = false;
+            }
+        }
         try {
             // Special command to warm up TBEL engine
             Serializable script = compileScript("var warmUp = {}; warmUp");
@@ -205,21 +230,87 @@ public class DefaultTbelInvokeService extends AbstractScriptInvokeService implem
     @Override
     protected TbelScriptExecutionTask doInvokeFunction(UUID scriptId, Object[] args) {
         ExecutionContext executionContext = new ExecutionContext(this.parserConfig, maxMemoryLimitMb * 1024 * 1024);
-        return new TbelScriptExecutionTask(executionContext, executor.submit(() -> {
+        if (fastPathEnabled) {
             String scriptHash = scriptIdToHash.get(scriptId);
-            if (scriptHash == null) {
-                throw new TbScriptException(scriptId, TbScriptException.ErrorCode.OTHER, null, new RuntimeException("Script not found!"));
+            TbelScript script = scriptHash != null ? scriptMap.get(scriptHash) : null;
+            if (script != null && script.getFastInvocations().get() >= fastPathMinInvocations) {
+                return new TbelScriptExecutionTask(executionContext, invokeOnCallingThread(scriptId, executionContext, args));
             }
-            TbelScript script = scriptMap.get(scriptHash);
-            Serializable compiledScript = compiledScriptsCache.get(scriptHash, k -> compileScript(script.getScriptBody()));
-            try {
-                return MVEL.executeTbExpression(compiledScript, executionContext, script.createVars(args));
-            } catch (ScriptMemoryOverflowException e) {
-                throw new TbScriptException(scriptId, TbScriptException.ErrorCode.OTHER, script.getScriptBody(), new RuntimeException("Script memory overflow!"));
-            } catch (Exception e) {
-                throw new TbScriptException(scriptId, TbScriptException.ErrorCode.RUNTIME, script.getScriptBody(), e);
+        }
+        return new TbelScriptExecutionTask(executionContext, executor.submit(() -> execute(scriptId, executionContext, args)));
+    }
+
+    /*
+     * The scripts that were executed within the CPU time limit for the configured number of times are executed on the calling thread,
+     * to avoid the executor hop. The execution is stopped by the timeout, same as on the executor,
+     * and the script returns to the executor once it exceeds the CPU time limit.
+     */
+    private ListenableFuture<Object> invokeOnCallingThread(UUID scriptId, ExecutionContext executionContext, Object[] args) {
+        long timeout = getMaxInvokeRequestsTimeout();
+        ScheduledFuture<?> timeoutFuture = timeout > 0 ? timeoutExecutorService.schedule(executionContext::stop, timeout, TimeUnit.MILLISECONDS) : null;
+        try {
+            return Futures.immediateFuture(execute(scriptId, executionContext, args));
+        } catch (Exception e) {
+            if (timeoutFuture != null && timeoutFuture.isDone()) {
+                return Futures.immediateFailedFuture(new TimeoutException("Script timeout!"));
+            }
+            return Futures.immediateFailedFuture(e);
+        } finally {
+            if (timeoutFuture != null) {
+                timeoutFuture.cancel(false);
             }
-        }));
+        }
+    }
+
+    private Object execute(UUID scriptId, ExecutionContext executionContext, Object[] args) {
+        String scriptHash = scriptIdToHash.get(scriptId);
+        if (scriptHash == null) {
+            throw new TbScriptException(scriptId, TbScriptException.ErrorCode.OTHER, null, new RuntimeException("Script not found!"));
+        }
+        TbelScript script = scriptMap.get(scriptHash);
+        Serializable compiledScript = compiledScriptsCache.get(scriptHash, k -> compileScript(script.getScriptBody()));
+        long startCpuTime = fastPathEnabled ? threadMXBean.getCurrentThreadCpuTime() : 0;
+        try {
+            return MVEL.executeTbExpression(compiledScript, executionContext, script.createVars(args));
+        } catch (ScriptMemoryOverflowException e) {
+            throw new TbScriptException(scriptId, TbScriptException.ErrorCode.OTHER, script.getScriptBody(), new RuntimeException("Script memory overflow!"));
+        } catch (Exception e) {
+            throw new TbScriptException(scriptId, TbScriptException.ErrorCode.RUNTIME, script.getScriptBody(), e);
+        } finally {
+            if (fastPathEnabled) {
+                onExecuted(scriptId, script, threadMXBean.getCurrentThreadCpuTime() - startCpuTime);
+            }
+        }
+    }
+
+    private void onExecuted(UUID scriptId, TbelScript script, long cpuTimeNanos) {
+        AtomicInteger fastInvocations = script.getFastInvocations();
+        if (cpuTimeNanos > TimeUnit.MICROSECONDS.toNanos(fastPathMaxCpuTimeUs)) {
+            if (fastInvocations.getAndSet(Integer.MIN_VALUE) >= fastPathMinInvocations) {
+                log.debug("[{}] Script exceeded the fast path CPU time limit: {}us", scriptId, TimeUnit.NANOSECONDS.toMicros(cpuTimeNanos));
+            }
+        } else {
+            int invocations = fastInvocations.get();
+            if (invocations >= 0 && invocations < fastPathMinInvocations) {
+                fastInvocations.compareAndSet(invocations, invocations + 1);
+            }
+        }
+    }
+
+    @Override
+    protected long getArgSize(Object arg) {
+        if (fastPathEnabled && !(arg instanceof CharSequence)) {
+            return TbelJsonSizeEstimator.estimate(arg, getMaxTotalArgsSize());
+        }
+        return super.getArgSize(arg);
+    }
+
+    @Override
+    protected long getResultSize(Object output) {
+        if (fastPathEnabled) {
+            return TbelJsonSizeEstimator.estimate(output, getMaxResultSize());
+        }
+        return super.getResultSize(output);
     }
 
     @Override
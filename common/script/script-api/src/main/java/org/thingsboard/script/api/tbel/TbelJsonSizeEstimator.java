@@ -0,0 +1,70 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.script.api.tbel;
+
+import org.thingsboard.common.util.JacksonUtil;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Calculates the size of the JSON representation of the script arguments and results without the serialization.
+ * The escaped characters of the strings are counted as one symbol.
+ */
+final class TbelJsonSizeEstimator {
+
+    private TbelJsonSizeEstimator() {
+    }
+
+    /**
+     * @return size of the object JSON, or a value greater than the limit once the limit is exceeded
+     */
+    static long estimate(Object value, long limit) {
+        if (value == null) {
+            return 4;
+        }
+        if (value instanceof CharSequence) {
+            return ((CharSequence) value).length() + 2;
+        }
+        if (value instanceof Number || value instanceof Boolean) {
+            return String.valueOf(value).length();
+        }
+        if (value instanceof Map<?, ?> map) {
+            long size = 2 + Math.max(map.size() - 1, 0);
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                size += String.valueOf(entry.getKey()).length() + 3;
+                size += estimate(entry.getValue(), limit - size);
+                if (size > limit) {
+                    return size;
+                }
+            }
+            return size;
+        }
+        if (value instanceof Collection<?> collection) {
+            long size = 2 + Math.max(collection.size() - 1, 0);
+            for (Object element : collection) {
+                size += estimate(element, limit - size);
+                if (size > limit) {
+                    return size;
+                }
+            }
+            return size;
+        }
+        String str = JacksonUtil.toString(value);
+        return str != null ? str.length() : 0;
+    }
+
+}
@@ -16,15 +16,24 @@
 package org.thingsboard.script.api.tbel;
 
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Data
 public class TbelScript {
 
     private final String scriptBody;
     private final String[] argNames;
+    /**
+     * Number of the invocations that fit into the fast path CPU time limit, negative if the script exceeded the limit.
+     */
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private final AtomicInteger fastInvocations = new AtomicInteger();
 
     public Map createVars(Object[] args) {
         if (args == null || args.length != argNames.length) {
@@ -0,0 +1,116 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.script.api.tbel;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.script.api.ScriptType;
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+public class DefaultTbelInvokeServiceTest {
+
+    private DefaultTbelInvokeService invokeService;
+
+    @BeforeEach
+    public void beforeEach() {
+        invokeService = new DefaultTbelInvokeService(Optional.empty(), Optional.empty());
+        ReflectionTestUtils.setField(invokeService, "maxTotalArgsSize", 100000);
+        ReflectionTestUtils.setField(invokeService, "maxResultSize", 300000);
+        ReflectionTestUtils.setField(invokeService, "maxScriptBodySize", 50000);
+        ReflectionTestUtils.setField(invokeService, "maxErrors", 3);
+        ReflectionTestUtils.setField(invokeService, "maxBlackListDurationSec", 60);
+        ReflectionTestUtils.setField(invokeService, "maxInvokeRequestsTimeout", 500);
+        ReflectionTestUtils.setField(invokeService, "threadPoolSize", 4);
+        ReflectionTestUtils.setField(invokeService, "maxMemoryLimitMb", 8);
+        ReflectionTestUtils.setField(invokeService, "compiledScriptsCacheSize", 100);
+        ReflectionTestUtils.setField(invokeService, "fastPathEnabled", true);
+        ReflectionTestUtils.setField(invokeService, "fastPathMaxCpuTimeUs", 100000);
+        ReflectionTestUtils.setField(invokeService, "fastPathMinInvocations", 5);
+        invokeService.init();
+    }
+
+    @AfterEach
+    public void afterEach() {
+        invokeService.stop();
+    }
+
+    @Test
+    public void testFastScriptIsExecutedOnCallingThread() throws Exception {
+        UUID scriptId = eval("return msg.temperature > 20;");
+        for (int i = 0; i < 5; i++) {
+            assertThat(invoke(scriptId, 10 + i * 5).get(10, TimeUnit.SECONDS)).isEqualTo(i > 2);
+        }
+        assertThat(getScript(scriptId).getFastInvocations().get()).isEqualTo(5);
+
+        var future = invoke(scriptId, 25);
+        assertThat(future.isDone()).isTrue();
+        assertThat(future.get()).isEqualTo(true);
+    }
+
+    @Test
+    public void testSlowScriptIsNotExecutedOnCallingThread() throws Exception {
+        ReflectionTestUtils.setField(invokeService, "fastPathMaxCpuTimeUs", 0);
+        UUID scriptId = eval("var s = 0; for (var i = 0; i < 10000; i++) { s = s + i; } return s > msg.temperature;");
+        for (int i = 0; i < 10; i++) {
+            assertThat(invoke(scriptId, 10).get(10, TimeUnit.SECONDS)).isEqualTo(true);
+        }
+        assertThat(getScript(scriptId).getFastInvocations().get()).isNegative();
+    }
+
+    @Test
+    public void testTimeoutOnCallingThread() throws Exception {
+        UUID scriptId = eval("var s = 0; for (var i = 0; i < msg.temperature; i++) { s = s + i; } return {s: s};");
+        for (int i = 0; i < 5; i++) {
+            invoke(scriptId, 10).get(10, TimeUnit.SECONDS);
+        }
+        assertThat(getScript(scriptId).getFastInvocations().get()).isEqualTo(5);
+
+        assertThatThrownBy(() -> invoke(scriptId, Integer.MAX_VALUE).get(10, TimeUnit.SECONDS))
+                .isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(TimeoutException.class);
+        // the script that exceeded the CPU time limit returns to the executor
+        assertThat(getScript(scriptId).getFastInvocations().get()).isNegative();
+    }
+
+    private UUID eval(String script) throws Exception {
+        return invokeService.eval(TenantId.SYS_TENANT_ID, ScriptType.RULE_NODE_SCRIPT, script, "msg", "metadata", "msgType").get(10, TimeUnit.SECONDS);
+    }
+
+    private ListenableFuture<Object> invoke(UUID scriptId, int temperature) {
+        Map<String, Object> msg = new HashMap<>();
+        msg.put("temperature", temperature);
+        return invokeService.invokeScript(TenantId.SYS_TENANT_ID, null, scriptId, msg, new HashMap<>(), "POST_TELEMETRY_REQUEST");
+    }
+
+    private TbelScript getScript(UUID scriptId) {
+        return invokeService.scriptMap.get(invokeService.scriptIdToHash.get(scriptId));
+    }
+
+}
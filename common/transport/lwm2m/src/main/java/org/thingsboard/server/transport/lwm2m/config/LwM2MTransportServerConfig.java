@@ -78,6 +78,26 @@ public class LwM2MTransportServerConfig implements LwM2MSecureServerConfig {
     @Value("${transport.lwm2m.clean_period_in_sec:}")
     private int cleanPeriodInSec;
 
+    @Getter
+    @Value("${transport.lwm2m.registration_store.redis.flush_interval_ms:0}")
+    private long registrationStoreFlushIntervalMs;
+
+    @Getter
+    @Value("${transport.lwm2m.registration_store.redis.batch_size:1000}")
+    private int registrationStoreBatchSize;
+
+    @Getter
+    @Value("${transport.lwm2m.registration_store.snapshot.enabled:false}")
+    private boolean registrationSnapshotEnabled;
+
+    @Getter
+    @Value("${transport.lwm2m.registration_store.snapshot.path:lwm2m_registrations.snapshot}")
+    private String registrationSnapshotPath;
+
+    @Getter
+    @Value("${transport.lwm2m.registration_store.snapshot.interval_in_sec:60}")
+    private int registrationSnapshotIntervalInSec;
+
     @Getter
     @Value("${transport.lwm2m.server.id:}")
     private Integer id;
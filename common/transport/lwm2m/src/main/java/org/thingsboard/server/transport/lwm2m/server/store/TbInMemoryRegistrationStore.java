@@ -88,6 +88,12 @@ public class TbInMemoryRegistrationStore implements RegistrationStore, Startable
     private boolean started = false;
     private final long cleanPeriod; // in seconds
 
+    // Optional local snapshot, allows single-node transport to restart without forcing clients to re-register
+    private final TbLwM2mRegistrationSnapshotStore snapshotStore;
+    private final long snapshotPeriod; // in seconds
+    private ScheduledFuture<?> snapshotTask;
+    private boolean snapshotRestored = false;
+
     private final LwM2MTransportServerConfig config;
 
     private final LwM2mVersionedModelProvider modelProvider;
@@ -109,6 +115,13 @@ public class TbInMemoryRegistrationStore implements RegistrationStore, Startable
         this.cleanPeriod = cleanPeriodInSec;
         this.modelProvider = modelProvider;
         this.config =  config;
+        if (config != null && config.isRegistrationSnapshotEnabled()) {
+            this.snapshotStore = new TbLwM2mRegistrationSnapshotStore(config.getRegistrationSnapshotPath());
+            this.snapshotPeriod = Math.max(1, config.getRegistrationSnapshotIntervalInSec());
+        } else {
+            this.snapshotStore = null;
+            this.snapshotPeriod = 0;
+        }
     }
 
     /* *************** Leshan Registration API **************** */
@@ -548,6 +561,13 @@ public class TbInMemoryRegistrationStore implements RegistrationStore, Startable
     public synchronized void start() {
         if (!started) {
             started = true;
+            if (snapshotStore != null) {
+                if (!snapshotRestored) {
+                    snapshotRestored = true;
+                    restoreSnapshot();
+                }
+                snapshotTask = schedExecutor.scheduleWithFixedDelay(this::saveSnapshot, snapshotPeriod, snapshotPeriod, TimeUnit.SECONDS);
+            }
             cleanerTask = schedExecutor.scheduleAtFixedRate(new TbInMemoryRegistrationStore.Cleaner(), cleanPeriod, cleanPeriod, TimeUnit.SECONDS);
         }
     }
@@ -563,6 +583,11 @@ public class TbInMemoryRegistrationStore implements RegistrationStore, Startable
                 cleanerTask.cancel(false);
                 cleanerTask = null;
             }
+            if (snapshotTask != null) {
+                snapshotTask.cancel(false);
+                snapshotTask = null;
+                saveSnapshot();
+            }
         }
     }
 
@@ -571,6 +596,9 @@ public class TbInMemoryRegistrationStore implements RegistrationStore, Startable
      */
     @Override
     public synchronized void destroy() {
+        if (started && snapshotStore != null) {
+            saveSnapshot();
+        }
         started = false;
         schedExecutor.shutdownNow();
         try {
@@ -580,6 +608,49 @@ public class TbInMemoryRegistrationStore implements RegistrationStore, Startable
         }
     }
 
+    /* *************** Local snapshot **************** */
+
+    private void restoreSnapshot() {
+        TbLwM2mRegistrationSnapshotStore.Snapshot snapshot = snapshotStore.load();
+        try {
+            lock.writeLock().lock();
+            for (Registration registration : snapshot.getRegistrations()) {
+                if (registration.isAlive()) {
+                    regsByEp.put(registration.getEndpoint(), registration);
+                    regsByRegId.put(registration.getId(), registration);
+                    regsByIdentity.put(registration.getClientTransportData().getIdentity(), registration);
+                    regsByAddr.put(registration.getSocketAddress(), registration);
+                }
+            }
+            for (Observation observation : snapshot.getObservations()) {
+                if (regsByRegId.containsKey(observation.getRegistrationId())) {
+                    obsByToken.put(observation.getId(), observation);
+                    tokensByRegId.computeIfAbsent(observation.getRegistrationId(), id -> new HashSet<>()).add(observation.getId());
+                }
+            }
+            log.info("Restored {} registrations and {} observations from the local snapshot", regsByEp.size(), obsByToken.size());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void saveSnapshot() {
+        Collection<Registration> registrations;
+        Collection<Observation> observations;
+        try {
+            lock.readLock().lock();
+            registrations = new ArrayList<>(regsByEp.values());
+            observations = new ArrayList<>(obsByToken.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+        try {
+            snapshotStore.save(registrations, observations);
+        } catch (Exception e) {
+            log.warn("Failed to save snapshot of the registrations", e);
+        }
+    }
+
     private class Cleaner implements Runnable {
 
         @Override
@@ -38,7 +38,6 @@ import org.eclipse.leshan.core.util.NamedThreadFactory;
 import org.eclipse.leshan.core.util.Validate;
 import org.eclipse.leshan.server.redis.RedisRegistrationStore;
 import org.eclipse.leshan.server.redis.serialization.ObservationSerDes;
-import org.eclipse.leshan.server.redis.serialization.RegistrationSerDes;
 import org.eclipse.leshan.server.registration.Deregistration;
 import org.eclipse.leshan.server.registration.ExpirationListener;
 import org.eclipse.leshan.server.registration.Registration;
@@ -51,22 +50,29 @@ import org.springframework.data.redis.connection.RedisClusterConnection;
 import org.springframework.data.redis.connection.RedisConnection;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.connection.zset.DefaultTuple;
+import org.springframework.data.redis.connection.zset.Tuple;
 import org.springframework.data.redis.core.ScanOptions;
 import org.springframework.integration.redis.util.RedisLockRegistry;
 import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.server.transport.lwm2m.config.LwM2MTransportServerConfig;
 import org.thingsboard.server.transport.lwm2m.server.LwM2mVersionedModelProvider;
+import org.thingsboard.server.transport.lwm2m.server.store.util.LwM2MRegistrationSerDes;
 
 import java.net.InetSocketAddress;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.ScheduledFuture;
@@ -86,6 +92,7 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
     public static final int DEFAULT_CLEAN_LIMIT = 500;
     /** Defaut Extra time for registration lifetime in seconds */
     public static final long DEFAULT_GRACE_PERIOD = 0;
+    private static final int GET_ALL_BATCH_SIZE = 100;
 
     private static final Logger LOG = LoggerFactory.getLogger(RedisRegistrationStore.class);
 
@@ -101,7 +108,6 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
     private static final byte[] EXP_EP = "EXP:EP".getBytes(UTF_8); // a sorted set used for registration expiration
     // (expiration date, Endpoint)
 
-    private final RegistrationSerDes registrationSerDes = new RegistrationSerDes();
     private final ObservationSerDes observationSerDes = new ObservationSerDes();
     private final org.eclipse.leshan.server.californium.observation.ObservationSerDes observationSerDesCoap =
             new org.eclipse.leshan.server.californium.observation.ObservationSerDes(new UdpDataParser(), new UdpDataSerializer());
@@ -112,12 +118,19 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
 
     private final ScheduledExecutorService schedExecutor;
     private ScheduledFuture<?> cleanerTask;
+    private ScheduledFuture<?> expirationFlushTask;
     private boolean started = false;
 
     private final long cleanPeriod; // in seconds
     private final int cleanLimit; // maximum number to clean in a clean period
     private final long gracePeriod; // in seconds
 
+    // Write-behind of the expiration index: registration updates are the most frequent mutation,
+    // while the expiration index is only read by the cleaner. (Endpoint => expiration timestamp)
+    private final ConcurrentMap<String, Long> pendingExpirations = new ConcurrentHashMap<>();
+    private final long expirationFlushInterval; // in milliseconds, 0 - write-behind is disabled
+    private final int expirationBatchSize;
+
     private final RedisLockRegistry redisLock;
 
     private final LwM2MTransportServerConfig config;
@@ -145,6 +158,8 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
         this.redisLock = new RedisLockRegistry(connectionFactory, "Registration");
         this.config = config;
         this.modelProvider = modelProvider;
+        this.expirationFlushInterval = config.getRegistrationStoreFlushIntervalMs();
+        this.expirationBatchSize = Math.max(1, config.getRegistrationStoreBatchSize());
     }
 
     /* *************** Redis Key utility function **************** */
@@ -183,13 +198,13 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
                 byte[] k = toEndpointKey(registration.getEndpoint());
                 byte[] old = connection.getSet(k, serializeReg(registration));
 
-                // add registration: secondary indexes
-                byte[] regid_idx = toRegIdKey(registration.getId());
-                connection.set(regid_idx, registration.getEndpoint().getBytes(UTF_8));
-                byte[] addr_idx = toRegAddrKey(registration.getSocketAddress());
-                connection.set(addr_idx, registration.getEndpoint().getBytes(UTF_8));
-                byte[] identity_idx = toRegIdentityKey(registration.getClientTransportData().getIdentity());
-                connection.set(identity_idx, registration.getEndpoint().getBytes(UTF_8));
+                // add registration: secondary indexes, all of them are written by a single command
+                byte[] ep = registration.getEndpoint().getBytes(UTF_8);
+                Map<byte[], byte[]> indexes = new LinkedHashMap<>();
+                indexes.put(toRegIdKey(registration.getId()), ep);
+                indexes.put(toRegAddrKey(registration.getSocketAddress()), ep);
+                indexes.put(toRegIdentityKey(registration.getClientTransportData().getIdentity()), ep);
+                connection.stringCommands().mSet(indexes);
 
                 // Add or update expiration
                 addOrUpdateExpiration(connection, registration);
@@ -247,17 +262,17 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
 
                 Registration updatedRegistration = update.update(r);
 
-                // Store the new registration
-                connection.set(toEndpointKey(updatedRegistration.getEndpoint()), serializeReg(updatedRegistration));
+                /** Store the new registration and update secondary index :
+                 * If registration is already associated to this address we don't care as we only want to keep the most
+                 * recent binding. */
+                Map<byte[], byte[]> values = new LinkedHashMap<>();
+                values.put(toEndpointKey(updatedRegistration.getEndpoint()), serializeReg(updatedRegistration));
+                values.put(toRegAddrKey(updatedRegistration.getSocketAddress()), updatedRegistration.getEndpoint().getBytes(UTF_8));
+                connection.stringCommands().mSet(values);
 
                 // Add or update expiration
                 addOrUpdateExpiration(connection, updatedRegistration);
 
-                /** Update secondary index :
-                 * If registration is already associated to this address we don't care as we only want to keep the most
-                 * recent binding. */
-                byte[] addr_idx = toRegAddrKey(updatedRegistration.getSocketAddress());
-                connection.set(addr_idx, updatedRegistration.getEndpoint().getBytes(UTF_8));
                 if (!r.getSocketAddress().equals(updatedRegistration.getSocketAddress())) {
                     removeAddrIndex(connection, r);
                 }
@@ -352,16 +367,35 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
                 scans.add(connection.scan(scanOptions));
             }
 
+            List<byte[]> keys = new ArrayList<>();
             scans.forEach(scan -> {
                 scan.forEachRemaining(key -> {
-                    byte[] element = connection.get(key);
-                    list.add(deserializeReg(element));
+                    keys.add(key);
+                    if (keys.size() >= GET_ALL_BATCH_SIZE) {
+                        addRegistrations(connection, keys, list);
+                        keys.clear();
+                    }
                 });
             });
+            addRegistrations(connection, keys, list);
             return list.iterator();
         }
     }
 
+    private void addRegistrations(RedisConnection connection, List<byte[]> keys, Collection<Registration> list) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        List<byte[]> elements = connection.stringCommands().mGet(keys.toArray(new byte[0][]));
+        if (elements != null) {
+            for (byte[] element : elements) {
+                if (element != null) {
+                    list.add(deserializeReg(element));
+                }
+            }
+        }
+    }
+
     @Override
     public Deregistration removeRegistration(String registrationId) {
         try (var connection = connectionFactory.getConnection()) {
@@ -438,13 +472,46 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
     }
 
     private void addOrUpdateExpiration(RedisConnection connection, Registration registration) {
-        connection.zAdd(EXP_EP, registration.getExpirationTimeStamp(gracePeriod), registration.getEndpoint().getBytes(UTF_8));
+        long expiration = registration.getExpirationTimeStamp(gracePeriod);
+        if (expirationFlushInterval > 0) {
+            pendingExpirations.put(registration.getEndpoint(), expiration);
+            if (pendingExpirations.size() >= expirationBatchSize) {
+                flushExpirations(connection);
+            }
+        } else {
+            connection.zAdd(EXP_EP, expiration, registration.getEndpoint().getBytes(UTF_8));
+        }
     }
 
     private void removeExpiration(RedisConnection connection, Registration registration) {
+        pendingExpirations.remove(registration.getEndpoint());
         connection.zRem(EXP_EP, registration.getEndpoint().getBytes(UTF_8));
     }
 
+    private void flushExpirations(RedisConnection connection) {
+        if (pendingExpirations.isEmpty()) {
+            return;
+        }
+        Set<Tuple> tuples = new HashSet<>();
+        for (String endpoint : pendingExpirations.keySet()) {
+            Long expiration = pendingExpirations.remove(endpoint);
+            if (expiration != null) {
+                tuples.add(new DefaultTuple(endpoint.getBytes(UTF_8), expiration.doubleValue()));
+            }
+        }
+        if (!tuples.isEmpty()) {
+            connection.zSetCommands().zAdd(EXP_EP, tuples);
+        }
+    }
+
+    private void flushExpirations() {
+        try (var connection = connectionFactory.getConnection()) {
+            flushExpirations(connection);
+        } catch (Exception e) {
+            LOG.warn("Failed to flush registration expirations", e);
+        }
+    }
+
     private byte[] toRegIdKey(String registrationId) {
         return toKey(REG_EP_REGID_IDX, registrationId);
     }
@@ -466,11 +533,11 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
     }
 
     private byte[] serializeReg(Registration registration) {
-        return registrationSerDes.bSerialize(registration);
+        return LwM2MRegistrationSerDes.serialize(registration);
     }
 
     private Registration deserializeReg(byte[] data) {
-        return registrationSerDes.deserialize(data);
+        return LwM2MRegistrationSerDes.deserialize(data);
     }
 
     /* *************** Leshan Observation API **************** */
@@ -644,16 +711,33 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
 
 
     private Collection<Observation> getObservations(RedisConnection connection, String registrationId) {
+        return getObservations(connection, connection.listCommands().lRange(toKey(OBS_TKNS_REGID_IDX, registrationId), 0, -1));
+    }
+
+    private Collection<Observation> getObservations(RedisConnection connection, List<byte[]> tokens) {
         Collection<Observation> result = new ArrayList<>();
-        for (byte[] token : connection.listCommands().lRange(toKey(OBS_TKNS_REGID_IDX, registrationId), 0, -1)) {
-            byte[] obs = connection.stringCommands().get(toKey(OBS_TKN, token));
-            if (obs != null) {
-                result.add(deserializeObs(obs));
+        if (tokens == null || tokens.isEmpty()) {
+            return result;
+        }
+        List<byte[]> values = connection.stringCommands().mGet(toObservationKeys(tokens));
+        if (values != null) {
+            for (byte[] obs : values) {
+                if (obs != null) {
+                    result.add(deserializeObs(obs));
+                }
             }
         }
         return result;
     }
 
+    private byte[][] toObservationKeys(List<byte[]> tokens) {
+        byte[][] keys = new byte[tokens.size()][];
+        for (int i = 0; i < tokens.size(); i++) {
+            keys[i] = toKey(OBS_TKN, tokens.get(i));
+        }
+        return keys;
+    }
+
     private SingleObservation validateByAbsorptionExistingObservations(SingleObservation observation, RedisConnection connection) {
         LwM2mPath pathObservation = observation.getPath();
         AtomicReference<SingleObservation> result = new AtomicReference<>();
@@ -724,16 +808,13 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
     }
 
     private Collection<Observation> unsafeRemoveAllObservations(RedisConnection connection, String registrationId) {
-        Collection<Observation> removed = new ArrayList<>();
         byte[] regIdKey = toKey(OBS_TKNS_REGID_IDX, registrationId);
 
         // fetch all observations by token
-        for (byte[] token : connection.lRange(regIdKey, 0, -1)) {
-            byte[] obs = connection.get(toKey(OBS_TKN, token));
-            if (obs != null) {
-                removed.add(deserializeObs(obs));
-            }
-            connection.del(toKey(OBS_TKN, token));
+        List<byte[]> tokens = connection.lRange(regIdKey, 0, -1);
+        Collection<Observation> removed = getObservations(connection, tokens);
+        if (tokens != null && !tokens.isEmpty()) {
+            connection.keyCommands().del(toObservationKeys(tokens));
         }
         connection.del(regIdKey);
 
@@ -776,6 +857,10 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
         if (!started) {
             started = true;
             cleanerTask = schedExecutor.scheduleAtFixedRate(new Cleaner(), cleanPeriod, cleanPeriod, TimeUnit.SECONDS);
+            if (expirationFlushInterval > 0) {
+                expirationFlushTask = schedExecutor.scheduleWithFixedDelay(this::flushExpirations,
+                        expirationFlushInterval, expirationFlushInterval, TimeUnit.MILLISECONDS);
+            }
         }
     }
 
@@ -790,6 +875,11 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
                 cleanerTask.cancel(false);
                 cleanerTask = null;
             }
+            if (expirationFlushTask != null) {
+                expirationFlushTask.cancel(false);
+                expirationFlushTask = null;
+            }
+            flushExpirations();
         }
     }
 
@@ -812,11 +902,18 @@ public class TbLwM2mRedisRegistrationStore implements RegistrationStore, Startab
         @Override
         public void run() {
             try (var connection = connectionFactory.getConnection()) {
+                flushExpirations(connection);
                 Set<byte[]> endpointsExpired = connection.zRangeByScore(EXP_EP, Double.NEGATIVE_INFINITY,
                         System.currentTimeMillis(), 0, cleanLimit);
 
                 for (byte[] endpoint : endpointsExpired) {
-                    Registration r = deserializeReg(connection.get(toEndpointKey(endpoint)));
+                    byte[] data = connection.get(toEndpointKey(endpoint));
+                    if (data == null) {
+                        // stale entry, e.g. flushed by the write-behind after the registration was removed
+                        connection.zRem(EXP_EP, endpoint);
+                        continue;
+                    }
+                    Registration r = deserializeReg(data);
                     if (!r.isAlive(gracePeriod)) {
                         Deregistration dereg = removeRegistration(connection, r.getId(), true);
                         if (dereg != null)
@@ -0,0 +1,121 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.lwm2m.server.store;
+
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.eclipse.leshan.core.observation.Observation;
+import org.eclipse.leshan.server.redis.serialization.ObservationSerDes;
+import org.eclipse.leshan.server.registration.Registration;
+import org.thingsboard.server.transport.lwm2m.server.store.util.LwM2MRegistrationSerDes;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Embedded local snapshot of the registrations and observations of the {@link TbInMemoryRegistrationStore}.
+ * Allows single-node transport to restart without forcing every client to re-register.
+ */
+@Slf4j
+public class TbLwM2mRegistrationSnapshotStore {
+
+    private static final int MAGIC = 0x4C574D32; // "LWM2"
+    private static final int VERSION = 1;
+
+    private final ObservationSerDes observationSerDes = new ObservationSerDes();
+    private final Path path;
+
+    public TbLwM2mRegistrationSnapshotStore(String path) {
+        this.path = Paths.get(path);
+    }
+
+    public synchronized void save(Collection<Registration> registrations, Collection<Observation> observations) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        Path tmp = Paths.get(path + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(registrations.size());
+            for (Registration registration : registrations) {
+                writeBytes(out, LwM2MRegistrationSerDes.serialize(registration));
+            }
+            out.writeInt(observations.size());
+            for (Observation observation : observations) {
+                writeBytes(out, observationSerDes.serialize(observation));
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        log.debug("Saved snapshot of {} registrations and {} observations to [{}]", registrations.size(), observations.size(), path);
+    }
+
+    public synchronized Snapshot load() {
+        Snapshot snapshot = new Snapshot();
+        if (!Files.exists(path)) {
+            return snapshot;
+        }
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                log.warn("Unsupported LwM2M registration snapshot format [{}], skipping it", path);
+                return snapshot;
+            }
+            int registrationsCount = in.readInt();
+            for (int i = 0; i < registrationsCount; i++) {
+                snapshot.getRegistrations().add(LwM2MRegistrationSerDes.deserialize(readBytes(in)));
+            }
+            int observationsCount = in.readInt();
+            for (int i = 0; i < observationsCount; i++) {
+                snapshot.getObservations().add(observationSerDes.deserialize(readBytes(in)));
+            }
+        } catch (Exception e) {
+            log.warn("Failed to load LwM2M registration snapshot [{}]", path, e);
+            return new Snapshot();
+        }
+        log.info("Loaded snapshot of {} registrations and {} observations from [{}]",
+                snapshot.getRegistrations().size(), snapshot.getObservations().size(), path);
+        return snapshot;
+    }
+
+    private static void writeBytes(DataOutputStream out, byte[] data) throws IOException {
+        out.writeInt(data.length);
+        out.write(data);
+    }
+
+    private static byte[] readBytes(DataInputStream in) throws IOException {
+        byte[] data = new byte[in.readInt()];
+        in.readFully(data);
+        return data;
+    }
+
+    @Data
+    public static class Snapshot {
+        private final List<Registration> registrations = new ArrayList<>();
+        private final List<Observation> observations = new ArrayList<>();
+    }
+
+}
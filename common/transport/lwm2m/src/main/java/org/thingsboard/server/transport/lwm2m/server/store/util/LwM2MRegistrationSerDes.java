@@ -0,0 +1,58 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.lwm2m.server.store.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.cbor.CBORGenerator;
+import lombok.SneakyThrows;
+import org.eclipse.leshan.server.redis.serialization.RegistrationSerDes;
+import org.eclipse.leshan.server.registration.Registration;
+
+/**
+ * Compact binary encoding of the {@link Registration}.
+ * <p>
+ * The registration is encoded as CBOR prefixed with the self-describe tag (0xD9D9F7), so values written
+ * by the previous JSON based {@link RegistrationSerDes#bSerialize(Registration)} are still readable.
+ */
+public class LwM2MRegistrationSerDes {
+
+    private static final RegistrationSerDes registrationSerDes = new RegistrationSerDes();
+    private static final ObjectMapper cborMapper = new ObjectMapper(CBORFactory.builder()
+            .enable(CBORGenerator.Feature.WRITE_TYPE_HEADER)
+            .build());
+
+    @SneakyThrows
+    public static byte[] serialize(Registration registration) {
+        return cborMapper.writeValueAsBytes(registrationSerDes.jSerialize(registration));
+    }
+
+    @SneakyThrows
+    public static Registration deserialize(byte[] data) {
+        if (isCbor(data)) {
+            JsonNode node = cborMapper.readTree(data);
+            return registrationSerDes.deserialize(node);
+        } else {
+            return registrationSerDes.deserialize(data);
+        }
+    }
+
+    private static boolean isCbor(byte[] data) {
+        return data.length > 2 && (data[0] & 0xFF) == 0xD9 && (data[1] & 0xFF) == 0xD9 && (data[2] & 0xFF) == 0xF7;
+    }
+
+}
@@ -0,0 +1,122 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.lwm2m.server.store;
+
+import org.eclipse.leshan.core.LwM2m.LwM2mVersion;
+import org.eclipse.leshan.core.endpoint.EndpointUriUtil;
+import org.eclipse.leshan.core.link.Link;
+import org.eclipse.leshan.core.peer.IpPeer;
+import org.eclipse.leshan.server.registration.Registration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.thingsboard.server.transport.lwm2m.config.LwM2MTransportServerConfig;
+
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+public class TbInMemoryRegistrationStoreTest {
+
+    @TempDir
+    private Path tempDir;
+
+    private Path snapshotPath;
+    private LwM2MTransportServerConfig config;
+    private TbInMemoryRegistrationStore store;
+
+    @BeforeEach
+    public void setUp() {
+        snapshotPath = tempDir.resolve("lwm2m_registrations.snapshot");
+        config = mock(LwM2MTransportServerConfig.class);
+        given(config.isRegistrationSnapshotEnabled()).willReturn(true);
+        given(config.getRegistrationSnapshotPath()).willReturn(snapshotPath.toString());
+        given(config.getRegistrationSnapshotIntervalInSec()).willReturn(60);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        if (store != null) {
+            store.destroy();
+        }
+    }
+
+    @Test
+    public void givenSnapshotEnabled_whenStoreIsRestarted_thenRegistrationsAreRestored() {
+        store = startStore();
+        Registration registration = createRegistration("ep1", 300, new Date());
+        store.addRegistration(registration);
+        store.destroy();
+        assertThat(snapshotPath).exists();
+
+        store = startStore();
+
+        Registration restored = store.getRegistrationByEndpoint("ep1");
+        assertThat(restored).isNotNull();
+        assertThat(restored.toString()).isEqualTo(registration.toString());
+        assertThat(store.getRegistration(registration.getId())).isNotNull();
+        assertThat(store.getRegistrationByAdress(registration.getSocketAddress())).isNotNull();
+    }
+
+    @Test
+    public void givenSnapshotEnabled_whenRegistrationExpiredBeforeRestart_thenItIsNotRestored() {
+        store = startStore();
+        store.addRegistration(createRegistration("alive", 300, new Date()));
+        store.addRegistration(createRegistration("expired", 1, new Date(System.currentTimeMillis() - 60000)));
+        store.destroy();
+
+        store = startStore();
+
+        assertThat(store.getRegistrationByEndpoint("alive")).isNotNull();
+        assertThat(store.getRegistrationByEndpoint("expired")).isNull();
+    }
+
+    @Test
+    public void givenCorruptedSnapshot_whenStoreIsStarted_thenItStartsEmpty() throws Exception {
+        Files.write(snapshotPath, new byte[]{1, 2, 3});
+
+        store = startStore();
+
+        assertThat(store.getAllRegistrations()).isExhausted();
+    }
+
+    private TbInMemoryRegistrationStore startStore() {
+        TbInMemoryRegistrationStore store = new TbInMemoryRegistrationStore(config, 60, null);
+        store.start();
+        return store;
+    }
+
+    private static Registration createRegistration(String endpoint, long lifetimeInSec, Date lastUpdate) {
+        return new Registration
+                .Builder(endpoint + "-reg", endpoint, new IpPeer(new InetSocketAddress(Inet4Address.getLoopbackAddress(), endpoint.hashCode() & 0xFFFF)),
+                EndpointUriUtil.createUri("coap://localhost:5685"))
+                .supportedContentFormats()
+                .supportedObjects(Map.of(1, LwM2mVersion.V1_0, 3, LwM2mVersion.V1_0))
+                .objectLinks(new Link[]{new Link("/1"), new Link("/3")})
+                .lifeTimeInSec(lifetimeInSec)
+                .lastUpdate(lastUpdate)
+                .build();
+    }
+
+}
@@ -0,0 +1,183 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.lwm2m.server.store;
+
+import org.eclipse.leshan.core.endpoint.EndpointUriUtil;
+import org.eclipse.leshan.core.peer.IpPeer;
+import org.eclipse.leshan.server.registration.Registration;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisZSetCommands;
+import org.springframework.data.redis.connection.zset.Tuple;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.transport.lwm2m.config.LwM2MTransportServerConfig;
+
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.util.Date;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anySet;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+
+public class TbLwM2mRedisRegistrationStoreTest {
+
+    private static final byte[] EXP_EP = "EXP:EP".getBytes(UTF_8);
+
+    private LwM2MTransportServerConfig config;
+    private RedisConnection connection;
+    private RedisZSetCommands zSetCommands;
+    private TbLwM2mRedisRegistrationStore store;
+
+    @BeforeEach
+    public void setUp() {
+        config = mock(LwM2MTransportServerConfig.class);
+        given(config.getRegistrationStoreFlushIntervalMs()).willReturn(1000L);
+        given(config.getRegistrationStoreBatchSize()).willReturn(10);
+        connection = mock(RedisConnection.class);
+        zSetCommands = mock(RedisZSetCommands.class);
+        given(connection.zSetCommands()).willReturn(zSetCommands);
+        RedisConnectionFactory connectionFactory = mock(RedisConnectionFactory.class);
+        given(connectionFactory.getConnection()).willReturn(connection);
+        store = new TbLwM2mRedisRegistrationStore(config, connectionFactory, null);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        store.destroy();
+    }
+
+    @Test
+    public void givenWriteBehind_whenRegistrationIsUpdated_thenExpirationIsWrittenOnFlush() {
+        Registration registration = createRegistration("ep1", 300);
+
+        updateExpiration(registration);
+        then(zSetCommands).should(never()).zAdd(any(byte[].class), anySet());
+        then(connection).should(never()).zAdd(any(byte[].class), anyDouble(), any(byte[].class));
+
+        flush();
+        assertThat(captureFlushedExpirations()).isEqualTo(Map.of("ep1", registration.getExpirationTimeStamp(0)));
+    }
+
+    @Test
+    public void givenWriteBehind_whenRegistrationIsUpdatedManyTimes_thenOnlyLatestExpirationIsWritten() {
+        Registration first = createRegistration("ep1", 300);
+        Registration second = createRegistration("ep1", 600);
+        Registration other = createRegistration("ep2", 300);
+
+        updateExpiration(first);
+        updateExpiration(other);
+        updateExpiration(second);
+        flush();
+
+        assertThat(captureFlushedExpirations()).isEqualTo(Map.of(
+                "ep1", second.getExpirationTimeStamp(0),
+                "ep2", other.getExpirationTimeStamp(0)));
+    }
+
+    @Test
+    public void givenWriteBehind_whenRegistrationIsRemovedBeforeFlush_thenExpirationIsNotWritten() {
+        Registration registration = createRegistration("ep1", 300);
+
+        updateExpiration(registration);
+        ReflectionTestUtils.invokeMethod(store, "removeExpiration", connection, registration);
+        flush();
+
+        then(connection).should().zRem(EXP_EP, "ep1".getBytes(UTF_8));
+        then(zSetCommands).should(never()).zAdd(any(byte[].class), anySet());
+    }
+
+    @Test
+    public void givenWriteBehind_whenRegistrationIsAddedAfterRemoval_thenNewExpirationIsWritten() {
+        Registration registration = createRegistration("ep1", 300);
+        Registration newRegistration = createRegistration("ep1", 600);
+
+        updateExpiration(registration);
+        ReflectionTestUtils.invokeMethod(store, "removeExpiration", connection, registration);
+        updateExpiration(newRegistration);
+        flush();
+
+        assertThat(captureFlushedExpirations()).isEqualTo(Map.of("ep1", newRegistration.getExpirationTimeStamp(0)));
+    }
+
+    @Test
+    public void givenWriteBehind_whenBatchSizeIsReached_thenExpirationsAreWrittenWithoutWaitingForFlush() {
+        given(config.getRegistrationStoreBatchSize()).willReturn(2);
+        store.destroy();
+        store = new TbLwM2mRedisRegistrationStore(config, mock(RedisConnectionFactory.class), null);
+
+        updateExpiration(createRegistration("ep1", 300));
+        then(zSetCommands).should(never()).zAdd(any(byte[].class), anySet());
+        updateExpiration(createRegistration("ep2", 300));
+
+        assertThat(captureFlushedExpirations()).containsOnlyKeys("ep1", "ep2");
+    }
+
+    @Test
+    public void givenWriteBehindDisabled_whenRegistrationIsUpdated_thenExpirationIsWrittenImmediately() {
+        given(config.getRegistrationStoreFlushIntervalMs()).willReturn(0L);
+        store.destroy();
+        store = new TbLwM2mRedisRegistrationStore(config, mock(RedisConnectionFactory.class), null);
+        Registration registration = createRegistration("ep1", 300);
+
+        updateExpiration(registration);
+
+        then(connection).should().zAdd(EXP_EP, registration.getExpirationTimeStamp(0), "ep1".getBytes(UTF_8));
+        flush();
+        then(zSetCommands).should(never()).zAdd(any(byte[].class), anySet());
+    }
+
+    private void updateExpiration(Registration registration) {
+        ReflectionTestUtils.invokeMethod(store, "addOrUpdateExpiration", connection, registration);
+    }
+
+    private void flush() {
+        ReflectionTestUtils.invokeMethod(store, "flushExpirations", connection);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Long> captureFlushedExpirations() {
+        ArgumentCaptor<Set<Tuple>> tuplesCaptor = ArgumentCaptor.forClass(Set.class);
+        then(zSetCommands).should(times(1)).zAdd(eq(EXP_EP), tuplesCaptor.capture());
+        return tuplesCaptor.getValue().stream()
+                .collect(Collectors.toMap(tuple -> new String(tuple.getValue(), UTF_8), tuple -> tuple.getScore().longValue()));
+    }
+
+    private static Registration createRegistration(String endpoint, long lifetimeInSec) {
+        return new Registration
+                .Builder(endpoint + "-reg", endpoint, new IpPeer(new InetSocketAddress(Inet4Address.getLoopbackAddress(), 1000)),
+                EndpointUriUtil.createUri("coap://localhost:5685"))
+                .lifeTimeInSec(lifetimeInSec)
+                .lastUpdate(new Date())
+                .build();
+    }
+
+}
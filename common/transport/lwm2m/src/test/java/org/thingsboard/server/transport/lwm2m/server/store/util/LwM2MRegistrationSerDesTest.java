@@ -0,0 +1,65 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.lwm2m.server.store.util;
+
+import org.eclipse.leshan.core.LwM2m.LwM2mVersion;
+import org.eclipse.leshan.core.endpoint.EndpointUriUtil;
+import org.eclipse.leshan.core.link.Link;
+import org.eclipse.leshan.core.peer.IpPeer;
+import org.eclipse.leshan.server.redis.serialization.RegistrationSerDes;
+import org.eclipse.leshan.server.registration.Registration;
+import org.junit.jupiter.api.Test;
+
+import java.net.Inet4Address;
+import java.net.InetSocketAddress;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class LwM2MRegistrationSerDesTest {
+
+    @Test
+    public void serializeDeserialize() {
+        Registration registration = createRegistration();
+
+        byte[] data = LwM2MRegistrationSerDes.serialize(registration);
+        Registration result = LwM2MRegistrationSerDes.deserialize(data);
+
+        assertEquals(registration.toString(), result.toString());
+        assertThat(data.length).isLessThan(new RegistrationSerDes().bSerialize(registration).length);
+    }
+
+    @Test
+    public void deserializeLegacyJson() {
+        Registration registration = createRegistration();
+
+        Registration result = LwM2MRegistrationSerDes.deserialize(new RegistrationSerDes().bSerialize(registration));
+
+        assertEquals(registration.toString(), result.toString());
+    }
+
+    private static Registration createRegistration() {
+        return new Registration
+                .Builder("test", "endpoint", new IpPeer(new InetSocketAddress(Inet4Address.getLoopbackAddress(), 1000)),
+                EndpointUriUtil.createUri("coap://localhost:5685"))
+                .supportedContentFormats()
+                .supportedObjects(Map.of(15, LwM2mVersion.V1_0, 17, LwM2mVersion.V1_0))
+                .objectLinks(new Link[]{new Link("/15"), new Link("/17")})
+                .build();
+    }
+
+}
@@ -22,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.thingsboard.server.common.transport.TransportContext;
 import org.thingsboard.server.transport.mqtt.adaptors.JsonMqttAdaptor;
@@ -30,6 +31,7 @@ import org.thingsboard.server.transport.mqtt.adaptors.ProtoMqttAdaptor;
 import jakarta.annotation.PostConstruct;
 import java.net.InetSocketAddress;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Created by ashvayka on 04.10.18.
@@ -79,7 +81,26 @@ public class MqttTransportContext extends TransportContext {
     @Value("${transport.mqtt.proxy_enabled:false}")
     private boolean proxyEnabled;
 
+    @Getter
+    @Value("${transport.mqtt.netty.flush_consolidation.enabled:true}")
+    private boolean flushConsolidationEnabled;
+
+    @Getter
+    @Value("${transport.mqtt.netty.flush_consolidation.explicit_flush_after_flushes:256}")
+    private int explicitFlushAfterFlushes;
+
+    @Getter
+    @Value("${transport.mqtt.netty.drop_qos0_downlinks_when_not_writable:false}")
+    private boolean dropQos0DownlinksWhenNotWritable;
+
+    @Getter
+    @Value("${transport.stats.enabled:false}")
+    private boolean statsEnabled;
+
     private final AtomicInteger connectionsCounter = new AtomicInteger();
+    private final LongAdder downlinkMsgsCounter = new LongAdder();
+    private final LongAdder downlinkFlushesCounter = new LongAdder();
+    private final LongAdder droppedDownlinkMsgsCounter = new LongAdder();
 
     @PostConstruct
     public void init() {
@@ -95,6 +116,29 @@ public class MqttTransportContext extends TransportContext {
         connectionsCounter.decrementAndGet();
     }
 
+    public void onDownlinkMsg() {
+        downlinkMsgsCounter.increment();
+    }
+
+    public void onDownlinkFlush() {
+        downlinkFlushesCounter.increment();
+    }
+
+    public void onDownlinkDropped() {
+        droppedDownlinkMsgsCounter.increment();
+    }
+
+    @Scheduled(fixedDelayString = "${transport.stats.print-interval-ms:60000}")
+    public void printDownlinkStats() {
+        long msgs = downlinkMsgsCounter.sumThenReset();
+        long flushes = downlinkFlushesCounter.sumThenReset();
+        long dropped = droppedDownlinkMsgsCounter.sumThenReset();
+        if (statsEnabled && (msgs > 0 || dropped > 0)) {
+            log.info("MQTT downlink stats: msgs [{}], flushes [{}], flushes per msg [{}], dropped msgs [{}]",
+                    msgs, flushes, String.format("%.3f", (double) flushes / Math.max(msgs, 1)), dropped);
+        }
+    }
+
     public boolean checkAddress(InetSocketAddress address) {
         return rateLimitService.checkAddress(address);
     }
@@ -1284,7 +1284,7 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
             } else {
                 String topic = attrSubTopicType.getAttributesSubTopic();
                 MqttTransportAdaptor adaptor = deviceSessionCtx.getAdaptor(attrSubTopicType);
-                adaptor.convertToPublish(deviceSessionCtx, notification, topic).ifPresent(deviceSessionCtx.getChannel()::writeAndFlush);
+                adaptor.convertToPublish(deviceSessionCtx, notification, topic).ifPresent(this::publishAttributeUpdate);
             }
         } catch (Exception e) {
             log.trace("[{}] Failed to convert device attributes update to MQTT msg", sessionId, e);
@@ -1401,6 +1401,17 @@ public class MqttTransportHandler extends ChannelInboundHandlerAdapter implement
         }
     }
 
+    void publishAttributeUpdate(MqttMessage message) {
+        ChannelHandlerContext channel = deviceSessionCtx.getChannel();
+        if (context.isDropQos0DownlinksWhenNotWritable() && !channel.channel().isWritable() && !isAckExpected(message)) {
+            log.trace("[{}] Channel is not writable, dropping attributes update", sessionId);
+            context.onDownlinkDropped();
+            ReferenceCountUtil.release(message);
+            return;
+        }
+        channel.writeAndFlush(message);
+    }
+
     private ChannelFuture publish(MqttMessage message, DeviceSessionCtx deviceSessionCtx) {
         return deviceSessionCtx.getChannel().writeAndFlush(message);
     }
@@ -21,9 +21,11 @@ import io.netty.channel.socket.SocketChannel;
 import io.netty.handler.codec.haproxy.HAProxyMessageDecoder;
 import io.netty.handler.codec.mqtt.MqttDecoder;
 import io.netty.handler.codec.mqtt.MqttEncoder;
+import io.netty.handler.flush.FlushConsolidationHandler;
 import io.netty.handler.ssl.SslHandler;
 import org.thingsboard.server.transport.mqtt.limits.IpFilter;
 import org.thingsboard.server.transport.mqtt.limits.ProxyIpFilter;
+import org.thingsboard.server.transport.mqtt.util.MqttDownlinkStatsHandler;
 
 /**
  * @author Andrew Shvayka
@@ -32,10 +34,12 @@ public class MqttTransportServerInitializer extends ChannelInitializer<SocketCha
 
     private final MqttTransportContext context;
     private final boolean sslEnabled;
+    private final MqttDownlinkStatsHandler downlinkStatsHandler;
 
     public MqttTransportServerInitializer(MqttTransportContext context, boolean sslEnabled) {
         this.context = context;
         this.sslEnabled = sslEnabled;
+        this.downlinkStatsHandler = context.isStatsEnabled() ? new MqttDownlinkStatsHandler(context) : null;
     }
 
     @Override
@@ -52,6 +56,14 @@ public class MqttTransportServerInitializer extends ChannelInitializer<SocketCha
             sslHandler = context.getSslHandlerProvider().getSslHandler();
             pipeline.addLast(sslHandler);
         }
+        if (downlinkStatsHandler != null) {
+            pipeline.addLast("downlinkStats", downlinkStatsHandler);
+        }
+        if (context.isFlushConsolidationEnabled()) {
+            // Flushes issued while reading are deferred until the read is complete, other flushes are consolidated
+            // until the event loop runs out of pending tasks, so a burst of small downlinks costs a single write syscall.
+            pipeline.addLast("flushConsolidation", new FlushConsolidationHandler(context.getExplicitFlushAfterFlushes(), true));
+        }
         pipeline.addLast("decoder", new MqttDecoder(context.getMaxPayloadSize()));
         pipeline.addLast("encoder", MqttEncoder.INSTANCE);
 
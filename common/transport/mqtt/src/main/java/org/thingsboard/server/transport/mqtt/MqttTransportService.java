@@ -19,6 +19,7 @@ import io.netty.bootstrap.ServerBootstrap;
 import io.netty.channel.Channel;
 import io.netty.channel.ChannelOption;
 import io.netty.channel.EventLoopGroup;
+import io.netty.channel.WriteBufferWaterMark;
 import io.netty.channel.nio.NioEventLoopGroup;
 import io.netty.channel.socket.nio.NioServerSocketChannel;
 import io.netty.util.AttributeKey;
@@ -66,6 +67,10 @@ public class MqttTransportService implements TbTransportService {
     private Integer workerGroupThreadCount;
     @Value("${transport.mqtt.netty.so_keep_alive}")
     private boolean keepAlive;
+    @Value("${transport.mqtt.netty.write_buffer_low_water_mark:32768}")
+    private int writeBufferLowWaterMark;
+    @Value("${transport.mqtt.netty.write_buffer_high_water_mark:65536}")
+    private int writeBufferHighWaterMark;
 
     @Autowired
     private MqttTransportContext context;
@@ -87,7 +92,8 @@ public class MqttTransportService implements TbTransportService {
         b.group(bossGroup, workerGroup)
                 .channel(NioServerSocketChannel.class)
                 .childHandler(new MqttTransportServerInitializer(context, false))
-                .childOption(ChannelOption.SO_KEEPALIVE, keepAlive);
+                .childOption(ChannelOption.SO_KEEPALIVE, keepAlive)
+                .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(writeBufferLowWaterMark, writeBufferHighWaterMark));
 
         serverChannel = b.bind(host, port).sync().channel();
         if (sslEnabled) {
@@ -95,7 +101,8 @@ public class MqttTransportService implements TbTransportService {
             b.group(bossGroup, workerGroup)
                     .channel(NioServerSocketChannel.class)
                     .childHandler(new MqttTransportServerInitializer(context, true))
-                    .childOption(ChannelOption.SO_KEEPALIVE, keepAlive);
+                    .childOption(ChannelOption.SO_KEEPALIVE, keepAlive)
+                    .childOption(ChannelOption.WRITE_BUFFER_WATER_MARK, new WriteBufferWaterMark(writeBufferLowWaterMark, writeBufferHighWaterMark));
             sslServerChannel = b.bind(sslHost, sslPort).sync().channel();
         }
         log.info("Mqtt transport started!");
@@ -0,0 +1,49 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.mqtt.util;
+
+import io.netty.channel.ChannelHandler;
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelOutboundHandlerAdapter;
+import io.netty.channel.ChannelPromise;
+import org.thingsboard.server.transport.mqtt.MqttTransportContext;
+
+/**
+ * Counts the encoded outbound messages and the flushes that reach the socket (after the flush consolidation),
+ * so the number of write syscalls per downlink message can be tracked.
+ */
+@ChannelHandler.Sharable
+public class MqttDownlinkStatsHandler extends ChannelOutboundHandlerAdapter {
+
+    private final MqttTransportContext context;
+
+    public MqttDownlinkStatsHandler(MqttTransportContext context) {
+        this.context = context;
+    }
+
+    @Override
+    public void write(ChannelHandlerContext ctx, Object msg, ChannelPromise promise) throws Exception {
+        context.onDownlinkMsg();
+        super.write(ctx, msg, promise);
+    }
+
+    @Override
+    public void flush(ChannelHandlerContext ctx) throws Exception {
+        context.onDownlinkFlush();
+        super.flush(ctx);
+    }
+
+}
@@ -17,6 +17,7 @@ package org.thingsboard.server.transport.mqtt;
 
 import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
+import io.netty.channel.Channel;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.mqtt.MqttConnectMessage;
 import io.netty.handler.codec.mqtt.MqttConnectPayload;
@@ -70,6 +71,7 @@ import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.BDDMockito.willDoNothing;
 import static org.mockito.BDDMockito.willReturn;
 import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.spy;
 import static org.mockito.Mockito.times;
@@ -131,7 +133,11 @@ public class MqttTransportHandlerTest {
     }
 
     MqttPublishMessage getMqttPublishMessage(String topicName) {
-        MqttFixedHeader mqttFixedHeader = new MqttFixedHeader(MqttMessageType.PUBLISH, true, MqttQoS.AT_LEAST_ONCE, false, 123);
+        return getMqttPublishMessage(topicName, MqttQoS.AT_LEAST_ONCE);
+    }
+
+    MqttPublishMessage getMqttPublishMessage(String topicName, MqttQoS qos) {
+        MqttFixedHeader mqttFixedHeader = new MqttFixedHeader(MqttMessageType.PUBLISH, true, qos, false, 123);
         MqttPublishVariableHeader variableHeader = new MqttPublishVariableHeader(topicName, packedId.incrementAndGet());
         ByteBuf payload = Unpooled.wrappedBuffer("{\"testKey\":\"testValue\"}".getBytes());
         return new MqttPublishMessage(mqttFixedHeader, variableHeader, payload);
@@ -254,4 +260,47 @@ public class MqttTransportHandlerTest {
         verify(transportService, times(1)).process(any(), (TransportProtos.PostTelemetryMsg) any(), eq(expectedMd), any());
     }
 
-}
\ No newline at end of file
+    @Test
+    public void givenNotWritableChannel_whenPublishQos0AttributeUpdate_thenDropped() {
+        givenNotWritableChannel();
+        MqttPublishMessage message = getMqttPublishMessage("v1/devices/me/attributes", MqttQoS.AT_MOST_ONCE);
+        ByteBuf payload = message.payload();
+
+        handler.publishAttributeUpdate(message);
+
+        verify(ctx, never()).writeAndFlush(any());
+        verify(context, times(1)).onDownlinkDropped();
+        assertThat(payload.refCnt(), is(0));
+    }
+
+    @Test
+    public void givenNotWritableChannel_whenPublishQos1AttributeUpdate_thenDeferredInOutboundBuffer() {
+        givenNotWritableChannel();
+        MqttPublishMessage message = getMqttPublishMessage("v1/devices/me/attributes", MqttQoS.AT_LEAST_ONCE);
+
+        handler.publishAttributeUpdate(message);
+
+        verify(ctx, times(1)).writeAndFlush(message);
+        verify(context, never()).onDownlinkDropped();
+    }
+
+    @Test
+    public void givenDropDisabled_whenPublishQos0AttributeUpdate_thenWritten() {
+        handler.deviceSessionCtx.setChannel(ctx);
+        MqttPublishMessage message = getMqttPublishMessage("v1/devices/me/attributes", MqttQoS.AT_MOST_ONCE);
+
+        handler.publishAttributeUpdate(message);
+
+        verify(ctx, times(1)).writeAndFlush(message);
+        verify(context, never()).onDownlinkDropped();
+    }
+
+    private void givenNotWritableChannel() {
+        Channel channel = mock(Channel.class);
+        willReturn(false).given(channel).isWritable();
+        willReturn(channel).given(ctx).channel();
+        willReturn(true).given(context).isDropQos0DownlinksWhenNotWritable();
+        handler.deviceSessionCtx.setChannel(ctx);
+    }
+
+}
@@ -0,0 +1,77 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.transport.mqtt.util;
+
+import io.netty.channel.ChannelHandlerContext;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.flush.FlushConsolidationHandler;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.transport.mqtt.MqttTransportContext;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+public class MqttDownlinkStatsHandlerTest {
+
+    private static final int DOWNLINKS_PER_READ = 5;
+
+    @Test
+    public void givenDownlinksWrittenWhileReading_whenReadComplete_thenFlushesAreConsolidated() {
+        MqttTransportContext context = mock(MqttTransportContext.class);
+        EmbeddedChannel channel = new EmbeddedChannel(
+                new MqttDownlinkStatsHandler(context),
+                new FlushConsolidationHandler(256, true),
+                newDownlinkWriter());
+
+        channel.writeInbound("uplink");
+
+        verify(context, times(DOWNLINKS_PER_READ)).onDownlinkMsg();
+        verify(context, times(1)).onDownlinkFlush();
+        assertThat(channel.outboundMessages()).hasSize(DOWNLINKS_PER_READ);
+        channel.finishAndReleaseAll();
+    }
+
+    @Test
+    public void givenExplicitFlushAfterFlushes_whenManyDownlinksWrittenWhileReading_thenFlushedInBatches() {
+        MqttTransportContext context = mock(MqttTransportContext.class);
+        EmbeddedChannel channel = new EmbeddedChannel(
+                new MqttDownlinkStatsHandler(context),
+                new FlushConsolidationHandler(2, true),
+                newDownlinkWriter());
+
+        channel.writeInbound("uplink");
+
+        // two explicit flushes after every second downlink and the last one on the read complete
+        verify(context, times(DOWNLINKS_PER_READ)).onDownlinkMsg();
+        verify(context, times(3)).onDownlinkFlush();
+        channel.finishAndReleaseAll();
+    }
+
+    private static ChannelInboundHandlerAdapter newDownlinkWriter() {
+        return new ChannelInboundHandlerAdapter() {
+            @Override
+            public void channelRead(ChannelHandlerContext ctx, Object msg) {
+                for (int i = 0; i < DOWNLINKS_PER_READ; i++) {
+                    ctx.writeAndFlush(msg + "-" + i);
+                }
+            }
+        };
+    }
+
+}
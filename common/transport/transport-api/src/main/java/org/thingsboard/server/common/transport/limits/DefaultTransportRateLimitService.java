@@ -69,6 +69,8 @@ public class DefaultTransportRateLimitService implements TransportRateLimitServi
     private int maxWrongCredentialsPerIp;
     @Value("${transport.rate_limits.ip_block_timeout:60000}")
     private long ipBlockTimeout;
+    @Value("${transport.rate_limits.packed_state_enabled:false}")
+    private boolean packedStateEnabled;
 
     public DefaultTransportRateLimitService(TransportTenantProfileCache tenantProfileCache) {
         this.tenantProfileCache = tenantProfileCache;
@@ -299,8 +301,8 @@ public class DefaultTransportRateLimitService implements TransportRateLimitServi
         }
     }
 
-    private static TransportRateLimit newLimit(String config) {
-        return StringUtils.isEmpty(config) ? ALLOW : new SimpleTransportRateLimit(config);
+    private TransportRateLimit newLimit(String config) {
+        return StringUtils.isEmpty(config) ? ALLOW : new SimpleTransportRateLimit(config, packedStateEnabled);
     }
 
     private EntityTransportRateLimits getTenantRateLimits(TenantId tenantId) {
@@ -27,8 +27,12 @@ public class SimpleTransportRateLimit implements TransportRateLimit {
     private final String configuration;
 
     public SimpleTransportRateLimit(String configuration) {
+        this(configuration, false);
+    }
+
+    public SimpleTransportRateLimit(String configuration, boolean packed) {
         this.configuration = configuration;
-        this.rateLimit = new TbRateLimits(configuration);
+        this.rateLimit = new TbRateLimits(configuration, false, packed);
     }
 
     @Override
@@ -21,6 +21,7 @@ import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 import com.google.gson.Gson;
 import com.google.gson.JsonObject;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
@@ -154,6 +155,8 @@ public class DefaultTransportService extends TransportActivityManager implements
     private long clientSideRpcTimeout;
     @Value("${queue.transport.poll_interval}")
     private int notificationsPollDuration;
+    @Value("${queue.transport.notifications_parallelism:4}")
+    private int notificationsParallelism;
     @Value("${transport.stats.enabled:false}")
     private boolean statsEnabled;
 
@@ -192,6 +195,9 @@ public class DefaultTransportService extends TransportActivityManager implements
 
     protected ExecutorService transportCallbackExecutor;
     private ExecutorService consumerExecutor;
+    private ExecutorService notificationsCallbackExecutor;
+    private SessionOrderedExecutor notificationsExecutor;
+    private Timer notificationsQueueLagTimer;
 
     private final Map<String, RpcRequestMetadata> toServerRpcPendingMap = new ConcurrentHashMap<>();
 
@@ -209,6 +215,12 @@ public class DefaultTransportService extends TransportActivityManager implements
         tbCoreMsgProducer = producerProvider.getTbCoreMsgProducer();
         transportApiRequestTemplate.init();
         consumerExecutor = Executors.newSingleThreadExecutor(ThingsBoardThreadFactory.forName("transport-consumer"));
+        if (notificationsParallelism > 0) {
+            notificationsCallbackExecutor = ThingsBoardExecutors.newWorkStealingPool(notificationsParallelism, "transport-notifications");
+        }
+        notificationsExecutor = new SessionOrderedExecutor(notificationsCallbackExecutor != null ? notificationsCallbackExecutor : transportCallbackExecutor);
+        createGaugeStats("notificationsQueueSize", notificationsExecutor.getQueueSize());
+        notificationsQueueLagTimer = statsFactory.createTimer(StatsType.TRANSPORT.getName() + ".notificationsQueueLag");
         transportNotificationsConsumer = QueueConsumerManager.<TbProtoQueueMsg<ToTransportMsg>>builder()
                 .name("TB Transport")
                 .msgPackProcessor(this::processNotificationMsgs)
@@ -248,6 +260,9 @@ public class DefaultTransportService extends TransportActivityManager implements
         if (transportCallbackExecutor != null) {
             transportCallbackExecutor.shutdownNow();
         }
+        if (notificationsCallbackExecutor != null) {
+            notificationsCallbackExecutor.shutdownNow();
+        }
         if (consumerExecutor != null) {
             consumerExecutor.shutdownNow();
         }
@@ -881,12 +896,15 @@ public class DefaultTransportService extends TransportActivityManager implements
     }
 
     protected void processToTransportMsg(ToTransportMsg toSessionMsg) {
-        UUID sessionId = new UUID(toSessionMsg.getSessionIdMSB(), toSessionMsg.getSessionIdLSB());
+        UUID sessionId = toSessionId(toSessionMsg);
         SessionMetaData md = sessions.get(sessionId);
         if (md != null) {
             log.trace("[{}] Processing notification: {}", sessionId, toSessionMsg);
             SessionMsgListener listener = md.getListener();
-            transportCallbackExecutor.submit(() -> {
+            long enqueueTs = System.nanoTime();
+            // notifications of the same session are delivered in order, different sessions are processed in parallel
+            notificationsExecutor.execute(sessionId, () -> {
+                notificationsQueueLagTimer.record(System.nanoTime() - enqueueTs, TimeUnit.NANOSECONDS);
                 if (toSessionMsg.hasGetAttributesResponse()) {
                     listener.onGetAttributesResponse(toSessionMsg.getGetAttributesResponse());
                 }
@@ -1068,6 +1086,10 @@ public class DefaultTransportService extends TransportActivityManager implements
         eventPublisher.publishEvent(new DeviceDeletedEvent(deviceId));
     }
 
+    private UUID toSessionId(ToTransportMsg toTransportMsg) {
+        return new UUID(toTransportMsg.getSessionIdMSB(), toTransportMsg.getSessionIdLSB());
+    }
+
     protected UUID toSessionId(TransportProtos.SessionInfoProto sessionInfo) {
         return new UUID(sessionInfo.getSessionIdMSB(), sessionInfo.getSessionIdLSB());
     }
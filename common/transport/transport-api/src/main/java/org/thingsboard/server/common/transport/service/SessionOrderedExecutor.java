@@ -0,0 +1,97 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.transport.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executes the tasks of the same session one by one in the submission order using the shared executor,
+ * while the tasks of different sessions are executed in parallel. The caller is never blocked.
+ */
+@Slf4j
+public class SessionOrderedExecutor {
+
+    private final Executor executor;
+    private final ConcurrentMap<UUID, SessionTasks> sessionTasks = new ConcurrentHashMap<>();
+    private final AtomicInteger queueSize = new AtomicInteger();
+
+    public SessionOrderedExecutor(Executor executor) {
+        this.executor = executor;
+    }
+
+    public void execute(UUID sessionId, Runnable task) {
+        queueSize.incrementAndGet();
+        boolean[] created = new boolean[1];
+        SessionTasks tasks = sessionTasks.compute(sessionId, (id, existing) -> {
+            if (existing == null) {
+                existing = new SessionTasks(id);
+                created[0] = true;
+            }
+            existing.queue.add(task);
+            return existing;
+        });
+        if (created[0]) {
+            executor.execute(tasks);
+        }
+    }
+
+    public AtomicInteger getQueueSize() {
+        return queueSize;
+    }
+
+    private class SessionTasks implements Runnable {
+
+        private final UUID sessionId;
+        private final Queue<Runnable> queue = new ArrayDeque<>();
+
+        private SessionTasks(UUID sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        @Override
+        public void run() {
+            Runnable task;
+            while ((task = poll()) != null) {
+                queueSize.decrementAndGet();
+                try {
+                    task.run();
+                } catch (Throwable e) {
+                    log.warn("[{}] Failed to process the session task", sessionId, e);
+                }
+            }
+        }
+
+        // the queue is accessed only inside the map compute, so the tasks are never left without the runner
+        private Runnable poll() {
+            Runnable[] next = new Runnable[1];
+            sessionTasks.computeIfPresent(sessionId, (id, tasks) -> {
+                next[0] = tasks.queue.poll();
+                return next[0] != null ? tasks : null;
+            });
+            return next[0];
+        }
+
+    }
+
+}
@@ -0,0 +1,128 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.transport.service;
+
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.transport.SessionMsgListener;
+import org.thingsboard.server.gen.transport.TransportProtos;
+import org.thingsboard.server.gen.transport.TransportProtos.ToTransportMsg;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.Mockito.mock;
+
+@ExtendWith(MockitoExtension.class)
+public class DefaultTransportServiceTest {
+
+    @Mock
+    private DefaultTransportService transportServiceMock;
+    private ExecutorService executorService;
+
+    @BeforeEach
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+        ReflectionTestUtils.setField(transportServiceMock, "sessions", new ConcurrentHashMap<>());
+        ReflectionTestUtils.setField(transportServiceMock, "notificationsExecutor", new SessionOrderedExecutor(executorService));
+        ReflectionTestUtils.setField(transportServiceMock, "notificationsQueueLagTimer", mock(Timer.class));
+        doCallRealMethod().when(transportServiceMock).processToTransportMsg(any());
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void givenNotificationsOfSession_whenProcessToTransportMsg_thenDeliveredInOrder() {
+        UUID sessionId = UUID.randomUUID();
+        List<Long> delivered = new CopyOnWriteArrayList<>();
+        SessionMsgListener listener = mock(SessionMsgListener.class);
+        doAnswer(inv -> delivered.add(inv.<TransportProtos.AttributeUpdateNotificationMsg>getArgument(1).getSharedUpdated(0).getTs()))
+                .when(listener).onAttributeUpdate(any(), any());
+        registerSession(sessionId, listener);
+
+        IntStream.range(0, 500).forEach(i -> transportServiceMock.processToTransportMsg(toAttributeUpdateMsg(sessionId, i)));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> delivered.size() == 500);
+        assertThat(delivered).isSorted();
+    }
+
+    @Test
+    public void givenSlowListener_whenProcessToTransportMsg_thenConsumerAndOtherSessionsAreNotBlocked() {
+        UUID slowSessionId = UUID.randomUUID();
+        UUID sessionId = UUID.randomUUID();
+        CountDownLatch slowListenerLatch = new CountDownLatch(1);
+        List<UUID> delivered = new CopyOnWriteArrayList<>();
+        SessionMsgListener slowListener = mock(SessionMsgListener.class);
+        doAnswer(inv -> {
+            slowListenerLatch.await();
+            return delivered.add(inv.getArgument(0));
+        }).when(slowListener).onAttributeUpdate(any(), any());
+        SessionMsgListener listener = mock(SessionMsgListener.class);
+        doAnswer(inv -> delivered.add(inv.getArgument(0))).when(listener).onAttributeUpdate(any(), any());
+        registerSession(slowSessionId, slowListener);
+        registerSession(sessionId, listener);
+
+        transportServiceMock.processToTransportMsg(toAttributeUpdateMsg(slowSessionId, 0));
+        transportServiceMock.processToTransportMsg(toAttributeUpdateMsg(sessionId, 0));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> delivered.contains(sessionId));
+        assertThat(delivered).containsExactly(sessionId);
+
+        slowListenerLatch.countDown();
+        await().atMost(10, TimeUnit.SECONDS).until(() -> delivered.size() == 2);
+    }
+
+    private void registerSession(UUID sessionId, SessionMsgListener listener) {
+        TransportProtos.SessionInfoProto sessionInfo = TransportProtos.SessionInfoProto.newBuilder()
+                .setSessionIdMSB(sessionId.getMostSignificantBits())
+                .setSessionIdLSB(sessionId.getLeastSignificantBits())
+                .build();
+        transportServiceMock.sessions.put(sessionId, new SessionMetaData(sessionInfo, TransportProtos.SessionType.ASYNC, listener));
+    }
+
+    private ToTransportMsg toAttributeUpdateMsg(UUID sessionId, long ts) {
+        return ToTransportMsg.newBuilder()
+                .setSessionIdMSB(sessionId.getMostSignificantBits())
+                .setSessionIdLSB(sessionId.getLeastSignificantBits())
+                .setAttributeUpdateNotification(TransportProtos.AttributeUpdateNotificationMsg.newBuilder()
+                        .addSharedUpdated(TransportProtos.TsKvProto.newBuilder()
+                                .setTs(ts)
+                                .setKv(TransportProtos.KeyValueProto.newBuilder().setKey("key").setType(TransportProtos.KeyValueType.LONG_V).setLongV(ts))))
+                .build();
+    }
+
+}
@@ -0,0 +1,102 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.common.transport.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+
+public class SessionOrderedExecutorTest {
+
+    private ExecutorService executorService;
+    private SessionOrderedExecutor executor;
+
+    @BeforeEach
+    public void setUp() {
+        executorService = Executors.newFixedThreadPool(4);
+        executor = new SessionOrderedExecutor(executorService);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executorService.shutdownNow();
+    }
+
+    @Test
+    public void givenTasksOfSameSession_whenExecute_thenExecutedInOrder() {
+        UUID sessionId = UUID.randomUUID();
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+
+        IntStream.range(0, 1000).forEach(i -> executor.execute(sessionId, () -> executed.add(i)));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> executed.size() == 1000);
+        assertThat(executed).isSorted();
+        assertThat(executor.getQueueSize().get()).isZero();
+    }
+
+    @Test
+    public void givenSlowSession_whenExecute_thenOtherSessionsAndCallerAreNotBlocked() throws InterruptedException {
+        UUID slowSessionId = UUID.randomUUID();
+        UUID sessionId = UUID.randomUUID();
+        CountDownLatch slowTaskLatch = new CountDownLatch(1);
+        List<String> executed = new CopyOnWriteArrayList<>();
+
+        executor.execute(slowSessionId, () -> {
+            try {
+                slowTaskLatch.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            executed.add("slow-1");
+        });
+        executor.execute(slowSessionId, () -> executed.add("slow-2"));
+        executor.execute(sessionId, () -> executed.add("fast"));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> executed.contains("fast"));
+        assertThat(executed).containsExactly("fast");
+        assertThat(executor.getQueueSize().get()).isEqualTo(1);
+
+        slowTaskLatch.countDown();
+        await().atMost(10, TimeUnit.SECONDS).until(() -> executed.size() == 3);
+        assertThat(executed).containsExactly("fast", "slow-1", "slow-2");
+    }
+
+    @Test
+    public void givenFailedTask_whenExecute_thenNextTasksOfSessionAreExecuted() {
+        UUID sessionId = UUID.randomUUID();
+        List<Integer> executed = new CopyOnWriteArrayList<>();
+
+        executor.execute(sessionId, () -> {
+            throw new RuntimeException("test");
+        });
+        executor.execute(sessionId, () -> executed.add(1));
+
+        await().atMost(10, TimeUnit.SECONDS).until(() -> executed.size() == 1);
+    }
+
+}
@@ -20,6 +20,7 @@ import org.thingsboard.server.common.data.audit.ActionType;
 import org.thingsboard.server.common.data.audit.AuditLog;
 import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.id.UserId;
 import org.thingsboard.server.common.data.page.PageData;
 import org.thingsboard.server.common.data.page.TimePageLink;
@@ -40,4 +41,6 @@ public interface AuditLogDao extends Dao<AuditLog> {
 
     void cleanUpAuditLogs(long expTime);
 
+    List<AuditLog> saveAll(TenantId tenantId, List<AuditLog> auditLogs);
+
 }
@@ -20,8 +20,11 @@ import com.fasterxml.jackson.databind.node.ArrayNode;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Service;
 import org.thingsboard.common.util.JacksonUtil;
@@ -44,15 +47,21 @@ import org.thingsboard.server.common.data.page.TimePageLink;
 import org.thingsboard.server.common.data.relation.EntityRelation;
 import org.thingsboard.server.common.data.rule.RuleChainMetaData;
 import org.thingsboard.server.common.data.security.DeviceCredentials;
+import org.thingsboard.server.common.stats.StatsFactory;
 import org.thingsboard.server.dao.audit.sink.AuditLogSink;
 import org.thingsboard.server.dao.device.provision.ProvisionRequest;
 import org.thingsboard.server.dao.entity.EntityService;
 import org.thingsboard.server.dao.service.DataValidator;
 import org.thingsboard.server.dao.sql.JpaExecutorService;
+import org.thingsboard.server.dao.sql.ScheduledLogExecutorComponent;
+import org.thingsboard.server.dao.sql.TbSqlBlockingQueueParams;
+import org.thingsboard.server.dao.sql.TbSqlBlockingQueueWrapper;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static org.thingsboard.server.dao.service.Validator.validateEntityId;
@@ -83,6 +92,57 @@ public class AuditLogServiceImpl implements AuditLogService {
     @Autowired
     private DataValidator<AuditLog> auditLogValidator;
 
+    @Autowired
+    private ScheduledLogExecutorComponent logExecutor;
+
+    @Autowired
+    private StatsFactory statsFactory;
+
+    @Value("${sql.audit_logs.batch_enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${sql.audit_logs.batch_size:1000}")
+    private int batchSize;
+
+    @Value("${sql.audit_logs.batch_max_delay:100}")
+    private long maxDelay;
+
+    @Value("${sql.audit_logs.max_queue_size:100000}")
+    private int maxQueueSize;
+
+    @Value("${sql.audit_logs.stats_print_interval_ms:10000}")
+    private long statsPrintIntervalMs;
+
+    private TbSqlBlockingQueueWrapper<AuditLog> queue;
+
+    @PostConstruct
+    private void init() {
+        if (!batchEnabled) {
+            return;
+        }
+        TbSqlBlockingQueueParams params = TbSqlBlockingQueueParams.builder()
+                .logName("Audit Logs")
+                .batchSize(batchSize)
+                .maxDelay(maxDelay)
+                .maxQueueSize(maxQueueSize)
+                .statsPrintIntervalMs(statsPrintIntervalMs)
+                .statsNamePrefix("audit.logs")
+                .batchSortEnabled(false)
+                .build();
+        queue = new TbSqlBlockingQueueWrapper<>(params, auditLog -> Objects.hashCode(auditLog.getTenantId()), 1, statsFactory);
+        queue.init(logExecutor, auditLogs -> {
+            auditLogDao.saveAll(TenantId.SYS_TENANT_ID, auditLogs);
+            auditLogSink.logActions(auditLogs);
+        }, Comparator.comparing(AuditLog::getCreatedTime));
+    }
+
+    @PreDestroy
+    private void destroy() {
+        if (queue != null) {
+            queue.destroy();
+        }
+    }
+
     @Override
     public PageData<AuditLog> findAuditLogsByTenantIdAndCustomerId(TenantId tenantId, CustomerId customerId, List<ActionType> actionTypes, TimePageLink pageLink) {
         log.trace("Executing findAuditLogsByTenantIdAndCustomerId [{}], [{}], [{}]", tenantId, customerId, pageLink);
@@ -407,6 +467,9 @@ public class AuditLogServiceImpl implements AuditLogService {
             }
         }
 
+        if (queue != null) {
+            return queue.add(auditLogEntry);
+        }
         return executor.submit(() -> {
             AuditLog auditLog = auditLogDao.save(tenantId, auditLogEntry);
             auditLogSink.logAction(auditLog);
@@ -19,6 +19,8 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 import org.thingsboard.server.common.data.audit.AuditLog;
 
+import java.util.List;
+
 @Component
 @ConditionalOnProperty(prefix = "audit-log.sink", value = "type", havingValue = "none")
 public class DummyAuditLogSink implements AuditLogSink {
@@ -26,4 +28,8 @@ public class DummyAuditLogSink implements AuditLogSink {
     @Override
     public void logAction(AuditLog auditLogEntry) {
     }
+
+    @Override
+    public void logActions(List<AuditLog> auditLogEntries) {
+    }
 }
@@ -45,6 +45,7 @@ import jakarta.annotation.PreDestroy;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
+import java.util.List;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
@@ -118,6 +119,42 @@ public class ElasticsearchAuditLogSink implements AuditLogSink {
         });
     }
 
+    @Override
+    public void logActions(List<AuditLog> auditLogEntries) {
+        if (auditLogEntries.size() == 1) {
+            logAction(auditLogEntries.get(0));
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                doLogActions(auditLogEntries);
+            } catch (Exception e) {
+                log.error("Failed to log actions", e);
+            }
+        });
+    }
+
+    private void doLogActions(List<AuditLog> auditLogEntries) {
+        StringBuilder bulkContent = new StringBuilder();
+        for (AuditLog auditLogEntry : auditLogEntries) {
+            ObjectNode indexNode = JacksonUtil.newObjectNode();
+            indexNode.putObject("index")
+                    .put("_index", getIndexName(auditLogEntry.getTenantId()))
+                    .put("_type", INDEX_TYPE);
+            bulkContent.append(indexNode).append('\n');
+            bulkContent.append(createElasticJsonRecord(auditLogEntry)).append('\n');
+        }
+
+        HttpEntity entity = new NStringEntity(
+                bulkContent.toString(),
+                ContentType.create("application/x-ndjson"));
+
+        Request request = new Request(HttpMethod.POST.name(), "/_bulk");
+        request.setEntity(entity);
+
+        restClient.performRequestAsync(request, responseListener);
+    }
+
     private void doLogAction(AuditLog auditLogEntry) {
         String jsonContent = createElasticJsonRecord(auditLogEntry);
 
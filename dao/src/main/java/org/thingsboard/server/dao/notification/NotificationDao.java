@@ -27,10 +27,16 @@ import org.thingsboard.server.common.data.page.PageData;
 import org.thingsboard.server.common.data.page.PageLink;
 import org.thingsboard.server.dao.Dao;
 
+import java.util.List;
 import java.util.Set;
 
 public interface NotificationDao extends Dao<Notification> {
 
+    /**
+     * Inserts the new notifications with a single JDBC batch (the ids and the created time are assigned if missing).
+     * */
+    List<Notification> saveAll(TenantId tenantId, List<Notification> notifications);
+
     PageData<Notification> findUnreadByDeliveryMethodAndRecipientIdAndPageLink(TenantId tenantId, NotificationDeliveryMethod deliveryMethod, UserId recipientId, PageLink pageLink);
 
     PageData<Notification> findUnreadByDeliveryMethodAndRecipientIdAndNotificationTypesAndPageLink(TenantId tenantId, NotificationDeliveryMethod deliveryMethod, UserId recipientId, Set<NotificationType> types, PageLink pageLink);
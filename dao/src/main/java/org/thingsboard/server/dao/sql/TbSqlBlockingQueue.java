@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.dao.sql;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.SettableFuture;
 import lombok.extern.slf4j.Slf4j;
@@ -29,6 +30,7 @@ import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
@@ -36,15 +38,18 @@ import java.util.stream.Stream;
 @Slf4j
 public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
 
-    private final BlockingQueue<TbSqlQueueElement<E>> queue = new LinkedBlockingQueue<>();
+    private final BlockingQueue<TbSqlQueueElement<E>> queue;
     private final TbSqlBlockingQueueParams params;
 
     private ExecutorService executor;
     private final MessagesStats stats;
+    private final AtomicLong rejectedCount = new AtomicLong();
+    private final AtomicLong lastRejectedWarnTs = new AtomicLong();
 
     public TbSqlBlockingQueue(TbSqlBlockingQueueParams params, MessagesStats stats) {
         this.params = params;
         this.stats = stats;
+        this.queue = params.getMaxQueueSize() > 0 ? new LinkedBlockingQueue<>(params.getMaxQueueSize()) : new LinkedBlockingQueue<>();
     }
 
     @Override
@@ -122,8 +127,25 @@ public class TbSqlBlockingQueue<E> implements TbSqlQueue<E> {
     @Override
     public ListenableFuture<Void> add(E element) {
         SettableFuture<Void> future = SettableFuture.create();
-        queue.add(new TbSqlQueueElement<>(future, element));
         stats.incrementTotal();
+        if (!queue.offer(new TbSqlQueueElement<>(future, element))) {
+            stats.incrementFailed();
+            onRejected();
+            return Futures.immediateFailedFuture(new IllegalStateException("[" + params.getLogName() + "] Queue is full"));
+        }
         return future;
     }
+
+    /**
+     * Logs the rejected elements at most once per stats print interval
+     */
+    private void onRejected() {
+        rejectedCount.incrementAndGet();
+        long ts = System.currentTimeMillis();
+        long lastWarnTs = lastRejectedWarnTs.get();
+        if (ts - lastWarnTs >= params.getStatsPrintIntervalMs() && lastRejectedWarnTs.compareAndSet(lastWarnTs, ts)) {
+            log.warn("[{}] Queue is full (max size {}), {} elements were rejected", params.getLogName(), params.getMaxQueueSize(), rejectedCount.getAndSet(0));
+        }
+    }
+
 }
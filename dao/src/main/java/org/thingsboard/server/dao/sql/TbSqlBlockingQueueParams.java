@@ -30,4 +30,9 @@ public class TbSqlBlockingQueueParams {
     private final long statsPrintIntervalMs;
     private final String statsNamePrefix;
     private final boolean batchSortEnabled;
+    /**
+     * Max number of the pending elements of each queue, 0 - unbounded.
+     * Elements that do not fit into the queue are rejected with the failed future.
+     */
+    private final int maxQueueSize;
 }
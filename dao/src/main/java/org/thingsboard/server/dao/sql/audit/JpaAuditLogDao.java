@@ -15,16 +15,22 @@
  */
 package org.thingsboard.server.dao.sql.audit;
 
+import com.datastax.oss.driver.api.core.uuid.Uuids;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.server.common.data.audit.ActionType;
 import org.thingsboard.server.common.data.audit.AuditLog;
+import org.thingsboard.server.common.data.id.AuditLogId;
 import org.thingsboard.server.common.data.id.CustomerId;
 import org.thingsboard.server.common.data.id.EntityId;
+import org.thingsboard.server.common.data.id.TenantId;
 import org.thingsboard.server.common.data.id.UserId;
 import org.thingsboard.server.common.data.page.PageData;
 import org.thingsboard.server.common.data.page.TimePageLink;
@@ -36,6 +42,9 @@ import org.thingsboard.server.dao.sql.JpaPartitionedAbstractDao;
 import org.thingsboard.server.dao.sqlts.insert.sql.SqlPartitioningRepository;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
 import java.util.List;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -56,6 +65,10 @@ public class JpaAuditLogDao extends JpaPartitionedAbstractDao<AuditLogEntity, Au
     private long ttlInSec;
 
     private static final String TABLE_NAME = ModelConstants.AUDIT_LOG_TABLE_NAME;
+    private static final String INSERT_QUERY = "INSERT INTO " + TABLE_NAME +
+            " (id, created_time, tenant_id, customer_id, entity_id, entity_type, entity_name, user_id, user_name, " +
+            "action_type, action_data, action_status, action_failure_details) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
 
     @Override
     protected Class<AuditLogEntity> getEntityClass() {
@@ -127,6 +140,47 @@ public class JpaAuditLogDao extends JpaPartitionedAbstractDao<AuditLogEntity, Au
         partitioningRepository.dropPartitionsBefore(TABLE_NAME, expTime, TimeUnit.HOURS.toMillis(partitionSizeInHours));
     }
 
+    @Override
+    @Transactional
+    public List<AuditLog> saveAll(TenantId tenantId, List<AuditLog> auditLogs) {
+        for (AuditLog auditLog : auditLogs) {
+            if (auditLog.getId() == null) {
+                UUID uuid = Uuids.timeBased();
+                auditLog.setId(new AuditLogId(uuid));
+                auditLog.setCreatedTime(Uuids.unixTimestamp(uuid));
+            }
+        }
+        long partitionDurationMs = TimeUnit.HOURS.toMillis(partitionSizeInHours);
+        auditLogs.stream().map(AuditLog::getCreatedTime).distinct().forEach(createdTime -> {
+            partitioningRepository.createPartitionIfNotExists(TABLE_NAME, createdTime, partitionDurationMs);
+        });
+        jdbcTemplate.batchUpdate(INSERT_QUERY, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                AuditLog auditLog = auditLogs.get(i);
+                ps.setObject(1, auditLog.getUuidId());
+                ps.setLong(2, auditLog.getCreatedTime());
+                ps.setObject(3, auditLog.getTenantId() != null ? auditLog.getTenantId().getId() : null, Types.OTHER);
+                ps.setObject(4, auditLog.getCustomerId() != null ? auditLog.getCustomerId().getId() : null, Types.OTHER);
+                ps.setObject(5, auditLog.getEntityId() != null ? auditLog.getEntityId().getId() : null, Types.OTHER);
+                ps.setString(6, auditLog.getEntityId() != null ? auditLog.getEntityId().getEntityType().name() : null);
+                ps.setString(7, auditLog.getEntityName());
+                ps.setObject(8, auditLog.getUserId() != null ? auditLog.getUserId().getId() : null, Types.OTHER);
+                ps.setString(9, auditLog.getUserName());
+                ps.setString(10, auditLog.getActionType() != null ? auditLog.getActionType().name() : null);
+                ps.setString(11, auditLog.getActionData() != null ? JacksonUtil.toString(auditLog.getActionData()) : null);
+                ps.setString(12, auditLog.getActionStatus() != null ? auditLog.getActionStatus().name() : null);
+                ps.setString(13, auditLog.getActionFailureDetails());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return auditLogs.size();
+            }
+        });
+        return auditLogs;
+    }
+
     @Override
     public void createPartition(AuditLogEntity entity) {
         partitioningRepository.createPartitionIfNotExists(TABLE_NAME, entity.getCreatedTime(), TimeUnit.HOURS.toMillis(partitionSizeInHours));
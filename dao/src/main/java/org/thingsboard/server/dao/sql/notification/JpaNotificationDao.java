@@ -15,11 +15,15 @@
  */
 package org.thingsboard.server.dao.sql.notification;
 
+import com.datastax.oss.driver.api.core.uuid.Uuids;
 import lombok.RequiredArgsConstructor;
 import org.apache.commons.collections4.CollectionUtils;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.thingsboard.common.util.JacksonUtil;
 import org.thingsboard.server.common.data.EntityType;
 import org.thingsboard.server.common.data.id.NotificationId;
 import org.thingsboard.server.common.data.id.NotificationRequestId;
@@ -39,6 +43,10 @@ import org.thingsboard.server.dao.sql.JpaPartitionedAbstractDao;
 import org.thingsboard.server.dao.sqlts.insert.sql.SqlPartitioningRepository;
 import org.thingsboard.server.dao.util.SqlDao;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
@@ -51,9 +59,51 @@ public class JpaNotificationDao extends JpaPartitionedAbstractDao<NotificationEn
     private final NotificationRepository notificationRepository;
     private final SqlPartitioningRepository partitioningRepository;
 
+    private static final String INSERT_QUERY = "INSERT INTO " + ModelConstants.NOTIFICATION_TABLE_NAME +
+            " (id, created_time, request_id, recipient_id, type, delivery_method, subject, body, additional_config, status) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     @Value("${sql.notifications.partition_size:168}")
     private int partitionSizeInHours;
 
+    @Override
+    @Transactional
+    public List<Notification> saveAll(TenantId tenantId, List<Notification> notifications) {
+        for (Notification notification : notifications) {
+            if (notification.getId() == null) {
+                UUID uuid = Uuids.timeBased();
+                notification.setId(new NotificationId(uuid));
+                notification.setCreatedTime(Uuids.unixTimestamp(uuid));
+            }
+        }
+        long partitionDurationMs = TimeUnit.HOURS.toMillis(partitionSizeInHours);
+        notifications.stream().map(Notification::getCreatedTime).distinct().forEach(createdTime -> {
+            partitioningRepository.createPartitionIfNotExists(ModelConstants.NOTIFICATION_TABLE_NAME, createdTime, partitionDurationMs);
+        });
+        jdbcTemplate.batchUpdate(INSERT_QUERY, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Notification notification = notifications.get(i);
+                ps.setObject(1, notification.getUuidId());
+                ps.setLong(2, notification.getCreatedTime());
+                ps.setObject(3, notification.getRequestId() != null ? notification.getRequestId().getId() : null, Types.OTHER);
+                ps.setObject(4, notification.getRecipientId().getId());
+                ps.setString(5, notification.getType().name());
+                ps.setString(6, notification.getDeliveryMethod().name());
+                ps.setString(7, notification.getSubject());
+                ps.setString(8, notification.getText());
+                ps.setString(9, notification.getAdditionalConfig() != null ? JacksonUtil.toString(notification.getAdditionalConfig()) : null);
+                ps.setString(10, notification.getStatus() != null ? notification.getStatus().name() : null);
+            }
+
+            @Override
+            public int getBatchSize() {
+                return notifications.size();
+            }
+        });
+        return notifications;
+    }
+
     @Override
     public PageData<Notification> findUnreadByDeliveryMethodAndRecipientIdAndPageLink(TenantId tenantId, NotificationDeliveryMethod deliveryMethod, UserId recipientId, PageLink pageLink) {
         return DaoUtil.toPageData(notificationRepository.findByDeliveryMethodAndRecipientIdAndStatusNot(deliveryMethod,
@@ -49,6 +49,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @SuppressWarnings("UnstableApiUsage")
 @Slf4j
@@ -106,6 +107,15 @@ public abstract class AbstractChunkedAggregationTimeseriesDao extends AbstractSq
         });
     }
 
+    @Override
+    public ListenableFuture<Void> removeAll(TenantId tenantId, EntityId entityId, List<String> keys, long startTs, long endTs) {
+        return service.submit(() -> {
+            List<Integer> keyIds = keys.stream().map(keyDictionaryDao::getOrSaveKeyId).collect(Collectors.toList());
+            tsKvRepository.deleteAll(entityId.getId(), keyIds, startTs, endTs);
+            return null;
+        });
+    }
+
     @Override
     public ListenableFuture<Integer> savePartition(TenantId tenantId, EntityId entityId, long tsKvEntryTs, String key) {
         return Futures.immediateFuture(null);
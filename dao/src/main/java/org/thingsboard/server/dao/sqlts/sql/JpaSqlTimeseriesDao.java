@@ -22,6 +22,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.hibernate.exception.ConstraintViolationException;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Component;
 import org.thingsboard.server.common.data.id.EntityId;
@@ -44,6 +45,7 @@ import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.ConcurrentHashMap;
@@ -68,6 +70,14 @@ public class JpaSqlTimeseriesDao extends AbstractChunkedAggregationTimeseriesDao
     @Value("${sql.postgres.ts_key_value_partitioning:MONTHS}")
     private String partitioning;
 
+    @Value("${sql.ttl.ts.drop_partitions_by_max_ttl:false}")
+    private boolean dropPartitionsByMaxTtl;
+
+    private static final String TS_KV_PARTITION_PREFIX = SqlPartition.TS_KV + "_";
+    private static final String SELECT_MAX_TTL = "SELECT CASE WHEN bool_or(long_v = 0) THEN 0 ELSE max(long_v) END FROM attribute_kv " +
+            "WHERE attribute_key = (SELECT key_id FROM key_dictionary WHERE key = 'TTL') AND entity_id IN (SELECT id FROM tenant UNION ALL SELECT id FROM customer)";
+    private static final String SELECT_PARTITIONS = "SELECT c.relname, pg_total_relation_size(c.oid) FROM pg_inherits i " +
+            "JOIN pg_class c ON c.oid = i.inhrelid WHERE i.inhparent = 'ts_kv'::regclass";
 
     @Override
     protected void init() {
@@ -103,9 +113,77 @@ public class JpaSqlTimeseriesDao extends AbstractChunkedAggregationTimeseriesDao
     @Override
     public void cleanup(long systemTtl) {
         if (systemTtl > 0) {
-            cleanupPartitions(systemTtl);
+            if (dropPartitionsByMaxTtl) {
+                dropPartitionsByMaxTtl(systemTtl);
+            } else {
+                cleanupPartitions(systemTtl);
+            }
         }
+        long startTs = System.currentTimeMillis();
         super.cleanup(systemTtl);
+        log.info("Timeseries cleanup by TTL took {} ms", System.currentTimeMillis() - startTs);
+    }
+
+    /*
+     * Unlike drop_partitions_by_system_ttl, takes into account the TTL attributes of the tenants and customers:
+     * only the partitions that are entirely older than the max TTL are dropped, the rest is removed row by row.
+     * */
+    void dropPartitionsByMaxTtl(long systemTtl) {
+        if (tsFormat == SqlTsPartitionDate.INDEFINITE) {
+            return;
+        }
+        long startTs = System.currentTimeMillis();
+        Long attributesMaxTtl = jdbcTemplate.queryForObject(SELECT_MAX_TTL, Long.class);
+        if (attributesMaxTtl != null && attributesMaxTtl == 0) {
+            log.info("Skipping drop of the timeseries partitions since some tenants or customers have infinite TTL");
+            return;
+        }
+        long maxTtl = attributesMaxTtl != null ? Math.max(systemTtl, attributesMaxTtl) : systemTtl;
+        long expirationTs = startTs - TimeUnit.SECONDS.toMillis(maxTtl);
+        log.info("Going to drop timeseries data partitions using partition type: {} and max ttl: {}s", partitioning, maxTtl);
+
+        int dropped = 0;
+        long reclaimedBytes = 0;
+        List<TsPartitionInfo> tsPartitions = jdbcTemplate.query(SELECT_PARTITIONS, (rs, rowNum) -> new TsPartitionInfo(rs.getString(1), rs.getLong(2)));
+        for (TsPartitionInfo partition : tsPartitions) {
+            LocalDateTime partitionStart = parsePartitionStart(partition.name());
+            if (partitionStart == null) {
+                continue;
+            }
+            long partitionEndTs = toMills(tsFormat.plusTo(partitionStart));
+            if (partitionEndTs > expirationTs) {
+                continue;
+            }
+            try {
+                jdbcTemplate.execute("DROP TABLE IF EXISTS " + partition.name());
+                partitions.remove(toMills(partitionStart));
+                dropped++;
+                reclaimedBytes += partition.size();
+                log.debug("Dropped expired timeseries partition {} ({} bytes)", partition.name(), partition.size());
+            } catch (DataAccessException e) {
+                log.error("Failed to drop expired timeseries partition {}", partition.name(), e);
+            }
+        }
+        log.info("Total partitions removed by max TTL: [{}], reclaimed {} bytes in {} ms", dropped, reclaimedBytes, System.currentTimeMillis() - startTs);
+    }
+
+    LocalDateTime parsePartitionStart(String partitionName) {
+        if (!partitionName.startsWith(TS_KV_PARTITION_PREFIX)) {
+            return null;
+        }
+        String[] parts = partitionName.substring(TS_KV_PARTITION_PREFIX.length()).split("_");
+        if (parts.length != tsFormat.getPattern().split("_").length) {
+            return null;
+        }
+        try {
+            int year = Integer.parseInt(parts[0]);
+            int month = parts.length > 1 ? Integer.parseInt(parts[1]) : 1;
+            int day = parts.length > 2 ? Integer.parseInt(parts[2]) : 1;
+            return LocalDateTime.of(year, month, day, 0, 0);
+        } catch (RuntimeException e) {
+            log.debug("Failed to parse timeseries partition name: {}", partitionName);
+            return null;
+        }
     }
 
     private void cleanupPartitions(long systemTtl) {
@@ -167,4 +245,6 @@ public class JpaSqlTimeseriesDao extends AbstractChunkedAggregationTimeseriesDao
     private static long toMills(LocalDateTime time) {
         return time.toInstant(ZoneOffset.UTC).toEpochMilli();
     }
+
+    private record TsPartitionInfo(String name, long size) {}
 }
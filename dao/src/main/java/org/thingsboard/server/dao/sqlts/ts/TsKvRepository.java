@@ -53,6 +53,15 @@ public interface TsKvRepository extends JpaRepository<TsKvEntity, TsKvCompositeK
                 @Param("startTs") long startTs,
                 @Param("endTs") long endTs);
 
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM TsKvEntity tskv WHERE tskv.entityId = :entityId " +
+            "AND tskv.key IN :entityKeys AND tskv.ts >= :startTs AND tskv.ts < :endTs")
+    void deleteAll(@Param("entityId") UUID entityId,
+                   @Param("entityKeys") List<Integer> keys,
+                   @Param("startTs") long startTs,
+                   @Param("endTs") long endTs);
+
     @Query("SELECT new TsKvEntity(MAX(tskv.strValue), MAX(tskv.ts)) FROM TsKvEntity tskv " +
             "WHERE tskv.strValue IS NOT NULL " +
             "AND tskv.entityId = :entityId AND tskv.key = :entityKey AND tskv.ts >= :startTs AND tskv.ts < :endTs")
@@ -80,7 +80,7 @@ public abstract class AbstractCassandraBaseTimeseriesDao extends CassandraAbstra
         return entries;
     }
 
-    private TsKvEntry convertResultToTsKvEntry(Row row) {
+    protected TsKvEntry convertResultToTsKvEntry(Row row) {
         String key = row.getString(ModelConstants.KEY_COLUMN);
         long ts = row.getLong(ModelConstants.TS_COLUMN);
         return new BasicTsKvEntry(ts, toKvEntry(row, key));
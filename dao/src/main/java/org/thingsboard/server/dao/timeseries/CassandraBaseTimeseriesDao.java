@@ -16,13 +16,17 @@
 package org.thingsboard.server.dao.timeseries;
 
 import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.BoundStatementBuilder;
+import com.datastax.oss.driver.api.core.cql.DefaultBatchType;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
 import com.datastax.oss.driver.api.querybuilder.QueryBuilder;
 import com.datastax.oss.driver.api.querybuilder.select.Select;
 import com.google.common.base.Function;
+import com.google.common.collect.Lists;
 import com.google.common.util.concurrent.AsyncFunction;
 import com.google.common.util.concurrent.FutureCallback;
 import com.google.common.util.concurrent.Futures;
@@ -62,10 +66,16 @@ import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Queue;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
@@ -122,6 +132,15 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
     @Value("${cassandra.query.set_null_values_enabled}")
     private boolean setNullValuesEnabled;
 
+    @Value("${cassandra.query.ts_key_value_partitions_read_window:1}")
+    private int partitionsReadWindow;
+
+    @Value("${cassandra.query.ts_key_value_batch.enabled:false}")
+    private boolean batchEnabled;
+
+    @Value("${cassandra.query.ts_key_value_batch.max_size:20}")
+    private int batchMaxSize;
+
     private NoSqlTsPartitionDate tsFormat;
 
     private PreparedStatement partitionInsertStmt;
@@ -173,7 +192,37 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
     public ListenableFuture<Integer> save(TenantId tenantId, EntityId entityId, TsKvEntry tsKvEntry, long ttl) {
         List<ListenableFuture<Void>> futures = new ArrayList<>();
         ttl = computeTtl(ttl);
-        int dataPointDays = tsKvEntry.getDataPoints() * Math.max(1, (int) (ttl / SECONDS_IN_DAY));
+        int dataPointDays = getDataPointDays(tsKvEntry, ttl);
+        BoundStatement stmt = bindSaveStmt(entityId, tsKvEntry, ttl);
+        futures.add(getFuture(executeAsyncWrite(tenantId, stmt), rs -> null));
+        return Futures.transform(Futures.allAsList(futures), result -> dataPointDays, MoreExecutors.directExecutor());
+    }
+
+    @Override
+    public ListenableFuture<Integer> saveAll(TenantId tenantId, EntityId entityId, List<TsKvEntry> tsKvEntries, long ttl) {
+        if (!batchEnabled || tsKvEntries.size() < 2) {
+            return TimeseriesDao.super.saveAll(tenantId, entityId, tsKvEntries, ttl);
+        }
+        long computedTtl = computeTtl(ttl);
+        int dataPointDays = 0;
+        // entries of the same key and partition share the ts_kv partition key, so they are written by the same replicas
+        Map<CassandraPartitionCacheKey, List<BoundStatement>> stmtsByPartition = new LinkedHashMap<>();
+        for (TsKvEntry tsKvEntry : tsKvEntries) {
+            dataPointDays += getDataPointDays(tsKvEntry, computedTtl);
+            CassandraPartitionCacheKey partitionKey = new CassandraPartitionCacheKey(entityId, tsKvEntry.getKey(), toPartitionTs(tsKvEntry.getTs()));
+            stmtsByPartition.computeIfAbsent(partitionKey, k -> new ArrayList<>()).add(bindSaveStmt(entityId, tsKvEntry, computedTtl));
+        }
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (List<BoundStatement> stmts : stmtsByPartition.values()) {
+            for (List<BoundStatement> batch : Lists.partition(stmts, batchMaxSize)) {
+                futures.add(executeAsyncWriteBatch(tenantId, batch));
+            }
+        }
+        int result = dataPointDays;
+        return Futures.transform(Futures.allAsList(futures), r -> result, MoreExecutors.directExecutor());
+    }
+
+    private BoundStatement bindSaveStmt(EntityId entityId, TsKvEntry tsKvEntry, long ttl) {
         long partition = toPartitionTs(tsKvEntry.getTs());
         String entityType = entityId.getEntityType().name();
         UUID entityIdId = entityId.getId();
@@ -206,9 +255,7 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
                 stmtBuilder.setInt(6, (int) ttl);
             }
         }
-        BoundStatement stmt = stmtBuilder.build();
-        futures.add(getFuture(executeAsyncWrite(tenantId, stmt), rs -> null));
-        return Futures.transform(Futures.allAsList(futures), result -> dataPointDays, MoreExecutors.directExecutor());
+        return stmtBuilder.build();
     }
 
     @Override
@@ -235,6 +282,55 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
         }
     }
 
+    @Override
+    public ListenableFuture<Integer> savePartitions(TenantId tenantId, EntityId entityId, List<TsKvEntry> tsKvEntries) {
+        if (isFixedPartitioning()) {
+            return Futures.immediateFuture(null);
+        }
+        if (!batchEnabled || tsKvEntries.size() < 2) {
+            return TimeseriesDao.super.savePartitions(tenantId, entityId, tsKvEntries);
+        }
+        long ttl = computeTtl(0);
+        // ts_kv_partitions_cf is partitioned by the entity and key, so all partitions of the key are inserted with one batch
+        Map<String, Set<CassandraPartitionCacheKey>> partitionsByKey = new LinkedHashMap<>();
+        for (TsKvEntry tsKvEntry : tsKvEntries) {
+            CassandraPartitionCacheKey partitionKey = new CassandraPartitionCacheKey(entityId, tsKvEntry.getKey(), toPartitionTs(tsKvEntry.getTs()));
+            if (cassandraTsPartitionsCache == null || !cassandraTsPartitionsCache.has(partitionKey)) {
+                partitionsByKey.computeIfAbsent(partitionKey.getKey(), k -> new LinkedHashSet<>()).add(partitionKey);
+            }
+        }
+        if (partitionsByKey.isEmpty()) {
+            return Futures.immediateFuture(0);
+        }
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (Set<CassandraPartitionCacheKey> partitionKeys : partitionsByKey.values()) {
+            for (List<CassandraPartitionCacheKey> batchKeys : Lists.partition(new ArrayList<>(partitionKeys), batchMaxSize)) {
+                List<BoundStatement> batch = new ArrayList<>(batchKeys.size());
+                for (CassandraPartitionCacheKey partitionKey : batchKeys) {
+                    log.debug("Saving partition {} for the entity [{}-{}] and key {}", partitionKey.getPartition(), entityId.getEntityType(), entityId.getId(), partitionKey.getKey());
+                    batch.add(bindPartitionInsertStmt(entityId, partitionKey.getKey(), ttl, partitionKey.getPartition()));
+                }
+                ListenableFuture<Void> future = executeAsyncWriteBatch(tenantId, batch);
+                if (cassandraTsPartitionsCache != null) {
+                    batchKeys.forEach(partitionKey -> Futures.addCallback(future, new CacheCallback<>(partitionKey), MoreExecutors.directExecutor()));
+                }
+                futures.add(future);
+            }
+        }
+        return Futures.transform(Futures.allAsList(futures), r -> 0, MoreExecutors.directExecutor());
+    }
+
+    private ListenableFuture<Void> executeAsyncWriteBatch(TenantId tenantId, List<BoundStatement> stmts) {
+        Statement<?> stmt;
+        if (stmts.size() == 1) {
+            stmt = stmts.get(0);
+        } else {
+            // the batch targets a single partition, so it is routed by the token of its first statement and does not need the batch log
+            stmt = BatchStatement.newInstance(DefaultBatchType.UNLOGGED, stmts.toArray(new BoundStatement[0]));
+        }
+        return getFuture(executeAsyncWrite(tenantId, stmt), rs -> null);
+    }
+
     @Override
     public ListenableFuture<Void> remove(TenantId tenantId, EntityId entityId, DeleteTsKvQuery query) {
         long minPartition = toPartitionTs(query.getStartTs());
@@ -266,6 +362,8 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
         } else {
             long startPeriod = query.getStartTs();
             long endPeriod = Math.max(query.getStartTs() + 1, query.getEndTs());
+            // the partitions are fetched once for the whole query instead of once per aggregation interval
+            ListenableFuture<List<Long>> partitionsFuture = getPartitionsFuture(tenantId, query, entityId, toPartitionTs(startPeriod), toPartitionTs(endPeriod));
             List<ListenableFuture<Optional<TsKvEntryAggWrapper>>> futures = new ArrayList<>();
             var intervalType = aggParams.getIntervalType();
             while (startPeriod < endPeriod) {
@@ -278,7 +376,7 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
                 }
                 endTs = Math.min(endTs, endPeriod);
                 ReadTsKvQuery subQuery = new BaseReadTsKvQuery(query.getKey(), startTs, endTs, endTs - startTs, 1, query.getAggregation(), query.getOrder());
-                futures.add(findAndAggregateAsync(tenantId, entityId, subQuery, toPartitionTs(startTs), toPartitionTs(endTs)));
+                futures.add(findAndAggregateAsync(tenantId, entityId, subQuery, partitionsFuture, toPartitionTs(startTs), toPartitionTs(endTs)));
                 startPeriod = endTs;
             }
             ListenableFuture<List<Optional<TsKvEntryAggWrapper>>> future = Futures.allAsList(futures);
@@ -321,12 +419,13 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
             @Override
             public void onSuccess(@Nullable List<Long> partitions) {
                 TsKvQueryCursor cursor = new TsKvQueryCursor(entityId.getEntityType().name(), entityId.getId(), query, partitions);
-                findAllAsyncSequentiallyWithLimit(tenantId, cursor, resultFuture);
+                findAllAsyncWithLimit(tenantId, cursor, new ArrayDeque<>(), resultFuture);
             }
 
             @Override
             public void onFailure(Throwable t) {
                 log.error("[{}][{}] Failed to fetch partitions for interval {}-{}", entityId.getEntityType().name(), entityId.getId(), toPartitionTs(query.getStartTs()), toPartitionTs(query.getEndTs()), t);
+                resultFuture.setException(t);
             }
         }, readResultsProcessingExecutor);
 
@@ -344,63 +443,70 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
         return tsFormat.truncatedTo(time).toInstant(ZoneOffset.UTC).toEpochMilli();
     }
 
-    private void findAllAsyncSequentiallyWithLimit(TenantId tenantId, final TsKvQueryCursor cursor, final SimpleListenableFuture<List<TsKvEntry>> resultFuture) {
-        if (cursor.isFull() || !cursor.hasNextPartition()) {
+    /**
+     * Reads up to {@link #partitionsReadWindow} partitions concurrently. The results are added to the cursor in the partitions order,
+     * so the next partitions are not requested once the cursor is full.
+     */
+    private void findAllAsyncWithLimit(TenantId tenantId, TsKvQueryCursor cursor, Queue<ListenableFuture<List<TsKvEntry>>> inFlight,
+                                       SimpleListenableFuture<List<TsKvEntry>> resultFuture) {
+        while (!cursor.isFull() && cursor.hasNextPartition() && inFlight.size() < Math.max(1, partitionsReadWindow)) {
+            inFlight.add(fetchPartitionAsync(tenantId, cursor, cursor.getNextPartition()));
+        }
+        if (cursor.isFull() || inFlight.isEmpty()) {
+            inFlight.forEach(future -> future.cancel(false));
             resultFuture.set(cursor.getData());
-        } else {
-            PreparedStatement proto = getFetchStmt(Aggregation.NONE, cursor.getOrderBy());
-            BoundStatementBuilder stmtBuilder = new BoundStatementBuilder(proto.bind());
-
-            stmtBuilder.setString(0, cursor.getEntityType());
-            stmtBuilder.setUuid(1, cursor.getEntityId());
-            stmtBuilder.setString(2, cursor.getKey());
-            stmtBuilder.setLong(3, cursor.getNextPartition());
-            stmtBuilder.setLong(4, cursor.getStartTs());
-            stmtBuilder.setLong(5, cursor.getEndTs());
-            stmtBuilder.setInt(6, cursor.getCurrentLimit());
-
-            BoundStatement stmt = stmtBuilder.build();
-
-            Futures.addCallback(executeAsyncRead(tenantId, stmt), new FutureCallback<TbResultSet>() {
-                @Override
-                public void onSuccess(@Nullable TbResultSet result) {
-                    if (result == null) {
-                        cursor.addData(convertResultToTsKvEntryList(Collections.emptyList()));
-                        findAllAsyncSequentiallyWithLimit(tenantId, cursor, resultFuture);
-                    } else {
-                        Futures.addCallback(result.allRows(readResultsProcessingExecutor), new FutureCallback<List<Row>>() {
+            return;
+        }
+        Futures.addCallback(inFlight.poll(), new FutureCallback<>() {
+            @Override
+            public void onSuccess(List<TsKvEntry> entries) {
+                cursor.addData(entries);
+                findAllAsyncWithLimit(tenantId, cursor, inFlight, resultFuture);
+            }
 
-                            @Override
-                            public void onSuccess(@Nullable List<Row> result) {
-                                cursor.addData(convertResultToTsKvEntryList(result == null ? Collections.emptyList() : result));
-                                findAllAsyncSequentiallyWithLimit(tenantId, cursor, resultFuture);
-                            }
+            @Override
+            public void onFailure(Throwable t) {
+                log.error("[{}][{}] Failed to fetch data for key {}", cursor.getEntityType(), cursor.getEntityId(), cursor.getKey(), t);
+                inFlight.forEach(future -> future.cancel(false));
+                resultFuture.setException(t);
+            }
+        }, readResultsProcessingExecutor);
+    }
 
-                            @Override
-                            public void onFailure(Throwable t) {
-                                log.error("[{}][{}] Failed to fetch data for query {}-{}", stmt, t);
-                            }
-                        }, readResultsProcessingExecutor);
+    ListenableFuture<List<TsKvEntry>> fetchPartitionAsync(TenantId tenantId, TsKvQueryCursor cursor, long partition) {
+        PreparedStatement proto = getFetchStmt(Aggregation.NONE, cursor.getOrderBy());
+        BoundStatementBuilder stmtBuilder = new BoundStatementBuilder(proto.bind());
 
+        stmtBuilder.setString(0, cursor.getEntityType());
+        stmtBuilder.setUuid(1, cursor.getEntityId());
+        stmtBuilder.setString(2, cursor.getKey());
+        stmtBuilder.setLong(3, partition);
+        stmtBuilder.setLong(4, cursor.getStartTs());
+        stmtBuilder.setLong(5, cursor.getEndTs());
+        stmtBuilder.setInt(6, cursor.getCurrentLimit());
 
-                    }
-                }
+        BoundStatement stmt = stmtBuilder.build();
 
-                @Override
-                public void onFailure(Throwable t) {
-                    log.error("[{}][{}] Failed to fetch data for query {}-{}", stmt, t);
-                }
-            }, readResultsProcessingExecutor);
-        }
+        return Futures.transformAsync(executeAsyncRead(tenantId, stmt), result -> {
+            if (result == null) {
+                return Futures.immediateFuture(Collections.emptyList());
+            }
+            // the rows are converted page by page, so the raw rows of the previous pages are not retained
+            return result.allRows(readResultsProcessingExecutor, this::convertResultToTsKvEntry);
+        }, readResultsProcessingExecutor);
     }
 
-    private ListenableFuture<Optional<TsKvEntryAggWrapper>> findAndAggregateAsync(TenantId tenantId, EntityId entityId, ReadTsKvQuery query, long minPartition, long maxPartition) {
+    private ListenableFuture<Optional<TsKvEntryAggWrapper>> findAndAggregateAsync(TenantId tenantId, EntityId entityId, ReadTsKvQuery query,
+                                                                                  ListenableFuture<List<Long>> queryPartitionsFuture, long minPartition, long maxPartition) {
         final Aggregation aggregation = query.getAggregation();
         final String key = query.getKey();
         final long startTs = query.getStartTs();
         final long endTs = query.getEndTs();
         final long ts = startTs + (endTs - startTs) / 2;
-        ListenableFuture<List<Long>> partitionsListFuture = getPartitionsFuture(tenantId, query, entityId, minPartition, maxPartition);
+        ListenableFuture<List<Long>> partitionsListFuture = isFixedPartitioning() ? queryPartitionsFuture :
+                Futures.transform(queryPartitionsFuture, partitions -> partitions.stream()
+                        .filter(partition -> partition >= minPartition && partition <= maxPartition)
+                        .collect(Collectors.toList()), MoreExecutors.directExecutor());
         ListenableFuture<List<TbResultSet>> aggregationChunks = Futures.transformAsync(partitionsListFuture,
                 getFetchChunksAsyncFunction(tenantId, entityId, key, aggregation, startTs, endTs), readResultsProcessingExecutor);
 
@@ -482,6 +588,10 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
 
     private ListenableFuture<Integer> doSavePartition(TenantId tenantId, EntityId entityId, String key, long ttl, long partition) {
         log.debug("Saving partition {} for the entity [{}-{}] and key {}", partition, entityId.getEntityType(), entityId.getId(), key);
+        return getFuture(executeAsyncWrite(tenantId, bindPartitionInsertStmt(entityId, key, ttl, partition)), rs -> 0);
+    }
+
+    private BoundStatement bindPartitionInsertStmt(EntityId entityId, String key, long ttl, long partition) {
         PreparedStatement preparedStatement = ttl == 0 ? getPartitionInsertStmt() : getPartitionInsertTtlStmt();
         BoundStatement stmt = preparedStatement.bind();
         stmt = stmt.setString(0, entityId.getEntityType().name())
@@ -491,7 +601,7 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
         if (ttl > 0) {
             stmt = stmt.setInt(4, (int) ttl);
         }
-        return getFuture(executeAsyncWrite(tenantId, stmt), rs -> 0);
+        return stmt;
     }
 
     private class CacheCallback<Void> implements FutureCallback<Void> {
@@ -512,6 +622,10 @@ public class CassandraBaseTimeseriesDao extends AbstractCassandraBaseTimeseriesD
         }
     }
 
+    private int getDataPointDays(TsKvEntry tsKvEntry, long ttl) {
+        return tsKvEntry.getDataPoints() * Math.max(1, (int) (ttl / SECONDS_IN_DAY));
+    }
+
     private long computeTtl(long ttl) {
         if (systemTtl > 0) {
             if (ttl == 0) {
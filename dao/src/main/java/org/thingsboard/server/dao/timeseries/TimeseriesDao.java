@@ -15,14 +15,18 @@
  */
 package org.thingsboard.server.dao.timeseries;
 
+import com.google.common.util.concurrent.Futures;
 import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
 import org.thingsboard.server.common.data.id.EntityId;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.BaseDeleteTsKvQuery;
 import org.thingsboard.server.common.data.kv.DeleteTsKvQuery;
 import org.thingsboard.server.common.data.kv.ReadTsKvQuery;
 import org.thingsboard.server.common.data.kv.ReadTsKvQueryResult;
 import org.thingsboard.server.common.data.kv.TsKvEntry;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -36,7 +40,41 @@ public interface TimeseriesDao {
 
     ListenableFuture<Integer> savePartition(TenantId tenantId, EntityId entityId, long tsKvEntryTs, String key);
 
+    /**
+     * Saves the entries of the entity, implementations may group the entries that share the storage partition.
+     */
+    default ListenableFuture<Integer> saveAll(TenantId tenantId, EntityId entityId, List<TsKvEntry> tsKvEntries, long ttl) {
+        List<ListenableFuture<Integer>> futures = new ArrayList<>(tsKvEntries.size());
+        for (TsKvEntry tsKvEntry : tsKvEntries) {
+            futures.add(save(tenantId, entityId, tsKvEntry, ttl));
+        }
+        return Futures.transform(Futures.allAsList(futures), BaseTimeseriesService.SUM_ALL_INTEGERS, MoreExecutors.directExecutor());
+    }
+
+    /**
+     * Saves the partitions of the entries, implementations may skip the duplicates and group the partitions of the same key.
+     */
+    default ListenableFuture<Integer> savePartitions(TenantId tenantId, EntityId entityId, List<TsKvEntry> tsKvEntries) {
+        List<ListenableFuture<Integer>> futures = new ArrayList<>(tsKvEntries.size());
+        for (TsKvEntry tsKvEntry : tsKvEntries) {
+            futures.add(savePartition(tenantId, entityId, tsKvEntry.getTs(), tsKvEntry.getKey()));
+        }
+        return Futures.transform(Futures.allAsList(futures), BaseTimeseriesService.SUM_ALL_INTEGERS, MoreExecutors.directExecutor());
+    }
+
     ListenableFuture<Void> remove(TenantId tenantId, EntityId entityId, DeleteTsKvQuery query);
 
+    /**
+     * Removes the history of the multiple keys within the same time range.
+     * The default implementation removes each key separately
+     */
+    default ListenableFuture<Void> removeAll(TenantId tenantId, EntityId entityId, List<String> keys, long startTs, long endTs) {
+        List<ListenableFuture<Void>> futures = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            futures.add(remove(tenantId, entityId, new BaseDeleteTsKvQuery(key, startTs, endTs)));
+        }
+        return Futures.transform(Futures.allAsList(futures), v -> null, MoreExecutors.directExecutor());
+    }
+
     void cleanup(long systemTtl);
 }
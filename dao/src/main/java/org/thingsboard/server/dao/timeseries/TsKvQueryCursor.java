@@ -71,6 +71,10 @@ public class TsKvQueryCursor extends QueryCursor {
     }
 
     public void addData(List<TsKvEntry> newData) {
+        if (newData.size() > currentLimit) {
+            // partitions that are read concurrently may return more entries than the remaining limit
+            newData = newData.subList(0, Math.max(currentLimit, 0));
+        }
         currentLimit -= newData.size();
         data.addAll(newData);
     }
@@ -44,15 +44,14 @@ import org.thingsboard.server.dao.nosql.CassandraStatementTask;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
+import java.util.stream.Collectors;
 
 /**
  * Created by ashvayka on 24.10.18.
@@ -61,10 +60,11 @@ import java.util.regex.Matcher;
 public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extends ListenableFuture<V>, V> implements BufferedRateExecutor<T, F> {
 
     public static final String CONCURRENCY_LEVEL = "currBuffer";
+    private static final int MAX_PRINTED_BACKLOGGED_TENANTS = 10;
 
     private final long maxWaitTime;
     private final long pollMs;
-    private final BlockingQueue<AsyncTaskContext<T, V>> queue;
+    private final TenantFairTaskQueue<AsyncTaskContext<T, V>> queue;
     private final ExecutorService dispatcherExecutor;
     private final ExecutorService callbackExecutor;
     private final ScheduledExecutorService timeoutExecutor;
@@ -84,12 +84,13 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
 
     public AbstractBufferedRateExecutor(int queueLimit, int concurrencyLimit, long maxWaitTime, int dispatcherThreads,
                                         int callbackThreads, long pollMs, int printQueriesFreq, StatsFactory statsFactory,
-                                        EntityService entityService, RateLimitService rateLimitService, boolean printTenantNames) {
+                                        EntityService entityService, RateLimitService rateLimitService, boolean printTenantNames,
+                                        int tenantQueueQuantum, int maxTenantQueueSize) {
         this.maxWaitTime = maxWaitTime;
         this.pollMs = pollMs;
         this.concurrencyLimit = concurrencyLimit;
         this.printQueriesFreq = printQueriesFreq;
-        this.queue = new LinkedBlockingDeque<>(queueLimit);
+        this.queue = new TenantFairTaskQueue<>(queueLimit, maxTenantQueueSize, tenantQueueQuantum);
         this.dispatcherExecutor = Executors.newFixedThreadPool(dispatcherThreads, ThingsBoardThreadFactory.forName("nosql-" + getBufferName() + "-dispatcher"));
         this.callbackExecutor = ThingsBoardExecutors.newWorkStealingPool(callbackThreads, "nosql-" + getBufferName() + "-callback");
         this.timeoutExecutor = Executors.newSingleThreadScheduledExecutor(ThingsBoardThreadFactory.forName("nosql-" + getBufferName() + "-timeout"));
@@ -127,7 +128,8 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
         if (!perTenantLimitReached) {
             try {
                 stats.getTotalAdded().increment();
-                queue.add(new AsyncTaskContext<>(UUID.randomUUID(), task, settableFuture, System.currentTimeMillis()));
+                TenantId queueTenantId = getQueueTenantId(tenantId);
+                queue.add(queueTenantId, new AsyncTaskContext<>(UUID.randomUUID(), task, settableFuture, System.currentTimeMillis()));
             } catch (IllegalStateException e) {
                 stats.getTotalRejected().increment();
                 settableFuture.setException(e);
@@ -165,6 +167,7 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
                 if (curLvl <= concurrencyLimit) {
                     taskCtx = queue.take();
                     final AsyncTaskContext<T, V> finalTaskCtx = taskCtx;
+                    stats.recordWaitTime(getQueueTenantId(taskCtx.getTask().getTenantId()), System.currentTimeMillis() - taskCtx.getCreateTime());
                     if (printQueriesFreq > 0) {
                         if (printQueriesIdx.incrementAndGet() >= printQueriesFreq) {
                             printQueriesIdx.set(0);
@@ -225,6 +228,10 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
         log.info("[{}] Buffered rate executor thread stopped", getBufferName());
     }
 
+    private static TenantId getQueueTenantId(TenantId tenantId) {
+        return tenantId != null ? tenantId : TenantId.SYS_TENANT_ID;
+    }
+
     private void logTask(String action, AsyncTaskContext<T, V> taskCtx) {
         if (log.isTraceEnabled()) {
             if (taskCtx.getTask() instanceof CassandraStatementTask) {
@@ -282,6 +289,8 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
         int rateLimitedTenantsCount = (int) stats.getRateLimitedTenants().values().stream()
                 .filter(defaultCounter -> defaultCounter.get() > 0)
                 .count();
+        Map<TenantId, Integer> tenantQueueSizes = queue.getTenantSizes();
+        int backloggedTenantsCount = tenantQueueSizes.size();
 
         if (queueSize > 0
                 || rateLimitedTenantsCount > 0
@@ -295,6 +304,7 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
                 statsBuilder.append(counter.getName()).append(" = [").append(counter.get()).append("] ");
             });
             statsBuilder.append("totalRateLimitedTenants").append(" = [").append(rateLimitedTenantsCount).append("] ");
+            statsBuilder.append("backloggedTenants").append(" = [").append(backloggedTenantsCount).append("] ");
             statsBuilder.append(CONCURRENCY_LEVEL).append(" = [").append(concurrencyLevel.get()).append("] ");
 
             stats.getStatsCounters().forEach(StatsCounter::clear);
@@ -309,19 +319,36 @@ public abstract class AbstractBufferedRateExecutor<T extends AsyncTask, F extend
                     int rateLimitedRequests = counter.get();
                     counter.clear();
                     if (printTenantNames) {
-                        String name = tenantNamesCache.computeIfAbsent(tenantId, tId -> {
-                            String defaultName = "N/A";
-                            try {
-                                return entityService.fetchEntityName(TenantId.SYS_TENANT_ID, tenantId).orElse(defaultName);
-                            } catch (Exception e) {
-                                log.error("[{}][{}] Failed to get tenant name", getBufferName(), tenantId, e);
-                                return defaultName;
-                            }
-                        });
-                        log.info("[{}][{}][{}] Rate limited requests: {}", getBufferName(), tenantId, name, rateLimitedRequests);
+                        log.info("[{}][{}][{}] Rate limited requests: {}", getBufferName(), tenantId, getTenantName(tenantId), rateLimitedRequests);
                     } else {
                         log.info("[{}][{}] Rate limited requests: {}", getBufferName(), tenantId, rateLimitedRequests);
                     }
                 });
+
+        if (backloggedTenantsCount > 0) {
+            String topTenants = tenantQueueSizes.entrySet().stream()
+                    .sorted(Map.Entry.<TenantId, Integer>comparingByValue().reversed())
+                    .limit(MAX_PRINTED_BACKLOGGED_TENANTS)
+                    .map(entry -> {
+                        TenantId tenantId = entry.getKey();
+                        String tenant = printTenantNames ? tenantId + "][" + getTenantName(tenantId) : tenantId.toString();
+                        return String.format("[%s] queued: %d, avg wait time: %.1f ms", tenant, entry.getValue(), stats.getAvgWaitTime(tenantId));
+                    })
+                    .collect(Collectors.joining(", "));
+            log.info("[{}] Backlogged tenants: {}, top by queued requests: {}", getBufferName(), backloggedTenantsCount, topTenants);
+        }
+        stats.resetWaitTime();
+    }
+
+    private String getTenantName(TenantId tenantId) {
+        return tenantNamesCache.computeIfAbsent(tenantId, tId -> {
+            String defaultName = "N/A";
+            try {
+                return entityService.fetchEntityName(TenantId.SYS_TENANT_ID, tenantId).orElse(defaultName);
+            } catch (Exception e) {
+                log.error("[{}][{}] Failed to get tenant name", getBufferName(), tenantId, e);
+                return defaultName;
+            }
+        });
     }
 }
@@ -15,6 +15,7 @@
  */
 package org.thingsboard.server.dao.util;
 
+import io.micrometer.core.instrument.Timer;
 import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
 import org.thingsboard.server.common.data.id.TenantId;
@@ -27,6 +28,8 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 
 @Slf4j
 @Getter
@@ -45,6 +48,9 @@ public class BufferedRateExecutorStats {
     private final StatsFactory statsFactory;
 
     private final ConcurrentMap<TenantId, DefaultCounter> rateLimitedTenants = new ConcurrentHashMap<>();
+    // wait time of the tenants since the last print of the stats, cleared on every print so idle tenants are not kept
+    private final ConcurrentMap<TenantId, TenantWaitStats> tenantWaitStats = new ConcurrentHashMap<>();
+    private final Timer waitTimer;
 
     private final List<StatsCounter> statsCounters = new ArrayList<>();
 
@@ -68,6 +74,7 @@ public class BufferedRateExecutorStats {
         this.totalExpired = statsFactory.createStatsCounter(key, TOTAL_EXPIRED);
         this.totalRejected = statsFactory.createStatsCounter(key, TOTAL_REJECTED);
         this.totalRateLimited = statsFactory.createStatsCounter(key, TOTAL_RATE_LIMITED);
+        this.waitTimer = statsFactory.createTimer(key + ".waitTime");
 
         this.statsCounters.add(totalAdded);
         this.statsCounters.add(totalLaunched);
@@ -78,6 +85,25 @@ public class BufferedRateExecutorStats {
         this.statsCounters.add(totalRateLimited);
     }
 
+    public void recordWaitTime(TenantId tenantId, long timeMs) {
+        if (waitTimer != null) {
+            waitTimer.record(timeMs, TimeUnit.MILLISECONDS);
+        }
+        tenantWaitStats.computeIfAbsent(tenantId, tId -> new TenantWaitStats()).record(timeMs);
+    }
+
+    /**
+     * @return average wait time of the tenant tasks since the last reset
+     */
+    public double getAvgWaitTime(TenantId tenantId) {
+        TenantWaitStats waitStats = tenantWaitStats.get(tenantId);
+        return waitStats != null ? waitStats.getAvgWaitTime() : 0.0;
+    }
+
+    public void resetWaitTime() {
+        tenantWaitStats.clear();
+    }
+
     public void incrementRateLimitedTenant(TenantId tenantId){
         rateLimitedTenants.computeIfAbsent(tenantId,
                 tId -> {
@@ -87,4 +113,21 @@ public class BufferedRateExecutorStats {
         )
                 .increment();
     }
+
+    private static class TenantWaitStats {
+
+        private final LongAdder waitCount = new LongAdder();
+        private final LongAdder waitTimeMs = new LongAdder();
+
+        void record(long timeMs) {
+            waitCount.increment();
+            waitTimeMs.add(timeMs);
+        }
+
+        double getAvgWaitTime() {
+            long count = waitCount.sum();
+            return count > 0 ? (double) waitTimeMs.sum() / count : 0.0;
+        }
+
+    }
 }
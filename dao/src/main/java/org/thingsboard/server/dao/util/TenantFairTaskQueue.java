@@ -0,0 +1,162 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.util;
+
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded queue with the sub-queue per tenant. The tasks are taken with the deficit round robin between the tenants
+ * that have pending tasks: each tenant takes up to {@code quantum} tasks in a row before the turn passes to the next tenant,
+ * so the tenant with a huge backlog does not delay the tasks of other tenants. The tasks of the same tenant are taken in FIFO order.
+ * <p>
+ * The sub-queue of the tenant is bounded as well, so the tenant with a huge backlog does not take the whole capacity:
+ * by {@code maxTenantSize} if set, otherwise by the fair share of the capacity between the tenants that have pending tasks.
+ */
+class TenantFairTaskQueue<E> {
+
+    private final int capacity;
+    private final int maxTenantSize;
+    private final int quantum;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notEmpty = lock.newCondition();
+    private final Map<TenantId, TenantQueue<E>> tenantQueues = new HashMap<>();
+    private final ArrayDeque<TenantQueue<E>> activeQueues = new ArrayDeque<>();
+    private int size;
+
+    TenantFairTaskQueue(int capacity, int quantum) {
+        this(capacity, 0, quantum);
+    }
+
+    /**
+     * @param maxTenantSize max number of the pending tasks of the tenant, 0 - the fair share of the capacity
+     */
+    TenantFairTaskQueue(int capacity, int maxTenantSize, int quantum) {
+        this.capacity = capacity;
+        this.maxTenantSize = maxTenantSize > 0 ? Math.min(maxTenantSize, capacity) : 0;
+        this.quantum = Math.max(1, quantum);
+    }
+
+    /**
+     * @throws IllegalStateException if the queue or the queue of the tenant is full
+     */
+    void add(TenantId tenantId, E element) {
+        lock.lock();
+        try {
+            if (size >= capacity) {
+                throw new IllegalStateException("Queue full");
+            }
+            TenantQueue<E> tenantQueue = tenantQueues.get(tenantId);
+            if (tenantQueue != null && tenantQueue.tasks.size() >= getMaxTenantSize()) {
+                throw new IllegalStateException("Tenant queue full");
+            }
+            if (tenantQueue == null) {
+                tenantQueue = new TenantQueue<>(tenantId);
+                tenantQueues.put(tenantId, tenantQueue);
+            }
+            if (tenantQueue.tasks.isEmpty()) {
+                tenantQueue.deficit = quantum;
+                activeQueues.addLast(tenantQueue);
+            }
+            tenantQueue.tasks.addLast(element);
+            size++;
+            notEmpty.signal();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int getMaxTenantSize() {
+        if (maxTenantSize > 0) {
+            return maxTenantSize;
+        }
+        return Math.max(1, capacity / Math.max(1, activeQueues.size()));
+    }
+
+    E take() throws InterruptedException {
+        lock.lockInterruptibly();
+        try {
+            while (size == 0) {
+                notEmpty.await();
+            }
+            TenantQueue<E> tenantQueue = activeQueues.peekFirst();
+            E element = tenantQueue.tasks.pollFirst();
+            size--;
+            if (tenantQueue.tasks.isEmpty()) {
+                activeQueues.pollFirst();
+                tenantQueues.remove(tenantQueue.tenantId);
+            } else if (--tenantQueue.deficit <= 0) {
+                tenantQueue.deficit = quantum;
+                activeQueues.addLast(activeQueues.pollFirst());
+            }
+            return element;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int size(TenantId tenantId) {
+        lock.lock();
+        try {
+            TenantQueue<E> tenantQueue = tenantQueues.get(tenantId);
+            return tenantQueue != null ? tenantQueue.tasks.size() : 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return number of the pending tasks per tenant that has pending tasks
+     */
+    Map<TenantId, Integer> getTenantSizes() {
+        lock.lock();
+        try {
+            Map<TenantId, Integer> sizes = new HashMap<>(activeQueues.size());
+            activeQueues.forEach(tenantQueue -> sizes.put(tenantQueue.tenantId, tenantQueue.tasks.size()));
+            return sizes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static class TenantQueue<E> {
+
+        private final TenantId tenantId;
+        private final ArrayDeque<E> tasks = new ArrayDeque<>();
+        private int deficit;
+
+        private TenantQueue(TenantId tenantId) {
+            this.tenantId = tenantId;
+        }
+
+    }
+
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.audit.sink;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.google.common.util.concurrent.MoreExecutors;
+import org.apache.http.util.EntityUtils;
+import org.elasticsearch.client.Request;
+import org.elasticsearch.client.RestClient;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.server.common.data.audit.ActionStatus;
+import org.thingsboard.server.common.data.audit.ActionType;
+import org.thingsboard.server.common.data.audit.AuditLog;
+import org.thingsboard.server.common.data.id.AuditLogId;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.UserId;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class ElasticsearchAuditLogSinkTest {
+
+    private ElasticsearchAuditLogSink sink;
+    private RestClient restClient;
+
+    @BeforeEach
+    public void setUp() {
+        sink = new ElasticsearchAuditLogSink();
+        restClient = mock(RestClient.class);
+        ReflectionTestUtils.setField(sink, "indexPattern", "@{TENANT}_AUDIT_LOG");
+        ReflectionTestUtils.setField(sink, "restClient", restClient);
+        ReflectionTestUtils.setField(sink, "executor", MoreExecutors.newDirectExecutorService());
+    }
+
+    @Test
+    public void testLogActionsSendsSingleBulkRequest() throws Exception {
+        TenantId firstTenantId = TenantId.fromUUID(UUID.randomUUID());
+        TenantId secondTenantId = TenantId.fromUUID(UUID.randomUUID());
+        AuditLog first = createAuditLog(firstTenantId, ActionType.ADDED);
+        AuditLog second = createAuditLog(secondTenantId, ActionType.DELETED);
+
+        sink.logActions(List.of(first, second));
+
+        ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request.class);
+        verify(restClient).performRequestAsync(requestCaptor.capture(), any());
+        Request request = requestCaptor.getValue();
+        assertThat(request.getMethod()).isEqualTo("POST");
+        assertThat(request.getEndpoint()).isEqualTo("/_bulk");
+        assertThat(request.getEntity().getContentType().getValue()).startsWith("application/x-ndjson");
+
+        String body = EntityUtils.toString(request.getEntity());
+        assertThat(body).endsWith("\n");
+        List<JsonNode> lines = body.lines().map(JacksonUtil::toJsonNode).toList();
+        assertThat(lines).hasSize(4);
+
+        checkBulkAction(lines.get(0), firstTenantId);
+        checkRecord(lines.get(1), first);
+        checkBulkAction(lines.get(2), secondTenantId);
+        checkRecord(lines.get(3), second);
+    }
+
+    @Test
+    public void testLogActionsWithSingleEntrySendsIndexRequest() {
+        TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+
+        sink.logActions(List.of(createAuditLog(tenantId, ActionType.ADDED)));
+
+        ArgumentCaptor<Request> requestCaptor = ArgumentCaptor.forClass(Request.class);
+        verify(restClient).performRequestAsync(requestCaptor.capture(), any());
+        assertThat(requestCaptor.getValue().getEndpoint()).isEqualTo("/" + tenantId.getId() + "_audit_log/audit_log");
+    }
+
+    private void checkBulkAction(JsonNode actionNode, TenantId tenantId) {
+        assertThat(actionNode.size()).isEqualTo(1);
+        JsonNode indexNode = actionNode.get("index");
+        assertThat(indexNode.get("_index").asText()).isEqualTo(tenantId.getId() + "_audit_log");
+        assertThat(indexNode.get("_type").asText()).isEqualTo("audit_log");
+    }
+
+    private void checkRecord(JsonNode recordNode, AuditLog auditLog) {
+        assertThat(recordNode.get("id").asText()).isEqualTo(auditLog.getId().getId().toString());
+        assertThat(recordNode.get("tenantId").asText()).isEqualTo(auditLog.getTenantId().getId().toString());
+        assertThat(recordNode.get("entityId").asText()).isEqualTo(auditLog.getEntityId().getId().toString());
+        assertThat(recordNode.get("entityType").asText()).isEqualTo("DEVICE");
+        assertThat(recordNode.get("actionType").asText()).isEqualTo(auditLog.getActionType().name());
+        assertThat(recordNode.get("actionStatus").asText()).isEqualTo("SUCCESS");
+    }
+
+    private AuditLog createAuditLog(TenantId tenantId, ActionType actionType) {
+        AuditLog auditLog = new AuditLog(new AuditLogId(UUID.randomUUID()));
+        auditLog.setTenantId(tenantId);
+        auditLog.setEntityId(new DeviceId(UUID.randomUUID()));
+        auditLog.setEntityName("Device");
+        auditLog.setUserId(new UserId(UUID.randomUUID()));
+        auditLog.setUserName("tenant@thingsboard.org");
+        auditLog.setActionType(actionType);
+        auditLog.setActionStatus(ActionStatus.SUCCESS);
+        return auditLog;
+    }
+
+}
@@ -16,6 +16,7 @@
 package org.thingsboard.server.dao.nosql;
 
 import com.datastax.oss.driver.api.core.ConsistencyLevel;
+import com.datastax.oss.driver.api.core.cql.BatchStatement;
 import com.datastax.oss.driver.api.core.cql.BoundStatement;
 import com.datastax.oss.driver.api.core.cql.PreparedStatement;
 import com.datastax.oss.driver.api.core.cql.Statement;
@@ -30,11 +31,19 @@ import org.mockito.junit.MockitoJUnitRunner;
 import org.springframework.core.env.Environment;
 import org.springframework.test.util.ReflectionTestUtils;
 import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
 import org.thingsboard.server.dao.cassandra.CassandraCluster;
 import org.thingsboard.server.dao.cassandra.guava.GuavaSession;
 import org.thingsboard.server.dao.timeseries.CassandraBaseTimeseriesDao;
 
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
@@ -73,6 +82,7 @@ public class CassandraPartitionsCacheTest {
         ReflectionTestUtils.setField(cassandraBaseTimeseriesDao, "systemTtl", 0);
         ReflectionTestUtils.setField(cassandraBaseTimeseriesDao, "setNullValuesEnabled", false);
         ReflectionTestUtils.setField(cassandraBaseTimeseriesDao, "environment", environment);
+        ReflectionTestUtils.setField(cassandraBaseTimeseriesDao, "threadPoolSize", 1);
         ReflectionTestUtils.setField(cassandraBaseTimeseriesDao, "cluster", cluster);
 
         when(cluster.getDefaultReadConsistencyLevel()).thenReturn(ConsistencyLevel.ONE);
@@ -108,4 +118,30 @@ public class CassandraPartitionsCacheTest {
         verify(cassandraBaseTimeseriesDao, times(60000)).executeAsyncWrite(any(TenantId.class), any(Statement.class));
     }
 
+    @Test
+    public void testPartitionsSaveWithBatches() throws Exception {
+        ReflectionTestUtils.setField(cassandraBaseTimeseriesDao, "batchEnabled", true);
+        ReflectionTestUtils.setField(cassandraBaseTimeseriesDao, "batchMaxSize", 2);
+        cassandraBaseTimeseriesDao.init();
+
+        TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+        long ts = LocalDate.of(2024, 1, 15).atStartOfDay(ZoneOffset.UTC).toInstant().toEpochMilli();
+        long monthMs = TimeUnit.DAYS.toMillis(31);
+        List<TsKvEntry> entries = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            // the same partition of the key is saved once
+            entries.add(new BasicTsKvEntry(ts + i * monthMs, new LongDataEntry("test1", 1L)));
+            entries.add(new BasicTsKvEntry(ts + i * monthMs + 1, new LongDataEntry("test1", 2L)));
+        }
+        entries.add(new BasicTsKvEntry(ts, new LongDataEntry("test2", 3L)));
+
+        cassandraBaseTimeseriesDao.savePartitions(tenantId, tenantId, entries);
+        // 3 partitions of the first key are split into 2 batches, the partition of the second key is a single statement
+        verify(cassandraBaseTimeseriesDao, times(1)).executeAsyncWrite(any(TenantId.class), any(BatchStatement.class));
+        verify(cassandraBaseTimeseriesDao, times(2)).executeAsyncWrite(any(TenantId.class), any(BoundStatement.class));
+
+        cassandraBaseTimeseriesDao.savePartitions(tenantId, tenantId, entries);
+        verify(cassandraBaseTimeseriesDao, times(3)).executeAsyncWrite(any(TenantId.class), any(Statement.class));
+    }
+
 }
@@ -0,0 +1,99 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.nosql;
+
+import com.datastax.oss.driver.api.core.cql.AsyncResultSet;
+import com.datastax.oss.driver.api.core.cql.ExecutionInfo;
+import com.datastax.oss.driver.api.core.cql.Row;
+import com.datastax.oss.driver.api.core.cql.Statement;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+
+class TbResultSetTest {
+
+    @Test
+    void givenSeveralPages_whenAllRowsWithMapper_thenRowsOfAllPagesAreMappedInOrder() throws Exception {
+        Statement<?> firstPageStatement = mock(Statement.class);
+        Statement<?> secondPageStatement = mock(Statement.class);
+        ByteBuffer pagingState = ByteBuffer.allocate(1);
+        willReturn(secondPageStatement).given(firstPageStatement).setPagingState(pagingState);
+        AsyncResultSet secondPage = page(false, 3L);
+        List<Statement<?>> executedStatements = new ArrayList<>();
+        Function<Statement, TbResultSetFuture> executeAsyncFunction = statement -> {
+            executedStatements.add(statement);
+            SettableFuture<TbResultSet> future = SettableFuture.create();
+            future.set(new TbResultSet(statement, secondPage, null));
+            return new TbResultSetFuture(future);
+        };
+        AsyncResultSet firstPage = page(true, 1L, 2L);
+        ExecutionInfo executionInfo = mock(ExecutionInfo.class);
+        willReturn(pagingState).given(executionInfo).getPagingState();
+        willReturn(executionInfo).given(firstPage).getExecutionInfo();
+
+        TbResultSet resultSet = new TbResultSet(firstPageStatement, firstPage, executeAsyncFunction);
+        ListenableFuture<List<Long>> rows = resultSet.allRows(MoreExecutors.directExecutor(), row -> row.getLong(0));
+
+        assertThat(rows.get()).containsExactly(1L, 2L, 3L);
+        assertThat(executedStatements).containsExactly(secondPageStatement);
+    }
+
+    @Test
+    void givenNextPageFetchFails_whenAllRowsWithMapper_thenFutureFails() {
+        Statement<?> statement = mock(Statement.class);
+        willReturn(statement).given(statement).setPagingState(any(ByteBuffer.class));
+        RuntimeException error = new RuntimeException("Read timeout");
+        Function<Statement, TbResultSetFuture> executeAsyncFunction = nextStatement -> {
+            SettableFuture<TbResultSet> future = SettableFuture.create();
+            future.setException(error);
+            return new TbResultSetFuture(future);
+        };
+        AsyncResultSet firstPage = page(true, 1L);
+        willReturn(mock(ExecutionInfo.class)).given(firstPage).getExecutionInfo();
+
+        TbResultSet resultSet = new TbResultSet(statement, firstPage, executeAsyncFunction);
+        ListenableFuture<List<Long>> rows = resultSet.allRows(MoreExecutors.directExecutor(), row -> row.getLong(0));
+
+        assertThatThrownBy(rows::get).isInstanceOf(ExecutionException.class).hasCause(error);
+    }
+
+    private static AsyncResultSet page(boolean hasMorePages, long... values) {
+        List<Row> rows = new ArrayList<>();
+        for (long value : values) {
+            Row row = mock(Row.class);
+            willReturn(value).given(row).getLong(0);
+            rows.add(row);
+        }
+        AsyncResultSet page = mock(AsyncResultSet.class);
+        willReturn(rows).given(page).currentPage();
+        willReturn(hasMorePages).given(page).hasMorePages();
+        return page;
+    }
+
+}
@@ -0,0 +1,99 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.stats.MessagesStats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class TbSqlBlockingQueueTest {
+
+    private TbSqlBlockingQueue<Integer> queue;
+
+    @AfterEach
+    public void tearDown() {
+        if (queue != null) {
+            queue.destroy();
+        }
+    }
+
+    @Test
+    public void testElementsAreSavedInBatches() throws Exception {
+        List<List<Integer>> batches = new CopyOnWriteArrayList<>();
+        queue = createQueue(0);
+        List<ListenableFuture<Void>> futures = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            futures.add(queue.add(i));
+        }
+        queue.init(mock(ScheduledLogExecutorComponent.class), batches::add, Comparator.naturalOrder(), 0);
+
+        for (ListenableFuture<Void> future : futures) {
+            future.get(5, TimeUnit.SECONDS);
+        }
+        assertThat(batches).containsExactly(List.of(0, 1, 2, 3, 4), List.of(5, 6, 7, 8, 9));
+    }
+
+    @Test
+    public void testElementsAreRejectedWhenQueueIsFull() throws Exception {
+        MessagesStats stats = mock(MessagesStats.class);
+        queue = new TbSqlBlockingQueue<>(params(2), stats);
+        CountDownLatch saveLatch = new CountDownLatch(1);
+
+        ListenableFuture<Void> first = queue.add(1);
+        ListenableFuture<Void> second = queue.add(2);
+        ListenableFuture<Void> rejected = queue.add(3);
+        assertThat(rejected.isDone()).isTrue();
+        assertThatThrownBy(rejected::get).isInstanceOf(ExecutionException.class)
+                .hasCauseInstanceOf(IllegalStateException.class);
+        verify(stats).incrementFailed();
+
+        queue.init(mock(ScheduledLogExecutorComponent.class), batch -> saveLatch.countDown(), Comparator.naturalOrder(), 0);
+        assertThat(saveLatch.await(5, TimeUnit.SECONDS)).isTrue();
+        first.get(5, TimeUnit.SECONDS);
+        second.get(5, TimeUnit.SECONDS);
+    }
+
+    private TbSqlBlockingQueue<Integer> createQueue(int maxQueueSize) {
+        return new TbSqlBlockingQueue<>(params(maxQueueSize), mock(MessagesStats.class));
+    }
+
+    private static TbSqlBlockingQueueParams params(int maxQueueSize) {
+        return TbSqlBlockingQueueParams.builder()
+                .logName("Test")
+                .batchSize(5)
+                .maxDelay(10)
+                .maxQueueSize(maxQueueSize)
+                .statsPrintIntervalMs(1000)
+                .statsNamePrefix("test")
+                .batchSortEnabled(false)
+                .build();
+    }
+
+}
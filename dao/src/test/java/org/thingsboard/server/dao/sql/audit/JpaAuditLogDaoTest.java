@@ -20,6 +20,8 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.server.common.data.audit.ActionStatus;
 import org.thingsboard.server.common.data.audit.ActionType;
 import org.thingsboard.server.common.data.audit.AuditLog;
 import org.thingsboard.server.common.data.id.CustomerId;
@@ -140,6 +142,44 @@ public class JpaAuditLogDaoTest extends AbstractJpaDaoTest {
         checkFoundedAuditLogsList(foundedAuditLogs, 6);
     }
 
+    @Test
+    public void testSaveAll() {
+        UUID batchTenantId = Uuids.timeBased();
+        List<AuditLog> auditLogs = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            AuditLog auditLog = new AuditLog();
+            auditLog.setTenantId(TenantId.fromUUID(batchTenantId));
+            auditLog.setCustomerId(customerId1);
+            auditLog.setUserId(userId1);
+            auditLog.setEntityId(entityId1);
+            auditLog.setEntityName("DEVICE_" + i);
+            auditLog.setUserName("BATCH_AUDIT_LOG_" + i);
+            auditLog.setActionType(i % 2 == 0 ? ActionType.ADDED : ActionType.UPDATED);
+            auditLog.setActionData(JacksonUtil.newObjectNode().put("index", i));
+            auditLog.setActionStatus(ActionStatus.SUCCESS);
+            auditLogs.add(auditLog);
+        }
+
+        List<AuditLog> savedAuditLogs = auditLogDao.saveAll(TenantId.fromUUID(batchTenantId), auditLogs);
+        auditLogList.addAll(savedAuditLogs);
+
+        assertEquals(10, savedAuditLogs.stream().map(AuditLog::getId).distinct().count());
+        List<AuditLog> foundAuditLogs = auditLogDao.findAuditLogsByTenantId(batchTenantId,
+                List.of(ActionType.ADDED, ActionType.UPDATED),
+                new TimePageLink(20)).getData();
+        checkFoundedAuditLogsList(foundAuditLogs, 10);
+        for (AuditLog savedAuditLog : savedAuditLogs) {
+            AuditLog foundAuditLog = foundAuditLogs.stream()
+                    .filter(auditLog -> auditLog.getId().equals(savedAuditLog.getId()))
+                    .findFirst().orElse(null);
+            assertNotNull(foundAuditLog);
+            assertEquals(savedAuditLog, foundAuditLog);
+        }
+        checkFoundedAuditLogsList(auditLogDao.findAuditLogsByTenantId(batchTenantId,
+                List.of(ActionType.UPDATED),
+                new TimePageLink(20)).getData(), 5);
+    }
+
     private void checkFoundedAuditLogsList(List<AuditLog> foundedAuditLogs, int neededSizeForFoundedList) {
         assertNotNull(foundedAuditLogs);
         assertEquals(neededSizeForFoundedList, foundedAuditLogs.size());
@@ -0,0 +1,123 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sql.notification;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.After;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.thingsboard.common.util.JacksonUtil;
+import org.thingsboard.server.common.data.id.NotificationRequestId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.id.UserId;
+import org.thingsboard.server.common.data.notification.Notification;
+import org.thingsboard.server.common.data.notification.NotificationDeliveryMethod;
+import org.thingsboard.server.common.data.notification.NotificationStatus;
+import org.thingsboard.server.common.data.notification.NotificationType;
+import org.thingsboard.server.common.data.page.PageLink;
+import org.thingsboard.server.dao.AbstractJpaDaoTest;
+import org.thingsboard.server.dao.notification.NotificationDao;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class JpaNotificationDaoTest extends AbstractJpaDaoTest {
+
+    @Autowired
+    private NotificationDao notificationDao;
+
+    private final TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    private final UserId firstRecipientId = new UserId(UUID.randomUUID());
+    private final UserId secondRecipientId = new UserId(UUID.randomUUID());
+
+    @After
+    public void tearDown() {
+        notificationDao.deleteByRecipientId(tenantId, firstRecipientId);
+        notificationDao.deleteByRecipientId(tenantId, secondRecipientId);
+    }
+
+    @Test
+    public void testSaveAll() {
+        NotificationRequestId requestId = new NotificationRequestId(UUID.randomUUID());
+        List<Notification> notifications = IntStream.range(0, 10)
+                .mapToObj(i -> createNotification(requestId, i % 2 == 0 ? firstRecipientId : secondRecipientId, "Notification " + i))
+                .collect(Collectors.toList());
+
+        List<Notification> savedNotifications = notificationDao.saveAll(tenantId, notifications);
+
+        assertThat(savedNotifications).hasSize(10).allSatisfy(notification -> {
+            assertThat(notification.getId()).isNotNull();
+            assertThat(notification.getCreatedTime()).isPositive();
+        });
+        assertThat(savedNotifications).extracting(Notification::getId).doesNotHaveDuplicates();
+
+        List<Notification> firstRecipientNotifications = notificationDao.findByDeliveryMethodAndRecipientIdAndPageLink(tenantId,
+                NotificationDeliveryMethod.WEB, firstRecipientId, new PageLink(100)).getData();
+        assertThat(firstRecipientNotifications).hasSize(5);
+        assertThat(notificationDao.countUnreadByDeliveryMethodAndRecipientId(tenantId, NotificationDeliveryMethod.WEB, secondRecipientId)).isEqualTo(5);
+
+        Notification expected = savedNotifications.get(0);
+        Notification found = notificationDao.findById(tenantId, expected.getUuidId());
+        assertThat(found).isNotNull();
+        assertThat(found.getCreatedTime()).isEqualTo(expected.getCreatedTime());
+        assertThat(found.getRequestId()).isEqualTo(requestId);
+        assertThat(found.getRecipientId()).isEqualTo(firstRecipientId);
+        assertThat(found.getType()).isEqualTo(NotificationType.GENERAL);
+        assertThat(found.getDeliveryMethod()).isEqualTo(NotificationDeliveryMethod.WEB);
+        assertThat(found.getSubject()).isEqualTo("Subject");
+        assertThat(found.getText()).isEqualTo("Notification 0");
+        assertThat(found.getAdditionalConfig()).isEqualTo(expected.getAdditionalConfig());
+        assertThat(found.getStatus()).isEqualTo(NotificationStatus.SENT);
+    }
+
+    @Test
+    public void testSaveAllWithoutOptionalFields() {
+        Notification notification = createNotification(null, firstRecipientId, "Text");
+        notification.setSubject(null);
+        notification.setAdditionalConfig(null);
+        notification.setStatus(null);
+
+        notificationDao.saveAll(tenantId, List.of(notification));
+
+        Notification found = notificationDao.findById(tenantId, notification.getUuidId());
+        assertThat(found).isNotNull();
+        assertThat(found.getRequestId()).isNull();
+        assertThat(found.getSubject()).isNull();
+        assertThat(found.getAdditionalConfig()).isNull();
+        assertThat(found.getStatus()).isNull();
+        assertThat(found.getText()).isEqualTo("Text");
+    }
+
+    private Notification createNotification(NotificationRequestId requestId, UserId recipientId, String text) {
+        ObjectNode additionalConfig = JacksonUtil.newObjectNode();
+        additionalConfig.put("icon", "notifications");
+        return Notification.builder()
+                .requestId(requestId)
+                .recipientId(recipientId)
+                .type(NotificationType.GENERAL)
+                .deliveryMethod(NotificationDeliveryMethod.WEB)
+                .subject("Subject")
+                .text(text)
+                .additionalConfig(additionalConfig)
+                .status(NotificationStatus.SENT)
+                .build();
+    }
+
+}
@@ -0,0 +1,119 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.sqlts.sql;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.dao.timeseries.SqlTsPartitionDate;
+
+import java.sql.ResultSet;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class JpaSqlTimeseriesDaoTest {
+
+    private static final long DAY_SECONDS = 86400;
+
+    private JpaSqlTimeseriesDao tsDao;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    public void setUp() {
+        tsDao = new JpaSqlTimeseriesDao();
+        jdbcTemplate = mock(JdbcTemplate.class);
+        ReflectionTestUtils.setField(tsDao, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(tsDao, "tsFormat", SqlTsPartitionDate.MONTHS);
+        ReflectionTestUtils.setField(tsDao, "partitioning", "MONTHS");
+    }
+
+    @Test
+    public void testParsePartitionStart() {
+        assertThat(tsDao.parsePartitionStart("ts_kv_2023_05")).isEqualTo(LocalDateTime.of(2023, 5, 1, 0, 0));
+        assertThat(tsDao.parsePartitionStart("ts_kv_indefinite")).isNull();
+        assertThat(tsDao.parsePartitionStart("ts_kv_2023")).isNull();
+        assertThat(tsDao.parsePartitionStart("ts_kv_2023_05_01")).isNull();
+
+        ReflectionTestUtils.setField(tsDao, "tsFormat", SqlTsPartitionDate.DAYS);
+        assertThat(tsDao.parsePartitionStart("ts_kv_2023_05_17")).isEqualTo(LocalDateTime.of(2023, 5, 17, 0, 0));
+    }
+
+    @Test
+    public void testDropPartitionsOlderThanMaxTtl() {
+        LocalDateTime currentMonth = LocalDateTime.now(ZoneOffset.UTC).toLocalDate().withDayOfMonth(1).atStartOfDay();
+        willReturn(120 * DAY_SECONDS).given(jdbcTemplate).queryForObject(anyString(), eq(Long.class));
+        mockPartitions(Map.of(
+                partitionName(currentMonth.minusMonths(7)), 100L,
+                partitionName(currentMonth.minusMonths(6)), 200L,
+                partitionName(currentMonth.minusMonths(3)), 300L,
+                partitionName(currentMonth), 400L,
+                "ts_kv_indefinite", 500L));
+
+        tsDao.dropPartitionsByMaxTtl(30 * DAY_SECONDS);
+
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS " + partitionName(currentMonth.minusMonths(7)));
+        verify(jdbcTemplate).execute("DROP TABLE IF EXISTS " + partitionName(currentMonth.minusMonths(6)));
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS " + partitionName(currentMonth.minusMonths(3)));
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS " + partitionName(currentMonth));
+        verify(jdbcTemplate, never()).execute("DROP TABLE IF EXISTS ts_kv_indefinite");
+    }
+
+    @Test
+    public void testPartitionsAreNotDroppedWhenSomeTtlIsInfinite() {
+        willReturn(0L).given(jdbcTemplate).queryForObject(anyString(), eq(Long.class));
+
+        tsDao.dropPartitionsByMaxTtl(30 * DAY_SECONDS);
+
+        verify(jdbcTemplate, never()).query(anyString(), ArgumentMatchers.<RowMapper<Object>>any());
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+
+    private void mockPartitions(Map<String, Long> partitions) {
+        willAnswer(invocation -> {
+            RowMapper<Object> rowMapper = invocation.getArgument(1);
+            List<Object> result = new ArrayList<>();
+            int rowNum = 0;
+            for (Map.Entry<String, Long> partition : partitions.entrySet()) {
+                ResultSet rs = mock(ResultSet.class);
+                willReturn(partition.getKey()).given(rs).getString(1);
+                willReturn(partition.getValue()).given(rs).getLong(2);
+                result.add(rowMapper.mapRow(rs, rowNum++));
+            }
+            return result;
+        }).given(jdbcTemplate).query(anyString(), ArgumentMatchers.<RowMapper<Object>>any());
+    }
+
+    private static String partitionName(LocalDateTime partitionStart) {
+        return String.format("ts_kv_%d_%02d", partitionStart.getYear(), partitionStart.getMonthValue());
+    }
+
+}
@@ -0,0 +1,131 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.timeseries;
+
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.SettableFuture;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.thingsboard.server.common.data.id.DeviceId;
+import org.thingsboard.server.common.data.id.TenantId;
+import org.thingsboard.server.common.data.kv.BaseReadTsKvQuery;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.ReadTsKvQueryResult;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+
+class CassandraBaseTimeseriesDaoReadWindowTest {
+
+    private static final long PARTITION_MS = TimeUnit.MINUTES.toMillis(1);
+
+    TenantId tenantId = TenantId.fromUUID(UUID.randomUUID());
+    DeviceId deviceId = new DeviceId(UUID.randomUUID());
+    CassandraBaseTimeseriesDao tsDao;
+    Map<Long, SettableFuture<List<TsKvEntry>>> partitionReads = new ConcurrentHashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        tsDao = spy(CassandraBaseTimeseriesDao.class);
+        Environment environment = mock(Environment.class);
+        willReturn(true).given(environment).acceptsProfiles(any(Profiles.class));
+        ReflectionTestUtils.setField(tsDao, "environment", environment);
+        ReflectionTestUtils.setField(tsDao, "partitioning", "MINUTES");
+        ReflectionTestUtils.setField(tsDao, "useTsKeyValuePartitioningOnRead", false);
+        ReflectionTestUtils.setField(tsDao, "partitionsCacheSize", 0);
+        ReflectionTestUtils.setField(tsDao, "partitionsReadWindow", 2);
+        ReflectionTestUtils.setField(tsDao, "threadPoolSize", 1);
+        tsDao.init();
+        willAnswer(invocation -> partitionReads.computeIfAbsent(invocation.getArgument(2), partition -> SettableFuture.create()))
+                .given(tsDao).fetchPartitionAsync(any(), any(), anyLong());
+    }
+
+    @AfterEach
+    void tearDown() {
+        tsDao.stop();
+    }
+
+    @Test
+    void givenReadWindow_whenFindAll_thenReadPartitionsConcurrentlyAndAddInOrder() throws Exception {
+        ListenableFuture<ReadTsKvQueryResult> result = findAll(5, 4);
+
+        await().until(() -> partitionReads.size() == 2);
+        assertThat(partitionReads).containsOnlyKeys(0L, PARTITION_MS);
+
+        // the second partition is added only after the first one
+        partitionReads.get(PARTITION_MS).set(entries(PARTITION_MS, 1));
+        Thread.sleep(100);
+        assertThat(partitionReads).hasSize(2);
+        assertThat(result).isNotDone();
+
+        partitionReads.get(0L).set(entries(0, 1));
+        await().until(() -> partitionReads.size() == 4);
+        assertThat(partitionReads).containsKeys(2 * PARTITION_MS, 3 * PARTITION_MS);
+
+        // the limit is reached by the third partition, so the fourth one is cancelled and the fifth one is not requested
+        partitionReads.get(2 * PARTITION_MS).set(entries(2 * PARTITION_MS, 3));
+        List<TsKvEntry> data = result.get(10, TimeUnit.SECONDS).getData();
+        assertThat(data).extracting(TsKvEntry::getTs).containsExactly(0L, PARTITION_MS, 2 * PARTITION_MS, 2 * PARTITION_MS + 1);
+        assertThat(partitionReads.get(3 * PARTITION_MS)).isCancelled();
+        assertThat(partitionReads).doesNotContainKey(4 * PARTITION_MS);
+    }
+
+    @Test
+    void givenPartitionReadFails_whenFindAll_thenQueryFailsAndOtherReadsAreCancelled() {
+        ListenableFuture<ReadTsKvQueryResult> result = findAll(5, 100);
+
+        await().until(() -> partitionReads.size() == 2);
+        RuntimeException error = new RuntimeException("Read timeout");
+        partitionReads.get(0L).setException(error);
+
+        assertThatThrownBy(() -> result.get(10, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class).hasCause(error);
+        assertThat(partitionReads.get(PARTITION_MS)).isCancelled();
+        assertThat(partitionReads).hasSize(2);
+    }
+
+    private ListenableFuture<ReadTsKvQueryResult> findAll(int partitions, int limit) {
+        return tsDao.findAllAsync(tenantId, deviceId, new BaseReadTsKvQuery("temperature", 0, partitions * PARTITION_MS - 1,
+                limit, CassandraBaseTimeseriesDao.ASC_ORDER));
+    }
+
+    private static List<TsKvEntry> entries(long fromTs, int count) {
+        return LongStream.range(fromTs, fromTs + count)
+                .mapToObj(ts -> (TsKvEntry) new BasicTsKvEntry(ts, new LongDataEntry("temperature", ts)))
+                .toList();
+    }
+
+}
@@ -0,0 +1,56 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.timeseries;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.data.kv.BaseReadTsKvQuery;
+import org.thingsboard.server.common.data.kv.BasicTsKvEntry;
+import org.thingsboard.server.common.data.kv.LongDataEntry;
+import org.thingsboard.server.common.data.kv.TsKvEntry;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TsKvQueryCursorTest {
+
+    @Test
+    void givenEntriesOverRemainingLimit_whenAddData_thenTrimToLimit() {
+        TsKvQueryCursor cursor = new TsKvQueryCursor("DEVICE", UUID.randomUUID(),
+                new BaseReadTsKvQuery("temperature", 0, 1000, 5, CassandraBaseTimeseriesDao.ASC_ORDER), List.of(0L, 1L, 2L));
+
+        cursor.addData(entries(0, 3));
+        assertThat(cursor.getCurrentLimit()).isEqualTo(2);
+        assertThat(cursor.isFull()).isFalse();
+
+        cursor.addData(entries(3, 7));
+        assertThat(cursor.isFull()).isTrue();
+        assertThat(cursor.getData()).extracting(TsKvEntry::getTs).containsExactly(0L, 1L, 2L, 3L, 4L);
+
+        cursor.addData(entries(7, 8));
+        assertThat(cursor.getData()).hasSize(5);
+        assertThat(cursor.getCurrentLimit()).isZero();
+    }
+
+    private static List<TsKvEntry> entries(long fromTs, long toTs) {
+        return LongStream.range(fromTs, toTs)
+                .mapToObj(ts -> (TsKvEntry) new BasicTsKvEntry(ts, new LongDataEntry("temperature", ts)))
+                .toList();
+    }
+
+}
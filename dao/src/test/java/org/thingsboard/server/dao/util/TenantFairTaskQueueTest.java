@@ -0,0 +1,152 @@
+/**
+ * Copyright © 2016-2024 The Thingsboard Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.thingsboard.server.dao.util;
+
+import org.junit.jupiter.api.Test;
+import org.thingsboard.server.common.data.id.TenantId;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TenantFairTaskQueueTest {
+
+    private final TenantId tenantA = TenantId.fromUUID(UUID.randomUUID());
+    private final TenantId tenantB = TenantId.fromUUID(UUID.randomUUID());
+    private final TenantId tenantC = TenantId.fromUUID(UUID.randomUUID());
+
+    @Test
+    void testBackloggedTenantDoesNotStarveOtherTenants() throws Exception {
+        TenantFairTaskQueue<String> queue = new TenantFairTaskQueue<>(1000, 2);
+        for (int i = 0; i < 100; i++) {
+            queue.add(tenantA, "A" + i);
+        }
+        queue.add(tenantB, "B0");
+        queue.add(tenantB, "B1");
+        queue.add(tenantC, "C0");
+
+        List<String> taken = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            taken.add(queue.take());
+        }
+
+        assertThat(taken).containsExactly("A0", "A1", "B0", "B1", "C0", "A2", "A3", "A4");
+        assertThat(queue.size()).isEqualTo(95);
+        assertThat(queue.size(tenantA)).isEqualTo(95);
+        assertThat(queue.size(tenantB)).isZero();
+    }
+
+    @Test
+    void testTenantTasksAreTakenInOrder() throws Exception {
+        TenantFairTaskQueue<Integer> queue = new TenantFairTaskQueue<>(1000, 3);
+        for (int i = 0; i < 10; i++) {
+            queue.add(tenantA, i);
+            queue.add(tenantB, 100 + i);
+        }
+
+        List<Integer> tenantATasks = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            int task = queue.take();
+            if (task < 100) {
+                tenantATasks.add(task);
+            }
+        }
+
+        assertThat(tenantATasks).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(queue.size()).isZero();
+    }
+
+    @Test
+    void testTenantSizesContainOnlyBackloggedTenants() throws Exception {
+        TenantFairTaskQueue<String> queue = new TenantFairTaskQueue<>(1000, 1);
+        queue.add(tenantA, "A0");
+        queue.add(tenantA, "A1");
+        queue.add(tenantB, "B0");
+
+        assertThat(queue.getTenantSizes()).isEqualTo(Map.of(tenantA, 2, tenantB, 1));
+
+        queue.take();
+        queue.take();
+
+        assertThat(queue.getTenantSizes()).isEqualTo(Map.of(tenantA, 1));
+    }
+
+    @Test
+    void testCapacity() {
+        TenantFairTaskQueue<String> queue = new TenantFairTaskQueue<>(2, 1);
+        queue.add(tenantA, "A0");
+        queue.add(tenantB, "B0");
+
+        assertThatThrownBy(() -> queue.add(tenantC, "C0")).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void testFloodingTenantDoesNotCauseRejectionsForOtherTenant() {
+        TenantFairTaskQueue<String> queue = new TenantFairTaskQueue<>(10, 6, 1);
+        for (int i = 0; i < 6; i++) {
+            queue.add(tenantA, "A" + i);
+        }
+        for (int i = 6; i < 100; i++) {
+            String task = "A" + i;
+            assertThatThrownBy(() -> queue.add(tenantA, task)).isInstanceOf(IllegalStateException.class);
+        }
+        for (int i = 0; i < 4; i++) {
+            queue.add(tenantB, "B" + i);
+        }
+
+        assertThat(queue.getTenantSizes()).isEqualTo(Map.of(tenantA, 6, tenantB, 4));
+    }
+
+    @Test
+    void testTenantIsBoundedByFairShareOfCapacity() {
+        TenantFairTaskQueue<String> queue = new TenantFairTaskQueue<>(10, 1);
+        for (int i = 0; i < 3; i++) {
+            queue.add(tenantA, "A" + i);
+        }
+        queue.add(tenantB, "B0");
+        queue.add(tenantA, "A3");
+        queue.add(tenantA, "A4");
+
+        assertThatThrownBy(() -> queue.add(tenantA, "A5")).isInstanceOf(IllegalStateException.class);
+        for (int i = 1; i < 5; i++) {
+            queue.add(tenantB, "B" + i);
+        }
+        assertThat(queue.getTenantSizes()).isEqualTo(Map.of(tenantA, 5, tenantB, 5));
+    }
+
+    @Test
+    void testTakeWaitsForTask() throws Exception {
+        TenantFairTaskQueue<String> queue = new TenantFairTaskQueue<>(10, 1);
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
+            try {
+                return queue.take();
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        });
+
+        queue.add(tenantA, "A0");
+
+        assertThat(future.get(10, TimeUnit.SECONDS)).isEqualTo("A0");
+    }
+
+}
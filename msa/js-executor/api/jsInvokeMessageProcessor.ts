@@ -23,6 +23,8 @@ import { IQueue } from '../queue/queue.models';
 import {
     JsCompileRequest,
     JsCompileResponse,
+    JsInvokeBatchRequest,
+    JsInvokeBatchResponse,
     JsInvokeRequest,
     JsInvokeResponse,
     JsReleaseRequest,
@@ -96,6 +98,8 @@ export class JsInvokeMessageProcessor {
                 this.processCompileRequest(requestId, responseTopic, headers, request.compileRequest);
             } else if (request.invokeRequest) {
                 this.processInvokeRequest(requestId, responseTopic, headers, request.invokeRequest);
+            } else if (request.invokeBatchRequest) {
+                this.processInvokeBatchRequest(requestId, responseTopic, headers, request.invokeBatchRequest);
             } else if (request.releaseRequest) {
                 this.processReleaseRequest(requestId, responseTopic, headers, request.releaseRequest);
             } else {
@@ -172,47 +176,71 @@ export class JsInvokeMessageProcessor {
             this.logger.info('Current memory usage: %s', JSON.stringify(process.memoryUsage()));
         }
 
-        this.getOrCompileScript(scriptId, invokeRequest.scriptBody).then(
-            (script) => {
-                this.executor.executeScript(script, invokeRequest.args, invokeRequest.timeout).then(
-                    (result: string | undefined) => {
-                        if (!result || result.length <= maxResultSize) {
-                            const invokeResponse = JsInvokeMessageProcessor.createInvokeResponse(result, true);
-                            this.logger.debug('[%s] Sending success invoke response, scriptId: [%s]', requestId, scriptId);
-                            this.sendResponse(requestId, responseTopic, headers, scriptId, undefined, invokeResponse);
-                        } else {
-                            const err = {
-                                name: 'Error',
-                                message: 'script invocation result exceeds maximum allowed size of ' + maxResultSize + ' symbols'
+        this.executeInvokeRequest(requestId, scriptId, invokeRequest).then(
+            (invokeResponse) => {
+                this.sendResponse(requestId, responseTopic, headers, scriptId, undefined, invokeResponse);
+            }
+        );
+    }
+
+    processInvokeBatchRequest(requestId: string, responseTopic: string, headers: any, invokeBatchRequest: JsInvokeBatchRequest) {
+        const requests = invokeBatchRequest.requests || [];
+        this.logger.debug('[%s] Processing invoke batch request, size: [%s]', requestId, requests.length);
+        Promise.all(requests.map((invokeRequest) => {
+            const scriptId = JsInvokeMessageProcessor.getScriptId(invokeRequest);
+            this.executedScriptsCounter++;
+            return this.executeInvokeRequest(requestId, scriptId, invokeRequest);
+        })).then(
+            (invokeResponses) => {
+                const invokeBatchResponse: JsInvokeBatchResponse = {
+                    responses: invokeResponses
+                };
+                this.logger.debug('[%s] Sending invoke batch response, size: [%s]', requestId, invokeResponses.length);
+                this.sendResponse(requestId, responseTopic, headers, '', undefined, undefined, undefined, invokeBatchResponse);
+            }
+        );
+    }
+
+    executeInvokeRequest(requestId: string, scriptId: string, invokeRequest: JsInvokeRequest): Promise<JsInvokeResponse> {
+        return new Promise((resolve) => {
+            this.getOrCompileScript(scriptId, invokeRequest.scriptBody).then(
+                (script) => {
+                    this.executor.executeScript(script, invokeRequest.args, invokeRequest.timeout).then(
+                        (result: string | undefined) => {
+                            if (!result || result.length <= maxResultSize) {
+                                this.logger.debug('[%s] Sending success invoke response, scriptId: [%s]', requestId, scriptId);
+                                resolve(JsInvokeMessageProcessor.createInvokeResponse(result, true));
+                            } else {
+                                const err = {
+                                    name: 'Error',
+                                    message: 'script invocation result exceeds maximum allowed size of ' + maxResultSize + ' symbols'
+                                }
+                                this.logger.debug('[%s] Script invocation result exceeds maximum allowed size of %s symbols, scriptId: [%s]', requestId, maxResultSize, scriptId);
+                                resolve(JsInvokeMessageProcessor.createInvokeResponse("", false, RUNTIME_ERROR, err));
                             }
-                            const invokeResponse = JsInvokeMessageProcessor.createInvokeResponse("", false, RUNTIME_ERROR, err);
-                            this.logger.debug('[%s] Script invocation result exceeds maximum allowed size of %s symbols, scriptId: [%s]', requestId, maxResultSize, scriptId);
-                            this.sendResponse(requestId, responseTopic, headers, scriptId, undefined, invokeResponse);
-                        }
-                    },
-                    (err: any) => {
-                        let errorCode;
-                        if (err && isString(err.message) && err.message.includes('Script execution timed out')) {
-                            errorCode = TIMEOUT_ERROR;
-                        } else {
-                            errorCode = RUNTIME_ERROR;
+                        },
+                        (err: any) => {
+                            let errorCode;
+                            if (err && isString(err.message) && err.message.includes('Script execution timed out')) {
+                                errorCode = TIMEOUT_ERROR;
+                            } else {
+                                errorCode = RUNTIME_ERROR;
+                            }
+                            this.logger.debug('[%s] Sending failed invoke response, scriptId: [%s], errorCode: [%s]', requestId, scriptId, errorCode);
+                            resolve(JsInvokeMessageProcessor.createInvokeResponse("", false, errorCode, err));
                         }
-                        const invokeResponse = JsInvokeMessageProcessor.createInvokeResponse("", false, errorCode, err);
-                        this.logger.debug('[%s] Sending failed invoke response, scriptId: [%s], errorCode: [%s]', requestId, scriptId, errorCode);
-                        this.sendResponse(requestId, responseTopic, headers, scriptId, undefined, invokeResponse);
+                    )
+                },
+                (err: any) => {
+                    let errorCode = COMPILATION_ERROR;
+                    if (err?.name === 'script body not found') {
+                        errorCode = NOT_FOUND_ERROR;
                     }
-                )
-            },
-            (err: any) => {
-                let errorCode = COMPILATION_ERROR;
-                if (err?.name === 'script body not found') {
-                    errorCode = NOT_FOUND_ERROR;
+                    this.logger.debug('[%s] Sending failed invoke response, scriptId: [%s], errorCode: [%s]', requestId, scriptId, errorCode);
+                    resolve(JsInvokeMessageProcessor.createInvokeResponse("", false, errorCode, err));
                 }
-                const invokeResponse = JsInvokeMessageProcessor.createInvokeResponse("", false, errorCode, err);
-                this.logger.debug('[%s] Sending failed invoke response, scriptId: [%s], errorCode: [%s]', requestId, scriptId, errorCode);
-                this.sendResponse(requestId, responseTopic, headers, scriptId, undefined, invokeResponse);
-            }
-        );
+            );
+        });
     }
 
     processReleaseRequest(requestId: string, responseTopic: string, headers: any, releaseRequest: JsReleaseRequest) {
@@ -232,9 +260,10 @@ export class JsInvokeMessageProcessor {
     }
 
     sendResponse(requestId: string, responseTopic: string, headers: any, scriptId: string,
-                 compileResponse?: JsCompileResponse, invokeResponse?: JsInvokeResponse, releaseResponse?: JsReleaseResponse) {
+                 compileResponse?: JsCompileResponse, invokeResponse?: JsInvokeResponse, releaseResponse?: JsReleaseResponse,
+                 invokeBatchResponse?: JsInvokeBatchResponse) {
         const tStartSending = performance.now();
-        const remoteResponse = JsInvokeMessageProcessor.createRemoteResponse(requestId, compileResponse, invokeResponse, releaseResponse);
+        const remoteResponse = JsInvokeMessageProcessor.createRemoteResponse(requestId, compileResponse, invokeResponse, releaseResponse, invokeBatchResponse);
         const rawResponse = Buffer.from(JSON.stringify(remoteResponse), 'utf8');
         this.logger.debug('[%s] Sending response to queue, scriptId: [%s]', requestId, scriptId);
         this.producer.send(responseTopic, requestId, rawResponse, headers).then(
@@ -294,14 +323,16 @@ export class JsInvokeMessageProcessor {
     }
 
     private static createRemoteResponse(requestId: string, compileResponse?: JsCompileResponse,
-                                        invokeResponse?: JsInvokeResponse, releaseResponse?: JsReleaseResponse): RemoteJsResponse {
+                                        invokeResponse?: JsInvokeResponse, releaseResponse?: JsReleaseResponse,
+                                        invokeBatchResponse?: JsInvokeBatchResponse): RemoteJsResponse {
         const requestIdBits = UUIDToBits(requestId);
         return {
             requestIdMSB: requestIdBits[0],
             requestIdLSB: requestIdBits[1],
             compileResponse: compileResponse,
             invokeResponse: invokeResponse,
-            releaseResponse: releaseResponse
+            releaseResponse: releaseResponse,
+            invokeBatchResponse: invokeBatchResponse
         };
     }
 